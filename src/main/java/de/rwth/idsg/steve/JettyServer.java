@@ -30,6 +30,7 @@ import org.eclipse.jetty.server.SecureRequestCustomizer;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.server.SslConnectionFactory;
+import org.eclipse.jetty.util.VirtualThreads;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.eclipse.jetty.util.thread.ScheduledExecutorScheduler;
@@ -64,7 +65,6 @@ public class JettyServer {
     private SteveAppContext steveAppContext;
 
     private static final int MIN_THREADS = 4;
-    private static final int MAX_THREADS = 50;
 
     private static final long STOP_TIMEOUT = TimeUnit.SECONDS.toMillis(5);
     private static final long IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(1);
@@ -78,7 +78,16 @@ public class JettyServer {
         // Setup Threadpool
         QueuedThreadPool threadPool = new QueuedThreadPool();
         threadPool.setMinThreads(MIN_THREADS);
-        threadPool.setMaxThreads(MAX_THREADS);
+        threadPool.setMaxThreads(CONFIG.getJetty().getMaxThreads());
+
+        // Jetty keeps using the platform threads for its internals (selectors etc.) and runs blocking tasks, i.e.
+        // request handling, on virtual threads
+        if (CONFIG.getJetty().isVirtualThreadsEnabled()) {
+            threadPool.setVirtualThreadsExecutor(VirtualThreads.getDefaultVirtualThreadsExecutor());
+            log.info("Requests are handled on virtual threads");
+        } else if (CONFIG.getJetty().isVirtualThreadsRequested()) {
+            log.warn("Virtual threads are enabled in the configuration, but not supported by this JVM. Ignoring");
+        }
 
         // Server
         server = new Server(threadPool);
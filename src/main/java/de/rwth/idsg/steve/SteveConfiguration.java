@@ -18,14 +18,22 @@
  */
 package de.rwth.idsg.steve;
 
+import com.google.common.base.Splitter;
+import de.rwth.idsg.steve.ocpp.ws.TrafficLogLevel;
 import de.rwth.idsg.steve.ocpp.ws.custom.WsSessionSelectStrategy;
 import de.rwth.idsg.steve.ocpp.ws.custom.WsSessionSelectStrategyEnum;
 import de.rwth.idsg.steve.utils.PropertiesFileLoader;
 import lombok.Builder;
 import lombok.Getter;
+import org.eclipse.jetty.util.VirtualThreads;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * @author Sevket Goekay <sevketgokay@gmail.com>
  * @since 19.08.2014
@@ -42,6 +50,8 @@ public enum SteveConfiguration {
     private final String cxfMapping = "/services";
     // Mapping for Web APIs
     private final String apiMapping = "/api";
+    // Mapping for Prometheus scrapes
+    private final String metricsMapping = "/metrics";
     // Dummy service path
     private final String routerEndpointPath = "/CentralSystemService";
     // Time zone for the application and database connections
@@ -74,6 +84,8 @@ public enum SteveConfiguration {
         jetty = Jetty.builder()
                      .serverHost(p.getString("server.host"))
                      .gzipEnabled(p.getBoolean("server.gzip.enabled"))
+                     .maxThreads(useFallbackIfNotSet(p.getOptionalInt("server.threads.max"), 50))
+                     .virtualThreadsRequested(p.getOptionalBoolean("server.virtual-threads.enabled"))
                      .httpEnabled(p.getBoolean("http.enabled"))
                      .httpPort(p.getInt("http.port"))
                      .httpsEnabled(p.getBoolean("https.enabled"))
@@ -88,7 +100,19 @@ public enum SteveConfiguration {
                .schema(p.getString("db.schema"))
                .userName(p.getString("db.user"))
                .password(p.getString("db.password"))
+               .poolSize(useFallbackIfNotSet(p.getOptionalInt("db.pool.size"), 10))
                .sqlLogging(p.getBoolean("db.sql.logging"))
+               .meterValuesAsync(p.getOptionalBoolean("db.meter-values.async.enabled"))
+               .meterValuesBufferSize(useFallbackIfNotSet(p.getOptionalInt("db.meter-values.buffer.size"), 8192))
+               .meterValuesFlushSize(useFallbackIfNotSet(p.getOptionalInt("db.meter-values.flush.size"), 1000))
+               .meterValuesFlushLatencyInMillis(
+                       useFallbackIfNotSet(p.getOptionalInt("db.meter-values.flush.latency.ms"), 1000))
+               .meterValuesJournalDir(p.getOptionalString("db.meter-values.journal.dir"))
+               .meterValuesRetentionInMonths(
+                       useFallbackIfNotSet(p.getOptionalInt("db.retention.meter-values.months"), 0))
+               .connectorStatusRetentionInMonths(
+                       useFallbackIfNotSet(p.getOptionalInt("db.retention.connector-status.months"), 0))
+               .retentionArchive(p.getOptionalBoolean("db.retention.archive"))
                .build();
 
         PasswordEncoder encoder = new BCryptPasswordEncoder();
@@ -109,6 +133,35 @@ public enum SteveConfiguration {
                    .chargeBoxIdValidationRegex(p.getOptionalString("charge-box-id.validation.regex"))
                    .wsSessionSelectStrategy(
                            WsSessionSelectStrategyEnum.fromName(p.getString("ws.session.select.strategy")))
+                   .trafficLogLevel(TrafficLogLevel.valueOf(
+                           useFallbackIfNotSet(p.getOptionalString("ws.traffic-log.level"), "FULL")))
+                   .wsMailboxEnabled(Boolean.parseBoolean(
+                           useFallbackIfNotSet(p.getOptionalString("ws.mailbox.enabled"), "false")))
+                   .wsMailboxMaxDepth(useFallbackIfNotSet(p.getOptionalInt("ws.mailbox.max-depth"), 100))
+                   .wsMailboxConcurrency(useFallbackIfNotSet(p.getOptionalInt("ws.mailbox.concurrency"), 50))
+                   .wsPingIntervalInSeconds(useFallbackIfNotSet(p.getOptionalInt("ws.ping.interval.seconds"), 900))
+                   .wsPingMaxMissedPongs(useFallbackIfNotSet(p.getOptionalInt("ws.ping.max-missed-pongs"), 0))
+                   .wsHandshakeRatePerSecond(useFallbackIfNotSet(p.getOptionalInt("ws.handshake.rate.per-second"), 0))
+                   .wsHandshakeBurst(useFallbackIfNotSet(p.getOptionalInt("ws.handshake.burst"), 500))
+                   .bootPacingRatePerSecond(useFallbackIfNotSet(p.getOptionalInt("boot.pacing.rate.per-second"), 0))
+                   .heartbeatJitterPercent(
+                           useFallbackIfNotSet(p.getOptionalInt("heartbeat.interval.jitter.percent"), 0))
+                   .unknownChargeBoxCacheTtlInSeconds(
+                           useFallbackIfNotSet(p.getOptionalInt("unknown.charge-box.cache.ttl.seconds"), 60))
+                   .heartbeatFlushIntervalInSeconds(
+                           useFallbackIfNotSet(p.getOptionalInt("heartbeat.flush.interval.seconds"), 30))
+                   .callTimeoutInSeconds(useFallbackIfNotSet(p.getOptionalInt("ocpp.call.timeout.seconds"), 60))
+                   .callTimeoutOverridesInSeconds(parseActionTimeouts(p.getStringList("ocpp.call.timeout.overrides")))
+                   .callQueueMaxDepth(useFallbackIfNotSet(p.getOptionalInt("ocpp.call.queue.max-depth"), 100))
+                   .jsonDirectBinding(Boolean.parseBoolean(
+                           useFallbackIfNotSet(p.getOptionalString("ocpp.json.direct-binding"), "true")))
+                   .taskDetailsTtlInMinutes(useFallbackIfNotSet(p.getOptionalInt("task.details.ttl.minutes"), 60))
+                   .taskTtlInMinutes(useFallbackIfNotSet(p.getOptionalInt("task.ttl.minutes"), 1440))
+                   .taskStoreMaxSize(useFallbackIfNotSet(p.getOptionalInt("task.store.max.size"), 5000))
+                   .fanOutConcurrency(useFallbackIfNotSet(p.getOptionalInt("task.fan-out.concurrency"), 50))
+                   .fanOutRatePerSecond(useFallbackIfNotSet(p.getOptionalInt("task.fan-out.rate.per-second"), 0))
+                   .fanOutStationIntervalInMillis(
+                           useFallbackIfNotSet(p.getOptionalInt("task.fan-out.station.min-interval.millis"), 0))
                    .build();
 
         validate();
@@ -134,6 +187,25 @@ public enum SteveConfiguration {
         }
     }
 
+    private static int useFallbackIfNotSet(Integer value, int fallback) {
+        return value == null ? fallback : value;
+    }
+
+    /**
+     * Entries have the format "Action:seconds", e.g. "GetDiagnostics:300"
+     */
+    private static Map<String, Integer> parseActionTimeouts(List<String> entries) {
+        Map<String, Integer> map = new HashMap<>();
+        for (String entry : entries) {
+            List<String> pair = Splitter.on(':').trimResults().splitToList(entry);
+            if (pair.size() != 2) {
+                throw new IllegalArgumentException("Invalid entry in 'ocpp.call.timeout.overrides': " + entry);
+            }
+            map.put(pair.get(0), Integer.parseInt(pair.get(1)));
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
     private String sanitizeContextPath(String s) {
         if (s == null || "/".equals(s)) {
             return "";
@@ -151,6 +223,58 @@ public enum SteveConfiguration {
             throw new IllegalArgumentException(
                     "HTTP and HTTPS are both disabled. Well, how do you want to access the server, then?");
         }
+
+        if (ocpp.callTimeoutInSeconds <= 0 || ocpp.callTimeoutOverridesInSeconds.values().stream().anyMatch(i -> i <= 0)) {
+            throw new IllegalArgumentException("The timeouts of OCPP calls must be positive");
+        }
+
+        if (ocpp.callQueueMaxDepth <= 0) {
+            throw new IllegalArgumentException("The property 'ocpp.call.queue.max-depth' must be positive");
+        }
+
+        if (ocpp.fanOutConcurrency <= 0) {
+            throw new IllegalArgumentException("The property 'task.fan-out.concurrency' must be positive");
+        }
+
+        if (ocpp.fanOutRatePerSecond < 0 || ocpp.fanOutStationIntervalInMillis < 0) {
+            throw new IllegalArgumentException("The properties 'task.fan-out.rate.per-second' and "
+                + "'task.fan-out.station.min-interval.millis' must not be negative");
+        }
+
+        if (ocpp.wsMailboxMaxDepth <= 0 || ocpp.wsMailboxConcurrency <= 0) {
+            throw new IllegalArgumentException("The properties 'ws.mailbox.*' must be positive");
+        }
+
+        if (ocpp.wsHandshakeRatePerSecond < 0 || ocpp.wsHandshakeBurst <= 0) {
+            throw new IllegalArgumentException("The property 'ws.handshake.rate.per-second' must not be negative and "
+                + "'ws.handshake.burst' must be positive");
+        }
+
+        if (ocpp.bootPacingRatePerSecond < 0) {
+            throw new IllegalArgumentException("The property 'boot.pacing.rate.per-second' must not be negative");
+        }
+
+        if (ocpp.heartbeatJitterPercent < 0 || ocpp.heartbeatJitterPercent > 50) {
+            throw new IllegalArgumentException(
+                "The property 'heartbeat.interval.jitter.percent' must be between 0 and 50");
+        }
+
+        if (ocpp.unknownChargeBoxCacheTtlInSeconds <= 0) {
+            throw new IllegalArgumentException("The property 'unknown.charge-box.cache.ttl.seconds' must be positive");
+        }
+
+        if (ocpp.wsPingIntervalInSeconds <= 0 || ocpp.wsPingMaxMissedPongs < 0) {
+            throw new IllegalArgumentException("The property 'ws.ping.interval.seconds' must be positive and "
+                + "'ws.ping.max-missed-pongs' must not be negative");
+        }
+
+        if (Integer.bitCount(db.meterValuesBufferSize) != 1) {
+            throw new IllegalArgumentException("The property 'db.meter-values.buffer.size' must be a power of 2");
+        }
+
+        if (db.meterValuesRetentionInMonths < 0 || db.connectorStatusRetentionInMonths < 0) {
+            throw new IllegalArgumentException("The properties 'db.retention.*.months' must not be negative");
+        }
     }
 
     // -------------------------------------------------------------------------
@@ -163,6 +287,10 @@ public enum SteveConfiguration {
         private final String serverHost;
         private final boolean gzipEnabled;
 
+        // Threading
+        private final int maxThreads;
+        private final boolean virtualThreadsRequested;
+
         // HTTP
         private final boolean httpEnabled;
         private final int httpPort;
@@ -172,6 +300,13 @@ public enum SteveConfiguration {
         private final int httpsPort;
         private final String keyStorePath;
         private final String keyStorePassword;
+
+        /**
+         * Virtual threads are only used if requested and supported by the JVM we run on (Java 21+)
+         */
+        public boolean isVirtualThreadsEnabled() {
+            return virtualThreadsRequested && VirtualThreads.areSupported();
+        }
     }
 
     // Database configuration
@@ -182,7 +317,21 @@ public enum SteveConfiguration {
         private final String schema;
         private final String userName;
         private final String password;
+        private final int poolSize;
         private final boolean sqlLogging;
+
+        // Asynchronous, batched ingestion of meter values
+        private final boolean meterValuesAsync;
+        private final int meterValuesBufferSize;
+        private final int meterValuesFlushSize;
+        private final int meterValuesFlushLatencyInMillis;
+        // null, if there is no journal
+        private final String meterValuesJournalDir;
+
+        // Retention of the monthly partitions of connector_meter_value and connector_status (0 = keep forever)
+        private final int meterValuesRetentionInMonths;
+        private final int connectorStatusRetentionInMonths;
+        private final boolean retentionArchive;
     }
 
     // Credentials for Web interface access
@@ -205,6 +354,53 @@ public enum SteveConfiguration {
         private final boolean autoRegisterUnknownStations;
         private final String chargeBoxIdValidationRegex;
         private final WsSessionSelectStrategy wsSessionSelectStrategy;
+        private final TrafficLogLevel trafficLogLevel;
+
+        // Processing of incoming JSON messages on a worker pool, with one mailbox per station
+        private final boolean wsMailboxEnabled;
+        private final int wsMailboxMaxDepth;
+        private final int wsMailboxConcurrency;
+
+        // Pinging the JSON stations and closing the connections of stations that do not respond anymore
+        private final int wsPingIntervalInSeconds;
+        private final int wsPingMaxMissedPongs;
+
+        // Admission control for WebSocket handshakes (reconnect storms)
+        private final int wsHandshakeRatePerSecond;
+        private final int wsHandshakeBurst;
+
+        // Answering BootNotifications with Pending above this rate, and spreading the heartbeats of stations
+        private final int bootPacingRatePerSecond;
+        private final int heartbeatJitterPercent;
+
+        // How long to remember that a chargeBoxId is not in DB
+        private final int unknownChargeBoxCacheTtlInSeconds;
+
+        private final int heartbeatFlushIntervalInSeconds;
+
+        // How long to wait for the response of a CALL that we sent to a station
+        private final int callTimeoutInSeconds;
+        private final Map<String, Integer> callTimeoutOverridesInSeconds;
+
+        // How many CALLs may wait per connection, while an earlier one is outstanding
+        private final int callQueueMaxDepth;
+
+        // Bind the payloads of incoming JSON messages without an intermediate JSON tree
+        private final boolean jsonDirectBinding;
+
+        // Retention of finished tasks (operations triggered via Web interface or API)
+        private final int taskDetailsTtlInMinutes;
+        private final int taskTtlInMinutes;
+        private final int taskStoreMaxSize;
+
+        // Sending the requests of a task to multiple stations
+        private final int fanOutConcurrency;
+        private final int fanOutRatePerSecond;
+        private final int fanOutStationIntervalInMillis;
+
+        public int getCallTimeoutInSeconds(String action) {
+            return callTimeoutOverridesInSeconds.getOrDefault(action, callTimeoutInSeconds);
+        }
     }
 
 }
@@ -29,6 +29,7 @@ import de.rwth.idsg.steve.service.DummyReleaseCheckService;
 import de.rwth.idsg.steve.service.GithubReleaseCheckService;
 import de.rwth.idsg.steve.service.ReleaseCheckService;
 import de.rwth.idsg.steve.utils.InternetChecker;
+import de.rwth.idsg.steve.web.controller.MetricsController;
 import lombok.extern.slf4j.Slf4j;
 import org.jooq.DSLContext;
 import org.jooq.SQLDialect;
@@ -40,15 +41,19 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.format.support.FormattingConversionService;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.method.HandlerTypePredicate;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurationSupport;
@@ -102,6 +107,8 @@ public class BeanConfiguration implements WebMvcConfigurer {
         // https://github.com/steve-community/steve/issues/736
         hc.setMaxLifetime(580_000);
 
+        hc.setMaximumPoolSize(dbConfig.getPoolSize());
+
         return new HikariDataSource(hc);
     }
 
@@ -139,6 +146,14 @@ public class BeanConfiguration implements WebMvcConfigurer {
 
     @Bean(destroyMethod = "close")
     public DelegatingTaskScheduler asyncTaskScheduler() {
+        if (CONFIG.getJetty().isVirtualThreadsEnabled()) {
+            SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+            scheduler.setVirtualThreads(true);
+            scheduler.setThreadNamePrefix("SteVe-TaskScheduler-");
+            scheduler.setTaskTerminationTimeout(30_000);
+            return new DelegatingTaskScheduler(scheduler);
+        }
+
         ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
         scheduler.setPoolSize(5);
         scheduler.setThreadNamePrefix("SteVe-TaskScheduler-");
@@ -151,6 +166,13 @@ public class BeanConfiguration implements WebMvcConfigurer {
 
     @Bean(destroyMethod = "close")
     public DelegatingTaskExecutor asyncTaskExecutor() {
+        if (CONFIG.getJetty().isVirtualThreadsEnabled()) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("SteVe-TaskExecutor-");
+            executor.setVirtualThreads(true);
+            executor.setTaskTerminationTimeout(30_000);
+            return new DelegatingTaskExecutor(executor);
+        }
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5);
         executor.setThreadNamePrefix("SteVe-TaskExecutor-");
@@ -211,6 +233,15 @@ public class BeanConfiguration implements WebMvcConfigurer {
         registry.setOrder(Ordered.HIGHEST_PRECEDENCE);
     }
 
+    /**
+     * The metrics endpoint is served under the same mapping that is secured in {@link SecurityConfiguration}
+     */
+    @Override
+    public void configurePathMatch(PathMatchConfigurer configurer) {
+        configurer.addPathPrefix(CONFIG.getMetricsMapping(),
+            HandlerTypePredicate.forAssignableType(MetricsController.class));
+    }
+
     // -------------------------------------------------------------------------
     // API config
     // -------------------------------------------------------------------------
@@ -18,31 +18,78 @@
  */
 package de.rwth.idsg.steve.config;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.function.IntSupplier;
 
 /**
+ * The delegate is a pool of platform threads or, in virtual threads mode, an executor with a thread per task. They
+ * have no common interface for shutting down and statistics, therefore these are bound once in the constructors.
+ *
  * @author Sevket Goekay <sevketgokay@gmail.com>
  * @since 02.02.2025
  */
 @Slf4j
-@RequiredArgsConstructor
 public class DelegatingTaskExecutor implements Closeable {
 
-    private final ThreadPoolTaskExecutor delegate;
+    private final TaskExecutor delegate;
+    private final Runnable shutdown;
+    private final IntSupplier queueSize;
+    private final IntSupplier activeCount;
+
+    public DelegatingTaskExecutor(ThreadPoolTaskExecutor pool) {
+        this(pool, pool::shutdown, pool::getQueueSize, pool::getActiveCount);
+    }
+
+    /**
+     * There is no queue, and the number of active threads is unknown
+     */
+    public DelegatingTaskExecutor(SimpleAsyncTaskExecutor executor) {
+        this(executor, executor::close, () -> 0, () -> -1);
+    }
+
+    /**
+     * For executors without a lifecycle (e.g. in tests)
+     */
+    public DelegatingTaskExecutor(TaskExecutor executor) {
+        this(executor, () -> { }, () -> 0, () -> -1);
+    }
+
+    private DelegatingTaskExecutor(TaskExecutor delegate, Runnable shutdown, IntSupplier queueSize,
+                                   IntSupplier activeCount) {
+        this.delegate = delegate;
+        this.shutdown = shutdown;
+        this.queueSize = queueSize;
+        this.activeCount = activeCount;
+    }
 
     @Override
     public void close() throws IOException {
         log.info("Shutting down");
-        delegate.shutdown();
+        shutdown.run();
     }
 
     public void execute(Runnable task) {
         delegate.execute(task);
     }
 
+    /**
+     * @return the number of tasks waiting for a thread. Always 0 in virtual threads mode, since there is no queue.
+     */
+    public int getQueueSize() {
+        return queueSize.getAsInt();
+    }
+
+    /**
+     * @return the number of threads executing a task, or -1 if unknown (virtual threads mode)
+     */
+    public int getActiveCount() {
+        return activeCount.getAsInt();
+    }
+
 }
@@ -20,6 +20,8 @@ package de.rwth.idsg.steve.config;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import java.io.Closeable;
@@ -27,25 +29,91 @@ import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntSupplier;
 
 /**
+ * The delegate is a pool of platform threads or, in virtual threads mode, a scheduler with a thread per run. They have
+ * no common interface for shutting down and statistics, therefore these are bound once in the constructors.
+ *
+ * A pool never runs a periodic task concurrently with itself, but a scheduler with a thread per run starts every run
+ * on time, even if the previous one did not finish (e.g. a slow database). Therefore, every periodic task is guarded
+ * such that a run is skipped while the previous one is still running.
+ *
  * @author Sevket Goekay <sevketgokay@gmail.com>
  * @since 02.02.2025
  */
 @Slf4j
-@RequiredArgsConstructor
 public class DelegatingTaskScheduler implements Closeable {
 
-    private final ThreadPoolTaskScheduler delegate;
+    private final TaskScheduler delegate;
+    private final Runnable shutdown;
+    private final IntSupplier queueSize;
+    private final IntSupplier activeCount;
+
+    public DelegatingTaskScheduler(ThreadPoolTaskScheduler pool) {
+        this(pool, pool::shutdown, () -> pool.getScheduledThreadPoolExecutor().getQueue().size(), pool::getActiveCount);
+    }
+
+    /**
+     * The number of scheduled tasks and active threads is unknown
+     */
+    public DelegatingTaskScheduler(SimpleAsyncTaskScheduler scheduler) {
+        this(scheduler, scheduler::close, () -> -1, () -> -1);
+    }
+
+    private DelegatingTaskScheduler(TaskScheduler delegate, Runnable shutdown, IntSupplier queueSize,
+                                    IntSupplier activeCount) {
+        this.delegate = delegate;
+        this.shutdown = shutdown;
+        this.queueSize = queueSize;
+        this.activeCount = activeCount;
+    }
 
     @Override
     public void close() throws IOException {
         log.info("Shutting down");
-        delegate.shutdown();
+        shutdown.run();
+    }
+
+    public ScheduledFuture<?> schedule(Runnable task, Instant startTime) {
+        return delegate.schedule(task, startTime);
     }
 
     public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Instant startTime, Duration period) {
-        return delegate.scheduleAtFixedRate(task, startTime, period);
+        return delegate.scheduleAtFixedRate(new NonReentrantTask(task), startTime, period);
+    }
+
+    /**
+     * @return the number of scheduled tasks (including the periodic ones), or -1 if unknown (virtual threads mode)
+     */
+    public int getQueueSize() {
+        return queueSize.getAsInt();
     }
 
+    /**
+     * @return the number of threads executing a task, or -1 if unknown (virtual threads mode)
+     */
+    public int getActiveCount() {
+        return activeCount.getAsInt();
+    }
+
+    @RequiredArgsConstructor
+    private static final class NonReentrantTask implements Runnable {
+        private final Runnable task;
+        private final AtomicBoolean running = new AtomicBoolean(false);
+
+        @Override
+        public void run() {
+            if (!running.compareAndSet(false, true)) {
+                log.warn("The previous run of the periodic task '{}' is still running. Skipping this run", task);
+                return;
+            }
+            try {
+                task.run();
+            } finally {
+                running.set(false);
+            }
+        }
+    }
 }
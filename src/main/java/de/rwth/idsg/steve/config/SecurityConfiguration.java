@@ -97,4 +97,18 @@ public class SecurityConfiguration {
             .authorizeHttpRequests(k -> k.anyRequest().authenticated())
             .build();
     }
+
+    /**
+     * Prometheus scrapes with the same credentials (basic auth) as the API
+     */
+    @Bean
+    @Order(2)
+    public SecurityFilterChain metricsFilterChain(HttpSecurity http, ApiAuthenticationManager apiAuthenticationManager) throws Exception {
+        return http.securityMatcher(CONFIG.getMetricsMapping())
+            .csrf(k -> k.disable())
+            .sessionManagement(k -> k.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .addFilter(new BasicAuthenticationFilter(apiAuthenticationManager, apiAuthenticationManager))
+            .authorizeHttpRequests(k -> k.anyRequest().authenticated())
+            .build();
+    }
 }
@@ -0,0 +1,263 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import de.rwth.idsg.steve.config.DelegatingTaskExecutor;
+import de.rwth.idsg.steve.config.DelegatingTaskScheduler;
+import de.rwth.idsg.steve.ocpp.ws.AbstractWebSocketEndpoint;
+import de.rwth.idsg.steve.ocpp.ws.FutureResponseContextStore;
+import de.rwth.idsg.steve.ocpp.ws.HandshakeAdmissionController;
+import de.rwth.idsg.steve.ocpp.ws.OutgoingCallQueue;
+import de.rwth.idsg.steve.ocpp.ws.PingScheduler;
+import de.rwth.idsg.steve.ocpp.ws.StationMailboxExecutor;
+import de.rwth.idsg.steve.ocpp.ws.ocpp12.Ocpp12WebSocketEndpoint;
+import de.rwth.idsg.steve.ocpp.ws.ocpp15.Ocpp15WebSocketEndpoint;
+import de.rwth.idsg.steve.ocpp.ws.ocpp16.Ocpp16WebSocketEndpoint;
+import de.rwth.idsg.steve.repository.TaskStore;
+import de.rwth.idsg.steve.repository.impl.MeterValueIngestionQueue;
+import de.rwth.idsg.steve.service.BackgroundService;
+import de.rwth.idsg.steve.service.BootPacingService;
+import de.rwth.idsg.steve.service.RetentionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders the metrics of SteVe in the Prometheus text format.
+ *
+ * The counters and histograms of the OCPP traffic are recorded continuously by {@link OcppMetrics}. Everything else
+ * is read from the statistics that the components keep anyway, only at the time of the scrape. None of this goes to
+ * the database, so that scraping every few seconds is cheap.
+ *
+ * @since 17.10.2026
+ */
+@Service
+@RequiredArgsConstructor
+public class MetricsService {
+
+    private final Ocpp12WebSocketEndpoint ocpp12WebSocketEndpoint;
+    private final Ocpp15WebSocketEndpoint ocpp15WebSocketEndpoint;
+    private final Ocpp16WebSocketEndpoint ocpp16WebSocketEndpoint;
+    private final FutureResponseContextStore futureResponseContextStore;
+    private final OutgoingCallQueue outgoingCallQueue;
+    private final PingScheduler pingScheduler;
+    private final HandshakeAdmissionController handshakeAdmissionController;
+    private final BootPacingService bootPacingService;
+    private final StationMailboxExecutor mailboxExecutor;
+    private final MeterValueIngestionQueue meterValueIngestionQueue;
+    private final TaskStore taskStore;
+    private final BackgroundService backgroundService;
+    private final RetentionService retentionService;
+    private final DelegatingTaskExecutor asyncTaskExecutor;
+    private final DelegatingTaskScheduler asyncTaskScheduler;
+    private final DataSource dataSource;
+
+    public String scrape() {
+        PrometheusTextWriter writer = new PrometheusTextWriter();
+
+        OcppMetrics.INSTANCE.writeTo(writer);
+        writeSessions(writer);
+        writeHandshakes(writer);
+        writePings(writer);
+        writeBootPacing(writer);
+        writeOutstandingCalls(writer);
+        writeMailboxes(writer);
+        writeMeterValueQueue(writer);
+        writeRetention(writer);
+        writeTasks(writer);
+        writeExecutors(writer);
+        writeDatabasePool(writer);
+
+        return writer.toString();
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private void writeSessions(PrometheusTextWriter writer) {
+        var endpoints = List.of(ocpp12WebSocketEndpoint, ocpp15WebSocketEndpoint, ocpp16WebSocketEndpoint);
+
+        writer.header("steve_ocpp_ws_sessions", "gauge", "Open WebSocket sessions");
+        for (AbstractWebSocketEndpoint endpoint : endpoints) {
+            writer.sample("steve_ocpp_ws_sessions", endpoint.getNumberOfSessions(),
+                "version", endpoint.getVersion().getValue());
+        }
+
+        writer.header("steve_ocpp_ws_charge_boxes", "gauge", "Charge boxes with at least one open WebSocket session");
+        for (AbstractWebSocketEndpoint endpoint : endpoints) {
+            writer.sample("steve_ocpp_ws_charge_boxes", endpoint.getNumberOfChargeBoxes(),
+                "version", endpoint.getVersion().getValue());
+        }
+    }
+
+    private void writeHandshakes(PrometheusTextWriter writer) {
+        writer.header("steve_ocpp_ws_handshakes_total", "counter", "WebSocket handshakes of stations by result");
+        for (HandshakeAdmissionController.Result result : HandshakeAdmissionController.Result.values()) {
+            writer.sample("steve_ocpp_ws_handshakes_total", handshakeAdmissionController.getCount(result),
+                "result", result.getLabel());
+        }
+    }
+
+    private void writePings(PrometheusTextWriter writer) {
+        writer.header("steve_ocpp_ws_pings_sent_total", "counter", "Pings sent to JSON stations")
+              .sample("steve_ocpp_ws_pings_sent_total", pingScheduler.getSentCount());
+        writer.header("steve_ocpp_ws_dead_peers_total", "counter", "Sessions closed, since the station did not answer to pings")
+              .sample("steve_ocpp_ws_dead_peers_total", pingScheduler.getDeadPeerCount());
+    }
+
+    private void writeBootPacing(PrometheusTextWriter writer) {
+        BootPacingService.Stats stats = bootPacingService.getStats();
+
+        writer.header("steve_ocpp_boot_rate", "gauge", "Accepted BootNotifications per second")
+              .sample("steve_ocpp_boot_rate", stats.getAcceptedRate());
+        writer.header("steve_ocpp_boot_accepted_total", "counter", "BootNotifications that passed the pacing")
+              .sample("steve_ocpp_boot_accepted_total", stats.getAcceptedCount());
+        writer.header("steve_ocpp_boot_pending_total", "counter", "BootNotifications answered with Pending")
+              .sample("steve_ocpp_boot_pending_total", stats.getPendingCount());
+        writer.header("steve_ocpp_boot_waiting", "gauge", "Paced stations that did not come back yet")
+              .sample("steve_ocpp_boot_waiting", stats.getWaitingCount());
+    }
+
+    private void writeOutstandingCalls(PrometheusTextWriter writer) {
+        long inFlight = 0;
+        for (int count : futureResponseContextStore.getInFlightCounts().values()) {
+            inFlight += count;
+        }
+
+        writer.header("steve_ocpp_outgoing_call_outstanding", "gauge", "CALLs sent to stations, waiting for a response")
+              .sample("steve_ocpp_outgoing_call_outstanding", inFlight);
+
+        writer.header("steve_ocpp_outgoing_call_timed_out_total", "counter", "CALLs without response in time")
+              .sample("steve_ocpp_outgoing_call_timed_out_total", futureResponseContextStore.getTimedOutCount());
+
+        writer.header("steve_ocpp_outgoing_call_waiting", "gauge", "CALLs waiting for an earlier CALL to be answered")
+              .sample("steve_ocpp_outgoing_call_waiting", outgoingCallQueue.getWaitingCount());
+        writer.header("steve_ocpp_outgoing_call_queue_wait_seconds", "summary", "Time that CALLs waited in the queue")
+              .sample("steve_ocpp_outgoing_call_queue_wait_seconds_sum", toSeconds(outgoingCallQueue.getWaitNanosSum()))
+              .sample("steve_ocpp_outgoing_call_queue_wait_seconds_count", outgoingCallQueue.getDequeuedCount());
+        writer.header("steve_ocpp_outgoing_call_rejected_total", "counter", "CALLs rejected, since the queue was full")
+              .sample("steve_ocpp_outgoing_call_rejected_total", outgoingCallQueue.getRejectedCount());
+    }
+
+    private void writeMailboxes(PrometheusTextWriter writer) {
+        StationMailboxExecutor.Stats stats = mailboxExecutor.getStats();
+
+        writer.header("steve_ocpp_mailbox_stations", "gauge", "Stations with a mailbox for incoming messages")
+              .sample("steve_ocpp_mailbox_stations", stats.getStationCount());
+        writer.header("steve_ocpp_mailbox_pending", "gauge", "Incoming messages waiting in the mailboxes")
+              .sample("steve_ocpp_mailbox_pending", stats.getPendingCount());
+        writer.header("steve_ocpp_mailbox_processed_total", "counter", "Incoming messages that were processed")
+              .sample("steve_ocpp_mailbox_processed_total", stats.getProcessedCount());
+        writer.header("steve_ocpp_mailbox_rejected_total", "counter", "Incoming messages that were rejected, since the mailbox was full")
+              .sample("steve_ocpp_mailbox_rejected_total", stats.getRejectedCount());
+        writer.header("steve_ocpp_mailbox_queue_seconds_total", "counter", "Time that the incoming messages waited in the mailboxes")
+              .sample("steve_ocpp_mailbox_queue_seconds_total", toSeconds(stats.getQueueNanos()));
+        writer.header("steve_ocpp_mailbox_processing_seconds_total", "counter", "Time of processing the incoming messages")
+              .sample("steve_ocpp_mailbox_processing_seconds_total", toSeconds(stats.getProcessingNanos()));
+    }
+
+    private void writeMeterValueQueue(PrometheusTextWriter writer) {
+        MeterValueIngestionQueue.Stats stats = meterValueIngestionQueue.getStats();
+
+        writer.header("steve_meter_value_queue_pending", "gauge", "Meter values waiting to be written to the database")
+              .sample("steve_meter_value_queue_pending", stats.getPendingCount());
+        writer.header("steve_meter_value_queue_published_total", "counter", "Meter value messages that were put into the queue")
+              .sample("steve_meter_value_queue_published_total", stats.getPublishedCount());
+        writer.header("steve_meter_value_queue_synchronous_total", "counter", "Meter value messages that were written synchronously")
+              .sample("steve_meter_value_queue_synchronous_total", stats.getSynchronousCount());
+        writer.header("steve_meter_value_queue_flushed_rows_total", "counter", "Meter value rows written in batches")
+              .sample("steve_meter_value_queue_flushed_rows_total", stats.getFlushedRowCount());
+        writer.header("steve_meter_value_queue_flushed_batches_total", "counter", "Batches of meter values written")
+              .sample("steve_meter_value_queue_flushed_batches_total", stats.getFlushedBatchCount());
+        writer.header("steve_meter_value_queue_failed_batches_total", "counter", "Batches of meter values that failed")
+              .sample("steve_meter_value_queue_failed_batches_total", stats.getFailedBatchCount());
+        writer.header("steve_meter_value_queue_replayed_total", "counter", "Meter value messages written from the journal")
+              .sample("steve_meter_value_queue_replayed_total", stats.getReplayedCount());
+        writer.header("steve_meter_value_queue_dropped_total", "counter", "Meter value messages that can never be written")
+              .sample("steve_meter_value_queue_dropped_total", stats.getDroppedCount());
+    }
+
+    private void writeRetention(PrometheusTextWriter writer) {
+        Map<String, RetentionService.Stats> stats = retentionService.getStats();
+
+        writer.header("steve_retention_dropped_partitions_total", "counter", "Expired partitions that were dropped or archived");
+        stats.forEach((table, s) -> writer.sample("steve_retention_dropped_partitions_total", s.getDroppedPartitionCount(), "table", table));
+        writer.header("steve_retention_reclaimed_rows_total", "counter", "Rows in the expired partitions");
+        stats.forEach((table, s) -> writer.sample("steve_retention_reclaimed_rows_total", s.getReclaimedRowCount(), "table", table));
+        writer.header("steve_retention_reclaimed_bytes_total", "counter", "Estimated size of the expired partitions");
+        stats.forEach((table, s) -> writer.sample("steve_retention_reclaimed_bytes_total", s.getReclaimedBytes(), "table", table));
+    }
+
+    private void writeTasks(PrometheusTextWriter writer) {
+        writer.header("steve_task_store_size", "gauge", "Communication tasks in the task store")
+              .sample("steve_task_store_size", taskStore.getSize());
+    }
+
+    private void writeExecutors(PrometheusTextWriter writer) {
+        writer.header("steve_executor_queue_size", "gauge", "Tasks waiting in the queue of an executor");
+        sampleIfKnown(writer, "steve_executor_queue_size", asyncTaskExecutor.getQueueSize(), "task-executor");
+        sampleIfKnown(writer, "steve_executor_queue_size", asyncTaskScheduler.getQueueSize(), "task-scheduler");
+        sampleIfKnown(writer, "steve_executor_queue_size", backgroundService.getFanOutExecutor().getQueueSize(), "fan-out");
+
+        writer.header("steve_executor_active_threads", "gauge", "Threads of an executor that are executing a task");
+        sampleIfKnown(writer, "steve_executor_active_threads", asyncTaskExecutor.getActiveCount(), "task-executor");
+        sampleIfKnown(writer, "steve_executor_active_threads", asyncTaskScheduler.getActiveCount(), "task-scheduler");
+        sampleIfKnown(writer, "steve_executor_active_threads", backgroundService.getFanOutExecutor().getActiveCount(), "fan-out");
+    }
+
+    private void writeDatabasePool(PrometheusTextWriter writer) {
+        if (!(dataSource instanceof HikariDataSource hikari)) {
+            return;
+        }
+
+        // null until the pool is started with the first connection
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            return;
+        }
+
+        writer.header("steve_db_pool_connections", "gauge", "Connections of the database pool");
+        writer.sample("steve_db_pool_connections", pool.getActiveConnections(), "state", "active");
+        writer.sample("steve_db_pool_connections", pool.getIdleConnections(), "state", "idle");
+        writer.header("steve_db_pool_connections_max", "gauge", "Maximum size of the database pool")
+              .sample("steve_db_pool_connections_max", hikari.getMaximumPoolSize());
+        writer.header("steve_db_pool_pending_threads", "gauge", "Threads waiting for a database connection")
+              .sample("steve_db_pool_pending_threads", pool.getThreadsAwaitingConnection());
+    }
+
+    /**
+     * Negative values are unknown (in virtual threads mode) and are not written
+     */
+    private static void sampleIfKnown(PrometheusTextWriter writer, String name, int value, String executor) {
+        if (value >= 0) {
+            writer.sample(name, value, "executor", executor);
+        }
+    }
+
+    private static double toSeconds(long nanos) {
+        return nanos / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latencies of the OCPP traffic, recorded on the hot path by the OCPP-J pipelines and the communication
+ * tasks. Like the pipeline steps, this is a singleton, since the recording sites are not Spring-managed.
+ *
+ * The number of distinct actions and operations is small and fixed by the OCPP specs, so they are used as labels.
+ *
+ * @since 17.10.2026
+ */
+public enum OcppMetrics {
+    INSTANCE;
+
+    // action -> metrics
+    private final ConcurrentHashMap<String, ActionMetrics> actions = new ConcurrentHashMap<>();
+
+    // operation name of the task -> outcomes
+    private final ConcurrentHashMap<String, TaskOutcomes> tasks = new ConcurrentHashMap<>();
+
+    // incoming messages that could not be deserialized
+    private final LongAdder invalidIncomingCount = new LongAdder();
+
+    /**
+     * Time from receiving a CALL of a station until our response is sent
+     */
+    public void incomingCall(String action, long nanos) {
+        getAction(action).incomingCall.record(nanos);
+    }
+
+    public void invalidIncoming() {
+        invalidIncomingCount.increment();
+    }
+
+    public void outgoingCall(String action) {
+        getAction(action).outgoingCall.increment();
+    }
+
+    /**
+     * Round-trip time from sending our CALL until the CALL_RESULT of the station is received
+     */
+    public void outgoingCallResult(String action, long nanos) {
+        getAction(action).outgoingCallResult.record(nanos);
+    }
+
+    /**
+     * Round-trip time from sending our CALL until the CALL_ERROR of the station is received
+     */
+    public void outgoingCallError(String action, long nanos) {
+        getAction(action).outgoingCallError.record(nanos);
+    }
+
+    public void taskResponse(String operationName) {
+        getTask(operationName).response.increment();
+    }
+
+    public void taskError(String operationName) {
+        getTask(operationName).error.increment();
+    }
+
+    public void writeTo(PrometheusTextWriter writer) {
+        writer.header("steve_ocpp_incoming_call_seconds", "histogram",
+            "Processing time of CALLs from stations, until the response is sent");
+        for (Map.Entry<String, ActionMetrics> e : actions.entrySet()) {
+            histogram(writer, "steve_ocpp_incoming_call_seconds", e.getValue().incomingCall, "action", e.getKey());
+        }
+
+        writer.header("steve_ocpp_incoming_invalid_total", "counter",
+            "Messages from stations that could not be deserialized");
+        writer.sample("steve_ocpp_incoming_invalid_total", invalidIncomingCount.sum());
+
+        writer.header("steve_ocpp_outgoing_call_total", "counter", "CALLs sent to stations");
+        for (Map.Entry<String, ActionMetrics> e : actions.entrySet()) {
+            long count = e.getValue().outgoingCall.sum();
+            if (count > 0) {
+                writer.sample("steve_ocpp_outgoing_call_total", count, "action", e.getKey());
+            }
+        }
+
+        writer.header("steve_ocpp_outgoing_call_seconds", "histogram",
+            "Round-trip time of CALLs sent to stations, until the response is received");
+        for (Map.Entry<String, ActionMetrics> e : actions.entrySet()) {
+            histogram(writer, "steve_ocpp_outgoing_call_seconds", e.getValue().outgoingCallResult,
+                "action", e.getKey(), "result", "result");
+            histogram(writer, "steve_ocpp_outgoing_call_seconds", e.getValue().outgoingCallError,
+                "action", e.getKey(), "result", "error");
+        }
+
+        writer.header("steve_task_result_total", "counter", "Per-station results of communication tasks");
+        for (Map.Entry<String, TaskOutcomes> e : tasks.entrySet()) {
+            writer.sample("steve_task_result_total", e.getValue().response.sum(),
+                "operation", e.getKey(), "result", "response");
+            writer.sample("steve_task_result_total", e.getValue().error.sum(),
+                "operation", e.getKey(), "result", "error");
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    /**
+     * The actions share one map for both directions. Skip the histograms of a direction that an action is not used in.
+     */
+    private static void histogram(PrometheusTextWriter writer, String name, Histogram histogram, String... labels) {
+        if (histogram.getCount() > 0) {
+            writer.histogram(name, histogram, labels);
+        }
+    }
+
+    private ActionMetrics getAction(String action) {
+        // get first, since computeIfAbsent locks the bin even if the key is present
+        ActionMetrics metrics = actions.get(action);
+        return metrics != null ? metrics : actions.computeIfAbsent(action, k -> new ActionMetrics());
+    }
+
+    private TaskOutcomes getTask(String operationName) {
+        TaskOutcomes outcomes = tasks.get(operationName);
+        return outcomes != null ? outcomes : tasks.computeIfAbsent(operationName, k -> new TaskOutcomes());
+    }
+
+    private static class ActionMetrics {
+        private final Histogram incomingCall = new Histogram();
+        private final LongAdder outgoingCall = new LongAdder();
+        private final Histogram outgoingCallResult = new Histogram();
+        private final Histogram outgoingCallError = new Histogram();
+    }
+
+    private static class TaskOutcomes {
+        private final LongAdder response = new LongAdder();
+        private final LongAdder error = new LongAdder();
+    }
+}
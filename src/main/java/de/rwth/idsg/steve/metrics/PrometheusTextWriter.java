@@ -0,0 +1,123 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.metrics;
+
+/**
+ * Writes metrics in the Prometheus text exposition format (version 0.0.4).
+ *
+ * Labels are given as name/value pairs, e.g. sample("steve_x", 1, "action", "Heartbeat").
+ *
+ * @since 17.10.2026
+ */
+public class PrometheusTextWriter {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final StringBuilder sb = new StringBuilder(16 * 1024);
+
+    public PrometheusTextWriter header(String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    public PrometheusTextWriter sample(String name, long value, String... labels) {
+        appendNameAndLabels(name, labels, null);
+        sb.append(' ').append(value).append('\n');
+        return this;
+    }
+
+    public PrometheusTextWriter sample(String name, double value, String... labels) {
+        appendNameAndLabels(name, labels, null);
+        sb.append(' ');
+        appendDouble(value);
+        sb.append('\n');
+        return this;
+    }
+
+    public PrometheusTextWriter histogram(String name, Histogram histogram, String... labels) {
+        long[] counts = histogram.getCumulativeCounts();
+
+        for (int i = 0; i < Histogram.BOUNDS.length; i++) {
+            appendNameAndLabels(name + "_bucket", labels, Double.toString(Histogram.BOUNDS[i]));
+            sb.append(' ').append(counts[i]).append('\n');
+        }
+        appendNameAndLabels(name + "_bucket", labels, "+Inf");
+        sb.append(' ').append(counts[counts.length - 1]).append('\n');
+
+        sample(name + "_sum", histogram.getSumSeconds(), labels);
+        sample(name + "_count", counts[counts.length - 1], labels);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return sb.toString();
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private void appendNameAndLabels(String name, String[] labels, String le) {
+        sb.append(name);
+        if (labels.length == 0 && le == null) {
+            return;
+        }
+
+        sb.append('{');
+        for (int i = 0; i + 1 < labels.length; i += 2) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            appendLabel(labels[i], labels[i + 1]);
+        }
+        if (le != null) {
+            if (labels.length > 0) {
+                sb.append(',');
+            }
+            appendLabel("le", le);
+        }
+        sb.append('}');
+    }
+
+    private void appendLabel(String name, String value) {
+        sb.append(name).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case '"' -> sb.append("\\\"");
+                case '\n' -> sb.append("\\n");
+                default -> sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    private void appendDouble(double value) {
+        if (Double.isNaN(value)) {
+            sb.append("NaN");
+        } else if (Double.isInfinite(value)) {
+            sb.append(value > 0 ? "+Inf" : "-Inf");
+        } else {
+            sb.append(value);
+        }
+    }
+}
@@ -20,6 +20,7 @@ package de.rwth.idsg.steve.ocpp;
 
 import de.rwth.idsg.ocpp.jaxb.RequestType;
 import de.rwth.idsg.ocpp.jaxb.ResponseType;
+import de.rwth.idsg.steve.metrics.OcppMetrics;
 import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonError;
 import de.rwth.idsg.steve.repository.dto.ChargePointSelect;
 import de.rwth.idsg.steve.utils.StringUtils;
@@ -63,6 +64,9 @@ public abstract class CommunicationTask<S extends ChargePointSelection, RESPONSE
     private final AtomicInteger errorCount = new AtomicInteger(0);
     private final AtomicInteger responseCount = new AtomicInteger(0);
 
+    // number of stations the request was sent to (or failed to be sent to), for progress of bulk operations
+    private final AtomicInteger dispatchedCount = new AtomicInteger(0);
+
     @Getter(AccessLevel.NONE) // disable getter generation
     private final Object lockObject = new Object();
 
@@ -107,6 +111,7 @@ public abstract class CommunicationTask<S extends ChargePointSelection, RESPONSE
 
     public void addNewResponse(String chargeBoxId, String response) {
         resultMap.get(chargeBoxId).setResponse(response);
+        OcppMetrics.INSTANCE.taskResponse(operationName);
 
         synchronized (lockObject) {
             if (resultSize == (errorCount.get() + responseCount.incrementAndGet())) {
@@ -117,6 +122,7 @@ public abstract class CommunicationTask<S extends ChargePointSelection, RESPONSE
 
     public void addNewError(String chargeBoxId, String errorMessage) {
         resultMap.get(chargeBoxId).setErrorMessage(errorMessage);
+        OcppMetrics.INSTANCE.taskError(operationName);
 
         synchronized (lockObject) {
             if (resultSize == (errorCount.incrementAndGet() + responseCount.get())) {
@@ -19,13 +19,14 @@
 package de.rwth.idsg.steve.ocpp.ws;
 
 import com.google.common.base.Strings;
-import de.rwth.idsg.steve.config.WebSocketConfiguration;
-import de.rwth.idsg.steve.config.DelegatingTaskScheduler;
 import de.rwth.idsg.steve.ocpp.OcppTransport;
 import de.rwth.idsg.steve.ocpp.OcppVersion;
 import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
 import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
+import de.rwth.idsg.steve.ocpp.ws.data.SessionLoad;
 import de.rwth.idsg.steve.ocpp.ws.pipeline.IncomingPipeline;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.Sender;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.Serializer;
 import de.rwth.idsg.steve.repository.OcppServerRepository;
 import de.rwth.idsg.steve.service.notification.OcppStationWebSocketConnected;
 import de.rwth.idsg.steve.service.notification.OcppStationWebSocketDisconnected;
@@ -40,13 +41,12 @@ import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 
-import java.time.Instant;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ScheduledFuture;
 import java.util.function.Consumer;
 
 /**
@@ -55,13 +55,17 @@ import java.util.function.Consumer;
  */
 public abstract class AbstractWebSocketEndpoint extends ConcurrentWebSocketHandler implements SubProtocolCapable {
 
-    @Autowired private DelegatingTaskScheduler asyncTaskScheduler;
+    @Autowired private PingScheduler pingScheduler;
     @Autowired private OcppServerRepository ocppServerRepository;
     @Autowired private FutureResponseContextStore futureResponseContextStore;
+    @Autowired private OutgoingCallQueue outgoingCallQueue;
     @Autowired private ApplicationEventPublisher applicationEventPublisher;
+    @Autowired private StationMailboxExecutor mailboxExecutor;
 
     public static final String CHARGEBOX_ID_KEY = "CHARGEBOX_ID_KEY";
 
+    private static final CloseStatus DEAD_PEER = CloseStatus.SESSION_NOT_RELIABLE.withReason("No answer to pings");
+
     private final SessionContextStore sessionContextStore = new SessionContextStoreImpl();
     private final List<Consumer<String>> connectedCallbackList = new ArrayList<>();
     private final List<Consumer<String>> disconnectedCallbackList = new ArrayList<>();
@@ -103,6 +107,8 @@ public abstract class AbstractWebSocketEndpoint extends ConcurrentWebSocketHandl
         String incomingString = webSocketMessage.getPayload();
         String chargeBoxId = getChargeBoxId(session);
 
+        pingScheduler.received(session);
+
         // https://github.com/steve-community/steve/issues/66
         if (Strings.isNullOrEmpty(incomingString)) {
             WebSocketLogger.receivedEmptyText(chargeBoxId, session);
@@ -111,14 +117,50 @@ public abstract class AbstractWebSocketEndpoint extends ConcurrentWebSocketHandl
 
         WebSocketLogger.receivedText(chargeBoxId, session, incomingString);
 
+        boolean accepted = mailboxExecutor.submit(chargeBoxId, () -> process(session, chargeBoxId, incomingString));
+        if (!accepted) {
+            reject(session, chargeBoxId, incomingString);
+        }
+    }
+
+    private void process(WebSocketSession session, String chargeBoxId, String incomingString) {
         CommunicationContext context = new CommunicationContext(session, chargeBoxId);
         context.setIncomingString(incomingString);
 
-        pipeline.accept(context);
+        try {
+            pipeline.accept(context);
+        } catch (Exception e) {
+            // same as Spring does, when the exception is thrown on the receive thread
+            WebSocketLogger.processingError(chargeBoxId, session, e);
+            try {
+                session.close(CloseStatus.SERVER_ERROR);
+            } catch (IOException ex) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * The mailbox of the station is full. Answer CALLs with an error, such that the station does not wait for a
+     * response until its timeout. Responses of the station cannot be answered and are dropped.
+     */
+    private void reject(WebSocketSession session, String chargeBoxId, String incomingString) {
+        WebSocketLogger.mailboxFull(chargeBoxId, session);
+
+        String messageId = OcppJsonHeader.getCallMessageId(incomingString);
+        if (messageId != null) {
+            CommunicationContext context = new CommunicationContext(session, chargeBoxId);
+            context.setIncomingString(incomingString);
+            context.setOutgoingMessage(ErrorFactory.tooManyPendingMessages(messageId));
+
+            Serializer.INSTANCE.accept(context);
+            Sender.INSTANCE.accept(context);
+        }
     }
 
     private void handlePongMessage(WebSocketSession session) {
         WebSocketLogger.receivedPong(getChargeBoxId(session), session);
+        pingScheduler.received(session);
         ocppServerRepository.updateChargeboxHeartbeat(getChargeBoxId(session), DateTime.now());
     }
 
@@ -131,19 +173,18 @@ public abstract class AbstractWebSocketEndpoint extends ConcurrentWebSocketHandl
 
         // Just to keep the connection alive, such that the servers do not close
         // the connection because of a idle timeout, we ping-pong at fixed intervals.
-        ScheduledFuture pingSchedule = asyncTaskScheduler.scheduleAtFixedRate(
-                new PingTask(chargeBoxId, session),
-                Instant.now().plus(WebSocketConfiguration.PING_INTERVAL),
-                WebSocketConfiguration.PING_INTERVAL
-        );
+        // If the station stops answering, the connection is closed.
+        pingScheduler.register(chargeBoxId, session, this::closeDeadSession);
 
+        SessionLoad load = new SessionLoad();
         futureResponseContextStore.addSession(session);
+        outgoingCallQueue.addSession(session, load);
 
         int sizeBeforeAdd;
 
         synchronized (sessionContextLock) {
             sizeBeforeAdd = sessionContextStore.getSize(chargeBoxId);
-            sessionContextStore.add(chargeBoxId, session, pingSchedule);
+            sessionContextStore.add(chargeBoxId, session, load);
         }
 
         // Take into account that there might be multiple connections to a charging station.
@@ -159,18 +200,46 @@ public abstract class AbstractWebSocketEndpoint extends ConcurrentWebSocketHandl
 
         WebSocketLogger.closed(chargeBoxId, session, closeStatus);
 
+        removeSession(chargeBoxId, session);
+    }
+
+    /**
+     * The close handshake cannot complete with a dead peer, and Jetty would report the closing of the connection only
+     * after the idle timeout. Therefore, we do not wait for onClose, and free the session and its outstanding calls
+     * right away.
+     */
+    private void closeDeadSession(WebSocketSession session) {
+        String chargeBoxId = getChargeBoxId(session);
+        try {
+            session.close(DEAD_PEER);
+        } catch (IOException e) {
+            // ignore
+        }
+        removeSession(chargeBoxId, session);
+    }
+
+    /**
+     * Called twice for a dead peer: when we close its session, and when Jetty reports the closing
+     */
+    private void removeSession(String chargeBoxId, WebSocketSession session) {
+        pingScheduler.unregister(session);
+
+        // the queue first, such that the failing outstanding call does not release a waiting one
+        outgoingCallQueue.removeSession(session);
         futureResponseContextStore.removeSession(session);
 
+        boolean removed;
         int sizeAfterRemove;
 
         synchronized (sessionContextLock) {
-            sessionContextStore.remove(chargeBoxId, session);
+            removed = sessionContextStore.remove(chargeBoxId, session);
             sizeAfterRemove = sessionContextStore.getSize(chargeBoxId);
         }
 
         // Take into account that there might be multiple connections to a charging station.
         // Send notification only for the change 1 -> 0.
-        if (sizeAfterRemove == 0) {
+        if (removed && sizeAfterRemove == 0) {
+            mailboxExecutor.remove(chargeBoxId);
             disconnectedCallbackList.forEach(consumer -> consumer.accept(chargeBoxId));
         }
     }
@@ -209,6 +278,10 @@ public abstract class AbstractWebSocketEndpoint extends ConcurrentWebSocketHandl
         return sessionContextStore.getNumberOfChargeBoxes();
     }
 
+    public int getNumberOfSessions() {
+        return sessionContextStore.getNumberOfSessions();
+    }
+
     public Map<String, Deque<SessionContext>> getACopy() {
         return sessionContextStore.getACopy();
     }
@@ -56,6 +56,11 @@ public final class ErrorFactory {
                 "Internal services failed while processing of the payload", details);
     }
 
+    public static OcppJsonError tooManyPendingMessages(String messageId) {
+        return setFields(messageId, ErrorCode.GenericError,
+                "Too many messages of this station are waiting to be processed. Try again later", null);
+    }
+
     private static OcppJsonError setFields(String messageId, ErrorCode code, String desc, String details) {
         OcppJsonError error = new OcppJsonError();
         error.setMessageId(messageId);
@@ -22,6 +22,8 @@ import de.rwth.idsg.steve.ocpp.ws.data.FutureResponseContext;
 import org.jetbrains.annotations.Nullable;
 import org.springframework.web.socket.WebSocketSession;
 
+import java.util.Map;
+
 /**
  * @author Sevket Goekay <sevketgokay@gmail.com>
  * @since 08.02.2025
@@ -35,4 +37,14 @@ public interface FutureResponseContextStore {
     void add(WebSocketSession session, String messageId, FutureResponseContext context);
 
     @Nullable FutureResponseContext get(WebSocketSession session, String messageId);
+
+    /**
+     * @return chargeBoxId -> number of calls waiting for a response
+     */
+    Map<String, Integer> getInFlightCounts();
+
+    /**
+     * @return number of calls without response in time, since the start of the application
+     */
+    long getTimedOutCount();
 }
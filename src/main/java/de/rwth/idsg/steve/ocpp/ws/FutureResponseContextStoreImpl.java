@@ -18,7 +18,10 @@
  */
 package de.rwth.idsg.steve.ocpp.ws;
 
+import de.rwth.idsg.steve.SteveException;
 import de.rwth.idsg.steve.ocpp.ws.data.FutureResponseContext;
+import de.rwth.idsg.steve.utils.HashedWheelTimer;
+import jakarta.annotation.PreDestroy;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,13 +29,24 @@ import org.jetbrains.annotations.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.socket.WebSocketSession;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiFunction;
 
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
 /**
  * Presumption: The responses must be sent using the same connection as the requests!
  *
+ * Every outstanding call has a deadline (configurable per action). If the station does not respond in time, the call
+ * is removed and its task fails with a timeout. When the connection is closed, all its outstanding calls fail as well,
+ * since their responses cannot arrive anymore. Otherwise, the entries (and the tasks) would stay forever.
+ *
+ * In each of these cases, the call is completed, so that {@link OutgoingCallQueue} can send the next call.
+ *
  * @author Sevket Goekay <sevketgokay@gmail.com>
  * @since 21.03.2015
  */
@@ -44,6 +58,17 @@ public class FutureResponseContextStoreImpl implements FutureResponseContextStor
     // (session, (messageId, context))
     private final Map<WebSocketSession, Map<String, FutureResponseContext>> lookupTable = new ConcurrentHashMap<>();
 
+    // over all stations. a map per chargeBoxId would grow with every station that ever connected
+    private final LongAdder timedOutCount = new LongAdder();
+
+    // a precision of 100 ms is good enough for timeouts in the range of seconds
+    private final HashedWheelTimer timer = new HashedWheelTimer("steve-call-timeout", 100, TimeUnit.MILLISECONDS, 512);
+
+    @PreDestroy
+    public void destroy() {
+        timer.stop();
+    }
+
     @Override
     public void addSession(WebSocketSession session) {
         addIfAbsent(session);
@@ -52,12 +77,32 @@ public class FutureResponseContextStoreImpl implements FutureResponseContextStor
     @Override
     public void removeSession(WebSocketSession session) {
         log.debug("Deleting the store for sessionId '{}'", session.getId());
-        lookupTable.remove(session);
+        Map<String, FutureResponseContext> map = lookupTable.remove(session);
+        if (map == null) {
+            return;
+        }
+
+        // remove(key, value) decides between us and a concurrently expiring timeout, who fails the task
+        map.forEach((messageId, context) -> {
+            if (map.remove(messageId, context)) {
+                context.getTimeout().cancel();
+                context.getTask().failed(context.getChargeBoxId(), new SteveException(
+                    "The connection was closed before a response was received"
+                ));
+                context.completed();
+            }
+        });
     }
 
     @Override
     public void add(WebSocketSession session, String messageId, FutureResponseContext context) {
         Map<String, FutureResponseContext> map = addIfAbsent(session);
+
+        int timeoutInSeconds = CONFIG.getOcpp().getCallTimeoutInSeconds(context.getAction());
+        context.setTimeout(timer.newTimeout(
+            () -> expire(session, messageId, context, timeoutInSeconds), timeoutInSeconds, TimeUnit.SECONDS
+        ));
+
         map.put(messageId, context);
         log.debug("Store size for sessionId '{}': {}", session.getId(), map.size());
     }
@@ -67,7 +112,49 @@ public class FutureResponseContextStoreImpl implements FutureResponseContextStor
     public FutureResponseContext get(WebSocketSession session, String messageId) {
         RemoveFunction removeFunction = new RemoveFunction(messageId);
         lookupTable.computeIfPresent(session, removeFunction);
-        return removeFunction.removedContext;
+
+        FutureResponseContext context = removeFunction.removedContext;
+        if (context != null) {
+            context.getTimeout().cancel();
+            context.completed();
+        }
+        return context;
+    }
+
+    @Override
+    public Map<String, Integer> getInFlightCounts() {
+        Map<String, Integer> inFlightCounts = new HashMap<>();
+        lookupTable.forEach((session, map) -> {
+            String chargeBoxId = (String) session.getAttributes().get(AbstractWebSocketEndpoint.CHARGEBOX_ID_KEY);
+            inFlightCounts.merge(chargeBoxId, map.size(), Integer::sum);
+        });
+        return inFlightCounts;
+    }
+
+    @Override
+    public long getTimedOutCount() {
+        return timedOutCount.sum();
+    }
+
+    /**
+     * Runs on the timer thread. The entry is only removed, if the response did not arrive in the meantime.
+     */
+    private void expire(WebSocketSession session, String messageId, FutureResponseContext context,
+                        int timeoutInSeconds) {
+        Map<String, FutureResponseContext> map = lookupTable.get(session);
+        if (map == null || !map.remove(messageId, context)) {
+            return;
+        }
+
+        String chargeBoxId = context.getChargeBoxId();
+        timedOutCount.increment();
+        log.warn("No response from chargeBoxId '{}' to '{}' with messageId '{}' within {} seconds",
+            chargeBoxId, context.getAction(), messageId, timeoutInSeconds);
+
+        context.getTask().failed(chargeBoxId, new SteveException(
+            "No response was received within %s seconds (timeout)", timeoutInSeconds
+        ));
+        context.completed();
     }
 
     private Map<String, FutureResponseContext> addIfAbsent(WebSocketSession session) {
@@ -0,0 +1,105 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws;
+
+import de.rwth.idsg.steve.utils.TokenBucket;
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * Limits the rate of WebSocket handshakes with a token bucket. After a network outage, thousands of stations try to
+ * reconnect at the same time. Without a limit, all of them (and their subsequent BootNotifications) compete for the
+ * database pool at once. Handshakes over the limit are answered with 503 and a Retry-After header right away, which
+ * costs next to nothing.
+ *
+ * Many stations retry at fixed intervals anyway, but the ones that respect Retry-After get a random extra delay, such
+ * that they do not come back all at the same second.
+ *
+ * @since 17.10.2026
+ */
+@Component
+public class HandshakeAdmissionController {
+
+    private static final int RETRY_AFTER_SPREAD_SECONDS = 30;
+
+    // null, if there is no limit
+    @Nullable private final TokenBucket bucket;
+
+    private final Map<Result, LongAdder> counts = new EnumMap<>(Result.class);
+
+    public HandshakeAdmissionController() {
+        int ratePerSecond = CONFIG.getOcpp().getWsHandshakeRatePerSecond();
+        this.bucket = ratePerSecond > 0
+            ? new TokenBucket(ratePerSecond, CONFIG.getOcpp().getWsHandshakeBurst())
+            : null;
+
+        for (Result result : Result.values()) {
+            counts.put(result, new LongAdder());
+        }
+    }
+
+    /**
+     * @return 0, if the handshake may proceed. Otherwise, the seconds for the Retry-After header.
+     */
+    public long tryAdmit() {
+        if (bucket == null) {
+            return 0;
+        }
+
+        long waitNanos = bucket.tryAcquire();
+        if (waitNanos == 0) {
+            return 0;
+        }
+
+        long waitSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        return waitSeconds + ThreadLocalRandom.current().nextInt(RETRY_AFTER_SPREAD_SECONDS + 1);
+    }
+
+    public void count(Result result) {
+        counts.get(result).increment();
+    }
+
+    public long getCount(Result result) {
+        return counts.get(result).sum();
+    }
+
+    @Getter
+    public enum Result {
+        ACCEPTED("accepted"),
+        THROTTLED("throttled"),
+        INVALID_ID("invalid_id"),
+        UNKNOWN_ID("unknown_id"),
+        UNSUPPORTED_PROTOCOL("unsupported_protocol");
+
+        private final String label;
+
+        Result(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Minimal scanning of the envelope of a raw OCPP-J message, without parsing it. Used where a full parse is not worth
+ * it (logging, rejecting a message), and therefore lenient: Malformed messages do not cause exceptions.
+ *
+ * @since 17.10.2026
+ */
+final class OcppJsonHeader {
+
+    private OcppJsonHeader() { }
+
+    /**
+     * @return the message without the payload, e.g. [2,"id","MeterValues",{...1234 chars}]
+     */
+    static String withoutPayload(String msg) {
+        int start = payloadStart(msg);
+        if (start < 0) {
+            // no object payload, the message is short anyway
+            return msg;
+        }
+        return msg.substring(0, start) + "{..." + (msg.length() - start - 1) + " chars}]";
+    }
+
+    /**
+     * @return the action of a CALL, or null if the message is not a CALL
+     */
+    @Nullable
+    static String getAction(String msg) {
+        // [2, "messageId", "action", {...}]
+        return getCallString(msg, 2);
+    }
+
+    /**
+     * @return the message id of a CALL, or null if the message is not a CALL
+     */
+    @Nullable
+    static String getCallMessageId(String msg) {
+        return getCallString(msg, 1);
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    /**
+     * @return the n-th string in the envelope of a CALL
+     */
+    @Nullable
+    private static String getCallString(String msg, int n) {
+        int i = skipWhitespace(msg, 0);
+        if (i >= msg.length() || msg.charAt(i) != '[') {
+            return null;
+        }
+
+        i = skipWhitespace(msg, i + 1);
+        if (i >= msg.length() || msg.charAt(i) != '2') {
+            return null;
+        }
+
+        int stringCount = 0;
+        for (i++; i < msg.length(); i++) {
+            char c = msg.charAt(i);
+            if (c == '{') {
+                return null;
+            } else if (c == '"') {
+                int end = endOfString(msg, i + 1);
+                if (end < 0) {
+                    return null;
+                }
+                if (++stringCount == n) {
+                    return msg.substring(i + 1, end);
+                }
+                i = end;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the index of the first '{' that is not within a string, or -1
+     */
+    private static int payloadStart(String msg) {
+        for (int i = 0; i < msg.length(); i++) {
+            char c = msg.charAt(i);
+            if (c == '{') {
+                return i;
+            } else if (c == '"') {
+                i = endOfString(msg, i + 1);
+                if (i < 0) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the index of the closing quote, or -1 if the string is not terminated
+     */
+    private static int endOfString(String msg, int from) {
+        for (int i = from; i < msg.length(); i++) {
+            char c = msg.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(String msg, int from) {
+        int i = from;
+        while (i < msg.length() && Character.isWhitespace(msg.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
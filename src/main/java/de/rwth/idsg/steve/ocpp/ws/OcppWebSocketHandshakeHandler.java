@@ -18,12 +18,13 @@
  */
 package de.rwth.idsg.steve.ocpp.ws;
 
-import de.rwth.idsg.steve.config.WebSocketConfiguration;
+import de.rwth.idsg.steve.ocpp.ws.HandshakeAdmissionController.Result;
 import de.rwth.idsg.steve.service.ChargePointHelperService;
 import de.rwth.idsg.steve.web.validation.ChargeBoxIdValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ocpp.cs._2015._10.RegistrationStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
@@ -54,6 +55,7 @@ public class OcppWebSocketHandshakeHandler implements HandshakeHandler {
     private final DefaultHandshakeHandler delegate;
     private final List<AbstractWebSocketEndpoint> endpoints;
     private final ChargePointHelperService chargePointHelperService;
+    private final HandshakeAdmissionController admissionController;
 
     /**
      * We need some WebSocketHandler just for Spring to register it for the path. We will not use it for the actual
@@ -76,10 +78,22 @@ public class OcppWebSocketHandshakeHandler implements HandshakeHandler {
         boolean isValid = CHARGE_BOX_ID_VALIDATOR.isValid(chargeBoxId);
         if (!isValid) {
             log.error("ChargeBoxId '{}' violates the configured pattern.", chargeBoxId);
+            admissionController.count(Result.INVALID_ID);
             response.setStatusCode(HttpStatus.BAD_REQUEST);
             return false;
         }
 
+        // before anything goes to the database
+        long retryAfterSeconds = admissionController.tryAdmit();
+        if (retryAfterSeconds > 0) {
+            log.debug("Too many handshakes. ChargeBoxId '{}' should retry after {} seconds.",
+                chargeBoxId, retryAfterSeconds);
+            admissionController.count(Result.THROTTLED);
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            return false;
+        }
+
         Optional<RegistrationStatus> status = chargePointHelperService.getRegistrationStatus(chargeBoxId);
 
         // Allow connections, if station is in db (registration_status field from db does not matter)
@@ -88,6 +102,7 @@ public class OcppWebSocketHandshakeHandler implements HandshakeHandler {
         // https://github.com/steve-community/steve/issues/1020
         if (!allowConnection) {
             log.error("ChargeBoxId '{}' is not recognized.", chargeBoxId);
+            admissionController.count(Result.UNKNOWN_ID);
             response.setStatusCode(HttpStatus.NOT_FOUND);
             return false;
         }
@@ -102,6 +117,7 @@ public class OcppWebSocketHandshakeHandler implements HandshakeHandler {
 
         if (CollectionUtils.isEmpty(requestedProtocols)) {
             log.error("No protocol (OCPP version) is specified.");
+            admissionController.count(Result.UNSUPPORTED_PROTOCOL);
             response.setStatusCode(HttpStatus.BAD_REQUEST);
             return false;
         }
@@ -110,12 +126,17 @@ public class OcppWebSocketHandshakeHandler implements HandshakeHandler {
 
         if (endpoint == null) {
             log.error("None of the requested protocols '{}' is supported", requestedProtocols);
+            admissionController.count(Result.UNSUPPORTED_PROTOCOL);
             response.setStatusCode(HttpStatus.NOT_FOUND);
             return false;
         }
 
         log.debug("ChargeBoxId '{}' will be using {}", chargeBoxId, endpoint.getClass().getSimpleName());
-        return delegate.doHandshake(request, response, endpoint, attributes);
+        boolean accepted = delegate.doHandshake(request, response, endpoint, attributes);
+        if (accepted) {
+            admissionController.count(Result.ACCEPTED);
+        }
+        return accepted;
     }
 
     private AbstractWebSocketEndpoint selectEndpoint(List<String> requestedProtocols ) {
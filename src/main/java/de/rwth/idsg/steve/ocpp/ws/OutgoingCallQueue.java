@@ -0,0 +1,312 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws;
+
+import de.rwth.idsg.steve.SteveException;
+import de.rwth.idsg.steve.config.DelegatingTaskExecutor;
+import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
+import de.rwth.idsg.steve.ocpp.ws.data.FutureResponseContext;
+import de.rwth.idsg.steve.ocpp.ws.data.SessionLoad;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.OutgoingCallPipeline;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * OCPP-J allows only one outstanding CALL per connection. Therefore, we send the next CALL of a session only after
+ * the previous one is done, i.e. when {@link FutureResponseContextStore} got its result or error, its timeout expired
+ * or the connection was closed. Until then, further CALLs wait in a queue of the session.
+ *
+ * Waiting CALLs are ordered by the priority of their action (e.g. RemoteStopTransaction before GetDiagnostics) and
+ * then by their arrival. A CALL that can be sent right away is sent on the calling thread, like before. The next CALL
+ * of a queue is sent on the task executor, since the release happens on the receive threads or the timer thread.
+ *
+ * @since 17.10.2026
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutgoingCallQueue {
+
+    private static final Set<String> HIGH_PRIORITY_ACTIONS = Set.of(
+        "RemoteStopTransaction", "RemoteStartTransaction", "UnlockConnector", "CancelReservation", "ReserveNow",
+        "SetChargingProfile", "ClearChargingProfile"
+    );
+
+    private static final Set<String> LOW_PRIORITY_ACTIONS = Set.of(
+        "GetDiagnostics", "UpdateFirmware", "SendLocalList", "GetLocalListVersion", "ClearCache", "DataTransfer"
+    );
+
+    private static final Comparator<Entry> ORDER = Comparator.comparing((Entry e) -> e.priority)
+                                                             .thenComparingLong(e -> e.sequence);
+
+    private final OutgoingCallPipeline outgoingCallPipeline;
+    private final DelegatingTaskExecutor asyncTaskExecutor;
+
+    private final int maxDepth = CONFIG.getOcpp().getCallQueueMaxDepth();
+
+    private final Map<WebSocketSession, SessionQueue> queues = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder queuedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder dequeuedCount = new LongAdder();
+    private final LongAdder waitNanosSum = new LongAdder();
+
+    public void addSession(WebSocketSession session, SessionLoad load) {
+        queues.putIfAbsent(session, new SessionQueue(load));
+    }
+
+    /**
+     * The waiting CALLs of the session fail, since they cannot be sent anymore
+     */
+    public void removeSession(WebSocketSession session) {
+        SessionQueue queue = queues.remove(session);
+        if (queue == null) {
+            return;
+        }
+
+        List<Entry> dropped;
+        synchronized (queue) {
+            queue.closed = true;
+            dropped = new ArrayList<>(queue.waiting);
+            queue.waiting.clear();
+        }
+
+        for (Entry entry : dropped) {
+            entry.fail(new SteveException("The connection was closed before the call was sent"));
+        }
+    }
+
+    public void submit(CommunicationContext context) {
+        String chargeBoxId = context.getChargeBoxId();
+        SessionQueue queue = queues.get(context.getSession());
+        if (queue == null) {
+            throw new SteveException("The connection to '%s' is closed", chargeBoxId);
+        }
+
+        String action = context.getFutureResponseContext().getAction();
+        Entry entry = new Entry(context, Priority.of(action), sequence.incrementAndGet(), System.nanoTime());
+
+        synchronized (queue) {
+            if (queue.closed) {
+                throw new SteveException("The connection to '%s' is closed", chargeBoxId);
+            }
+            if (queue.busy) {
+                if (queue.waiting.size() >= maxDepth) {
+                    rejectedCount.increment();
+                    throw new SteveException("Too many calls to '%s' are waiting to be sent", chargeBoxId);
+                }
+                queue.waiting.add(entry);
+                queue.load.callSubmitted();
+                queuedCount.increment();
+                log.debug("Queued '{}' for chargeBoxId '{}' (queue depth: {})",
+                    action, chargeBoxId, queue.waiting.size());
+                return;
+            }
+            queue.busy = true;
+            queue.load.callSubmitted();
+        }
+
+        send(queue, entry);
+    }
+
+    /**
+     * @return null, if the session is not known (anymore)
+     */
+    @Nullable
+    public SessionStats getStats(WebSocketSession session) {
+        SessionQueue queue = queues.get(session);
+        if (queue == null) {
+            return null;
+        }
+
+        long now = System.nanoTime();
+        synchronized (queue) {
+            long oldest = queue.waiting.stream().mapToLong(e -> e.enqueuedAtNanos).min().orElse(now);
+            return new SessionStats(queue.busy, queue.waiting.size(), now - oldest);
+        }
+    }
+
+    /**
+     * @return the number of CALLs that are waiting in all queues
+     */
+    public int getWaitingCount() {
+        int count = 0;
+        for (SessionQueue queue : queues.values()) {
+            synchronized (queue) {
+                count += queue.waiting.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of CALLs that had to wait, since an earlier CALL of the session was outstanding
+     */
+    public long getQueuedCount() {
+        return queuedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * @return the number of queued CALLs that were taken from their queue to be sent
+     */
+    public long getDequeuedCount() {
+        return dequeuedCount.sum();
+    }
+
+    /**
+     * @return the total time that the dequeued CALLs waited in their queue
+     */
+    public long getWaitNanosSum() {
+        return waitNanosSum.sum();
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private void send(SessionQueue queue, Entry entry) {
+        FutureResponseContext responseContext = entry.context.getFutureResponseContext();
+        Completion completion = new Completion(queue);
+        responseContext.setCompletionCallback(completion);
+
+        try {
+            outgoingCallPipeline.accept(entry.context);
+        } catch (Exception e) {
+            log.error("Exception occurred", e);
+            entry.fail(e);
+            completion.failed();
+        }
+    }
+
+    private void sendNext(SessionQueue queue) {
+        Entry next;
+        synchronized (queue) {
+            next = queue.waiting.poll();
+            if (next == null) {
+                queue.busy = false;
+                return;
+            }
+        }
+
+        dequeuedCount.increment();
+        waitNanosSum.add(System.nanoTime() - next.enqueuedAtNanos);
+        asyncTaskExecutor.execute(() -> send(queue, next));
+    }
+
+    // -------------------------------------------------------------------------
+    // Classes
+    // -------------------------------------------------------------------------
+
+    private enum Priority {
+        HIGH, NORMAL, LOW;
+
+        private static Priority of(String action) {
+            if (HIGH_PRIORITY_ACTIONS.contains(action)) {
+                return HIGH;
+            } else if (LOW_PRIORITY_ACTIONS.contains(action)) {
+                return LOW;
+            } else {
+                return NORMAL;
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class SessionQueue {
+        private final SessionLoad load;
+        private final PriorityQueue<Entry> waiting = new PriorityQueue<>(ORDER);
+
+        // whether a CALL of this session is outstanding
+        private boolean busy;
+        private boolean closed;
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+        private final CommunicationContext context;
+        private final Priority priority;
+        private final long sequence;
+        private final long enqueuedAtNanos;
+
+        private void fail(Exception e) {
+            context.getFutureResponseContext().getTask().failed(context.getChargeBoxId(), e);
+        }
+    }
+
+    /**
+     * A CALL can be done in more than one way at the same time (e.g. the response arrives while the timeout
+     * expires). Only the first one counts and releases the next CALL.
+     */
+    @RequiredArgsConstructor
+    private class Completion implements Runnable {
+        private final SessionQueue queue;
+        private final long sentAtNanos = System.nanoTime();
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        @Override
+        public void run() {
+            if (done.compareAndSet(false, true)) {
+                queue.load.callCompleted(System.nanoTime() - sentAtNanos);
+                sendNext(queue);
+            }
+        }
+
+        /**
+         * The CALL could not be sent, so there is no round-trip time
+         */
+        private void failed() {
+            if (done.compareAndSet(false, true)) {
+                queue.load.callDropped();
+                sendNext(queue);
+            }
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class SessionStats {
+        // whether a CALL is outstanding
+        private final boolean busy;
+        private final int waitingCount;
+        // how long the oldest waiting CALL is waiting already
+        private final long oldestWaitNanos;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws;
+
+import de.rwth.idsg.steve.config.DelegatingTaskExecutor;
+import de.rwth.idsg.steve.utils.HashedWheelTimer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.joda.time.DateTime;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Pings the WebSocket sessions of all JSON stations and detects dead peers.
+ *
+ * Formerly, every session had its own periodic task in the task scheduler, which resulted in one ScheduledFuture per
+ * connection in its delay queue. Now, all sessions share one {@link HashedWheelTimer}. The first ping of a session is
+ * at a random point within the first interval, such that the pings of stations that connected at the same time (e.g.
+ * after a restart) are spread over the interval.
+ *
+ * A session is alive, if it sent a pong or any other message since the last ping. If it misses the configured number
+ * of pings in a row, the dead peer handler of the session is called, which closes it. Without this, a connection whose
+ * peer is gone silently (e.g. after a power loss of the station) would stay open until the idle timeout.
+ *
+ * The timer thread only makes the decision. Sending the ping (which may block) and closing the session happens on the
+ * task executor.
+ *
+ * @since 17.10.2026
+ */
+@Component
+public class PingScheduler {
+
+    private static final PingMessage PING_MESSAGE = new PingMessage(ByteBuffer.wrap("ping".getBytes(UTF_8)));
+
+    private final DelegatingTaskExecutor asyncTaskExecutor;
+    private final HashedWheelTimer timer;
+
+    private final long intervalInMillis;
+    private final int maxMissedPongs;
+
+    // sessionId -> state
+    private final ConcurrentHashMap<String, PingState> states = new ConcurrentHashMap<>();
+
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder deadPeerCount = new LongAdder();
+
+    @Autowired
+    public PingScheduler(DelegatingTaskExecutor asyncTaskExecutor) {
+        this(
+            asyncTaskExecutor,
+            // a precision of one second is plenty for intervals of minutes. one round of the wheel is ~17 minutes.
+            new HashedWheelTimer("steve-ws-ping", 1, TimeUnit.SECONDS, 1024),
+            TimeUnit.SECONDS.toMillis(CONFIG.getOcpp().getWsPingIntervalInSeconds()),
+            CONFIG.getOcpp().getWsPingMaxMissedPongs()
+        );
+    }
+
+    PingScheduler(DelegatingTaskExecutor asyncTaskExecutor, HashedWheelTimer timer, long intervalInMillis,
+                  int maxMissedPongs) {
+        this.asyncTaskExecutor = asyncTaskExecutor;
+        this.timer = timer;
+        this.intervalInMillis = intervalInMillis;
+        this.maxMissedPongs = maxMissedPongs;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        timer.stop();
+    }
+
+    public void register(String chargeBoxId, WebSocketSession session, Consumer<WebSocketSession> deadPeerHandler) {
+        PingState state = new PingState(chargeBoxId, session, deadPeerHandler);
+        states.put(session.getId(), state);
+
+        long firstDelay = 1 + ThreadLocalRandom.current().nextLong(intervalInMillis);
+        schedule(state, firstDelay);
+    }
+
+    public void unregister(WebSocketSession session) {
+        PingState state = states.remove(session.getId());
+        if (state != null) {
+            cancel(state);
+        }
+    }
+
+    /**
+     * A pong or any other message proves that the peer is alive
+     */
+    public void received(WebSocketSession session) {
+        PingState state = states.get(session.getId());
+        if (state != null) {
+            state.answered.set(true);
+            state.lastReceivedAt = System.currentTimeMillis();
+        }
+    }
+
+    public long getSentCount() {
+        return sentCount.sum();
+    }
+
+    public long getDeadPeerCount() {
+        return deadPeerCount.sum();
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private void schedule(PingState state, long delayInMillis) {
+        state.timeout = timer.newTimeout(() -> tick(state), delayInMillis, TimeUnit.MILLISECONDS);
+
+        // unregistered in the meantime
+        if (states.get(state.session.getId()) != state) {
+            cancel(state);
+        }
+    }
+
+    /**
+     * Runs on the timer thread. There is only one pending timeout per session, so the fields that are not volatile
+     * are only accessed by one tick at a time.
+     */
+    private void tick(PingState state) {
+        if (states.get(state.session.getId()) != state) {
+            return;
+        }
+
+        // read and reset in one step, such that a pong that arrives in between is not lost
+        if (state.answered.getAndSet(false)) {
+            state.missedPongs = 0;
+        } else if (state.pingSent) {
+            state.missedPongs++;
+        }
+
+        if (maxMissedPongs > 0 && state.missedPongs >= maxMissedPongs) {
+            if (states.remove(state.session.getId(), state)) {
+                deadPeerCount.increment();
+                WebSocketLogger.deadPeer(state.chargeBoxId, state.session, state.missedPongs,
+                    state.lastReceivedAt == 0 ? null : new DateTime(state.lastReceivedAt));
+                asyncTaskExecutor.execute(() -> state.deadPeerHandler.accept(state.session));
+            }
+            return;
+        }
+
+        state.pingSent = true;
+        asyncTaskExecutor.execute(() -> sendPing(state));
+
+        schedule(state, intervalInMillis);
+    }
+
+    /**
+     * A failed send is not an error of its own. The station did not get the ping, and therefore it will not answer.
+     */
+    private void sendPing(PingState state) {
+        WebSocketLogger.sendingPing(state.chargeBoxId, state.session);
+        try {
+            state.session.sendMessage(PING_MESSAGE);
+            sentCount.increment();
+        } catch (IOException | RuntimeException e) {
+            WebSocketLogger.pingError(state.chargeBoxId, state.session, e);
+        }
+    }
+
+    private static void cancel(PingState state) {
+        HashedWheelTimer.Timeout timeout = state.timeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class PingState {
+        private final String chargeBoxId;
+        private final WebSocketSession session;
+        private final Consumer<WebSocketSession> deadPeerHandler;
+
+        private volatile HashedWheelTimer.Timeout timeout;
+        private final AtomicBoolean answered = new AtomicBoolean();
+        private volatile long lastReceivedAt;
+
+        // only accessed by tick()
+        private boolean pingSent;
+        private int missedPongs;
+    }
+}
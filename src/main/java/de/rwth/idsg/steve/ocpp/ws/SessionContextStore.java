@@ -19,12 +19,12 @@
 package de.rwth.idsg.steve.ocpp.ws;
 
 import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
+import de.rwth.idsg.steve.ocpp.ws.data.SessionLoad;
 import org.springframework.web.socket.WebSocketSession;
 
 import java.util.Deque;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ScheduledFuture;
 
 /**
  * @author Sevket Goekay <sevketgokay@gmail.com>
@@ -32,9 +32,12 @@ import java.util.concurrent.ScheduledFuture;
  */
 public interface SessionContextStore {
 
-    void add(String chargeBoxId, WebSocketSession session, ScheduledFuture pingSchedule);
+    void add(String chargeBoxId, WebSocketSession session, SessionLoad load);
 
-    void remove(String chargeBoxId, WebSocketSession session);
+    /**
+     * @return false, if the session was not in the store (e.g. already removed)
+     */
+    boolean remove(String chargeBoxId, WebSocketSession session);
 
     WebSocketSession getSession(String chargeBoxId);
 
@@ -42,6 +45,8 @@ public interface SessionContextStore {
 
     int getNumberOfChargeBoxes();
 
+    int getNumberOfSessions();
+
     List<String> getChargeBoxIdList();
 
     Map<String, Deque<SessionContext>> getACopy();
@@ -23,7 +23,9 @@ import com.google.common.util.concurrent.Striped;
 import de.rwth.idsg.steve.SteveException;
 import de.rwth.idsg.steve.ocpp.ws.custom.WsSessionSelectStrategy;
 import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
+import de.rwth.idsg.steve.ocpp.ws.data.SessionLoad;
 import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
 import org.joda.time.DateTime;
 import org.springframework.web.socket.WebSocketSession;
 
@@ -32,14 +34,17 @@ import java.util.Collections;
 import java.util.Deque;
 import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 
 import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
 
 /**
+ * The deques of the lookup table are copy-on-write: Adding or removing a session replaces the deque of the chargeBoxId
+ * (under a lock per chargeBoxId), and a deque is never modified after it is put into the table. Therefore, selecting
+ * a session for an outgoing call does not need any lock.
+ *
  * @author Sevket Goekay <sevketgokay@gmail.com>
  * @since 17.03.2015
  */
@@ -54,17 +59,25 @@ public class SessionContextStoreImpl implements SessionContextStore {
 
     private final Striped<Lock> locks = Striped.lock(16);
 
+    // total number of sessions over all chargeboxes, which can have more than one
+    private final AtomicInteger sessionCount = new AtomicInteger();
+
     private final WsSessionSelectStrategy wsSessionSelectStrategy = CONFIG.getOcpp().getWsSessionSelectStrategy();
 
     @Override
-    public void add(String chargeBoxId, WebSocketSession session, ScheduledFuture pingSchedule) {
+    public void add(String chargeBoxId, WebSocketSession session, SessionLoad load) {
         Lock l = locks.get(chargeBoxId);
         l.lock();
         try {
-            SessionContext context = new SessionContext(session, pingSchedule, DateTime.now());
+            SessionContext context = new SessionContext(session, DateTime.now(), load);
 
-            Deque<SessionContext> endpointDeque = lookupTable.computeIfAbsent(chargeBoxId, str -> new ArrayDeque<>());
+            Deque<SessionContext> endpointDeque = copyOf(lookupTable.get(chargeBoxId));
+            for (SessionContext existing : endpointDeque) {
+                load.initSelectionCount(Math.max(load.getSelectionCount(), existing.getLoad().getSelectionCount()));
+            }
             endpointDeque.addLast(context); // Adding at the end
+            lookupTable.put(chargeBoxId, endpointDeque);
+            sessionCount.incrementAndGet();
 
             log.debug("A new SessionContext is stored for chargeBoxId '{}'. Store size: {}",
                     chargeBoxId, endpointDeque.size());
@@ -74,20 +87,20 @@ public class SessionContextStoreImpl implements SessionContextStore {
     }
 
     @Override
-    public void remove(String chargeBoxId, WebSocketSession session) {
+    public boolean remove(String chargeBoxId, WebSocketSession session) {
         Lock l = locks.get(chargeBoxId);
         l.lock();
         try {
             Deque<SessionContext> endpointDeque = lookupTable.get(chargeBoxId);
             if (endpointDeque == null) {
                 log.debug("No session context to remove for chargeBoxId '{}'", chargeBoxId);
-                return;
+                return false;
             }
 
-            // Prevent "java.util.ConcurrentModificationException: null"
-            // Reason: Cannot modify the set (remove the item) we are iterating
-            // Solution: Iterate the set, find the item, remove the item after the for-loop
-            //
+            // We work on a private copy, which replaces the deque in the lookup table at the end. Readers of the
+            // lookup table (getSession) never see a deque that is being modified and do not need the lock.
+            endpointDeque = copyOf(endpointDeque);
+
             SessionContext toRemove = null;
             for (SessionContext context : endpointDeque) {
                 if (context.getSession().getId().equals(session.getId())) {
@@ -96,20 +109,24 @@ public class SessionContextStoreImpl implements SessionContextStore {
                 }
             }
 
+            boolean removed = false;
             if (toRemove != null) {
-                // 1. Cancel the ping task
-                toRemove.getPingSchedule().cancel(true);
-                // 2. Delete from collection
-                if (endpointDeque.remove(toRemove)) {
+                // 1. Delete from collection
+                removed = endpointDeque.remove(toRemove);
+                if (removed) {
+                    sessionCount.decrementAndGet();
                     log.debug("A SessionContext is removed for chargeBoxId '{}'. Store size: {}",
                             chargeBoxId, endpointDeque.size());
                 }
-                // 3. Delete empty collection from lookup table in order to correctly calculate
+                // 2. Delete empty collection from lookup table in order to correctly calculate
                 // the number of connected chargeboxes with getNumberOfChargeBoxes()
                 if (endpointDeque.size() == 0) {
                     lookupTable.remove(chargeBoxId);
+                } else {
+                    lookupTable.put(chargeBoxId, endpointDeque);
                 }
             }
+            return removed;
         } finally {
             l.unlock();
         }
@@ -117,19 +134,11 @@ public class SessionContextStoreImpl implements SessionContextStore {
 
     @Override
     public WebSocketSession getSession(String chargeBoxId) {
-        Lock l = locks.get(chargeBoxId);
-        l.lock();
-        try {
-            Deque<SessionContext> endpointDeque = lookupTable.get(chargeBoxId);
-            if (endpointDeque == null) {
-                throw new NoSuchElementException();
-            }
-            return wsSessionSelectStrategy.getSession(endpointDeque);
-        } catch (NoSuchElementException e) {
-            throw new SteveException("No session context for chargeBoxId '%s'", chargeBoxId, e);
-        } finally {
-            l.unlock();
+        Deque<SessionContext> endpointDeque = lookupTable.get(chargeBoxId);
+        if (endpointDeque == null || endpointDeque.isEmpty()) {
+            throw new SteveException("No session context for chargeBoxId '%s'", chargeBoxId);
         }
+        return wsSessionSelectStrategy.getSession(endpointDeque);
     }
 
     @Override
@@ -147,6 +156,11 @@ public class SessionContextStoreImpl implements SessionContextStore {
         return lookupTable.size();
     }
 
+    @Override
+    public int getNumberOfSessions() {
+        return sessionCount.get();
+    }
+
     @Override
     public List<String> getChargeBoxIdList() {
         return Collections.list(lookupTable.keys());
@@ -156,4 +170,8 @@ public class SessionContextStoreImpl implements SessionContextStore {
     public Map<String, Deque<SessionContext>> getACopy() {
         return ImmutableMap.copyOf(lookupTable);
     }
+
+    private static Deque<SessionContext> copyOf(@Nullable Deque<SessionContext> endpointDeque) {
+        return endpointDeque == null ? new ArrayDeque<>() : new ArrayDeque<>(endpointDeque);
+    }
 }
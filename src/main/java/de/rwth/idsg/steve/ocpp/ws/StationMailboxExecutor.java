@@ -0,0 +1,300 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws;
+
+import de.rwth.idsg.steve.config.DelegatingTaskExecutor;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * Processes the incoming messages of JSON stations on a worker pool, so that the WebSocket receive threads do not
+ * wait for the database.
+ *
+ * Every station has a mailbox. The messages of one station are processed one after another in the order of arrival,
+ * the messages of different stations in parallel. A mailbox is handed to the pool only when it has messages and is
+ * not already being processed, and it is released after a batch of messages, so that a busy station cannot occupy a
+ * worker forever.
+ *
+ * A mailbox is only removed when it is idle, i.e. has no pending messages and is not being processed. Otherwise, a
+ * quick reconnect of the station would create a second mailbox, and both would be processed in parallel. If the
+ * station disconnects while its mailbox is busy, the mailbox removes itself after the last message. Adding a message
+ * and removing a mailbox are atomic operations on the map.
+ *
+ * If disabled, the messages are processed on the calling thread as before.
+ *
+ * @since 17.10.2026
+ */
+@Slf4j
+@Component
+public class StationMailboxExecutor {
+
+    // messages of one mailbox that are processed in one go, before the worker is released to other mailboxes
+    private static final int BATCH_SIZE = 16;
+
+    private final boolean enabled;
+    private final int maxDepth;
+    private final DelegatingTaskExecutor executor;
+
+    private final ConcurrentHashMap<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    private final LongAdder processedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAdder processingNanos = new LongAdder();
+
+    public StationMailboxExecutor() {
+        this.enabled = CONFIG.getOcpp().isWsMailboxEnabled();
+        this.maxDepth = CONFIG.getOcpp().getWsMailboxMaxDepth();
+        this.executor = enabled ? createExecutor(CONFIG.getOcpp().getWsMailboxConcurrency()) : null;
+    }
+
+    @PreDestroy
+    public void destroy() throws IOException {
+        if (executor != null) {
+            executor.close();
+        }
+    }
+
+    /**
+     * @return false, if the mailbox of the station is full. The task is not executed then.
+     */
+    public boolean submit(String chargeBoxId, Runnable task) {
+        if (!enabled) {
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                processingNanos.add(System.nanoTime() - start);
+                processedCount.increment();
+            }
+            return true;
+        }
+
+        Envelope envelope = new Envelope(task, System.nanoTime());
+        boolean[] enqueued = new boolean[1];
+
+        // scheduling can block (concurrency limit of the executor), therefore it is done outside of the lock. a
+        // mailbox with a pending message is not removed in the meantime.
+        Mailbox mailbox = mailboxes.compute(chargeBoxId, (k, existing) -> {
+            Mailbox m = existing == null ? new Mailbox(k) : existing;
+            // the station is (still or again) connected
+            m.disconnected = false;
+            enqueued[0] = m.enqueue(envelope);
+            return m;
+        });
+
+        return enqueued[0] && mailbox.schedule(envelope);
+    }
+
+    /**
+     * When the last connection of the station is closed. Pending messages are still processed, and the mailbox removes
+     * itself afterwards.
+     */
+    public void remove(String chargeBoxId) {
+        mailboxes.computeIfPresent(chargeBoxId, (k, mailbox) -> {
+            if (mailbox.isIdle()) {
+                return null;
+            }
+            mailbox.disconnected = true;
+            return mailbox;
+        });
+    }
+
+    public Stats getStats() {
+        int pending = 0;
+        for (Mailbox mailbox : mailboxes.values()) {
+            pending += mailbox.depth.get();
+        }
+
+        return new Stats(
+            mailboxes.size(),
+            pending,
+            processedCount.sum(),
+            rejectedCount.sum(),
+            queueNanos.sum(),
+            processingNanos.sum()
+        );
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private static DelegatingTaskExecutor createExecutor(int concurrency) {
+        if (CONFIG.getJetty().isVirtualThreadsEnabled()) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("SteVe-Mailbox-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(concurrency);
+            executor.setTaskTerminationTimeout(30_000);
+            return new DelegatingTaskExecutor(executor);
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setThreadNamePrefix("SteVe-Mailbox-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return new DelegatingTaskExecutor(executor);
+    }
+
+    private final class Mailbox implements Runnable {
+        private final String chargeBoxId;
+        private final Queue<Envelope> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger depth = new AtomicInteger();
+
+        // whether the mailbox is handed to the pool or being processed
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        // whether the mailbox should remove itself when it becomes idle. only written under the lock of the map entry
+        private volatile boolean disconnected = false;
+
+        private Mailbox(String chargeBoxId) {
+            this.chargeBoxId = chargeBoxId;
+        }
+
+        private boolean enqueue(Envelope envelope) {
+            if (depth.incrementAndGet() > maxDepth) {
+                depth.decrementAndGet();
+                rejectedCount.increment();
+                return false;
+            }
+
+            queue.add(envelope);
+            return true;
+        }
+
+        private boolean schedule(Envelope envelope) {
+            try {
+                trySchedule();
+            } catch (RuntimeException e) {
+                // e.g. the executor is shutting down
+                if (queue.remove(envelope)) {
+                    depth.decrementAndGet();
+                }
+                rejectedCount.increment();
+                log.warn("[chargeBoxId={}] Could not schedule the mailbox", chargeBoxId, e);
+                return false;
+            }
+            return true;
+        }
+
+        private void trySchedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RuntimeException e) {
+                    // otherwise, the mailbox would never be scheduled again
+                    scheduled.set(false);
+                    throw e;
+                }
+            }
+        }
+
+        private boolean isIdle() {
+            return !scheduled.get() && queue.isEmpty();
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    Envelope envelope = queue.poll();
+                    if (envelope == null) {
+                        break;
+                    }
+                    depth.decrementAndGet();
+                    process(envelope);
+                }
+            } finally {
+                scheduled.set(false);
+
+                // a message might have arrived after the last poll, but before releasing the mailbox
+                if (!queue.isEmpty()) {
+                    rescheduleOrLog();
+                } else if (disconnected) {
+                    // remove the mailbox, unless a message arrived in the meantime (or the station reconnected)
+                    mailboxes.computeIfPresent(chargeBoxId, (k, m) -> m == this && m.isIdle() ? null : m);
+                }
+            }
+        }
+
+        private void rescheduleOrLog() {
+            try {
+                trySchedule();
+            } catch (RuntimeException e) {
+                log.error("[chargeBoxId={}] Could not schedule the mailbox. Pending messages are processed with the "
+                    + "next message of the station", chargeBoxId, e);
+            }
+        }
+
+        private void process(Envelope envelope) {
+            long start = System.nanoTime();
+            queueNanos.add(start - envelope.enqueuedAt);
+            try {
+                envelope.task.run();
+            } catch (Exception e) {
+                log.error("[chargeBoxId={}] Exception occurred while processing a message", chargeBoxId, e);
+            } finally {
+                processingNanos.add(System.nanoTime() - start);
+                processedCount.increment();
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Envelope {
+        private final Runnable task;
+        private final long enqueuedAt;
+    }
+
+    /**
+     * The latencies are sums over all processed messages, such that averages for any interval can be calculated from
+     * the difference of two snapshots.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Stats {
+        private final int stationCount;
+        private final int pendingCount;
+        private final long processedCount;
+        private final long rejectedCount;
+
+        // time between arrival and start of processing
+        private final long queueNanos;
+
+        // time of processing (deserialize, DB work, serialize, send)
+        private final long processingNanos;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws;
+
+import de.rwth.idsg.steve.web.dto.TrafficLogSettings;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * Decides how much of the OCPP-J traffic is logged. Can be changed at runtime via Web interface and API.
+ *
+ * This is checked for every message, therefore the rules are an immutable snapshot that is replaced as a whole when
+ * changed. In the common case without overrides, the check is a single volatile read.
+ *
+ * @since 17.10.2026
+ */
+@Slf4j
+public enum TrafficLogPolicy {
+    INSTANCE;
+
+    private volatile Rules rules = new Rules(CONFIG.getOcpp().getTrafficLogLevel(), Map.of(), Map.of());
+
+    /**
+     * @param action of the message, if already known. Otherwise, it is looked up in the message only if needed.
+     */
+    public TrafficLogLevel getLevel(String chargeBoxId, String msg, @Nullable String action) {
+        Rules r = rules;
+
+        if (!r.chargeBoxLevels.isEmpty()) {
+            TrafficLogLevel level = r.chargeBoxLevels.get(chargeBoxId);
+            if (level != null) {
+                return level;
+            }
+        }
+
+        if (!r.actionLevels.isEmpty()) {
+            String a = (action == null) ? OcppJsonHeader.getAction(msg) : action;
+            if (a != null) {
+                TrafficLogLevel level = r.actionLevels.get(a);
+                if (level != null) {
+                    return level;
+                }
+            }
+        }
+
+        return r.defaultLevel;
+    }
+
+    public TrafficLogSettings getSettings() {
+        Rules r = rules;
+        return new TrafficLogSettings(r.defaultLevel, r.chargeBoxLevels, r.actionLevels);
+    }
+
+    public void update(TrafficLogSettings settings) {
+        rules = new Rules(
+            settings.getDefaultLevel(),
+            copyOf(settings.getChargeBoxLevels()),
+            copyOf(settings.getActionLevels())
+        );
+        log.info("Traffic logging policy is changed: {}", settings);
+    }
+
+    private static Map<String, TrafficLogLevel> copyOf(@Nullable Map<String, TrafficLogLevel> map) {
+        return (map == null) ? Map.of() : Map.copyOf(map);
+    }
+
+    @RequiredArgsConstructor
+    private static class Rules {
+        private final TrafficLogLevel defaultLevel;
+        private final Map<String, TrafficLogLevel> chargeBoxLevels;
+        private final Map<String, TrafficLogLevel> actionLevels;
+    }
+}
@@ -19,6 +19,8 @@
 package de.rwth.idsg.steve.ocpp.ws;
 
 import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.joda.time.DateTime;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.WebSocketSession;
 
@@ -39,8 +41,11 @@ public final class WebSocketLogger {
         log.warn("[chargeBoxId={}, sessionId={}] Connection is closed, status: {}", chargeBoxId, session.getId(), closeStatus);
     }
 
-    public static void sending(String chargeBoxId, WebSocketSession session, String msg) {
-        log.info("[chargeBoxId={}, sessionId={}] Sending: {}", chargeBoxId, session.getId(), msg);
+    /**
+     * @param action of the outgoing CALL or of the incoming CALL that we respond to, if known
+     */
+    public static void sending(String chargeBoxId, WebSocketSession session, String msg, @Nullable String action) {
+        traffic("Sending", chargeBoxId, session, msg, action);
     }
 
     public static void sendingPing(String chargeBoxId, WebSocketSession session) {
@@ -52,22 +57,62 @@ public final class WebSocketLogger {
     }
 
     public static void receivedText(String chargeBoxId, WebSocketSession session, String msg) {
-        log.info("[chargeBoxId={}, sessionId={}] Received: {}", chargeBoxId, session.getId(), msg);
+        traffic("Received", chargeBoxId, session, msg, null);
     }
 
     public static void receivedEmptyText(String chargeBoxId, WebSocketSession session) {
         log.warn("[chargeBoxId={}, sessionId={}] Received empty text message. Will pretend this never happened.", chargeBoxId, session.getId());
     }
 
+    public static void mailboxFull(String chargeBoxId, WebSocketSession session) {
+        log.warn("[chargeBoxId={}, sessionId={}] Too many messages are waiting to be processed. Rejecting the message.", chargeBoxId, session.getId());
+    }
+
     public static void pingError(String chargeBoxId, WebSocketSession session, Throwable t) {
         if (log.isErrorEnabled()) {
             log.error("[chargeBoxId=" + chargeBoxId + ", sessionId=" + session.getId() + "] Ping error", t);
         }
     }
 
+    public static void deadPeer(String chargeBoxId, WebSocketSession session, int missedPongs,
+                                @Nullable DateTime lastReceivedAt) {
+        log.warn("[chargeBoxId={}, sessionId={}] No answer to the last {} pings (last message received at {}). "
+            + "Closing the connection.", chargeBoxId, session.getId(), missedPongs, lastReceivedAt);
+    }
+
+    public static void processingError(String chargeBoxId, WebSocketSession session, Throwable t) {
+        if (log.isErrorEnabled()) {
+            log.error("[chargeBoxId=" + chargeBoxId + ", sessionId=" + session.getId() + "] Processing error, closing the connection", t);
+        }
+    }
+
     public static void transportError(String chargeBoxId, WebSocketSession session, Throwable t) {
         if (log.isErrorEnabled()) {
             log.error("[chargeBoxId=" + chargeBoxId + ", sessionId=" + session.getId() + "] Transport error", t);
         }
     }
+
+    /**
+     * The policy is checked before anything is formatted, so that disabled messages cost next to nothing.
+     */
+    private static void traffic(String direction, String chargeBoxId, WebSocketSession session, String msg,
+                                @Nullable String action) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+
+        switch (TrafficLogPolicy.INSTANCE.getLevel(chargeBoxId, msg, action)) {
+            case OFF:
+                break;
+            case HEADERS:
+                log.info("[chargeBoxId={}, sessionId={}] {}: {}", chargeBoxId, session.getId(), direction,
+                    OcppJsonHeader.withoutPayload(msg));
+                break;
+            case FULL:
+                log.info("[chargeBoxId={}, sessionId={}] {}: {}", chargeBoxId, session.getId(), direction, msg);
+                break;
+            default:
+                throw new IllegalStateException("Unknown enum type");
+        }
+    }
 }
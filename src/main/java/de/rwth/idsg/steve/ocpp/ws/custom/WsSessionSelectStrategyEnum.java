@@ -19,10 +19,13 @@
 package de.rwth.idsg.steve.ocpp.ws.custom;
 
 import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
+import de.rwth.idsg.steve.ocpp.ws.data.SessionLoad;
 import lombok.Getter;
 import org.springframework.web.socket.WebSocketSession;
 
 import java.util.Deque;
+import java.util.NoSuchElementException;
+import java.util.function.ToLongFunction;
 
 /**
  * @author Sevket Goekay <sevketgokay@gmail.com>
@@ -45,13 +48,37 @@ public enum WsSessionSelectStrategyEnum implements WsSessionSelectStrategy {
         /**
          * The sessions/connections are chosen in a round robin fashion.
          * This would allow to distribute load to different connections.
+         *
+         * The deque must not be modified, since it is shared with other threads. Instead, we take the session that
+         * was chosen least often.
          */
         @Override
         public WebSocketSession getSession(Deque<SessionContext> sessionContexts) {
-            // Remove the first item, and add at the end
-            SessionContext s = sessionContexts.removeFirst();
-            sessionContexts.addLast(s);
-            return s.getSession();
+            return selectMin(sessionContexts, SessionLoad::getSelectionCount);
+        }
+    },
+
+    LEAST_OUTSTANDING {
+        /**
+         * The session/connection with the fewest calls that are outstanding or waiting to be sent. Sessions with the
+         * same count are chosen in a round robin fashion.
+         */
+        @Override
+        public WebSocketSession getSession(Deque<SessionContext> sessionContexts) {
+            return selectMin(sessionContexts, SessionLoad::getPendingCallCount);
+        }
+    },
+
+    LATENCY_WEIGHTED {
+        /**
+         * The session/connection that is expected to answer a new call first: its pending calls plus the new one,
+         * times its average round-trip time. A session without any response yet is preferred, such that its
+         * round-trip time gets measured.
+         */
+        @Override
+        public WebSocketSession getSession(Deque<SessionContext> sessionContexts) {
+            return selectMin(sessionContexts,
+                load -> (load.getPendingCallCount() + 1) * Math.max(1, load.getRoundTripNanos()));
         }
     };
 
@@ -63,4 +90,31 @@ public enum WsSessionSelectStrategyEnum implements WsSessionSelectStrategy {
         }
         throw new IllegalArgumentException("Could not find a valid WsSessionSelectStrategy for name: " + v);
     }
+
+    /**
+     * Reads only the counters of the sessions, without any lock. Ties are broken by the selection count.
+     */
+    private static WebSocketSession selectMin(Deque<SessionContext> sessionContexts,
+                                              ToLongFunction<SessionLoad> score) {
+        SessionContext selected = null;
+        long minScore = Long.MAX_VALUE;
+        long minSelectionCount = Long.MAX_VALUE;
+
+        for (SessionContext context : sessionContexts) {
+            long currentScore = score.applyAsLong(context.getLoad());
+            long selectionCount = context.getLoad().getSelectionCount();
+
+            if (currentScore < minScore || (currentScore == minScore && selectionCount < minSelectionCount)) {
+                selected = context;
+                minScore = currentScore;
+                minSelectionCount = selectionCount;
+            }
+        }
+
+        if (selected == null) {
+            throw new NoSuchElementException();
+        }
+        selected.getLoad().selected();
+        return selected.getSession();
+    }
 }
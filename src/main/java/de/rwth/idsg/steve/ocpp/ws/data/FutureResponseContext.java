@@ -20,9 +20,11 @@ package de.rwth.idsg.steve.ocpp.ws.data;
 
 import de.rwth.idsg.ocpp.jaxb.ResponseType;
 import de.rwth.idsg.steve.ocpp.CommunicationTask;
+import de.rwth.idsg.steve.utils.HashedWheelTimer;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * @author Sevket Goekay <sevketgokay@gmail.com>
@@ -34,4 +36,21 @@ import lombok.Setter;
 public class FutureResponseContext {
     private final CommunicationTask task;
     private final Class<? extends ResponseType> responseClass;
+    private final String chargeBoxId;
+    private final String action;
+
+    // deadline for the response. set when the call is stored as outstanding
+    private HashedWheelTimer.Timeout timeout;
+
+    // System.nanoTime() when the call was sent, for the round-trip time
+    private long sentAtNanos;
+
+    // runs when the call is done (response, error, timeout or closed connection), to send the next call of the session
+    @Nullable private Runnable completionCallback;
+
+    public void completed() {
+        if (completionCallback != null) {
+            completionCallback.run();
+        }
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws.data;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The load of a WebSocket session, for choosing between multiple connections of a station (see
+ * {@link de.rwth.idsg.steve.ocpp.ws.custom.WsSessionSelectStrategyEnum}). Written by
+ * {@link de.rwth.idsg.steve.ocpp.ws.OutgoingCallQueue}, read without any lock.
+ *
+ * @since 17.10.2026
+ */
+public class SessionLoad {
+
+    // weight of a new sample in the moving average of the round-trip time
+    private static final double ALPHA = 0.2;
+
+    // CALLs that are outstanding or waiting in the queue of the session
+    private final AtomicInteger pendingCallCount = new AtomicInteger();
+
+    // how often the session was chosen for a CALL
+    private final AtomicLong selectionCount = new AtomicLong();
+
+    // moving average. 0, until the first response arrived
+    private volatile long roundTripNanos;
+
+    public int getPendingCallCount() {
+        return pendingCallCount.get();
+    }
+
+    public long getSelectionCount() {
+        return selectionCount.get();
+    }
+
+    public long getRoundTripNanos() {
+        return roundTripNanos;
+    }
+
+    public void selected() {
+        selectionCount.incrementAndGet();
+    }
+
+    /**
+     * A new session starts at the count of the busiest one. Otherwise, it would get all CALLs until it catches up.
+     */
+    public void initSelectionCount(long count) {
+        selectionCount.set(count);
+    }
+
+    public void callSubmitted() {
+        pendingCallCount.incrementAndGet();
+    }
+
+    public void callDropped() {
+        pendingCallCount.decrementAndGet();
+    }
+
+    /**
+     * The calls of a session are completed one after another (one outstanding call per connection), so the moving
+     * average has a single writer at a time.
+     */
+    public void callCompleted(long roundTripNanos) {
+        pendingCallCount.decrementAndGet();
+
+        long average = this.roundTripNanos;
+        this.roundTripNanos = average == 0
+            ? roundTripNanos
+            : (long) (ALPHA * roundTripNanos + (1 - ALPHA) * average);
+    }
+}
@@ -44,6 +44,8 @@ import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
 
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
 /**
  * @author Sevket Goekay <sevketgokay@gmail.com>
  * @since 12.03.2015
@@ -56,7 +58,8 @@ public class Ocpp12WebSocketEndpoint extends AbstractWebSocketEndpoint {
 
     @PostConstruct
     public void init() {
-        Deserializer deserializer = new Deserializer(futureResponseContextStore, Ocpp12TypeStore.INSTANCE);
+        Deserializer deserializer = new Deserializer(futureResponseContextStore, Ocpp12TypeStore.INSTANCE,
+                CONFIG.getOcpp().isJsonDirectBinding());
         IncomingPipeline pipeline = new IncomingPipeline(deserializer, new Ocpp12CallHandler(server));
         super.init(pipeline);
     }
@@ -44,6 +44,8 @@ import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
 
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
 /**
  * @author Sevket Goekay <sevketgokay@gmail.com>
  * @since 13.03.2018
@@ -56,7 +58,8 @@ public class Ocpp16WebSocketEndpoint extends AbstractWebSocketEndpoint {
 
     @PostConstruct
     public void init() {
-        Deserializer deserializer = new Deserializer(futureResponseContextStore, Ocpp16TypeStore.INSTANCE);
+        Deserializer deserializer = new Deserializer(futureResponseContextStore, Ocpp16TypeStore.INSTANCE,
+                CONFIG.getOcpp().isJsonDirectBinding());
         IncomingPipeline pipeline = new IncomingPipeline(deserializer, new Ocpp16CallHandler(server));
         super.init(pipeline);
     }
@@ -19,11 +19,11 @@
 package de.rwth.idsg.steve.ocpp.ws.pipeline;
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.TreeNode;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-import com.fasterxml.jackson.databind.node.NullNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import de.rwth.idsg.ocpp.jaxb.RequestType;
 import de.rwth.idsg.ocpp.jaxb.ResponseType;
@@ -48,6 +48,10 @@ import java.util.function.Consumer;
 /**
  * Incoming String --> OcppJsonMessage
  *
+ * With direct binding, the payload is bound from the parser to the JAXB class. Otherwise, it is read into a JsonNode
+ * tree first, which doubles the allocations for large messages (e.g. MeterValues). In both modes, invalid payloads of
+ * incoming CALLs are answered with the same CALLERROR.
+ *
  * @author Sevket Goekay <sevketgokay@gmail.com>
  * @since 17.03.2015
  */
@@ -59,6 +63,11 @@ public class Deserializer implements Consumer<CommunicationContext> {
 
     private final FutureResponseContextStore futureResponseContextStore;
     private final TypeStore typeStore;
+    private final boolean directBinding;
+
+    public Deserializer(FutureResponseContextStore futureResponseContextStore, TypeStore typeStore) {
+        this(futureResponseContextStore, typeStore, true);
+    }
 
     /**
      * Parsing with streaming API is cumbersome, but only it allows to parse the String step for step
@@ -126,15 +135,7 @@ public class Deserializer implements Consumer<CommunicationContext> {
         // parse request payload
         RequestType req;
         try {
-            parser.nextToken();
-            JsonNode requestPayload = parser.readValueAsTree();
-
-            // https://github.com/steve-community/steve/issues/1109
-            if (requestPayload instanceof NullNode) {
-                requestPayload = new ObjectNode(JsonNodeFactory.instance);
-            }
-
-            req = mapper.treeToValue(requestPayload, clazz);
+            req = readPayload(parser, clazz, true);
         } catch (IOException e) {
             log.error("Exception occurred", e);
             context.setOutgoingMessage(ErrorFactory.payloadDeserializeError(messageId, e.getMessage()));
@@ -164,9 +165,7 @@ public class Deserializer implements Consumer<CommunicationContext> {
 
         ResponseType res;
         try {
-            parser.nextToken();
-            JsonNode responsePayload = parser.readValueAsTree();
-            res = mapper.treeToValue(responsePayload, responseContext.getResponseClass());
+            res = readPayload(parser, responseContext.getResponseClass(), false);
         } catch (IOException e) {
             throw new SteveException("Deserialization of incoming response payload failed", e);
         }
@@ -177,6 +176,7 @@ public class Deserializer implements Consumer<CommunicationContext> {
 
         context.setIncomingMessage(result);
         context.createResultHandler(responseContext.getTask());
+        context.setFutureResponseContext(responseContext);
     }
 
     /**
@@ -229,6 +229,26 @@ public class Deserializer implements Consumer<CommunicationContext> {
 
         context.setIncomingMessage(error);
         context.createErrorHandler(responseContext.getTask());
+        context.setFutureResponseContext(responseContext);
+    }
+
+    /**
+     * @param nullAsEmpty whether a null payload should be treated as an empty object
+     */
+    private <T> T readPayload(JsonParser parser, Class<T> clazz, boolean nullAsEmpty) throws IOException {
+        JsonToken token = parser.nextToken();
+
+        // https://github.com/steve-community/steve/issues/1109
+        if (nullAsEmpty && token == JsonToken.VALUE_NULL) {
+            return mapper.treeToValue(new ObjectNode(JsonNodeFactory.instance), clazz);
+        }
+
+        if (directBinding) {
+            return mapper.readValue(parser, clazz);
+        } else {
+            JsonNode payload = parser.readValueAsTree();
+            return mapper.treeToValue(payload, clazz);
+        }
     }
 
 }
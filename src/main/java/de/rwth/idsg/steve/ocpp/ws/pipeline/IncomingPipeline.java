@@ -18,7 +18,9 @@
  */
 package de.rwth.idsg.steve.ocpp.ws.pipeline;
 
+import de.rwth.idsg.steve.metrics.OcppMetrics;
 import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
+import de.rwth.idsg.steve.ocpp.ws.data.FutureResponseContext;
 import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonCall;
 import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonError;
 import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonMessage;
@@ -40,18 +42,21 @@ public class IncomingPipeline implements Consumer<CommunicationContext> {
 
     private final Serializer serializer = Serializer.INSTANCE;
     private final Sender sender = Sender.INSTANCE;
+    private final OcppMetrics metrics = OcppMetrics.INSTANCE;
 
     private final Deserializer deserializer;
     private final AbstractCallHandler handler;
 
     @Override
     public void accept(CommunicationContext context) {
+        long start = System.nanoTime();
         deserializer.accept(context);
 
         // When the incoming could not be deserialized
         if (context.isSetOutgoingError()) {
             serializer.accept(context);
             sender.accept(context);
+            metrics.invalidIncoming();
             return;
         }
 
@@ -61,12 +66,19 @@ public class IncomingPipeline implements Consumer<CommunicationContext> {
             handler.accept(context);
             serializer.accept(context);
             sender.accept(context);
+            metrics.incomingCall(((OcppJsonCall) msg).getAction(), System.nanoTime() - start);
 
         } else if (msg instanceof OcppJsonResult) {
+            FutureResponseContext responseContext = context.getFutureResponseContext();
+            metrics.outgoingCallResult(responseContext.getAction(), start - responseContext.getSentAtNanos());
+
             context.getResultHandler()
                    .accept((OcppJsonResult) msg);
 
         } else if (msg instanceof OcppJsonError) {
+            FutureResponseContext responseContext = context.getFutureResponseContext();
+            metrics.outgoingCallError(responseContext.getAction(), start - responseContext.getSentAtNanos());
+
             context.getErrorHandler()
                    .accept((OcppJsonError) msg);
         }
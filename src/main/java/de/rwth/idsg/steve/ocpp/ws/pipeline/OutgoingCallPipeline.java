@@ -18,8 +18,10 @@
  */
 package de.rwth.idsg.steve.ocpp.ws.pipeline;
 
+import de.rwth.idsg.steve.metrics.OcppMetrics;
 import de.rwth.idsg.steve.ocpp.ws.FutureResponseContextStore;
 import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
+import de.rwth.idsg.steve.ocpp.ws.data.FutureResponseContext;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -52,10 +54,14 @@ public class OutgoingCallPipeline implements Consumer<CommunicationContext> {
 
     private static Consumer<CommunicationContext> saveInStore(FutureResponseContextStore store) {
         return context -> {
+            FutureResponseContext responseContext = context.getFutureResponseContext();
+            responseContext.setSentAtNanos(System.nanoTime());
+            OcppMetrics.INSTANCE.outgoingCall(responseContext.getAction());
+
             // All went well, and the call is sent. Store the response context for later lookup.
             store.add(context.getSession(),
                       context.getOutgoingMessage().getMessageId(),
-                      context.getFutureResponseContext());
+                      responseContext);
         };
     }
 
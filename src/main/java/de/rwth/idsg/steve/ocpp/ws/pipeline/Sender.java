@@ -45,7 +45,7 @@ public enum Sender implements Consumer<CommunicationContext> {
         String chargeBoxId = context.getChargeBoxId();
         WebSocketSession session = context.getSession();
 
-        WebSocketLogger.sending(chargeBoxId, session, outgoingString);
+        WebSocketLogger.sending(chargeBoxId, session, outgoingString, getAction(context));
 
         TextMessage out = new TextMessage(outgoingString);
         try {
@@ -60,4 +60,17 @@ public enum Sender implements Consumer<CommunicationContext> {
             }
         }
     }
+
+    /**
+     * For outgoing CALLs, and for responses to incoming CALLs
+     */
+    private static String getAction(CommunicationContext context) {
+        if (context.getOutgoingMessage() instanceof OcppJsonCall call) {
+            return call.getAction();
+        } else if (context.getIncomingMessage() instanceof OcppJsonCall call) {
+            return call.getAction();
+        } else {
+            return null;
+        }
+    }
 }
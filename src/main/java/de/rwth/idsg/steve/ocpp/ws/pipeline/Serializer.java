@@ -18,10 +18,9 @@
  */
 package de.rwth.idsg.steve.ocpp.ws.pipeline;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import de.rwth.idsg.steve.SteveException;
 import de.rwth.idsg.steve.ocpp.ws.ErrorFactory;
 import de.rwth.idsg.steve.ocpp.ws.JsonObjectMapper;
@@ -34,12 +33,14 @@ import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonResult;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.util.function.Consumer;
 
 /**
  * Outgoing OcppJsonMessage --> String.
  *
- * This class should remain stateless.
+ * The message is written with a JsonGenerator into a buffer of the current thread, without building a JsonNode tree
+ * first. Apart from these buffers, this class should remain stateless.
  *
  * @author Sevket Goekay <sevketgokay@gmail.com>
  * @since 17.03.2015
@@ -50,11 +51,13 @@ public enum Serializer implements Consumer<CommunicationContext> {
 
     private final ObjectMapper mapper = JsonObjectMapper.INSTANCE.getMapper();
 
+    private final ThreadLocal<BufferWriter> buffers = ThreadLocal.withInitial(BufferWriter::new);
+
     @Override
     public void accept(CommunicationContext context) {
         OcppJsonMessage message = context.getOutgoingMessage();
 
-        ArrayNode str;
+        String str;
         MessageType messageType = message.getMessageType();
         switch (messageType) {
             case CALL:
@@ -73,12 +76,7 @@ public enum Serializer implements Consumer<CommunicationContext> {
                 throw new SteveException("Unknown enum type");
         }
 
-        try {
-            String result = mapper.writeValueAsString(str);
-            context.setOutgoingString(result);
-        } catch (IOException e) {
-            throw new SteveException("The outgoing message could not be serialized", e);
-        }
+        context.setOutgoingString(str);
     }
 
     // -------------------------------------------------------------------------
@@ -89,43 +87,43 @@ public enum Serializer implements Consumer<CommunicationContext> {
      * Do NOT catch and handle exceptions for outgoing CALLs. Do NOT send the message.
      * Let the processing fail and acknowledge the user.
      */
-    private ArrayNode handleCall(OcppJsonCall call) {
-        JsonNode payloadNode;
+    private String handleCall(OcppJsonCall call) {
         try {
-            payloadNode = mapper.valueToTree(call.getPayload());
-        } catch (IllegalArgumentException e) {
+            return write(gen -> {
+                gen.writeStartArray();
+                gen.writeNumber(call.getMessageType().getTypeNr());
+                gen.writeString(call.getMessageId());
+                gen.writeString(call.getAction());
+                mapper.writeValue(gen, call.getPayload());
+                gen.writeEndArray();
+            });
+        } catch (JsonProcessingException e) {
             throw new SteveException("The payload of the outgoing call could not be converted to JSON", e);
         }
-
-        return mapper.createArrayNode()
-                     .add(call.getMessageType().getTypeNr())
-                     .add(call.getMessageId())
-                     .add(call.getAction())
-                     .add(payloadNode);
     }
 
     /**
      * Catch exceptions and wrap them in outgoing ERRORs for outgoing RESPONSEs.
      */
-    private ArrayNode handleResult(OcppJsonResult result) {
-        JsonNode payloadNode;
+    private String handleResult(OcppJsonResult result) {
         try {
-            payloadNode = mapper.valueToTree(result.getPayload());
-        } catch (IllegalArgumentException e) {
+            return write(gen -> {
+                gen.writeStartArray();
+                gen.writeNumber(result.getMessageType().getTypeNr());
+                gen.writeString(result.getMessageId());
+                mapper.writeValue(gen, result.getPayload());
+                gen.writeEndArray();
+            });
+        } catch (JsonProcessingException e) {
             log.error("Exception occurred", e);
             return handleError(ErrorFactory.payloadSerializeError(result.getMessageId(), e.getMessage()));
         }
-
-        return mapper.createArrayNode()
-                     .add(result.getMessageType().getTypeNr())
-                     .add(result.getMessageId())
-                     .add(payloadNode);
     }
 
     /**
      * No exception to catch during serialization, since the fields of the error are simple Strings.
      */
-    private ArrayNode handleError(OcppJsonError error) {
+    private String handleError(OcppJsonError error) {
         // From spec:
         // ErrorDescription - Should be filled in if possible, otherwise a clear empty string "".
         String description;
@@ -135,19 +133,103 @@ public enum Serializer implements Consumer<CommunicationContext> {
             description = "";
         }
 
-        // From spec:
-        // ErrorDetails - This JSON object describes error details in an undefined way.
-        // If there are no error details you should fill in an empty object {}, missing or null is not allowed
-        ObjectNode detailsNode = mapper.createObjectNode();
-        if (error.isSetDetails()) {
-            detailsNode.set("errorMsg", mapper.getNodeFactory().textNode(error.toStringErrorDetails()));
+        try {
+            return write(gen -> {
+                gen.writeStartArray();
+                gen.writeNumber(error.getMessageType().getTypeNr());
+                gen.writeString(error.getMessageId());
+                gen.writeString(error.getErrorCode().name());
+                gen.writeString(description);
+
+                // From spec:
+                // ErrorDetails - This JSON object describes error details in an undefined way.
+                // If there are no error details you should fill in an empty object {}, missing or null is not allowed
+                gen.writeStartObject();
+                if (error.isSetDetails()) {
+                    gen.writeStringField("errorMsg", error.toStringErrorDetails());
+                }
+                gen.writeEndObject();
+
+                gen.writeEndArray();
+            });
+        } catch (JsonProcessingException e) {
+            throw new SteveException("The outgoing message could not be serialized", e);
         }
+    }
+
+    /**
+     * The buffer is only written to memory. Therefore, the only IOExceptions to expect are JsonProcessingExceptions
+     * (e.g. a payload that cannot be serialized). If one occurs, the partially written output is discarded.
+     */
+    private String write(GeneratorWriter messageWriter) throws JsonProcessingException {
+        BufferWriter buffer = buffers.get();
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(buffer)) {
+            messageWriter.write(gen);
+            gen.flush();
+            return buffer.toString();
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new SteveException("The outgoing message could not be serialized", e);
+        } finally {
+            buffer.reset();
+        }
+    }
+
+    @FunctionalInterface
+    private interface GeneratorWriter {
+        void write(JsonGenerator gen) throws IOException;
+    }
 
-        return mapper.createArrayNode()
-                     .add(error.getMessageType().getTypeNr())
-                     .add(error.getMessageId())
-                     .add(error.getErrorCode().name())
-                     .add(description)
-                     .add(detailsNode);
+    /**
+     * Unsynchronized, reusable alternative to StringWriter. The generator buffers the output internally (with its
+     * recycled buffers) and flushes it in chunks to this writer.
+     */
+    private static final class BufferWriter extends Writer {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        // do not hold on to buffers of exceptionally large messages
+        private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+        private StringBuilder sb = new StringBuilder(INITIAL_CAPACITY);
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            sb.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            sb.append(str, off, off + len);
+        }
+
+        @Override
+        public void write(int c) {
+            sb.append((char) c);
+        }
+
+        @Override
+        public void flush() {
+            // no-op
+        }
+
+        @Override
+        public void close() {
+            // no-op, the buffer is reused
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
+
+        private void reset() {
+            if (sb.capacity() > MAX_RETAINED_CAPACITY) {
+                sb = new StringBuilder(INITIAL_CAPACITY);
+            } else {
+                sb.setLength(0);
+            }
+        }
     }
 }
@@ -39,6 +39,11 @@ import java.util.Optional;
 public interface ChargePointRepository {
     Optional<String> getRegistrationStatus(String chargeBoxId);
 
+    /**
+     * Same as {@link #getRegistrationStatus(String)}, but reads from DB and not from the cache
+     */
+    Optional<String> loadRegistrationStatus(String chargeBoxId);
+
     List<ChargePointSelect> getChargePointSelect(OcppProtocol protocol, List<String> inStatusFilter, List<String> chargeBoxIdFilter);
 
     default List<ChargePointSelect> getChargePointSelect(OcppProtocol protocol, List<String> inStatusFilter) {
@@ -0,0 +1,57 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository;
+
+import de.rwth.idsg.steve.repository.dto.TablePartition;
+
+import java.util.List;
+
+/**
+ * Maintenance of the partitions of tables that are partitioned by RANGE over a timestamp column
+ * (see V1_0_10__update.sql). All operations are DDL and do not touch the rows of the other partitions.
+ *
+ * @since 17.10.2026
+ */
+public interface PartitionRepository {
+
+    /**
+     * @return the partitions ordered by their upper bound, or an empty list if the table is not partitioned
+     */
+    List<TablePartition> getPartitions(String table);
+
+    /**
+     * Exact, but reads the whole partition (without locking it)
+     */
+    long getRowCount(String table, String partition);
+
+    /**
+     * The new partitions must be ordered and come after the existing ones. If there is a MAXVALUE partition, they are
+     * split off it.
+     */
+    void addPartitions(String table, List<TablePartition> partitions);
+
+    void dropPartition(String table, String partition);
+
+    /**
+     * Moves the rows of the partition into the new table archiveTable (with the same structure, but not partitioned)
+     * and drops the partition. Can be repeated after a failed run: an empty archiveTable is recreated, and if it holds
+     * the rows already, only the partition is dropped.
+     */
+    void archivePartition(String table, String partition, String archiveTable);
+}
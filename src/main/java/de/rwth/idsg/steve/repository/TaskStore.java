@@ -28,7 +28,11 @@ import java.util.List;
  * @since 29.12.2014
  */
 public interface TaskStore {
-    List<TaskOverview> getOverview();
+    /**
+     * @return a page of the tasks, newest first
+     */
+    List<TaskOverview> getOverview(int offset, int limit);
+    int getSize();
     CommunicationTask get(Integer taskId);
     Integer add(CommunicationTask task);
     void clearFinished();
@@ -24,6 +24,7 @@ import de.rwth.idsg.steve.web.dto.TransactionQueryForm;
 
 import java.io.Writer;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * @author Sevket Goekay <sevketgokay@gmail.com>
@@ -32,6 +33,15 @@ import java.util.List;
 public interface TransactionRepository {
     List<Transaction> getTransactions(TransactionQueryForm form);
 
+    /**
+     * Same as {@link #getTransactions(TransactionQueryForm)}, but the transactions are streamed from DB and passed
+     * to the consumer one by one, without collecting them in memory
+     */
+    void forEachTransaction(TransactionQueryForm form, Consumer<Transaction> consumer);
+
+    /**
+     * The rows are streamed from DB and written in chunks
+     */
     void writeTransactionsCSV(TransactionQueryForm form, Writer writer);
 
     List<Integer> getActiveTransactionIds(String chargeBoxId);
@@ -0,0 +1,44 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A partition of a table that is partitioned by RANGE over a timestamp column.
+ *
+ * @since 17.10.2026
+ */
+@Getter
+@Builder
+public final class TablePartition {
+    private final String name;
+
+    // exclusive upper bound in epoch seconds (UTC). null for the partition with "VALUES LESS THAN MAXVALUE"
+    @Nullable private final Long upperBound;
+
+    // data and index size as estimated by InnoDB. for new partitions, this is not set.
+    private final long sizeInBytes;
+
+    public boolean isMaxValue() {
+        return upperBound == null;
+    }
+}
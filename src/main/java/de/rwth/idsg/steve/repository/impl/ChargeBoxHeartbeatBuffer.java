@@ -0,0 +1,165 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import com.google.common.collect.Iterables;
+import de.rwth.idsg.steve.config.DelegatingTaskScheduler;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.joda.time.DateTime;
+import org.jooq.CaseValueStep;
+import org.jooq.CaseWhenStep;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.impl.DSL;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
+
+/**
+ * Write-behind buffer for CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP.
+ *
+ * Heartbeats and WebSocket pongs arrive continuously from every station, but we are only interested in the latest
+ * timestamp per station. Therefore, we keep the latest value per chargeBoxId in memory (last write wins) and write all
+ * pending values with one UPDATE statement per batch at a fixed interval. Pending values are also written on shutdown.
+ *
+ * Readers of the heartbeat timestamp should go through {@link #getLatest(String, DateTime)} to not display stale values.
+ *
+ * BootNotifications still write the timestamp directly. A buffered value can therefore be older than the one in the
+ * database at the time of the flush, and the flush must never move the timestamp backwards.
+ *
+ * @since 17.10.2026
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class ChargeBoxHeartbeatBuffer {
+
+    /**
+     * Upper limit for the number of stations in one UPDATE statement, to keep the statement size reasonable
+     */
+    private static final int BATCH_SIZE = 500;
+
+    private final DSLContext ctx;
+    private final DelegatingTaskScheduler asyncTaskScheduler;
+
+    private final ConcurrentHashMap<String, DateTime> pending = new ConcurrentHashMap<>();
+
+    private ScheduledFuture<?> flushSchedule;
+
+    @PostConstruct
+    public void init() {
+        Duration interval = Duration.ofSeconds(CONFIG.getOcpp().getHeartbeatFlushIntervalInSeconds());
+        flushSchedule = asyncTaskScheduler.scheduleAtFixedRate(this::flush, Instant.now().plus(interval), interval);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (flushSchedule != null) {
+            flushSchedule.cancel(false);
+        }
+        flush();
+    }
+
+    public void put(String chargeBoxId, DateTime timestamp) {
+        pending.merge(chargeBoxId, timestamp, (oldValue, newValue) -> newValue.isBefore(oldValue) ? oldValue : newValue);
+    }
+
+    /**
+     * @param fromDatabase the value that was read from the database
+     * @return the pending value, if it exists and is more recent than the value from database
+     */
+    public DateTime getLatest(String chargeBoxId, DateTime fromDatabase) {
+        DateTime buffered = pending.get(chargeBoxId);
+        if (buffered == null) {
+            return fromDatabase;
+        } else if (fromDatabase == null || buffered.isAfter(fromDatabase)) {
+            return buffered;
+        } else {
+            return fromDatabase;
+        }
+    }
+
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<String, DateTime> snapshot = new HashMap<>(pending);
+
+        for (List<Map.Entry<String, DateTime>> batch : Iterables.partition(snapshot.entrySet(), BATCH_SIZE)) {
+            try {
+                updateHeartbeats(batch);
+            } catch (Exception e) {
+                // do not remove the entries. they will be retried with the next flush.
+                log.error("Failed to write {} heartbeat timestamps", batch.size(), e);
+                continue;
+            }
+
+            // remove only if not modified in the meantime. otherwise, the newer value will be written with next flush.
+            batch.forEach(entry -> pending.remove(entry.getKey(), entry.getValue()));
+        }
+
+        log.debug("Flushed heartbeat timestamps of {} charge boxes", snapshot.size());
+    }
+
+    /**
+     * UPDATE charge_box
+     * SET last_heartbeat_timestamp = CASE charge_box_id
+     *                                 WHEN ? THEN GREATEST(COALESCE(last_heartbeat_timestamp, ?), ?)
+     *                                 ...
+     *                                 ELSE last_heartbeat_timestamp END
+     * WHERE charge_box_id IN (?, ?, ...)
+     */
+    private void updateHeartbeats(List<Map.Entry<String, DateTime>> batch) {
+        CaseValueStep<String> caseStep = DSL.choose(CHARGE_BOX.CHARGE_BOX_ID);
+        CaseWhenStep<String, DateTime> whenStep = null;
+        List<String> chargeBoxIds = new ArrayList<>(batch.size());
+
+        for (Map.Entry<String, DateTime> entry : batch) {
+            String chargeBoxId = entry.getKey();
+            Field<DateTime> buffered = DSL.val(entry.getValue(), CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP);
+            Field<DateTime> timestamp =
+                DSL.greatest(DSL.coalesce(CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP, buffered), buffered);
+
+            whenStep = (whenStep == null)
+                ? caseStep.when(DSL.val(chargeBoxId), timestamp)
+                : whenStep.when(DSL.val(chargeBoxId), timestamp);
+
+            chargeBoxIds.add(chargeBoxId);
+        }
+
+        ctx.update(CHARGE_BOX)
+           .set(CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP, whenStep.otherwise(CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP))
+           .where(CHARGE_BOX.CHARGE_BOX_ID.in(chargeBoxIds))
+           .execute();
+    }
+}
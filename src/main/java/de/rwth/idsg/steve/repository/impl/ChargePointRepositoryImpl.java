@@ -36,13 +36,11 @@ import ocpp.cs._2015._10.RegistrationStatus;
 import org.joda.time.DateTime;
 import org.jooq.Condition;
 import org.jooq.DSLContext;
-import org.jooq.Field;
 import org.jooq.Record1;
 import org.jooq.Record5;
 import org.jooq.Result;
 import org.jooq.SelectConditionStep;
 import org.jooq.SelectQuery;
-import org.jooq.Table;
 import org.jooq.exception.DataAccessException;
 import org.jooq.impl.DSL;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -52,13 +50,18 @@ import org.springframework.util.CollectionUtils;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static de.rwth.idsg.steve.utils.CustomDSL.date;
 import static de.rwth.idsg.steve.utils.CustomDSL.includes;
 import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
 import static jooq.steve.db.tables.Connector.CONNECTOR;
+import static jooq.steve.db.tables.ConnectorMeterValue.CONNECTOR_METER_VALUE;
 import static jooq.steve.db.tables.ConnectorStatus.CONNECTOR_STATUS;
+import static jooq.steve.db.tables.ConnectorStatusLatest.CONNECTOR_STATUS_LATEST;
+import static jooq.steve.db.tables.OcppTag.OCPP_TAG;
+import static jooq.steve.db.tables.TransactionStart.TRANSACTION_START;
 
 /**
  * @author Sevket Goekay <sevketgokay@gmail.com>
@@ -70,21 +73,34 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
 
     private final DSLContext ctx;
     private final AddressRepository addressRepository;
+    private final ChargeBoxHeartbeatBuffer heartbeatBuffer;
+    private final ConnectorPkCache connectorPkCache;
+    private final StatisticsCache statisticsCache;
+    private final RegistrationStatusCache registrationStatusCache;
 
     @Autowired
-    public ChargePointRepositoryImpl(DSLContext ctx, AddressRepository addressRepository) {
+    public ChargePointRepositoryImpl(DSLContext ctx, AddressRepository addressRepository,
+                                     ChargeBoxHeartbeatBuffer heartbeatBuffer, ConnectorPkCache connectorPkCache,
+                                     StatisticsCache statisticsCache, RegistrationStatusCache registrationStatusCache) {
         this.ctx = ctx;
         this.addressRepository = addressRepository;
+        this.heartbeatBuffer = heartbeatBuffer;
+        this.connectorPkCache = connectorPkCache;
+        this.statisticsCache = statisticsCache;
+        this.registrationStatusCache = registrationStatusCache;
     }
 
+    /**
+     * Read through {@link RegistrationStatusCache}, also for unknown chargeBoxIds
+     */
     @Override
     public Optional<String> getRegistrationStatus(String chargeBoxId) {
-        String status = ctx.select(CHARGE_BOX.REGISTRATION_STATUS)
-                           .from(CHARGE_BOX)
-                           .where(CHARGE_BOX.CHARGE_BOX_ID.eq(chargeBoxId))
-                           .fetchOne(CHARGE_BOX.REGISTRATION_STATUS);
+        return registrationStatusCache.get(chargeBoxId, this::selectRegistrationStatus);
+    }
 
-        return Optional.ofNullable(status);
+    @Override
+    public Optional<String> loadRegistrationStatus(String chargeBoxId) {
+        return registrationStatusCache.load(chargeBoxId, this::selectRegistrationStatus);
     }
 
     @Override
@@ -121,15 +137,17 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
     @Override
     public List<ChargePoint.Overview> getOverview(ChargePointQueryForm form) {
         return getOverviewInternal(form)
-                .map(r -> ChargePoint.Overview.builder()
-                                              .chargeBoxPk(r.value1())
-                                              .chargeBoxId(r.value2())
-                                              .description(r.value3())
-                                              .ocppProtocol(r.value4())
-                                              .lastHeartbeatTimestampDT(r.value5())
-                                              .lastHeartbeatTimestamp(DateTimeUtils.humanize(r.value5()))
-                                              .build()
-                );
+                .map(r -> {
+                    DateTime lastHeartbeat = heartbeatBuffer.getLatest(r.value2(), r.value5());
+                    return ChargePoint.Overview.builder()
+                                               .chargeBoxPk(r.value1())
+                                               .chargeBoxId(r.value2())
+                                               .description(r.value3())
+                                               .ocppProtocol(r.value4())
+                                               .lastHeartbeatTimestampDT(lastHeartbeat)
+                                               .lastHeartbeatTimestamp(DateTimeUtils.humanize(lastHeartbeat))
+                                               .build();
+                });
     }
 
     @SuppressWarnings("unchecked")
@@ -204,6 +222,8 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
             throw new SteveException("Charge point not found");
         }
 
+        cbr.setLastHeartbeatTimestamp(heartbeatBuffer.getLatest(cbr.getChargeBoxId(), cbr.getLastHeartbeatTimestamp()));
+
         AddressRecord ar = addressRepository.get(ctx, cbr.getAddressPk());
 
         return new ChargePoint.Details(cbr, ar);
@@ -211,26 +231,6 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
 
     @Override
     public List<ConnectorStatus> getChargePointConnectorStatus(ConnectorStatusForm form) {
-        // find out the latest timestamp for each connector
-        Field<Integer> t1Pk = CONNECTOR_STATUS.CONNECTOR_PK.as("t1_pk");
-        Field<DateTime> t1TsMax = DSL.max(CONNECTOR_STATUS.STATUS_TIMESTAMP).as("t1_ts_max");
-        Table<?> t1 = ctx.select(t1Pk, t1TsMax)
-                         .from(CONNECTOR_STATUS)
-                         .groupBy(CONNECTOR_STATUS.CONNECTOR_PK)
-                         .asTable("t1");
-
-        // get the status table with latest timestamps only
-        Field<Integer> t2Pk = CONNECTOR_STATUS.CONNECTOR_PK.as("t2_pk");
-        Field<DateTime> t2Ts = CONNECTOR_STATUS.STATUS_TIMESTAMP.as("t2_ts");
-        Field<String> t2Status = CONNECTOR_STATUS.STATUS.as("t2_status");
-        Field<String> t2Error = CONNECTOR_STATUS.ERROR_CODE.as("t2_error");
-        Table<?> t2 = ctx.selectDistinct(t2Pk, t2Ts, t2Status, t2Error)
-                         .from(CONNECTOR_STATUS)
-                         .join(t1)
-                            .on(CONNECTOR_STATUS.CONNECTOR_PK.equal(t1.field(t1Pk)))
-                            .and(CONNECTOR_STATUS.STATUS_TIMESTAMP.equal(t1.field(t1TsMax)))
-                         .asTable("t2");
-
         // https://github.com/steve-community/steve/issues/691
         Condition chargeBoxCondition = CHARGE_BOX.REGISTRATION_STATUS.eq(RegistrationStatus.ACCEPTED.value());
 
@@ -242,24 +242,26 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
         if (form == null || form.getStatus() == null) {
             statusCondition = DSL.noCondition();
         } else {
-            statusCondition = t2.field(t2Status).eq(form.getStatus());
+            statusCondition = CONNECTOR_STATUS_LATEST.STATUS.eq(form.getStatus());
         }
 
+        // a connector that never had a status with timestamp is not considered, as before with MAX(status_timestamp)
         return ctx.select(
                         CHARGE_BOX.CHARGE_BOX_PK,
                         CONNECTOR.CHARGE_BOX_ID,
                         CONNECTOR.CONNECTOR_ID,
-                        t2.field(t2Ts),
-                        t2.field(t2Status),
-                        t2.field(t2Error),
+                        CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP,
+                        CONNECTOR_STATUS_LATEST.STATUS,
+                        CONNECTOR_STATUS_LATEST.ERROR_CODE,
                         CHARGE_BOX.OCPP_PROTOCOL)
-                  .from(t2)
+                  .from(CONNECTOR_STATUS_LATEST)
                   .join(CONNECTOR)
-                        .on(CONNECTOR.CONNECTOR_PK.eq(t2.field(t2Pk)))
+                        .on(CONNECTOR.CONNECTOR_PK.eq(CONNECTOR_STATUS_LATEST.CONNECTOR_PK))
                   .join(CHARGE_BOX)
                         .on(CHARGE_BOX.CHARGE_BOX_ID.eq(CONNECTOR.CHARGE_BOX_ID))
                   .where(chargeBoxCondition, statusCondition)
-                  .orderBy(t2.field(t2Ts).desc())
+                  .and(CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP.isNotNull())
+                  .orderBy(CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP.desc())
                   .fetch()
                   .map(r -> ConnectorStatus.builder()
                                            .chargeBoxPk(r.value1())
@@ -292,11 +294,13 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
                                                      .collect(Collectors.toList());
 
         ctx.batchInsert(batch).execute();
+        registrationStatusCache.invalidateAll(chargeBoxIdList);
+        statisticsCache.chargeBoxesAdded(chargeBoxIdList);
     }
 
     @Override
     public int addChargePoint(ChargePointForm form) {
-        return ctx.transactionResult(configuration -> {
+        int chargeBoxPk = ctx.transactionResult(configuration -> {
             DSLContext ctx = DSL.using(configuration);
             try {
                 Integer addressId = addressRepository.updateOrInsert(ctx, form.getAddress());
@@ -307,6 +311,10 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
                         form.getChargeBoxId(), e);
             }
         });
+
+        registrationStatusCache.invalidate(form.getChargeBoxId());
+        statisticsCache.chargeBoxesAdded(List.of(form.getChargeBoxId()));
+        return chargeBoxPk;
     }
 
     @Override
@@ -322,10 +330,17 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
                         form.getChargeBoxId(), e);
             }
         });
+
+        registrationStatusCache.invalidate(form.getChargeBoxId());
     }
 
     @Override
     public void deleteChargePoint(int chargeBoxPk) {
+        String chargeBoxId = ctx.select(CHARGE_BOX.CHARGE_BOX_ID)
+                                .from(CHARGE_BOX)
+                                .where(CHARGE_BOX.CHARGE_BOX_PK.eq(chargeBoxPk))
+                                .fetchOne(CHARGE_BOX.CHARGE_BOX_ID);
+
         ctx.transaction(configuration -> {
             DSLContext ctx = DSL.using(configuration);
             try {
@@ -336,6 +351,13 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
                 throw new SteveException("Failed to delete the charge point", e);
             }
         });
+
+        // connectors are deleted in DB as well (on delete cascade)
+        if (chargeBoxId != null) {
+            connectorPkCache.invalidate(chargeBoxId);
+            registrationStatusCache.invalidate(chargeBoxId);
+            statisticsCache.chargeBoxDeleted(chargeBoxId);
+        }
     }
 
     // -------------------------------------------------------------------------
@@ -378,9 +400,58 @@ public class ChargePointRepositoryImpl implements ChargePointRepository {
            .execute();
     }
 
+    /**
+     * connector_meter_value and connector_status are partitioned and cannot have foreign keys. Therefore, the rows of
+     * the connectors are deleted here, before the connectors are deleted with the charge box (on delete cascade).
+     *
+     * The transactions of the connectors are deleted with them (on delete cascade) as well. The active transaction
+     * counts of their tags are maintained by us and not by DB, so we decrement them for the active ones.
+     */
     private void deleteChargePointInternal(DSLContext ctx, int chargeBoxPk) {
+        var connectorPks = DSL.select(CONNECTOR.CONNECTOR_PK)
+                              .from(CONNECTOR)
+                              .join(CHARGE_BOX).on(CHARGE_BOX.CHARGE_BOX_ID.eq(CONNECTOR.CHARGE_BOX_ID))
+                              .where(CHARGE_BOX.CHARGE_BOX_PK.eq(chargeBoxPk));
+
+        // locked, such that a concurrent stop of one of them does not decrement the count a second time
+        Map<String, Long> activeTransactionCounts =
+            ctx.select(TRANSACTION_START.ID_TAG)
+               .from(TRANSACTION_START)
+               .where(TRANSACTION_START.CONNECTOR_PK.in(connectorPks))
+               .and(TRANSACTION_START.STOP_TIMESTAMP.isNull())
+               .and(TRANSACTION_START.STOP_VALUE.isNull())
+               .forUpdate()
+               .fetch(TRANSACTION_START.ID_TAG)
+               .stream()
+               .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+
+        activeTransactionCounts.forEach((idTag, count) ->
+            ctx.update(OCPP_TAG)
+               .set(OCPP_TAG.ACTIVE_TRANSACTION_COUNT,
+                   DSL.greatest(OCPP_TAG.ACTIVE_TRANSACTION_COUNT.minus(count), DSL.inline(0L)))
+               .where(OCPP_TAG.ID_TAG.eq(idTag))
+               .execute()
+        );
+
+        ctx.delete(CONNECTOR_METER_VALUE)
+           .where(CONNECTOR_METER_VALUE.CONNECTOR_PK.in(connectorPks))
+           .execute();
+
+        ctx.delete(CONNECTOR_STATUS)
+           .where(CONNECTOR_STATUS.CONNECTOR_PK.in(connectorPks))
+           .execute();
+
         ctx.delete(CHARGE_BOX)
            .where(CHARGE_BOX.CHARGE_BOX_PK.equal(chargeBoxPk))
            .execute();
     }
+
+    private Optional<String> selectRegistrationStatus(String chargeBoxId) {
+        String status = ctx.select(CHARGE_BOX.REGISTRATION_STATUS)
+                           .from(CHARGE_BOX)
+                           .where(CHARGE_BOX.CHARGE_BOX_ID.eq(chargeBoxId))
+                           .fetchOne(CHARGE_BOX.REGISTRATION_STATUS);
+
+        return Optional.ofNullable(status);
+    }
 }
@@ -61,6 +61,7 @@ import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
 public class ChargingProfileRepositoryImpl implements ChargingProfileRepository {
 
     @Autowired private DSLContext ctx;
+    @Autowired private ConnectorPkCache connectorPkCache;
 
     // -------------------------------------------------------------------------
     // OCPP operations
@@ -68,17 +69,12 @@ public class ChargingProfileRepositoryImpl implements ChargingProfileRepository
 
     @Override
     public void setProfile(int chargingProfilePk, String chargeBoxId, int connectorId) {
-        OcppServerRepositoryImpl.insertIgnoreConnector(ctx, chargeBoxId, connectorId);
-
-        SelectConditionStep<Record1<Integer>> connectorPkSelect = ctx.select(CONNECTOR.CONNECTOR_PK)
-                                                                     .from(CONNECTOR)
-                                                                     .where(CONNECTOR.CHARGE_BOX_ID.eq(chargeBoxId))
-                                                                     .and(CONNECTOR.CONNECTOR_ID.eq(connectorId));
-
-        ctx.insertInto(CONNECTOR_CHARGING_PROFILE)
-           .set(CONNECTOR_CHARGING_PROFILE.CONNECTOR_PK, connectorPkSelect)
-           .set(CONNECTOR_CHARGING_PROFILE.CHARGING_PROFILE_PK, chargingProfilePk)
-           .execute();
+        connectorPkCache.withConnectorPk(chargeBoxId, connectorId, connectorPk ->
+            ctx.insertInto(CONNECTOR_CHARGING_PROFILE)
+               .set(CONNECTOR_CHARGING_PROFILE.CONNECTOR_PK, connectorPk)
+               .set(CONNECTOR_CHARGING_PROFILE.CHARGING_PROFILE_PK, chargingProfilePk)
+               .execute()
+        );
     }
 
     @Override
@@ -0,0 +1,138 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.SteveException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.jooq.exception.DataAccessException;
+import org.jooq.exception.SQLStateClass;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+import static jooq.steve.db.tables.Connector.CONNECTOR;
+
+/**
+ * Cache for (chargeBoxId, connectorId) -> CONNECTOR.CONNECTOR_PK.
+ *
+ * Almost every OCPP message that refers to a connector has to make sure that the connector exists in DB and has to
+ * resolve its primary key. Since connectors of a station are only deleted together with the station, the mapping is
+ * stable and we can skip both round trips once a connector is known.
+ *
+ * The cache is filled at startup and lazily afterwards. It is invalidated when a charge point is deleted, which is the
+ * only way the app deletes connectors.
+ *
+ * If a connector was deleted behind our back (e.g. directly in DB), {@link #withConnectorPk(String, int, IntFunction)}
+ * detects the stale value only through a failing foreign key. connector_meter_value and connector_status have no
+ * foreign keys since they are partitioned (migration 1.0.10):
+ * - Status notifications are still covered, since connector_status_latest (with a foreign key) is written in the same
+ * transaction.
+ * - Meter values are not. They are written with the stale value, i.e. as orphan rows, until the charge point is
+ * deleted in the app or the app is restarted.
+ *
+ * @since 17.10.2026
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class ConnectorPkCache {
+
+    private final DSLContext ctx;
+
+    // chargeBoxId -> (connectorId -> connectorPk)
+    private final ConcurrentHashMap<String, Map<Integer, Integer>> cache = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        ctx.select(CONNECTOR.CHARGE_BOX_ID, CONNECTOR.CONNECTOR_ID, CONNECTOR.CONNECTOR_PK)
+           .from(CONNECTOR)
+           .fetch()
+           .forEach(r -> getConnectors(r.value1()).put(r.value2(), r.value3()));
+
+        log.info("Loaded the primary keys of connectors of {} charge boxes", cache.size());
+    }
+
+    /**
+     * If the connector information was not received before, insert it. In any case, return its primary key.
+     *
+     * This uses its own connection (and not the one of a possibly ongoing transaction of the caller), since inserting
+     * a connector is idempotent and must not be rolled back while its primary key is in the cache.
+     *
+     * @throws SteveException if the charge box is not in DB (anymore), since the connector cannot be inserted then
+     */
+    public int get(String chargeBoxId, int connectorId) {
+        Map<Integer, Integer> connectors = cache.get(chargeBoxId);
+
+        Integer connectorPk = (connectors == null) ? null : connectors.get(connectorId);
+        if (connectorPk != null) {
+            return connectorPk;
+        }
+
+        OcppServerRepositoryImpl.insertIgnoreConnector(ctx, chargeBoxId, connectorId);
+
+        connectorPk = ctx.select(CONNECTOR.CONNECTOR_PK)
+                         .from(CONNECTOR)
+                         .where(CONNECTOR.CHARGE_BOX_ID.equal(chargeBoxId))
+                         .and(CONNECTOR.CONNECTOR_ID.equal(connectorId))
+                         .fetchOne(CONNECTOR.CONNECTOR_PK);
+
+        if (connectorPk == null) {
+            // do not cache anything for unknown charge boxes
+            throw new SteveException("Connector %s of charge box '%s' could not be inserted. Is the charge box in DB?",
+                connectorId, chargeBoxId);
+        }
+
+        getConnectors(chargeBoxId).put(connectorId, connectorPk);
+        return connectorPk;
+    }
+
+    /**
+     * Executes the action with the primary key of the connector. If the action fails because of an integrity
+     * constraint violation, the cached value might be stale: Invalidate it and retry once with a fresh value.
+     *
+     * This only works if the action writes into a table with a foreign key to the connector (see class doc).
+     */
+    public <T> T withConnectorPk(String chargeBoxId, int connectorId, IntFunction<T> action) {
+        int connectorPk = get(chargeBoxId, connectorId);
+        try {
+            return action.apply(connectorPk);
+        } catch (DataAccessException e) {
+            if (e.sqlStateClass() != SQLStateClass.C23_INTEGRITY_CONSTRAINT_VIOLATION) {
+                throw e;
+            }
+            log.warn("Possibly stale primary key {} of connector {}/{}. Retrying with a fresh value",
+                connectorPk, chargeBoxId, connectorId);
+            invalidate(chargeBoxId);
+            return action.apply(get(chargeBoxId, connectorId));
+        }
+    }
+
+    public void invalidate(String chargeBoxId) {
+        cache.remove(chargeBoxId);
+    }
+
+    private Map<Integer, Integer> getConnectors(String chargeBoxId) {
+        return cache.computeIfAbsent(chargeBoxId, k -> new ConcurrentHashMap<>());
+    }
+}
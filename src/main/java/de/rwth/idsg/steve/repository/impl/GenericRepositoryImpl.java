@@ -20,7 +20,6 @@ package de.rwth.idsg.steve.repository.impl;
 
 import de.rwth.idsg.steve.SteveException;
 import de.rwth.idsg.steve.repository.GenericRepository;
-import de.rwth.idsg.steve.repository.ReservationStatus;
 import de.rwth.idsg.steve.repository.dto.DbVersion;
 import de.rwth.idsg.steve.utils.DateTimeUtils;
 import de.rwth.idsg.steve.web.dto.Statistics;
@@ -28,24 +27,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.joda.time.DateTime;
 import org.jooq.DSLContext;
 import org.jooq.DatePart;
-import org.jooq.Field;
 import org.jooq.Record2;
-import org.jooq.Record8;
 import org.jooq.impl.DSL;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Repository;
 
-import static de.rwth.idsg.steve.utils.CustomDSL.date;
 import static de.rwth.idsg.steve.utils.CustomDSL.timestampDiff;
 import static de.rwth.idsg.steve.utils.CustomDSL.utcTimestamp;
-import static jooq.steve.db.Tables.RESERVATION;
-import static jooq.steve.db.Tables.TRANSACTION;
-import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
-import static jooq.steve.db.tables.OcppTag.OCPP_TAG;
 import static jooq.steve.db.tables.SchemaVersion.SCHEMA_VERSION;
-import static jooq.steve.db.tables.User.USER;
 import static org.jooq.impl.DSL.max;
 import static org.jooq.impl.DSL.select;
 
@@ -58,6 +49,7 @@ import static org.jooq.impl.DSL.select;
 public class GenericRepositoryImpl implements GenericRepository {
 
     @Autowired private DSLContext ctx;
+    @Autowired private StatisticsCache statisticsCache;
 
     @EventListener
     public void afterStart(ContextRefreshedEvent event) {
@@ -78,79 +70,12 @@ public class GenericRepositoryImpl implements GenericRepository {
         }
     }
 
+    /**
+     * The numbers are maintained in memory. Formerly, this was a query with eight COUNT(*) subqueries.
+     */
     @Override
     public Statistics getStats() {
-        DateTime now = DateTime.now();
-        DateTime yesterdaysNow = now.minusDays(1);
-
-        Field<Integer> numChargeBoxes =
-                ctx.selectCount()
-                   .from(CHARGE_BOX)
-                   .asField("num_charge_boxes");
-
-        Field<Integer> numOcppTags =
-                ctx.selectCount()
-                   .from(OCPP_TAG)
-                   .asField("num_ocpp_tags");
-
-        Field<Integer> numUsers =
-                ctx.selectCount()
-                   .from(USER)
-                   .asField("num_users");
-
-        Field<Integer> numReservations =
-                ctx.selectCount()
-                   .from(RESERVATION)
-                   .where(RESERVATION.EXPIRY_DATETIME.greaterThan(now))
-                   .and(RESERVATION.STATUS.eq(ReservationStatus.ACCEPTED.name()))
-                   .asField("num_reservations");
-
-        Field<Integer> numTransactions =
-                ctx.selectCount()
-                   .from(TRANSACTION)
-                   .where(TRANSACTION.STOP_TIMESTAMP.isNull())
-                   .asField("num_transactions");
-
-        Field<Integer> heartbeatsToday =
-                ctx.selectCount()
-                   .from(CHARGE_BOX)
-                   .where(date(CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP).eq(date(now)))
-                   .asField("heartbeats_today");
-
-        Field<Integer> heartbeatsYesterday =
-                ctx.selectCount()
-                   .from(CHARGE_BOX)
-                   .where(date(CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP).eq(date(yesterdaysNow)))
-                   .asField("heartbeats_yesterday");
-
-        Field<Integer> heartbeatsEarlier =
-                ctx.selectCount()
-                   .from(CHARGE_BOX)
-                   .where(date(CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP).lessThan(date(yesterdaysNow)))
-                   .asField("heartbeats_earlier");
-
-        Record8<Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer> gs =
-                ctx.select(
-                        numChargeBoxes,
-                        numOcppTags,
-                        numUsers,
-                        numReservations,
-                        numTransactions,
-                        heartbeatsToday,
-                        heartbeatsYesterday,
-                        heartbeatsEarlier
-                ).fetchOne();
-
-        return Statistics.builder()
-                         .numChargeBoxes(gs.value1())
-                         .numOcppTags(gs.value2())
-                         .numUsers(gs.value3())
-                         .numReservations(gs.value4())
-                         .numTransactions(gs.value5())
-                         .heartbeatToday(gs.value6())
-                         .heartbeatYesterday(gs.value7())
-                         .heartbeatEarlier(gs.value8())
-                         .build();
+        return statisticsCache.getStats();
     }
 
     @Override
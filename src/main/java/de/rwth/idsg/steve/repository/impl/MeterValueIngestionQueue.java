@@ -0,0 +1,560 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Table;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.LifecycleAware;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.TimeoutBlockingWaitStrategy;
+import com.lmax.disruptor.TimeoutHandler;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import de.rwth.idsg.steve.SteveConfiguration;
+import de.rwth.idsg.steve.SteveException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jooq.steve.db.tables.records.ConnectorMeterValueRecord;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ocpp.cs._2015._10.MeterValue;
+import ocpp.cs._2015._10.SampledValue;
+import org.joda.time.DateTime;
+import org.jooq.DSLContext;
+import org.jooq.InsertValuesStep10;
+import org.jooq.exception.DataAccessException;
+import org.jooq.exception.SQLStateClass;
+import org.jooq.impl.DSL;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+import static jooq.steve.db.tables.ConnectorMeterValue.CONNECTOR_METER_VALUE;
+import static jooq.steve.db.tables.TransactionStart.TRANSACTION_START;
+
+/**
+ * Ingestion of meter values into CONNECTOR_METER_VALUE.
+ *
+ * If enabled, incoming meter values are published into a bounded ring buffer (LMAX Disruptor) and the caller returns
+ * immediately. A single background thread drains the buffer and writes the sampled values of many messages (and
+ * stations) as one multi-row insert, either when flush size rows are pending or at the latest after flush latency.
+ *
+ * Nothing is dropped on the way:
+ * - If the ring buffer is full, the values are written synchronously in the caller thread (backpressure).
+ * - If a multi-row insert fails, the messages of this batch are written one by one, so that one faulty message does
+ * not affect the others.
+ * - A message that can never be written (e.g. with an unknown transaction id) is logged and dropped, instead of being
+ * retried forever.
+ * - On shutdown, the ring buffer is drained and pending values are written.
+ *
+ * Since the station gets its response before the values are in the database, the messages in the ring buffer would be
+ * lost on a crash. Therefore, if a journal directory is configured, each message is also appended to a
+ * {@link MeterValueJournal} before it is put into the ring buffer. The journal is replayed on the next startup, before
+ * new messages are accepted. If appending to the journal fails, the values are written synchronously.
+ *
+ * If disabled, the values are always written synchronously.
+ *
+ * @since 17.10.2026
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class MeterValueIngestionQueue {
+
+    /**
+     * Number of messages per journal segment. A segment file is deleted, once all its messages are written.
+     */
+    private static final int JOURNAL_SEGMENT_SIZE = 1024;
+
+    private final DSLContext ctx;
+    private final ConnectorPkCache connectorPkCache;
+
+    private final LongAdder publishedCount = new LongAdder();
+    private final LongAdder synchronousCount = new LongAdder();
+    private final LongAdder flushedRowCount = new LongAdder();
+    private final LongAdder flushedBatchCount = new LongAdder();
+    private final LongAdder failedBatchCount = new LongAdder();
+    private final LongAdder replayedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+
+    private MeterValueJournal journal;
+    private Disruptor<MeterValueEvent> disruptor;
+    private RingBuffer<MeterValueEvent> ringBuffer;
+
+    @PostConstruct
+    public void init() throws IOException {
+        SteveConfiguration.DB config = CONFIG.getDb();
+        if (!config.isMeterValuesAsync()) {
+            return;
+        }
+
+        if (config.getMeterValuesJournalDir() != null) {
+            journal = new MeterValueJournal(Path.of(config.getMeterValuesJournalDir()), JOURNAL_SEGMENT_SIZE);
+            replayJournal(config.getMeterValuesFlushSize());
+        }
+
+        disruptor = new Disruptor<>(
+            MeterValueEvent::new,
+            config.getMeterValuesBufferSize(),
+            new ThreadFactoryBuilder().setNameFormat("SteVe-MeterValues-%d").setDaemon(true).build(),
+            ProducerType.MULTI,
+            new TimeoutBlockingWaitStrategy(config.getMeterValuesFlushLatencyInMillis(), TimeUnit.MILLISECONDS)
+        );
+
+        disruptor.handleEventsWith(
+            new Drainer(config.getMeterValuesFlushSize(), config.getMeterValuesFlushLatencyInMillis()));
+        ringBuffer = disruptor.start();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (disruptor == null) {
+            return;
+        }
+
+        log.info("Shutting down. Writing remaining {} meter value messages", getPendingCount());
+        try {
+            disruptor.shutdown(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.error("Failed to write all pending meter values within timeout", e);
+            disruptor.halt();
+        }
+
+        // messages that are still pending stay in the journal and are replayed on next startup
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * @param connectorId if null, the connector is looked up using the transaction
+     */
+    public void insert(String chargeBoxId, List<MeterValue> list, Integer connectorId, Integer transactionId) {
+        MeterValueJournal.Segment segment = null;
+
+        if (ringBuffer != null) {
+            try {
+                segment = (journal == null) ? null : journal.append(chargeBoxId, connectorId, transactionId, list);
+            } catch (IOException e) {
+                log.error("Failed to append to the meter value journal. Writing the values of '{}' synchronously",
+                    chargeBoxId, e);
+                synchronousCount.increment();
+                insertSingle(new MeterValueEntry(chargeBoxId, connectorId, transactionId, list, null));
+                return;
+            }
+
+            MeterValueJournal.Segment finalSegment = segment;
+            boolean published = ringBuffer.tryPublishEvent(
+                (event, sequence) -> event.set(chargeBoxId, connectorId, transactionId, list, finalSegment)
+            );
+
+            if (published) {
+                publishedCount.increment();
+                return;
+            }
+
+            log.warn("Meter value buffer is full. Writing the values of '{}' synchronously", chargeBoxId);
+        }
+
+        synchronousCount.increment();
+        insertSingleAndRelease(new MeterValueEntry(chargeBoxId, connectorId, transactionId, list, segment));
+    }
+
+    public Stats getStats() {
+        return Stats.builder()
+                    .enabled(ringBuffer != null)
+                    .journalEnabled(journal != null)
+                    .bufferSize(ringBuffer == null ? 0 : ringBuffer.getBufferSize())
+                    .pendingCount(getPendingCount())
+                    .publishedCount(publishedCount.sum())
+                    .synchronousCount(synchronousCount.sum())
+                    .flushedRowCount(flushedRowCount.sum())
+                    .flushedBatchCount(flushedBatchCount.sum())
+                    .failedBatchCount(failedBatchCount.sum())
+                    .replayedCount(replayedCount.sum())
+                    .droppedCount(droppedCount.sum())
+                    .build();
+    }
+
+    private long getPendingCount() {
+        return ringBuffer == null ? 0 : ringBuffer.getBufferSize() - ringBuffer.remainingCapacity();
+    }
+
+    // -------------------------------------------------------------------------
+    // Journal
+    // -------------------------------------------------------------------------
+
+    /**
+     * Writes the messages of the segment files of earlier runs. Messages that fail again are kept in their files.
+     */
+    private void replayJournal(int flushSize) throws IOException {
+        for (Path segmentFile : journal.getLeftovers()) {
+            List<MeterValueJournal.Line> lines = journal.read(segmentFile);
+            log.info("Replaying {} meter value messages of the journal '{}'", lines.size(), segmentFile);
+
+            List<MeterValueJournal.Line> failed = new ArrayList<>();
+            for (List<MeterValueJournal.Line> chunk : Lists.partition(lines, flushSize)) {
+                List<MeterValueEntry> entries = chunk.stream().map(MeterValueEntry::new).toList();
+                try {
+                    insertGrouped(entries);
+                } catch (Exception e) {
+                    log.error("Failed to replay {} meter value messages at once. Replaying them one by one",
+                        entries.size(), e);
+                    for (int i = 0; i < entries.size(); i++) {
+                        if (!insertSingle(entries.get(i))) {
+                            failed.add(chunk.get(i));
+                        }
+                    }
+                }
+            }
+
+            replayedCount.add(lines.size() - failed.size());
+            journal.rewrite(segmentFile, failed);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Writing to DB
+    // -------------------------------------------------------------------------
+
+    private void insertSingleAndRelease(MeterValueEntry entry) {
+        entry.done(insertSingle(entry));
+    }
+
+    /**
+     * @return false, if the values could not be written, but might be later (e.g. the database is down). true, if
+     * they are written or can never be written (dropped).
+     */
+    private boolean insertSingle(MeterValueEntry entry) {
+        try {
+            if (entry.connectorId == null) {
+                // get connector primary key from transaction table
+                Optional<Integer> connectorPk = ctx.select(TRANSACTION_START.CONNECTOR_PK)
+                                                   .from(TRANSACTION_START)
+                                                   .where(TRANSACTION_START.TRANSACTION_PK.equal(entry.transactionId))
+                                                   .fetchOptional(TRANSACTION_START.CONNECTOR_PK);
+
+                if (connectorPk.isEmpty()) {
+                    dropUnknownTransaction(entry);
+                    return true;
+                }
+                batchInsert(entry, connectorPk.get());
+            } else {
+                connectorPkCache.withConnectorPk(entry.chargeBoxId, entry.connectorId,
+                    connectorPk -> batchInsert(entry, connectorPk));
+            }
+            return true;
+        } catch (Exception e) {
+            if (isPermanent(e)) {
+                log.error("Dropping meter values of '{}', because they can never be written", entry.chargeBoxId, e);
+                droppedCount.increment();
+                return true;
+            }
+            log.error("Exception occurred", e);
+            return false;
+        }
+    }
+
+    /**
+     * Unknown charge box, or the values violate a constraint of the table. Retrying does not help.
+     */
+    private static boolean isPermanent(Exception e) {
+        if (e instanceof SteveException) {
+            return true;
+        }
+        if (e instanceof DataAccessException dae) {
+            SQLStateClass stateClass = dae.sqlStateClass();
+            return stateClass == SQLStateClass.C22_DATA_EXCEPTION
+                || stateClass == SQLStateClass.C23_INTEGRITY_CONSTRAINT_VIOLATION;
+        }
+        return false;
+    }
+
+    private void dropUnknownTransaction(MeterValueEntry entry) {
+        log.error("Dropping meter values of '{}', because transaction {} is not in database",
+            entry.chargeBoxId, entry.transactionId);
+        droppedCount.increment();
+    }
+
+    private int[] batchInsert(MeterValueEntry entry, int connectorPk) {
+        List<ConnectorMeterValueRecord> batch =
+                entry.list.stream()
+                          .flatMap(t -> t.getSampledValue()
+                                         .stream()
+                                         .map(k -> toRecord(ctx, connectorPk, entry.transactionId, t.getTimestamp(), k)))
+                          .collect(Collectors.toList());
+
+        return ctx.transactionResult(configuration -> DSL.using(configuration).batchInsert(batch).execute());
+    }
+
+    private void insertGrouped(List<MeterValueEntry> entries) {
+        // resolve the connectors of all messages with as few queries as possible. the cache uses its own connection
+        // on a miss, therefore this happens before the transaction, which holds another connection of the pool.
+        Table<String, Integer, Integer> connectorPks = HashBasedTable.create();
+        Set<Integer> transactionIds = new HashSet<>();
+
+        for (MeterValueEntry entry : entries) {
+            if (entry.connectorId == null) {
+                transactionIds.add(entry.transactionId);
+            } else if (!connectorPks.contains(entry.chargeBoxId, entry.connectorId)) {
+                connectorPks.put(entry.chargeBoxId, entry.connectorId,
+                    connectorPkCache.get(entry.chargeBoxId, entry.connectorId));
+            }
+        }
+
+        ctx.transaction(configuration -> {
+            DSLContext ctx = DSL.using(configuration);
+
+            Map<Integer, Integer> transactionConnectorPks = transactionIds.isEmpty()
+                ? Map.of()
+                : ctx.select(TRANSACTION_START.TRANSACTION_PK, TRANSACTION_START.CONNECTOR_PK)
+                     .from(TRANSACTION_START)
+                     .where(TRANSACTION_START.TRANSACTION_PK.in(transactionIds))
+                     .fetchMap(TRANSACTION_START.TRANSACTION_PK, TRANSACTION_START.CONNECTOR_PK);
+
+            InsertValuesStep10<ConnectorMeterValueRecord, Integer, Integer, DateTime, String, String, String, String,
+                String, String, String> insert = ctx.insertInto(CONNECTOR_METER_VALUE,
+                    CONNECTOR_METER_VALUE.CONNECTOR_PK,
+                    CONNECTOR_METER_VALUE.TRANSACTION_PK,
+                    CONNECTOR_METER_VALUE.VALUE_TIMESTAMP,
+                    CONNECTOR_METER_VALUE.VALUE,
+                    CONNECTOR_METER_VALUE.READING_CONTEXT,
+                    CONNECTOR_METER_VALUE.FORMAT,
+                    CONNECTOR_METER_VALUE.MEASURAND,
+                    CONNECTOR_METER_VALUE.LOCATION,
+                    CONNECTOR_METER_VALUE.UNIT,
+                    CONNECTOR_METER_VALUE.PHASE);
+
+            int rowCount = 0;
+            for (MeterValueEntry entry : entries) {
+                Integer connectorPk = (entry.connectorId == null)
+                    ? transactionConnectorPks.get(entry.transactionId)
+                    : connectorPks.get(entry.chargeBoxId, entry.connectorId);
+
+                if (connectorPk == null) {
+                    dropUnknownTransaction(entry);
+                    continue;
+                }
+
+                for (MeterValue t : entry.list) {
+                    for (SampledValue k : t.getSampledValue()) {
+                        ConnectorMeterValueRecord r = toRecord(ctx, connectorPk, entry.transactionId, t.getTimestamp(), k);
+                        insert = insert.values(r.getConnectorPk(), r.getTransactionPk(), r.getValueTimestamp(),
+                            r.getValue(), r.getReadingContext(), r.getFormat(), r.getMeasurand(), r.getLocation(),
+                            r.getUnit(), r.getPhase());
+                        rowCount++;
+                    }
+                }
+            }
+
+            if (rowCount > 0) {
+                insert.execute();
+                flushedRowCount.add(rowCount);
+            }
+        });
+    }
+
+    private static ConnectorMeterValueRecord toRecord(DSLContext ctx, int connectorPk, Integer transactionId,
+                                                      DateTime timestamp, SampledValue k) {
+        return ctx.newRecord(CONNECTOR_METER_VALUE)
+                  .setConnectorPk(connectorPk)
+                  .setTransactionPk(transactionId)
+                  .setValueTimestamp(timestamp)
+                  .setValue(k.getValue())
+                  // The following are optional fields!
+                  .setReadingContext(k.isSetContext() ? k.getContext().value() : null)
+                  .setFormat(k.isSetFormat() ? k.getFormat().value() : null)
+                  .setMeasurand(k.isSetMeasurand() ? k.getMeasurand().value() : null)
+                  .setLocation(k.isSetLocation() ? k.getLocation().value() : null)
+                  .setUnit(k.isSetUnit() ? k.getUnit().value() : null)
+                  .setPhase(k.isSetPhase() ? k.getPhase().value() : null);
+    }
+
+    // -------------------------------------------------------------------------
+    // Ring buffer consumer
+    // -------------------------------------------------------------------------
+
+    /**
+     * Runs in the single consumer thread of the disruptor. Therefore, no synchronization is needed for its state.
+     */
+    @RequiredArgsConstructor
+    class Drainer implements EventHandler<MeterValueEvent>, TimeoutHandler, LifecycleAware {
+
+        private final int flushSize;
+        private final long flushLatencyInMillis;
+
+        private List<MeterValueEntry> pending = new ArrayList<>();
+        private int pendingRowCount = 0;
+        private long firstPendingAt = 0;
+
+        @Override
+        public void onEvent(MeterValueEvent event, long sequence, boolean endOfBatch) {
+            // the event object is reused by the ring buffer. copy the data out of it.
+            MeterValueEntry entry = event.toEntryAndClear();
+
+            if (pending.isEmpty()) {
+                firstPendingAt = System.currentTimeMillis();
+            }
+            pending.add(entry);
+            pendingRowCount += entry.getRowCount();
+
+            boolean latencyReached = System.currentTimeMillis() - firstPendingAt >= flushLatencyInMillis;
+            if (pendingRowCount >= flushSize || (endOfBatch && latencyReached)) {
+                flush();
+            }
+        }
+
+        /**
+         * Called when no new event arrived within flush latency
+         */
+        @Override
+        public void onTimeout(long sequence) {
+            flush();
+        }
+
+        @Override
+        public void onStart() {
+            // no-op
+        }
+
+        @Override
+        public void onShutdown() {
+            flush();
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            List<MeterValueEntry> batch = pending;
+            pending = new ArrayList<>();
+            pendingRowCount = 0;
+
+            try {
+                insertGrouped(batch);
+                flushedBatchCount.increment();
+            } catch (Exception e) {
+                failedBatchCount.increment();
+                log.error("Failed to write {} meter value messages at once. Writing them one by one", batch.size(), e);
+                batch.forEach(MeterValueIngestionQueue.this::insertSingleAndRelease);
+                return;
+            }
+
+            batch.forEach(entry -> entry.done(true));
+        }
+    }
+
+    /**
+     * Mutable slot of the ring buffer
+     */
+    static final class MeterValueEvent {
+        private String chargeBoxId;
+        private Integer connectorId;
+        private Integer transactionId;
+        private List<MeterValue> list;
+        private MeterValueJournal.Segment segment;
+
+        void set(String chargeBoxId, Integer connectorId, Integer transactionId, List<MeterValue> list,
+                 MeterValueJournal.Segment segment) {
+            this.chargeBoxId = chargeBoxId;
+            this.connectorId = connectorId;
+            this.transactionId = transactionId;
+            this.list = list;
+            this.segment = segment;
+        }
+
+        private MeterValueEntry toEntryAndClear() {
+            MeterValueEntry entry = new MeterValueEntry(chargeBoxId, connectorId, transactionId, list, segment);
+            set(null, null, null, null, null);
+            return entry;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class MeterValueEntry {
+        private final String chargeBoxId;
+        private final Integer connectorId;
+        private final Integer transactionId;
+        private final List<MeterValue> list;
+
+        // the journal segment of the message, if any
+        private final MeterValueJournal.Segment segment;
+
+        private MeterValueEntry(MeterValueJournal.Line line) {
+            this(line.getChargeBoxId(), line.getConnectorId(), line.getTransactionId(), line.getMeterValues(), null);
+        }
+
+        private void done(boolean written) {
+            if (segment == null) {
+                return;
+            }
+            if (written) {
+                segment.release();
+            } else {
+                segment.fail(new MeterValueJournal.Line(chargeBoxId, connectorId, transactionId, list));
+            }
+        }
+
+        private int getRowCount() {
+            int count = 0;
+            for (MeterValue meterValue : list) {
+                count += meterValue.getSampledValue().size();
+            }
+            return count;
+        }
+    }
+
+    @Getter
+    @Builder
+    public static final class Stats {
+        private final boolean enabled;
+        private final boolean journalEnabled;
+        private final int bufferSize;
+        // number of messages waiting in the ring buffer
+        private final long pendingCount;
+        // number of messages that were put into the ring buffer
+        private final long publishedCount;
+        // number of messages that were written synchronously (disabled or buffer full)
+        private final long synchronousCount;
+        private final long flushedRowCount;
+        private final long flushedBatchCount;
+        private final long failedBatchCount;
+        // number of messages that were written from the journal of an earlier run
+        private final long replayedCount;
+        // number of messages that can never be written (e.g. unknown transaction)
+        private final long droppedCount;
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.rwth.idsg.steve.ocpp.ws.JsonObjectMapper;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import ocpp.cs._2015._10.MeterValue;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Write-ahead journal of the meter values that are accepted by {@link MeterValueIngestionQueue}, but not yet written
+ * to the database.
+ *
+ * Each message is appended as one JSON line to the current segment file, before the station gets its response. Once
+ * all messages of a segment are handled, the segment file is deleted. A message that could not be written to the
+ * database (e.g. because it is down) is appended to the file of failed lines instead, such that only this message is
+ * replayed on the next startup, and not the whole segment.
+ *
+ * Segment files that are left over after a crash (or a kill) are replayed as a whole on the next startup. Since a
+ * segment is only deleted as a whole, this replay writes the messages of it that were written before the crash a
+ * second time (at least once, not exactly once). Without a crash, every message is written once.
+ *
+ * The lines are flushed to the operating system, but not forced to the disk. This survives a crash of the process, but
+ * not of the machine.
+ *
+ * @since 17.10.2026
+ */
+@Slf4j
+public class MeterValueJournal implements Closeable {
+
+    private static final String SUFFIX = ".journal";
+
+    private final ObjectMapper mapper = JsonObjectMapper.INSTANCE.getMapper();
+
+    private final Path dir;
+    private final int segmentSize;
+
+    private int segmentCounter = 0;
+
+    // guarded by this
+    private Segment current;
+
+    // guarded by this. created with the first failed line
+    private BufferedWriter failedWriter;
+
+    /**
+     * @param segmentSize the number of messages after which the next segment is started
+     */
+    public MeterValueJournal(Path dir, int segmentSize) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * @return the segment files of earlier runs, oldest first. Must be called before the first append.
+     */
+    public List<Path> getLeftovers() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                        .sorted()
+                        .toList();
+        }
+    }
+
+    public List<Line> read(Path segmentFile) throws IOException {
+        List<Line> lines = new ArrayList<>();
+        for (String json : Files.readAllLines(segmentFile, StandardCharsets.UTF_8)) {
+            try {
+                lines.add(mapper.readValue(json, Line.class));
+            } catch (IOException e) {
+                // most probably the last line, if the process was killed while writing it
+                log.warn("Skipping an unreadable line of the meter value journal '{}'", segmentFile, e);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Replaces the content of the segment file with the given lines, or deletes it if there are none.
+     */
+    public void rewrite(Path segmentFile, List<Line> lines) throws IOException {
+        if (lines.isEmpty()) {
+            Files.deleteIfExists(segmentFile);
+            return;
+        }
+
+        Path tmp = segmentFile.resolveSibling(segmentFile.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Line line : lines) {
+                writer.write(mapper.writeValueAsString(line));
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, segmentFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return the segment, which has to be released once the message is written to the database
+     */
+    public synchronized Segment append(String chargeBoxId, Integer connectorId, Integer transactionId,
+                                       List<MeterValue> list) throws IOException {
+        if (current == null || current.appendedCount >= segmentSize) {
+            rotate();
+        }
+
+        Line line = new Line(chargeBoxId, connectorId, transactionId, list);
+
+        current.writer.write(mapper.writeValueAsString(line));
+        current.writer.newLine();
+        current.writer.flush();
+
+        current.appendedCount++;
+        current.pendingCount.incrementAndGet();
+        return current;
+    }
+
+    /**
+     * For a message that could not be written to the database. It is replayed on the next startup.
+     */
+    public synchronized void appendFailed(Line line) throws IOException {
+        if (failedWriter == null) {
+            String name = String.format("%013d-failed%s", System.currentTimeMillis(), SUFFIX);
+            failedWriter = Files.newBufferedWriter(dir.resolve(name), StandardCharsets.UTF_8);
+        }
+
+        failedWriter.write(mapper.writeValueAsString(line));
+        failedWriter.newLine();
+        failedWriter.flush();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (current != null) {
+            current.seal();
+            current = null;
+        }
+
+        if (failedWriter != null) {
+            try {
+                failedWriter.close();
+            } catch (IOException e) {
+                log.error("Failed to close the file of failed meter values", e);
+            }
+            failedWriter = null;
+        }
+    }
+
+    private void rotate() throws IOException {
+        if (current != null) {
+            current.seal();
+        }
+
+        String name = String.format("%013d-%06d%s", System.currentTimeMillis(), segmentCounter++, SUFFIX);
+        Path path = dir.resolve(name);
+        current = new Segment(this, path, Files.newBufferedWriter(path, StandardCharsets.UTF_8));
+    }
+
+    // -------------------------------------------------------------------------
+    // Classes
+    // -------------------------------------------------------------------------
+
+    public static final class Segment {
+        private final MeterValueJournal journal;
+        private final Path path;
+        private final BufferedWriter writer;
+
+        // only accessed under the lock of the journal
+        private int appendedCount = 0;
+
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean retained = new AtomicBoolean(false);
+        private final AtomicBoolean deleted = new AtomicBoolean(false);
+        private volatile boolean sealed = false;
+
+        private Segment(MeterValueJournal journal, Path path, BufferedWriter writer) {
+            this.journal = journal;
+            this.path = path;
+            this.writer = writer;
+        }
+
+        /**
+         * The message is written to the database
+         */
+        public void release() {
+            if (pendingCount.decrementAndGet() == 0 && sealed) {
+                deleteIfDone();
+            }
+        }
+
+        /**
+         * The message could not be written to the database. Move it to the file of failed lines, or, if this is not
+         * possible, keep the whole segment. Either way, it is replayed on the next startup.
+         */
+        public void fail(Line line) {
+            try {
+                journal.appendFailed(line);
+            } catch (IOException e) {
+                log.error("Failed to append to the file of failed meter values", e);
+                retain();
+                return;
+            }
+            release();
+        }
+
+        private void retain() {
+            if (retained.compareAndSet(false, true)) {
+                log.warn("Keeping the meter value journal '{}' for a replay on next startup", path);
+            }
+            pendingCount.decrementAndGet();
+        }
+
+        private void seal() {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.error("Failed to close the meter value journal '{}'", path, e);
+            }
+
+            sealed = true;
+            if (pendingCount.get() == 0) {
+                deleteIfDone();
+            }
+        }
+
+        private void deleteIfDone() {
+            if (retained.get() || !deleted.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.error("Failed to delete the meter value journal '{}'", path, e);
+            }
+        }
+    }
+
+    /**
+     * One message in the journal file
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static final class Line {
+        private String chargeBoxId;
+        private Integer connectorId;
+        private Integer transactionId;
+        private List<MeterValue> meterValues;
+
+        public Line(String chargeBoxId, Integer connectorId, Integer transactionId, List<MeterValue> meterValues) {
+            this.chargeBoxId = chargeBoxId;
+            this.connectorId = connectorId;
+            this.transactionId = transactionId;
+            this.meterValues = meterValues;
+        }
+    }
+}
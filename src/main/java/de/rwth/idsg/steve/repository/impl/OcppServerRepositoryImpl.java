@@ -29,29 +29,31 @@ import de.rwth.idsg.steve.repository.dto.InsertTransactionParams;
 import de.rwth.idsg.steve.repository.dto.TransactionStatusUpdate;
 import de.rwth.idsg.steve.repository.dto.UpdateChargeboxParams;
 import de.rwth.idsg.steve.repository.dto.UpdateTransactionParams;
+import jooq.steve.db.enums.TransactionStartStopEventActor;
 import jooq.steve.db.enums.TransactionStopEventActor;
 import jooq.steve.db.enums.TransactionStopFailedEventActor;
-import jooq.steve.db.tables.records.ConnectorMeterValueRecord;
+import jooq.steve.db.tables.records.TransactionStartRecord;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ocpp.cs._2015._10.MeterValue;
 import org.joda.time.DateTime;
+import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.EnumType;
+import org.jooq.Field;
 import org.jooq.Record1;
-import org.jooq.SelectConditionStep;
 import org.jooq.impl.DSL;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.CollectionUtils;
 
 import java.util.List;
 import java.util.concurrent.locks.Lock;
-import java.util.stream.Collectors;
 
 import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
 import static jooq.steve.db.tables.Connector.CONNECTOR;
-import static jooq.steve.db.tables.ConnectorMeterValue.CONNECTOR_METER_VALUE;
 import static jooq.steve.db.tables.ConnectorStatus.CONNECTOR_STATUS;
+import static jooq.steve.db.tables.ConnectorStatusLatest.CONNECTOR_STATUS_LATEST;
 import static jooq.steve.db.tables.OcppTag.OCPP_TAG;
 import static jooq.steve.db.tables.TransactionStart.TRANSACTION_START;
 import static jooq.steve.db.tables.TransactionStop.TRANSACTION_STOP;
@@ -72,6 +74,10 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
 
     private final DSLContext ctx;
     private final ReservationRepository reservationRepository;
+    private final ChargeBoxHeartbeatBuffer heartbeatBuffer;
+    private final MeterValueIngestionQueue meterValueIngestionQueue;
+    private final ConnectorPkCache connectorPkCache;
+    private final StatisticsCache statisticsCache;
 
     private final Striped<Lock> transactionTableLocks = Striped.lock(16);
 
@@ -91,6 +97,8 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
            .set(CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP, p.getHeartbeatTimestamp())
            .where(CHARGE_BOX.CHARGE_BOX_ID.equal(p.getChargeBoxId()))
            .execute();
+
+        statisticsCache.heartbeat(p.getChargeBoxId(), p.getHeartbeatTimestamp());
     }
 
     @Override
@@ -129,40 +137,38 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
 
     @Override
     public void updateChargeboxHeartbeat(String chargeBoxIdentity, DateTime ts) {
-        ctx.update(CHARGE_BOX)
-           .set(CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP, ts)
-           .where(CHARGE_BOX.CHARGE_BOX_ID.equal(chargeBoxIdentity))
-           .execute();
+        // will be written to DB with the next flush of the buffer
+        heartbeatBuffer.put(chargeBoxIdentity, ts);
+        statisticsCache.heartbeat(chargeBoxIdentity, ts);
     }
 
     @Override
     public void insertConnectorStatus(InsertConnectorStatusParams p) {
-        ctx.transaction(configuration -> {
-            DSLContext ctx = DSL.using(configuration);
-
-            // Step 1
-            insertIgnoreConnector(ctx, p.getChargeBoxId(), p.getConnectorId());
-
-            // -------------------------------------------------------------------------
-            // Step 2: We store a log of connector statuses
-            // -------------------------------------------------------------------------
-
-            ctx.insertInto(CONNECTOR_STATUS)
-               .set(CONNECTOR_STATUS.CONNECTOR_PK, DSL.select(CONNECTOR.CONNECTOR_PK)
-                                                      .from(CONNECTOR)
-                                                      .where(CONNECTOR.CHARGE_BOX_ID.equal(p.getChargeBoxId()))
-                                                      .and(CONNECTOR.CONNECTOR_ID.equal(p.getConnectorId()))
-               )
-               .set(CONNECTOR_STATUS.STATUS_TIMESTAMP, p.getTimestamp())
-               .set(CONNECTOR_STATUS.STATUS, p.getStatus())
-               .set(CONNECTOR_STATUS.ERROR_CODE, p.getErrorCode())
-               .set(CONNECTOR_STATUS.ERROR_INFO, p.getErrorInfo())
-               .set(CONNECTOR_STATUS.VENDOR_ID, p.getVendorId())
-               .set(CONNECTOR_STATUS.VENDOR_ERROR_CODE, p.getVendorErrorCode())
-               .execute();
+        // Step 1: Insert connector, if it is new to us. This is idempotent and deliberately not part of a transaction
+        // with the steps below, see ConnectorPkCache.get
+        // Step 2: We store a log of connector statuses
+        // Step 3: Update the latest status of the connector. In the same transaction as step 2, such that the latest
+        // status cannot get out of sync with the log.
+        connectorPkCache.withConnectorPk(p.getChargeBoxId(), p.getConnectorId(), connectorPk ->
+            ctx.transactionResult(configuration -> {
+                DSLContext ctx = DSL.using(configuration);
 
-            log.debug("Stored a new connector status for {}/{}.", p.getChargeBoxId(), p.getConnectorId());
-        });
+                ctx.insertInto(CONNECTOR_STATUS)
+                   .set(CONNECTOR_STATUS.CONNECTOR_PK, connectorPk)
+                   .set(CONNECTOR_STATUS.STATUS_TIMESTAMP, p.getTimestamp())
+                   .set(CONNECTOR_STATUS.STATUS, p.getStatus())
+                   .set(CONNECTOR_STATUS.ERROR_CODE, p.getErrorCode())
+                   .set(CONNECTOR_STATUS.ERROR_INFO, p.getErrorInfo())
+                   .set(CONNECTOR_STATUS.VENDOR_ID, p.getVendorId())
+                   .set(CONNECTOR_STATUS.VENDOR_ERROR_CODE, p.getVendorErrorCode())
+                   .execute();
+
+                return upsertLatestConnectorStatus(ctx, DSL.val(connectorPk), p.getTimestamp(), p.getStatus(),
+                    p.getErrorCode(), p.getErrorInfo(), p.getVendorId(), p.getVendorErrorCode());
+            })
+        );
+
+        log.debug("Stored a new connector status for {}/{}.", p.getChargeBoxId(), p.getConnectorId());
     }
 
     @Override
@@ -171,17 +177,7 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
             return;
         }
 
-        ctx.transaction(configuration -> {
-            try {
-                DSLContext ctx = DSL.using(configuration);
-
-                insertIgnoreConnector(ctx, chargeBoxIdentity, connectorId);
-                int connectorPk = getConnectorPkFromConnector(ctx, chargeBoxIdentity, connectorId);
-                batchInsertMeterValues(ctx, list, connectorPk, transactionId);
-            } catch (Exception e) {
-                log.error("Exception occurred", e);
-            }
-        });
+        meterValueIngestionQueue.insert(chargeBoxIdentity, list, connectorId, transactionId);
     }
 
     @Override
@@ -190,53 +186,39 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
             return;
         }
 
-        ctx.transaction(configuration -> {
-            try {
-                DSLContext ctx = DSL.using(configuration);
-
-                // First, get connector primary key from transaction table
-                int connectorPk = ctx.select(TRANSACTION_START.CONNECTOR_PK)
-                                     .from(TRANSACTION_START)
-                                     .where(TRANSACTION_START.TRANSACTION_PK.equal(transactionId))
-                                     .fetchOne()
-                                     .value1();
-
-                batchInsertMeterValues(ctx, list, connectorPk, transactionId);
-            } catch (Exception e) {
-                log.error("Exception occurred", e);
-            }
-        });
+        // connector primary key will be looked up from transaction table
+        meterValueIngestionQueue.insert(chargeBoxIdentity, list, null, transactionId);
     }
 
     @Override
     public int insertTransaction(InsertTransactionParams p) {
 
-        SelectConditionStep<Record1<Integer>> connectorPkQuery =
-                DSL.select(CONNECTOR.CONNECTOR_PK)
-                   .from(CONNECTOR)
-                   .where(CONNECTOR.CHARGE_BOX_ID.equal(p.getChargeBoxId()))
-                   .and(CONNECTOR.CONNECTOR_ID.equal(p.getConnectorId()));
-
         // -------------------------------------------------------------------------
-        // Step 1: Insert connector and idTag, if they are new to us
+        // Step 1: Insert idTag (and connector, see step 2), if they are new to us
         // -------------------------------------------------------------------------
 
-        insertIgnoreConnector(ctx, p.getChargeBoxId(), p.getConnectorId());
-
         // it is important to insert idTag before transaction, since the transaction table references it
         boolean unknownTagInserted = insertIgnoreIdTag(ctx, p);
+        if (unknownTagInserted) {
+            statisticsCache.ocppTagsAdded(List.of(p.getIdTag()));
+        }
 
         // -------------------------------------------------------------------------
         // Step 2: Insert transaction if it does not exist already
         // -------------------------------------------------------------------------
 
-        TransactionDataHolder data = insertIgnoreTransaction(p, connectorPkQuery);
+        TransactionDataHolder data = connectorPkCache.withConnectorPk(
+            p.getChargeBoxId(), p.getConnectorId(), pk -> insertIgnoreTransaction(p, pk)
+        );
         int transactionId = data.transactionId;
+        Field<Integer> connectorPk = DSL.val(data.connectorPk);
 
         if (data.existsAlready) {
             return transactionId;
         }
 
+        statisticsCache.transactionStarted(transactionId);
+
         if (unknownTagInserted) {
             log.warn("The transaction '{}' contains an unknown idTag '{}' which was inserted into DB "
                     + "to prevent information loss and has been blocked", transactionId, p.getIdTag());
@@ -247,7 +229,7 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
         // -------------------------------------------------------------------------
 
         if (p.isSetReservationId()) {
-            reservationRepository.used(connectorPkQuery, p.getIdTag(), p.getReservationId(), transactionId);
+            reservationRepository.used(DSL.select(connectorPk), p.getIdTag(), p.getReservationId(), transactionId);
         }
 
         // -------------------------------------------------------------------------
@@ -255,7 +237,7 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
         // -------------------------------------------------------------------------
 
         if (shouldInsertConnectorStatusAfterTransactionMsg(p.getChargeBoxId())) {
-            insertConnectorStatus(ctx, connectorPkQuery, p.getStartTimestamp(), p.getStatusUpdate());
+            insertConnectorStatus(connectorPk, p.getStartTimestamp(), p.getStatusUpdate());
         }
 
         return transactionId;
@@ -270,14 +252,22 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
 
         // JOOQ will throw an exception, if something goes wrong
         try {
-            ctx.insertInto(TRANSACTION_STOP)
-               .set(TRANSACTION_STOP.TRANSACTION_PK, p.getTransactionId())
-               .set(TRANSACTION_STOP.EVENT_TIMESTAMP, p.getEventTimestamp())
-               .set(TRANSACTION_STOP.EVENT_ACTOR, p.getEventActor())
-               .set(TRANSACTION_STOP.STOP_TIMESTAMP, p.getStopTimestamp())
-               .set(TRANSACTION_STOP.STOP_VALUE, p.getStopMeterValue())
-               .set(TRANSACTION_STOP.STOP_REASON, p.getStopReason())
-               .execute();
+            ctx.transaction(configuration -> {
+                DSLContext ctx = DSL.using(configuration);
+
+                ctx.insertInto(TRANSACTION_STOP)
+                   .set(TRANSACTION_STOP.TRANSACTION_PK, p.getTransactionId())
+                   .set(TRANSACTION_STOP.EVENT_TIMESTAMP, p.getEventTimestamp())
+                   .set(TRANSACTION_STOP.EVENT_ACTOR, p.getEventActor())
+                   .set(TRANSACTION_STOP.STOP_TIMESTAMP, p.getStopTimestamp())
+                   .set(TRANSACTION_STOP.STOP_VALUE, p.getStopMeterValue())
+                   .set(TRANSACTION_STOP.STOP_REASON, p.getStopReason())
+                   .execute();
+
+                updateEffectiveStop(ctx, p);
+            });
+
+            statisticsCache.transactionStopped(p.getTransactionId());
         } catch (Exception e) {
             log.error("Exception occurred", e);
             tryInsertingFailed(p, e);
@@ -289,12 +279,13 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
         // -------------------------------------------------------------------------
 
         if (shouldInsertConnectorStatusAfterTransactionMsg(p.getChargeBoxId())) {
-            SelectConditionStep<Record1<Integer>> connectorPkQuery =
+            Field<Integer> connectorPk = DSL.field(
                     DSL.select(TRANSACTION_START.CONNECTOR_PK)
                        .from(TRANSACTION_START)
-                       .where(TRANSACTION_START.TRANSACTION_PK.equal(p.getTransactionId()));
+                       .where(TRANSACTION_START.TRANSACTION_PK.equal(p.getTransactionId()))
+            );
 
-            insertConnectorStatus(ctx, connectorPkQuery, p.getStopTimestamp(), p.getStatusUpdate());
+            insertConnectorStatus(connectorPk, p.getStopTimestamp(), p.getStatusUpdate());
         }
     }
 
@@ -306,6 +297,7 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
     private static final class TransactionDataHolder {
         final boolean existsAlready;
         final int transactionId;
+        final int connectorPk;
     }
 
     /**
@@ -313,39 +305,49 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
      * problems the response of StartTransaction could not be delivered and station tries again later), we do not want
      * to insert this into database multiple times.
      */
-    private TransactionDataHolder insertIgnoreTransaction(InsertTransactionParams p,
-                                                          SelectConditionStep<Record1<Integer>> connectorPkQuery) {
+    private TransactionDataHolder insertIgnoreTransaction(InsertTransactionParams p, int connectorPk) {
         Lock l = transactionTableLocks.get(p.getChargeBoxId());
         l.lock();
         try {
             Record1<Integer> r = ctx.select(TRANSACTION_START.TRANSACTION_PK)
                                     .from(TRANSACTION_START)
-                                    .where(TRANSACTION_START.CONNECTOR_PK.eq(connectorPkQuery))
+                                    .where(TRANSACTION_START.CONNECTOR_PK.eq(connectorPk))
                                     .and(TRANSACTION_START.ID_TAG.eq(p.getIdTag()))
                                     .and(TRANSACTION_START.START_TIMESTAMP.eq(p.getStartTimestamp()))
                                     .and(TRANSACTION_START.START_VALUE.eq(p.getStartMeterValue()))
                                     .fetchOne();
 
             if (r != null) {
-                return new TransactionDataHolder(true, r.value1());
+                return new TransactionDataHolder(true, r.value1(), connectorPk);
             }
 
-            Integer transactionId = ctx.insertInto(TRANSACTION_START)
-                                       .set(TRANSACTION_START.EVENT_TIMESTAMP, p.getEventTimestamp())
-                                       .set(TRANSACTION_START.CONNECTOR_PK, connectorPkQuery)
-                                       .set(TRANSACTION_START.ID_TAG, p.getIdTag())
-                                       .set(TRANSACTION_START.START_TIMESTAMP, p.getStartTimestamp())
-                                       .set(TRANSACTION_START.START_VALUE, p.getStartMeterValue())
-                                       .returning(TRANSACTION_START.TRANSACTION_PK)
-                                       .fetchOne()
-                                       .getTransactionPk();
+            Integer transactionId = ctx.transactionResult(configuration -> {
+                DSLContext ctx = DSL.using(configuration);
+
+                Integer pk = ctx.insertInto(TRANSACTION_START)
+                                .set(TRANSACTION_START.EVENT_TIMESTAMP, p.getEventTimestamp())
+                                .set(TRANSACTION_START.CONNECTOR_PK, connectorPk)
+                                .set(TRANSACTION_START.ID_TAG, p.getIdTag())
+                                .set(TRANSACTION_START.START_TIMESTAMP, p.getStartTimestamp())
+                                .set(TRANSACTION_START.START_VALUE, p.getStartMeterValue())
+                                .returning(TRANSACTION_START.TRANSACTION_PK)
+                                .fetchOne()
+                                .getTransactionPk();
+
+                ctx.update(OCPP_TAG)
+                   .set(OCPP_TAG.ACTIVE_TRANSACTION_COUNT, OCPP_TAG.ACTIVE_TRANSACTION_COUNT.plus(1))
+                   .where(OCPP_TAG.ID_TAG.eq(p.getIdTag()))
+                   .execute();
+
+                return pk;
+            });
 
             // Actually unnecessary, because JOOQ will throw an exception, if something goes wrong
             if (transactionId == null) {
                 throw new SteveException("Failed to INSERT transaction into database");
             }
 
-            return new TransactionDataHolder(false, transactionId);
+            return new TransactionDataHolder(false, transactionId, connectorPk);
         } finally {
             l.unlock();
         }
@@ -360,22 +362,64 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
      * notification will be used as current. Or, if this transaction data was sent to us for a failed push from the past
      * and we have a "more recent" status, it will still be the current status.
      */
-    private void insertConnectorStatus(DSLContext ctx,
-                                       SelectConditionStep<Record1<Integer>> connectorPkQuery,
+    private void insertConnectorStatus(Field<Integer> connectorPk,
                                        DateTime timestamp,
                                        TransactionStatusUpdate statusUpdate) {
         try {
-            ctx.insertInto(CONNECTOR_STATUS)
-               .set(CONNECTOR_STATUS.CONNECTOR_PK, connectorPkQuery)
-               .set(CONNECTOR_STATUS.STATUS_TIMESTAMP, timestamp)
-               .set(CONNECTOR_STATUS.STATUS, statusUpdate.getStatus())
-               .set(CONNECTOR_STATUS.ERROR_CODE, statusUpdate.getErrorCode())
-               .execute();
+            ctx.transaction(configuration -> {
+                DSLContext ctx = DSL.using(configuration);
+
+                ctx.insertInto(CONNECTOR_STATUS)
+                   .set(CONNECTOR_STATUS.CONNECTOR_PK, connectorPk)
+                   .set(CONNECTOR_STATUS.STATUS_TIMESTAMP, timestamp)
+                   .set(CONNECTOR_STATUS.STATUS, statusUpdate.getStatus())
+                   .set(CONNECTOR_STATUS.ERROR_CODE, statusUpdate.getErrorCode())
+                   .execute();
+
+                upsertLatestConnectorStatus(ctx, connectorPk, timestamp, statusUpdate.getStatus(),
+                    statusUpdate.getErrorCode(), null, null, null);
+            });
         } catch (Exception e) {
             log.error("Exception occurred", e);
         }
     }
 
+    /**
+     * connector_status_latest holds the status with the latest timestamp per connector, i.e. what we would otherwise
+     * find with GROUP BY and MAX(status_timestamp) in connector_status. Statuses can arrive out of order (e.g.
+     * transaction data of a failed push from the past), therefore the stored status is only replaced by one that is at
+     * least as recent.
+     */
+    private static int upsertLatestConnectorStatus(DSLContext ctx, Field<Integer> connectorPk, DateTime timestamp,
+                                                   String status, String errorCode, String errorInfo,
+                                                   String vendorId, String vendorErrorCode) {
+        Condition isRecent = CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP.isNull()
+                .or(CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP.le(timestamp));
+
+        return ctx.insertInto(CONNECTOR_STATUS_LATEST)
+                  .set(CONNECTOR_STATUS_LATEST.CONNECTOR_PK, connectorPk)
+                  .set(CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP, timestamp)
+                  .set(CONNECTOR_STATUS_LATEST.STATUS, status)
+                  .set(CONNECTOR_STATUS_LATEST.ERROR_CODE, errorCode)
+                  .set(CONNECTOR_STATUS_LATEST.ERROR_INFO, errorInfo)
+                  .set(CONNECTOR_STATUS_LATEST.VENDOR_ID, vendorId)
+                  .set(CONNECTOR_STATUS_LATEST.VENDOR_ERROR_CODE, vendorErrorCode)
+                  .onDuplicateKeyUpdate()
+                  .set(CONNECTOR_STATUS_LATEST.STATUS, ifRecent(isRecent, CONNECTOR_STATUS_LATEST.STATUS, status))
+                  .set(CONNECTOR_STATUS_LATEST.ERROR_CODE, ifRecent(isRecent, CONNECTOR_STATUS_LATEST.ERROR_CODE, errorCode))
+                  .set(CONNECTOR_STATUS_LATEST.ERROR_INFO, ifRecent(isRecent, CONNECTOR_STATUS_LATEST.ERROR_INFO, errorInfo))
+                  .set(CONNECTOR_STATUS_LATEST.VENDOR_ID, ifRecent(isRecent, CONNECTOR_STATUS_LATEST.VENDOR_ID, vendorId))
+                  .set(CONNECTOR_STATUS_LATEST.VENDOR_ERROR_CODE, ifRecent(isRecent, CONNECTOR_STATUS_LATEST.VENDOR_ERROR_CODE, vendorErrorCode))
+                  // MySQL evaluates the assignments from left to right, and the ones above must see the old timestamp.
+                  // therefore, this must be the last one.
+                  .set(CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP, ifRecent(isRecent, CONNECTOR_STATUS_LATEST.STATUS_TIMESTAMP, timestamp))
+                  .execute();
+    }
+
+    private static <T> Field<T> ifRecent(Condition isRecent, Field<T> current, T value) {
+        return DSL.when(isRecent, DSL.val(value, current)).otherwise(current);
+    }
+
     /**
      * If the connector information was not received before, insert it. Otherwise, ignore.
      */
@@ -391,6 +435,46 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
         }
     }
 
+    /**
+     * The stop data on the transaction row is the one of the latest stop event (there can be more than one, e.g. a
+     * manual stop in the web page and a StopTransaction of the station later). When the transaction becomes inactive
+     * with this event, the active transaction count of its tag is decremented.
+     */
+    private static void updateEffectiveStop(DSLContext ctx, UpdateTransactionParams p) {
+        TransactionStartRecord r = ctx.selectFrom(TRANSACTION_START)
+                                      .where(TRANSACTION_START.TRANSACTION_PK.eq(p.getTransactionId()))
+                                      .forUpdate()
+                                      .fetchOne();
+
+        if (r == null) {
+            throw new SteveException("There is no transaction with id '%s'", p.getTransactionId());
+        }
+
+        DateTime latestEvent = r.getStopEventTimestamp();
+        if (latestEvent != null && latestEvent.isAfter(p.getEventTimestamp())) {
+            return;
+        }
+
+        boolean wasActive = r.getStopTimestamp() == null && r.getStopValue() == null;
+
+        ctx.update(TRANSACTION_START)
+           .set(TRANSACTION_START.STOP_EVENT_ACTOR, mapActor(p.getEventActor(), TransactionStartStopEventActor.manual))
+           .set(TRANSACTION_START.STOP_EVENT_TIMESTAMP, p.getEventTimestamp())
+           .set(TRANSACTION_START.STOP_TIMESTAMP, p.getStopTimestamp())
+           .set(TRANSACTION_START.STOP_VALUE, p.getStopMeterValue())
+           .set(TRANSACTION_START.STOP_REASON, p.getStopReason())
+           .where(TRANSACTION_START.TRANSACTION_PK.eq(p.getTransactionId()))
+           .execute();
+
+        if (wasActive) {
+            ctx.update(OCPP_TAG)
+               .set(OCPP_TAG.ACTIVE_TRANSACTION_COUNT, OCPP_TAG.ACTIVE_TRANSACTION_COUNT.minus(1))
+               .where(OCPP_TAG.ID_TAG.eq(r.getIdTag()))
+               .and(OCPP_TAG.ACTIVE_TRANSACTION_COUNT.greaterThan(0L))
+               .execute();
+        }
+    }
+
     /**
      * Use case: An offline charging station decides to allow an unknown idTag to start a transaction. Later, when it
      * is online, it sends a StartTransactionRequest with this idTag. If we do not insert this idTag, the transaction
@@ -420,44 +504,14 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
         return (r != null) && (r.value1() == 1);
     }
 
-    private int getConnectorPkFromConnector(DSLContext ctx, String chargeBoxIdentity, int connectorId) {
-        return ctx.select(CONNECTOR.CONNECTOR_PK)
-                  .from(CONNECTOR)
-                  .where(CONNECTOR.CHARGE_BOX_ID.equal(chargeBoxIdentity))
-                  .and(CONNECTOR.CONNECTOR_ID.equal(connectorId))
-                  .fetchOne()
-                  .value1();
-    }
-
-    private void batchInsertMeterValues(DSLContext ctx, List<MeterValue> list, int connectorPk, Integer transactionId) {
-        List<ConnectorMeterValueRecord> batch =
-                list.stream()
-                    .flatMap(t -> t.getSampledValue()
-                                   .stream()
-                                   .map(k -> ctx.newRecord(CONNECTOR_METER_VALUE)
-                                                .setConnectorPk(connectorPk)
-                                                .setTransactionPk(transactionId)
-                                                .setValueTimestamp(t.getTimestamp())
-                                                .setValue(k.getValue())
-                                                // The following are optional fields!
-                                                .setReadingContext(k.isSetContext() ? k.getContext().value() : null)
-                                                .setFormat(k.isSetFormat() ? k.getFormat().value() : null)
-                                                .setMeasurand(k.isSetMeasurand() ? k.getMeasurand().value() : null)
-                                                .setLocation(k.isSetLocation() ? k.getLocation().value() : null)
-                                                .setUnit(k.isSetUnit() ? k.getUnit().value() : null)
-                                                .setPhase(k.isSetPhase() ? k.getPhase().value() : null)))
-                    .collect(Collectors.toList());
-
-        ctx.batchInsert(batch).execute();
-    }
-
     private void tryInsertingFailed(UpdateTransactionParams p, Exception e) {
         try {
+            TransactionStopFailedEventActor actor = mapActor(p.getEventActor(), TransactionStopFailedEventActor.manual);
             ctx.insertInto(TRANSACTION_STOP_FAILED)
                .set(TRANSACTION_STOP_FAILED.TRANSACTION_PK, p.getTransactionId())
                .set(TRANSACTION_STOP_FAILED.CHARGE_BOX_ID, p.getChargeBoxId())
                .set(TRANSACTION_STOP_FAILED.EVENT_TIMESTAMP, p.getEventTimestamp())
-               .set(TRANSACTION_STOP_FAILED.EVENT_ACTOR, mapActor(p.getEventActor()))
+               .set(TRANSACTION_STOP_FAILED.EVENT_ACTOR, actor)
                .set(TRANSACTION_STOP_FAILED.STOP_TIMESTAMP, p.getStopTimestamp())
                .set(TRANSACTION_STOP_FAILED.STOP_VALUE, p.getStopMeterValue())
                .set(TRANSACTION_STOP_FAILED.STOP_REASON, p.getStopReason())
@@ -469,13 +523,16 @@ public class OcppServerRepositoryImpl implements OcppServerRepository {
         }
     }
 
-    private static TransactionStopFailedEventActor mapActor(TransactionStopEventActor a) {
-        for (TransactionStopFailedEventActor b : TransactionStopFailedEventActor.values()) {
+    /**
+     * The event actor columns have the same values, but jOOQ generates an enum per table
+     */
+    private static <T extends Enum<T> & EnumType> T mapActor(TransactionStopEventActor a, T fallback) {
+        for (T b : fallback.getDeclaringClass().getEnumConstants()) {
             if (b.getLiteral().equalsIgnoreCase(a.getLiteral())) {
                 return b;
             }
         }
-        // if unknown, do not throw exceptions. just insert manual.
-        return TransactionStopFailedEventActor.manual;
+        // if unknown, do not throw exceptions. just insert the fallback.
+        return fallback;
     }
 }
@@ -36,6 +36,7 @@ import org.jooq.Result;
 import org.jooq.SelectQuery;
 import org.jooq.TableField;
 import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
@@ -46,8 +47,10 @@ import java.util.stream.Collectors;
 import static de.rwth.idsg.steve.utils.CustomDSL.includes;
 import static de.rwth.idsg.steve.utils.DateTimeUtils.humanize;
 import static de.rwth.idsg.steve.utils.DateTimeUtils.toDateTime;
+import static jooq.steve.db.tables.ConnectorMeterValue.CONNECTOR_METER_VALUE;
 import static jooq.steve.db.tables.OcppTag.OCPP_TAG;
 import static jooq.steve.db.tables.OcppTagActivity.OCPP_TAG_ACTIVITY;
+import static jooq.steve.db.tables.TransactionStart.TRANSACTION_START;
 
 /**
  * @author Sevket Goekay <sevketgokay@gmail.com>
@@ -58,10 +61,12 @@ import static jooq.steve.db.tables.OcppTagActivity.OCPP_TAG_ACTIVITY;
 public class OcppTagRepositoryImpl implements OcppTagRepository {
 
     private final DSLContext ctx;
+    private final StatisticsCache statisticsCache;
 
     @Autowired
-    public OcppTagRepositoryImpl(DSLContext ctx) {
+    public OcppTagRepositoryImpl(DSLContext ctx, StatisticsCache statisticsCache) {
         this.ctx = ctx;
+        this.statisticsCache = statisticsCache;
     }
 
     @Override
@@ -199,20 +204,24 @@ public class OcppTagRepositoryImpl implements OcppTagRepository {
                                              .collect(Collectors.toList());
 
         ctx.batchInsert(batch).execute();
+        statisticsCache.ocppTagsAdded(idTagList);
     }
 
     @Override
     public int addOcppTag(OcppTagForm u) {
         try {
-            return ctx.insertInto(OCPP_TAG)
-                      .set(OCPP_TAG.ID_TAG, u.getIdTag())
-                      .set(OCPP_TAG.PARENT_ID_TAG, u.getParentIdTag())
-                      .set(OCPP_TAG.EXPIRY_DATE, toDateTime(u.getExpiryDate()))
-                      .set(OCPP_TAG.MAX_ACTIVE_TRANSACTION_COUNT, u.getMaxActiveTransactionCount())
-                      .set(OCPP_TAG.NOTE, u.getNote())
-                      .returning(OCPP_TAG.OCPP_TAG_PK)
-                      .fetchOne()
-                      .getOcppTagPk();
+            int ocppTagPk = ctx.insertInto(OCPP_TAG)
+                               .set(OCPP_TAG.ID_TAG, u.getIdTag())
+                               .set(OCPP_TAG.PARENT_ID_TAG, u.getParentIdTag())
+                               .set(OCPP_TAG.EXPIRY_DATE, toDateTime(u.getExpiryDate()))
+                               .set(OCPP_TAG.MAX_ACTIVE_TRANSACTION_COUNT, u.getMaxActiveTransactionCount())
+                               .set(OCPP_TAG.NOTE, u.getNote())
+                               .returning(OCPP_TAG.OCPP_TAG_PK)
+                               .fetchOne()
+                               .getOcppTagPk();
+
+            statisticsCache.ocppTagsAdded(List.of(u.getIdTag()));
+            return ocppTagPk;
 
         } catch (DataAccessException e) {
             if (e.getCause() instanceof SQLIntegrityConstraintViolationException) {
@@ -240,12 +249,35 @@ public class OcppTagRepositoryImpl implements OcppTagRepository {
 
     @Override
     public void deleteOcppTag(int ocppTagPk) {
-        try {
-            ctx.delete(OCPP_TAG)
-               .where(OCPP_TAG.OCPP_TAG_PK.equal(ocppTagPk))
-               .execute();
-        } catch (DataAccessException e) {
-            throw new SteveException("Execution of deleteOcppTag for idTag FAILED.", e);
+        String idTag = ctx.select(OCPP_TAG.ID_TAG)
+                          .from(OCPP_TAG)
+                          .where(OCPP_TAG.OCPP_TAG_PK.equal(ocppTagPk))
+                          .fetchOne(OCPP_TAG.ID_TAG);
+
+        ctx.transaction(configuration -> {
+            DSLContext ctx = DSL.using(configuration);
+            try {
+                // "on delete set null" for the transactions of the tag, which are deleted with it.
+                // connector_meter_value is partitioned and cannot have foreign keys.
+                ctx.update(CONNECTOR_METER_VALUE)
+                   .setNull(CONNECTOR_METER_VALUE.TRANSACTION_PK)
+                   .where(CONNECTOR_METER_VALUE.TRANSACTION_PK.in(
+                       DSL.select(TRANSACTION_START.TRANSACTION_PK)
+                          .from(TRANSACTION_START)
+                          .join(OCPP_TAG).on(OCPP_TAG.ID_TAG.eq(TRANSACTION_START.ID_TAG))
+                          .where(OCPP_TAG.OCPP_TAG_PK.equal(ocppTagPk))))
+                   .execute();
+
+                ctx.delete(OCPP_TAG)
+                   .where(OCPP_TAG.OCPP_TAG_PK.equal(ocppTagPk))
+                   .execute();
+            } catch (DataAccessException e) {
+                throw new SteveException("Execution of deleteOcppTag for idTag FAILED.", e);
+            }
+        });
+
+        if (idTag != null) {
+            statisticsCache.ocppTagDeleted(idTag);
         }
     }
 
@@ -0,0 +1,145 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import com.google.common.collect.Iterables;
+import de.rwth.idsg.steve.SteveException;
+import de.rwth.idsg.steve.repository.PartitionRepository;
+import de.rwth.idsg.steve.repository.dto.TablePartition;
+import lombok.RequiredArgsConstructor;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.impl.DSL;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.jooq.impl.DSL.name;
+
+/**
+ * jOOQ does not model partitions, so this is plain SQL with the names as templates.
+ *
+ * @since 17.10.2026
+ */
+@Repository
+@RequiredArgsConstructor
+public class PartitionRepositoryImpl implements PartitionRepository {
+
+    private static final String MAXVALUE = "MAXVALUE";
+
+    private static final Field<String> TABLE_SCHEMA = DSL.field(name("TABLE_SCHEMA"), String.class);
+    private static final Field<String> TABLE_NAME = DSL.field(name("TABLE_NAME"), String.class);
+    private static final Field<String> PARTITION_NAME = DSL.field(name("PARTITION_NAME"), String.class);
+    private static final Field<String> PARTITION_DESCRIPTION = DSL.field(name("PARTITION_DESCRIPTION"), String.class);
+    private static final Field<Long> ORDINAL_POSITION = DSL.field(name("PARTITION_ORDINAL_POSITION"), Long.class);
+    private static final Field<Long> DATA_LENGTH = DSL.field(name("DATA_LENGTH"), Long.class);
+    private static final Field<Long> INDEX_LENGTH = DSL.field(name("INDEX_LENGTH"), Long.class);
+
+    private final DSLContext ctx;
+
+    @Override
+    public List<TablePartition> getPartitions(String table) {
+        return ctx.select(PARTITION_NAME, PARTITION_DESCRIPTION, DATA_LENGTH, INDEX_LENGTH)
+                  .from(DSL.table(name("information_schema", "PARTITIONS")))
+                  .where(TABLE_SCHEMA.eq(DSL.currentSchema()))
+                  .and(TABLE_NAME.eq(table))
+                  .and(PARTITION_NAME.isNotNull())
+                  .orderBy(ORDINAL_POSITION)
+                  .fetch(r -> TablePartition.builder()
+                                            .name(r.value1())
+                                            .upperBound(MAXVALUE.equals(r.value2()) ? null : Long.valueOf(r.value2()))
+                                            .sizeInBytes(nullToZero(r.value3()) + nullToZero(r.value4()))
+                                            .build());
+    }
+
+    @Override
+    public long getRowCount(String table, String partition) {
+        return ctx.fetchOne("SELECT COUNT(*) FROM {0} PARTITION ({1})", name(table), name(partition))
+                  .get(0, Long.class);
+    }
+
+    @Override
+    public void addPartitions(String table, List<TablePartition> partitions) {
+        String definitions = partitions.stream()
+                                       .map(p -> "PARTITION " + ctx.render(name(p.getName()))
+                                           + " VALUES LESS THAN (" + p.getUpperBound() + ")")
+                                       .collect(Collectors.joining(", "));
+
+        TablePartition last = Iterables.getLast(getPartitions(table), null);
+
+        if (last != null && last.isMaxValue()) {
+            // the rows of the MAXVALUE partition are copied into the new partitions, under a lock of the table. there
+            // are none, since the migration and this job always keep the coming months ready.
+            ctx.execute("ALTER TABLE {0} REORGANIZE PARTITION {1} INTO ("
+                    + definitions + ", PARTITION {1} VALUES LESS THAN " + MAXVALUE + ")",
+                name(table), name(last.getName()));
+        } else {
+            ctx.execute("ALTER TABLE {0} ADD PARTITION (" + definitions + ")", name(table));
+        }
+    }
+
+    @Override
+    public void dropPartition(String table, String partition) {
+        ctx.execute("ALTER TABLE {0} DROP PARTITION {1}", name(table), name(partition));
+    }
+
+    @Override
+    public void archivePartition(String table, String partition, String archiveTable) {
+        // a run that crashed midway leaves the archive table behind. start over, unless the rows are in it already.
+        if (tableExists(archiveTable)) {
+            if (!ctx.fetchExists(DSL.table(name(archiveTable)))) {
+                ctx.execute("DROP TABLE {0}", name(archiveTable));
+            } else if (!partitionHasRows(table, partition)) {
+                dropPartition(table, partition);
+                return;
+            } else {
+                throw new SteveException("Archive table '%s' exists already, and the partition '%s' is not empty",
+                    archiveTable, partition);
+            }
+        }
+
+        ctx.execute("CREATE TABLE {0} LIKE {1}", name(archiveTable), name(table));
+        ctx.execute("ALTER TABLE {0} REMOVE PARTITIONING", name(archiveTable));
+
+        // swaps the tablespaces, i.e. no rows are copied. the rows are in the range of the partition for sure.
+        ctx.execute("ALTER TABLE {0} EXCHANGE PARTITION {1} WITH TABLE {2} WITHOUT VALIDATION",
+            name(table), name(partition), name(archiveTable));
+
+        dropPartition(table, partition);
+    }
+
+    private boolean tableExists(String table) {
+        return ctx.fetchExists(
+            DSL.selectOne()
+               .from(DSL.table(name("information_schema", "TABLES")))
+               .where(TABLE_SCHEMA.eq(DSL.currentSchema()))
+               .and(TABLE_NAME.eq(table))
+        );
+    }
+
+    private boolean partitionHasRows(String table, String partition) {
+        return ctx.fetchOptional("SELECT 1 FROM {0} PARTITION ({1}) LIMIT 1", name(table), name(partition))
+                  .isPresent();
+    }
+
+    private static long nullToZero(Long value) {
+        return value == null ? 0 : value;
+    }
+}
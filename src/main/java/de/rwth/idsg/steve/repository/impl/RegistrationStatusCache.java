@@ -0,0 +1,114 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * Cache for chargeBoxId -> CHARGE_BOX.REGISTRATION_STATUS, which is read for every WebSocket handshake and every SOAP
+ * message. When thousands of stations reconnect at once (e.g. after a network outage), this keeps them from going to
+ * the database one by one.
+ *
+ * Unknown chargeBoxIds are cached as well (negative entries), but only for a short time, since a station might be
+ * added in the meantime. Both kinds of entries are invalidated by the writes of {@link ChargePointRepositoryImpl}.
+ * Known entries expire after a while as well, in order to pick up changes that were made directly in DB.
+ *
+ * A loader might read "not found" just before a station is added, and put its result after the invalidation of the
+ * add. Therefore, results that were loaded while an invalidation happened are not put into the cache.
+ *
+ * @since 17.10.2026
+ */
+@Repository
+public class RegistrationStatusCache {
+
+    private static final Duration KNOWN_TTL = Duration.ofMinutes(10);
+
+    // an unbounded number of different unknown chargeBoxIds might be tried
+    private static final int MAX_UNKNOWN_SIZE = 10_000;
+
+    private final Cache<String, String> known;
+    private final Cache<String, Boolean> unknown;
+
+    // incremented with every invalidation
+    private final AtomicLong generation = new AtomicLong();
+
+    public RegistrationStatusCache() {
+        known = CacheBuilder.newBuilder()
+                            .expireAfterWrite(KNOWN_TTL)
+                            .build();
+
+        int unknownTtlInSeconds = CONFIG.getOcpp().getUnknownChargeBoxCacheTtlInSeconds();
+        unknown = CacheBuilder.newBuilder()
+                              .expireAfterWrite(Duration.ofSeconds(unknownTtlInSeconds))
+                              .maximumSize(MAX_UNKNOWN_SIZE)
+                              .build();
+    }
+
+    /**
+     * Concurrent misses for the same chargeBoxId might both call the loader, which is fine for a read.
+     */
+    public Optional<String> get(String chargeBoxId, Function<String, Optional<String>> loader) {
+        String status = known.getIfPresent(chargeBoxId);
+        if (status != null) {
+            return Optional.of(status);
+        }
+        if (unknown.getIfPresent(chargeBoxId) != null) {
+            return Optional.empty();
+        }
+        return load(chargeBoxId, loader);
+    }
+
+    /**
+     * Calls the loader without looking into the cache, and caches its result
+     */
+    public Optional<String> load(String chargeBoxId, Function<String, Optional<String>> loader) {
+        long generationBefore = generation.get();
+        Optional<String> loaded = loader.apply(chargeBoxId);
+
+        if (generation.get() == generationBefore) {
+            if (loaded.isPresent()) {
+                known.put(chargeBoxId, loaded.get());
+            } else {
+                unknown.put(chargeBoxId, Boolean.TRUE);
+            }
+        }
+        return loaded;
+    }
+
+    public void invalidate(String chargeBoxId) {
+        generation.incrementAndGet();
+        known.invalidate(chargeBoxId);
+        unknown.invalidate(chargeBoxId);
+    }
+
+    public void invalidateAll(Iterable<String> chargeBoxIds) {
+        generation.incrementAndGet();
+        known.invalidateAll(chargeBoxIds);
+        unknown.invalidateAll(chargeBoxIds);
+    }
+}
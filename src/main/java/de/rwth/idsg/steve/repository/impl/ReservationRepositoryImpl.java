@@ -55,10 +55,12 @@ import static jooq.steve.db.tables.Reservation.RESERVATION;
 public class ReservationRepositoryImpl implements ReservationRepository {
 
     private final DSLContext ctx;
+    private final StatisticsCache statisticsCache;
 
     @Autowired
-    public ReservationRepositoryImpl(DSLContext ctx) {
+    public ReservationRepositoryImpl(DSLContext ctx, StatisticsCache statisticsCache) {
         this.ctx = ctx;
+        this.statisticsCache = statisticsCache;
     }
 
     @Override
@@ -146,17 +148,20 @@ public class ReservationRepositoryImpl implements ReservationRepository {
            .where(RESERVATION.RESERVATION_PK.equal(reservationId))
            .execute();
 
+        statisticsCache.reservationChanged(reservationId);
         log.debug("The reservation '{}' is deleted.", reservationId);
     }
 
     @Override
     public void accepted(int reservationId) {
         internalUpdateReservation(reservationId, ReservationStatus.ACCEPTED);
+        statisticsCache.reservationChanged(reservationId);
     }
 
     @Override
     public void cancelled(int reservationId) {
         internalUpdateReservation(reservationId, ReservationStatus.CANCELLED);
+        statisticsCache.reservationChanged(reservationId);
     }
 
     @Override
@@ -173,6 +178,8 @@ public class ReservationRepositoryImpl implements ReservationRepository {
         if (count != 1) {
             log.warn("Could not mark the reservation '{}' as used: Problems occurred due to sent reservation id, " +
                     "charge box connector, user id tag or the reservation was used already.", reservationId);
+        } else {
+            statisticsCache.reservationChanged(reservationId);
         }
     }
 
@@ -20,19 +20,27 @@ package de.rwth.idsg.steve.repository.impl;
 
 import de.rwth.idsg.steve.NotificationFeature;
 import de.rwth.idsg.steve.SteveException;
+import de.rwth.idsg.steve.config.DelegatingTaskScheduler;
 import de.rwth.idsg.steve.repository.SettingsRepository;
 import de.rwth.idsg.steve.repository.dto.MailSettings;
 import de.rwth.idsg.steve.web.dto.SettingsForm;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jooq.steve.db.tables.records.SettingsRecord;
+import lombok.extern.slf4j.Slf4j;
 import org.jooq.DSLContext;
 import org.jooq.exception.DataAccessException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Base64;
 import java.util.List;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import static de.rwth.idsg.steve.utils.StringUtils.joinByComma;
@@ -40,12 +48,20 @@ import static de.rwth.idsg.steve.utils.StringUtils.splitByComma;
 import static jooq.steve.db.tables.Settings.SETTINGS;
 
 /**
+ * Settings are read very frequently (boot notifications, authorizations, every application event for mail
+ * notifications), but rarely changed. Therefore, reads are served from an immutable snapshot in memory, which is
+ * swapped after {@link #update(SettingsForm)}. The snapshot is also reloaded periodically, so that changes made
+ * directly in the database propagate as well.
+ *
  * @author Sevket Goekay <sevketgokay@gmail.com>
  * @since 06.11.2015
  */
+@Slf4j
 @Repository
 public class SettingsRepositoryImpl implements SettingsRepository {
 
+    private static final Duration RELOAD_INTERVAL = Duration.ofMinutes(1);
+
     // Totally unnecessary to specify charset here. We just do it to make findbugs plugin happy.
     //
     private static final String APP_ID = new String(
@@ -54,14 +70,32 @@ public class SettingsRepositoryImpl implements SettingsRepository {
     );
 
     @Autowired private DSLContext ctx;
+    @Autowired private DelegatingTaskScheduler asyncTaskScheduler;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    private ScheduledFuture<?> reloadSchedule;
+
+    @PostConstruct
+    public void init() {
+        snapshot.set(new Snapshot(1, getInternal()));
+        reloadSchedule = asyncTaskScheduler.scheduleAtFixedRate(
+            this::reload, Instant.now().plus(RELOAD_INTERVAL), RELOAD_INTERVAL
+        );
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (reloadSchedule != null) {
+            reloadSchedule.cancel(false);
+        }
+    }
 
     @Override
     public SettingsForm getForm() {
-        SettingsRecord r = getInternal();
-
-        List<String> eMails = splitByComma(r.getMailRecipients());
-        List<NotificationFeature> features = splitFeatures(r.getNotificationFeatures());
+        SettingsRecord r = snapshot.get().record;
 
+        // the form is mutable and bound to the web page. always return a new instance.
         return SettingsForm.builder()
                            .heartbeat(toMin(r.getHeartbeatIntervalInSeconds()))
                            .expiration(r.getHoursToExpire())
@@ -72,40 +106,25 @@ public class SettingsRepositoryImpl implements SettingsRepository {
                            .from(r.getMailFrom())
                            .protocol(r.getMailProtocol())
                            .port(r.getMailPort())
-                           .recipients(eMails)
-                           .enabledFeatures(features)
+                           .recipients(splitByComma(r.getMailRecipients()))
+                           .enabledFeatures(splitFeatures(r.getNotificationFeatures()))
                            .build();
 
     }
 
     @Override
     public MailSettings getMailSettings() {
-        SettingsRecord r = getInternal();
-
-        List<String> eMails = splitByComma(r.getMailRecipients());
-        List<NotificationFeature> features = splitFeatures(r.getNotificationFeatures());
-
-        return MailSettings.builder()
-                           .enabled(r.getMailEnabled())
-                           .host(r.getMailHost())
-                           .username(r.getMailUsername())
-                           .password(r.getMailPassword())
-                           .from(r.getMailFrom())
-                           .protocol(r.getMailProtocol())
-                           .port(r.getMailPort())
-                           .recipients(eMails)
-                           .enabledFeatures(features)
-                           .build();
+        return snapshot.get().mailSettings;
     }
 
     @Override
     public int getHeartbeatIntervalInSeconds() {
-        return getInternal().getHeartbeatIntervalInSeconds();
+        return snapshot.get().record.getHeartbeatIntervalInSeconds();
     }
 
     @Override
     public int getHoursToExpire() {
-        return getInternal().getHoursToExpire();
+        return snapshot.get().record.getHoursToExpire();
     }
 
     @Override
@@ -132,6 +151,27 @@ public class SettingsRepositoryImpl implements SettingsRepository {
         } catch (DataAccessException e) {
             throw new SteveException("FAILED to save the settings", e);
         }
+
+        // unconditional swap: a periodic reload that started before our update must not win
+        SettingsRecord r = getInternal();
+        Snapshot next = snapshot.updateAndGet(current -> new Snapshot(current.version + 1, r));
+        log.info("Settings are updated (version {})", next.version);
+    }
+
+    /**
+     * Picks up changes that were made directly in the database. The snapshot is only replaced, if there is no newer
+     * one in the meantime and the values actually changed.
+     */
+    public void reload() {
+        try {
+            Snapshot current = snapshot.get();
+            SettingsRecord r = getInternal();
+            if (!r.equals(current.record) && snapshot.compareAndSet(current, new Snapshot(current.version + 1, r))) {
+                log.info("Settings are changed in the database. Reloaded them (version {})", current.version + 1);
+            }
+        } catch (Exception e) {
+            log.error("Failed to reload the settings", e);
+        }
     }
 
     private SettingsRecord getInternal() {
@@ -150,9 +190,38 @@ public class SettingsRepositoryImpl implements SettingsRepository {
 
 
 
-    private List<NotificationFeature> splitFeatures(String str) {
+    private static List<NotificationFeature> splitFeatures(String str) {
         return splitByComma(str).stream()
                                 .map(NotificationFeature::fromName)
                                 .collect(Collectors.toList());
     }
+
+    private static MailSettings toMailSettings(SettingsRecord r) {
+        return MailSettings.builder()
+                           .enabled(r.getMailEnabled())
+                           .host(r.getMailHost())
+                           .username(r.getMailUsername())
+                           .password(r.getMailPassword())
+                           .from(r.getMailFrom())
+                           .protocol(r.getMailProtocol())
+                           .port(r.getMailPort())
+                           .recipients(List.copyOf(splitByComma(r.getMailRecipients())))
+                           .enabledFeatures(List.copyOf(splitFeatures(r.getNotificationFeatures())))
+                           .build();
+    }
+
+    /**
+     * The record is never exposed and therefore never modified after creation
+     */
+    private static final class Snapshot {
+        private final long version;
+        private final SettingsRecord record;
+        private final MailSettings mailSettings;
+
+        private Snapshot(long version, SettingsRecord record) {
+            this.version = version;
+            this.record = record;
+            this.mailSettings = toMailSettings(record);
+        }
+    }
 }
@@ -0,0 +1,362 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.config.DelegatingTaskScheduler;
+import de.rwth.idsg.steve.repository.ReservationStatus;
+import de.rwth.idsg.steve.web.dto.Statistics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.jooq.DSLContext;
+import org.jooq.Record2;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import static jooq.steve.db.Tables.RESERVATION;
+import static jooq.steve.db.Tables.TRANSACTION;
+import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
+import static jooq.steve.db.tables.OcppTag.OCPP_TAG;
+import static jooq.steve.db.tables.User.USER;
+
+/**
+ * The numbers of the dashboard, kept in memory, such that reading them does not need any COUNT(*) query.
+ *
+ * The repositories report their writes (added and deleted charge boxes, tags and users, heartbeats, started and
+ * stopped transactions, reservation changes) and the numbers are updated incrementally. Deletes of charge boxes and
+ * tags cascade to other tables (e.g. the transactions of a deleted tag), so we do not try to follow them and reload
+ * everything in the background instead. Everything is reloaded periodically as well, in order to correct a possible
+ * drift (e.g. because of changes directly in DB).
+ *
+ * The writes that are reported while a reload reads from DB are buffered and applied to the reloaded numbers as well,
+ * before they replace the current ones. Therefore, all updates are idempotent (sets of keys instead of counters): a
+ * write that the reload already sees in DB is not counted twice.
+ *
+ * @since 17.10.2026
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class StatisticsCache {
+
+    private static final Duration RECONCILE_INTERVAL = Duration.ofMinutes(10);
+
+    private final DSLContext ctx;
+    private final ChargeBoxHeartbeatBuffer heartbeatBuffer;
+    private final DelegatingTaskScheduler asyncTaskScheduler;
+
+    // the updates take the read lock (they do not exclude each other), the swap of the state takes the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // written under the write lock
+    private volatile State state = new State();
+
+    // guarded by lock. the updates since the start of the current reload, or null if there is none
+    private Queue<Consumer<State>> pendingUpdates;
+
+    private final AtomicBoolean reconcileRequested = new AtomicBoolean(false);
+
+    private ScheduledFuture<?> reconcileSchedule;
+
+    @PostConstruct
+    public void init() {
+        reconcile();
+        reconcileSchedule = asyncTaskScheduler.scheduleAtFixedRate(
+            this::reconcileSafely, Instant.now().plus(RECONCILE_INTERVAL), RECONCILE_INTERVAL
+        );
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (reconcileSchedule != null) {
+            reconcileSchedule.cancel(false);
+        }
+    }
+
+    public Statistics getStats() {
+        State s = state;
+
+        DateTime now = DateTime.now();
+        LocalDate today = now.toLocalDate();
+        LocalDate yesterday = today.minusDays(1);
+
+        int heartbeatToday = 0;
+        int heartbeatYesterday = 0;
+        int heartbeatEarlier = 0;
+
+        // the number of distinct dates is small, since most stations send heartbeats every day
+        for (Map.Entry<LocalDate, Integer> entry : s.heartbeatDateCounts.entrySet()) {
+            LocalDate date = entry.getKey();
+            if (date.isEqual(today)) {
+                heartbeatToday += entry.getValue();
+            } else if (date.isEqual(yesterday)) {
+                heartbeatYesterday += entry.getValue();
+            } else if (date.isBefore(yesterday)) {
+                heartbeatEarlier += entry.getValue();
+            }
+        }
+
+        int numReservations = (int) s.acceptedReservations.values()
+                                                          .stream()
+                                                          .filter(expiry -> expiry.isAfter(now))
+                                                          .count();
+
+        return Statistics.builder()
+                         .numChargeBoxes(s.heartbeatDates.size())
+                         .numOcppTags(s.idTags.size())
+                         .numUsers(s.userPks.size())
+                         .numReservations(numReservations)
+                         .numTransactions(s.activeTransactions.size())
+                         .heartbeatToday(heartbeatToday)
+                         .heartbeatYesterday(heartbeatYesterday)
+                         .heartbeatEarlier(heartbeatEarlier)
+                         .build();
+    }
+
+    // -------------------------------------------------------------------------
+    // Writes reported by the repositories
+    // -------------------------------------------------------------------------
+
+    public void chargeBoxesAdded(Collection<String> chargeBoxIds) {
+        update(s -> chargeBoxIds.forEach(id -> s.heartbeatDates.putIfAbsent(id, Optional.empty())));
+    }
+
+    /**
+     * Its transactions and reservations are deleted as well, which are corrected by a reload in the background
+     */
+    public void chargeBoxDeleted(String chargeBoxId) {
+        update(s -> {
+            Optional<LocalDate> oldDate = s.heartbeatDates.remove(chargeBoxId);
+            if (oldDate != null) {
+                oldDate.ifPresent(s::decrementHeartbeatDate);
+            }
+        });
+        reconcileLater();
+    }
+
+    /**
+     * Heartbeats of unknown charge boxes (not in DB) are ignored
+     */
+    public void heartbeat(String chargeBoxId, DateTime timestamp) {
+        if (timestamp == null) {
+            return;
+        }
+
+        LocalDate date = timestamp.toLocalDate();
+
+        update(s -> s.heartbeatDates.computeIfPresent(chargeBoxId, (k, oldDate) -> {
+            if (oldDate.isPresent() && !oldDate.get().isBefore(date)) {
+                return oldDate;
+            }
+            oldDate.ifPresent(s::decrementHeartbeatDate);
+            s.heartbeatDateCounts.merge(date, 1, Integer::sum);
+            return Optional.of(date);
+        }));
+    }
+
+    public void ocppTagsAdded(Collection<String> idTags) {
+        update(s -> s.idTags.addAll(idTags));
+    }
+
+    /**
+     * Its transactions and reservations are deleted as well, which are corrected by a reload in the background
+     */
+    public void ocppTagDeleted(String idTag) {
+        update(s -> s.idTags.remove(idTag));
+        reconcileLater();
+    }
+
+    public void userAdded(int userPk) {
+        update(s -> s.userPks.add(userPk));
+    }
+
+    public void userDeleted(int userPk) {
+        update(s -> s.userPks.remove(userPk));
+    }
+
+    public void transactionStarted(int transactionPk) {
+        update(s -> s.activeTransactions.add(transactionPk));
+    }
+
+    public void transactionStopped(int transactionPk) {
+        update(s -> s.activeTransactions.remove(transactionPk));
+    }
+
+    /**
+     * Reservations change rarely. Just read the current status of it.
+     */
+    public void reservationChanged(int reservationPk) {
+        Record2<String, DateTime> r = ctx.select(RESERVATION.STATUS, RESERVATION.EXPIRY_DATETIME)
+                                         .from(RESERVATION)
+                                         .where(RESERVATION.RESERVATION_PK.eq(reservationPk))
+                                         .fetchOne();
+
+        if (r != null && ReservationStatus.ACCEPTED.name().equals(r.value1())) {
+            DateTime expiry = r.value2();
+            update(s -> s.acceptedReservations.put(reservationPk, expiry));
+        } else {
+            update(s -> s.acceptedReservations.remove(reservationPk));
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Reload
+    // -------------------------------------------------------------------------
+
+    /**
+     * Reads everything from DB and replaces the current numbers. The writes that are reported meanwhile are applied
+     * to the new numbers as well.
+     */
+    public synchronized void reconcile() {
+        lock.writeLock().lock();
+        try {
+            pendingUpdates = new ConcurrentLinkedQueue<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        State s = null;
+        try {
+            s = load();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (s != null) {
+                    for (Consumer<State> update : pendingUpdates) {
+                        update.accept(s);
+                    }
+                    state = s;
+                }
+                pendingUpdates = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        log.debug("Reloaded the statistics");
+    }
+
+    /**
+     * Reloads in the background, such that the caller (e.g. a web request) does not wait for it. Multiple requests
+     * before the reload starts are served by one.
+     */
+    public void reconcileLater() {
+        if (reconcileRequested.compareAndSet(false, true)) {
+            asyncTaskScheduler.schedule(() -> {
+                reconcileRequested.set(false);
+                reconcileSafely();
+            }, Instant.now());
+        }
+    }
+
+    private State load() {
+        State s = new State();
+
+        ctx.select(CHARGE_BOX.CHARGE_BOX_ID, CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP)
+           .from(CHARGE_BOX)
+           .fetch()
+           .forEach(r -> {
+               // the latest heartbeats might not be written to DB yet
+               DateTime ts = heartbeatBuffer.getLatest(r.value1(), r.value2());
+               Optional<LocalDate> date = Optional.ofNullable(ts).map(DateTime::toLocalDate);
+               s.heartbeatDates.put(r.value1(), date);
+               date.ifPresent(d -> s.heartbeatDateCounts.merge(d, 1, Integer::sum));
+           });
+
+        s.idTags.addAll(ctx.select(OCPP_TAG.ID_TAG).from(OCPP_TAG).fetch(OCPP_TAG.ID_TAG));
+        s.userPks.addAll(ctx.select(USER.USER_PK).from(USER).fetch(USER.USER_PK));
+
+        ctx.select(RESERVATION.RESERVATION_PK, RESERVATION.EXPIRY_DATETIME)
+           .from(RESERVATION)
+           .where(RESERVATION.STATUS.eq(ReservationStatus.ACCEPTED.name()))
+           .and(RESERVATION.EXPIRY_DATETIME.greaterThan(DateTime.now()))
+           .fetch()
+           .forEach(r -> s.acceptedReservations.put(r.value1(), r.value2()));
+
+        s.activeTransactions.addAll(
+            ctx.select(TRANSACTION.TRANSACTION_PK)
+               .from(TRANSACTION)
+               .where(TRANSACTION.STOP_TIMESTAMP.isNull())
+               .fetch(TRANSACTION.TRANSACTION_PK)
+        );
+
+        return s;
+    }
+
+    private void reconcileSafely() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("Failed to reload the statistics", e);
+        }
+    }
+
+    private void update(Consumer<State> update) {
+        lock.readLock().lock();
+        try {
+            update.accept(state);
+            if (pendingUpdates != null) {
+                pendingUpdates.add(update);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Classes
+    // -------------------------------------------------------------------------
+
+    private static class State {
+        // chargeBoxId -> date of the last heartbeat. contains all charge boxes in DB
+        private final ConcurrentHashMap<String, Optional<LocalDate>> heartbeatDates = new ConcurrentHashMap<>();
+
+        // date -> number of charge boxes with the last heartbeat at this date
+        private final ConcurrentHashMap<LocalDate, Integer> heartbeatDateCounts = new ConcurrentHashMap<>();
+
+        private final Set<String> idTags = ConcurrentHashMap.newKeySet();
+        private final Set<Integer> userPks = ConcurrentHashMap.newKeySet();
+
+        // reservationPk -> expiry
+        private final ConcurrentHashMap<Integer, DateTime> acceptedReservations = new ConcurrentHashMap<>();
+
+        private final Set<Integer> activeTransactions = ConcurrentHashMap.newKeySet();
+
+        private void decrementHeartbeatDate(LocalDate date) {
+            heartbeatDateCounts.computeIfPresent(date, (k, count) -> count == 1 ? null : count - 1);
+        }
+    }
+}
@@ -19,69 +19,238 @@
 package de.rwth.idsg.steve.repository.impl;
 
 import de.rwth.idsg.steve.SteveException;
+import de.rwth.idsg.steve.config.DelegatingTaskScheduler;
 import de.rwth.idsg.steve.ocpp.CommunicationTask;
 import de.rwth.idsg.steve.repository.TaskStore;
 import de.rwth.idsg.steve.repository.dto.TaskOverview;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.joda.time.DateTime;
 import org.springframework.stereotype.Repository;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
 
 /**
+ * Tasks are kept in a map that is sorted by taskId in ascending order. Since taskIds are increasing, new tasks are
+ * always added at the tail and the oldest tasks are at the head, which is where the eviction starts. The overview
+ * (newest first) iterates the descending view of the map, so that a page can be read without sorting anything.
+ *
+ * Finished tasks are evicted in two steps: After the details TTL, the task with its results is replaced by a compact
+ * summary. After the TTL, the summary is removed as well. If the store grows beyond its max size, the oldest finished
+ * tasks are removed earlier.
+ *
  * @author Sevket Goekay <sevketgokay@gmail.com>
  * @since 29.12.2014
  */
 @Slf4j
 @Repository
+@RequiredArgsConstructor
 public class TaskStoreImpl implements TaskStore {
 
+    private static final Duration EVICTION_INTERVAL = Duration.ofMinutes(1);
+
+    private final DelegatingTaskScheduler asyncTaskScheduler;
+
     private final AtomicInteger atomicInteger = new AtomicInteger(0);
-    private final ConcurrentHashMap<Integer, CommunicationTask> lookupTable = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, Entry> lookupTable = new ConcurrentSkipListMap<>();
+
+    // the size() of ConcurrentSkipListMap is not constant-time
+    private final AtomicInteger size = new AtomicInteger(0);
+
+    private ScheduledFuture<?> evictionSchedule;
+
+    @PostConstruct
+    public void init() {
+        evictionSchedule = asyncTaskScheduler.scheduleAtFixedRate(
+            this::evict, Instant.now().plus(EVICTION_INTERVAL), EVICTION_INTERVAL
+        );
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (evictionSchedule != null) {
+            evictionSchedule.cancel(false);
+        }
+    }
 
     @Override
-    public List<TaskOverview> getOverview() {
-        return lookupTable.entrySet()
-                          .stream()
-                          .map(entry -> {
-                              CommunicationTask r = entry.getValue();
-                              return TaskOverview.builder()
-                                                 .taskId(entry.getKey())
-                                                 .origin(r.getOrigin())
-                                                 .start(r.getStartTimestamp())
-                                                 .end(r.getEndTimestamp())
-                                                 .responseCount(r.getResponseCount().get())
-                                                 .requestCount(r.getResultMap().size())
-                                                 .build();
-                          })
-                          .sorted()
-                          .collect(Collectors.toList());
+    public List<TaskOverview> getOverview(int offset, int limit) {
+        List<TaskOverview> list = new ArrayList<>(limit);
+        Iterator<Map.Entry<Integer, Entry>> it = lookupTable.descendingMap().entrySet().iterator();
+
+        for (int i = 0; i < offset && it.hasNext(); i++) {
+            it.next();
+        }
+
+        while (list.size() < limit && it.hasNext()) {
+            Map.Entry<Integer, Entry> entry = it.next();
+            list.add(entry.getValue().toOverview());
+        }
+        return list;
+    }
+
+    @Override
+    public int getSize() {
+        return size.get();
     }
 
     @Override
     public CommunicationTask get(Integer taskId) {
-        CommunicationTask r = lookupTable.get(taskId);
-        if (r == null) {
+        Entry entry = lookupTable.get(taskId);
+        if (entry == null) {
             throw new SteveException("There is no task with taskId '%s'", taskId);
-        } else {
-            return r;
         }
+
+        CommunicationTask r = entry.task;
+        if (r == null) {
+            throw new SteveException("The details of the task with taskId '%s' are not available anymore", taskId);
+        }
+        return r;
     }
 
     @Override
     public Integer add(CommunicationTask task) {
         int taskId = atomicInteger.incrementAndGet();
-        lookupTable.put(taskId, task);
+        lookupTable.put(taskId, new Entry(taskId, task));
+
+        if (size.incrementAndGet() > CONFIG.getOcpp().getTaskStoreMaxSize()) {
+            evictOldestFinished();
+        }
         return taskId;
     }
 
     @Override
     public void clearFinished() {
-        lookupTable.entrySet()
-                   .stream()
-                   .filter(entry -> entry.getValue().isFinished())
-                   .forEach(entry -> lookupTable.remove(entry.getKey()));
+        lookupTable.forEach((taskId, entry) -> {
+            if (entry.isFinished()) {
+                remove(taskId, entry);
+            }
+        });
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private void evict() {
+        DateTime now = DateTime.now();
+        DateTime detailsThreshold = now.minusMinutes(CONFIG.getOcpp().getTaskDetailsTtlInMinutes());
+        DateTime threshold = now.minusMinutes(CONFIG.getOcpp().getTaskTtlInMinutes());
+
+        int compacted = 0;
+        int removed = 0;
+
+        for (Map.Entry<Integer, Entry> mapEntry : lookupTable.entrySet()) {
+            Entry entry = mapEntry.getValue();
+            DateTime end = entry.getEndTimestamp();
+            if (end == null) {
+                continue;
+            }
+
+            if (end.isBefore(threshold)) {
+                if (remove(mapEntry.getKey(), entry)) {
+                    removed++;
+                }
+            } else if (end.isBefore(detailsThreshold) && entry.task != null) {
+                entry.compact();
+                compacted++;
+            }
+        }
+
+        removed += evictOldestFinished();
+
+        if (compacted > 0 || removed > 0) {
+            log.debug("Compacted {} and removed {} finished tasks. Remaining: {}", compacted, removed, size.get());
+        }
+    }
+
+    /**
+     * Oldest tasks have the lowest taskIds
+     */
+    private int evictOldestFinished() {
+        int maxSize = CONFIG.getOcpp().getTaskStoreMaxSize();
+        int removed = 0;
+
+        for (Map.Entry<Integer, Entry> mapEntry : lookupTable.entrySet()) {
+            if (size.get() <= maxSize) {
+                break;
+            }
+            if (mapEntry.getValue().isFinished() && remove(mapEntry.getKey(), mapEntry.getValue())) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private boolean remove(Integer taskId, Entry entry) {
+        boolean removed = lookupTable.remove(taskId, entry);
+        if (removed) {
+            size.decrementAndGet();
+        }
+        return removed;
+    }
+
+    /**
+     * Holds either the task (with results) or only its summary, after the task is compacted
+     */
+    private static final class Entry {
+        private final int taskId;
+        private volatile CommunicationTask task;
+        private volatile TaskOverview summary;
+
+        private Entry(int taskId, CommunicationTask task) {
+            this.taskId = taskId;
+            this.task = task;
+        }
+
+        private boolean isFinished() {
+            CommunicationTask r = task;
+            return r == null || r.isFinished();
+        }
+
+        private DateTime getEndTimestamp() {
+            CommunicationTask r = task;
+            return r == null ? summary.getEnd() : r.getEndTimestamp();
+        }
+
+        private TaskOverview toOverview() {
+            CommunicationTask r = task;
+            if (r == null) {
+                return summary;
+            }
+            return TaskOverview.builder()
+                               .taskId(taskId)
+                               .origin(r.getOrigin())
+                               .start(r.getStartTimestamp())
+                               .end(r.getEndTimestamp())
+                               .responseCount(r.getResponseCount().get())
+                               .requestCount(r.getResultSize())
+                               .build();
+        }
+
+        /**
+         * Only called for finished tasks, whose values do not change anymore
+         */
+        private void compact() {
+            CommunicationTask r = task;
+            if (r == null) {
+                return;
+            }
+            // summary first, so that readers that see task == null always find it
+            summary = toOverview();
+            task = null;
+        }
     }
 }
@@ -43,6 +43,7 @@ import org.springframework.stereotype.Repository;
 
 import java.io.Writer;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static de.rwth.idsg.steve.utils.CustomDSL.date;
 import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
@@ -59,6 +60,14 @@ import static jooq.steve.db.tables.TransactionStart.TRANSACTION_START;
 @Repository
 public class TransactionRepositoryImpl implements TransactionRepository {
 
+    /**
+     * Makes the MySQL driver stream the rows one by one instead of reading the whole result set into memory.
+     * The connection cannot be used for other statements until the cursor is closed.
+     */
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private static final int CSV_CHUNK_SIZE = 500;
+
     private final DSLContext ctx;
 
     @Autowired
@@ -72,10 +81,26 @@ public class TransactionRepositoryImpl implements TransactionRepository {
                                 .map(new TransactionMapper());
     }
 
+    @Override
+    public void forEachTransaction(TransactionQueryForm form, Consumer<Transaction> consumer) {
+        TransactionMapper mapper = new TransactionMapper();
+        try (var cursor = getInternal(form).fetchSize(STREAMING_FETCH_SIZE).fetchLazy()) {
+            for (var r : cursor) {
+                consumer.accept(mapper.map(r));
+            }
+        }
+    }
+
     @Override
     public void writeTransactionsCSV(TransactionQueryForm form, Writer writer) {
-        getInternalCSV(form).fetch()
-                            .formatCSV(writer);
+        try (var cursor = getInternalCSV(form).fetchSize(STREAMING_FETCH_SIZE).fetchLazy()) {
+            // the first chunk is written even if empty, since it has the header
+            boolean header = true;
+            do {
+                cursor.fetchNext(CSV_CHUNK_SIZE).formatCSV(writer, header);
+                header = false;
+            } while (cursor.hasNext());
+        }
     }
 
     @Override
@@ -297,6 +322,15 @@ public class TransactionRepositoryImpl implements TransactionRepository {
 
         processType(selectQuery, form);
 
+        // keyset pagination, in line with the default order below
+        if (form.isAfterTransactionPkSet()) {
+            selectQuery.addConditions(TRANSACTION.TRANSACTION_PK.lessThan(form.getAfterTransactionPk()));
+        }
+
+        if (form.isLimitSet()) {
+            selectQuery.addLimit(form.getLimit());
+        }
+
         // Default order
         selectQuery.addOrderBy(TRANSACTION.TRANSACTION_PK.desc());
 
@@ -57,6 +57,7 @@ public class UserRepositoryImpl implements UserRepository {
 
     @Autowired private DSLContext ctx;
     @Autowired private AddressRepository addressRepository;
+    @Autowired private StatisticsCache statisticsCache;
 
     @Override
     public List<User.Overview> getOverview(UserQueryForm form) {
@@ -118,16 +119,17 @@ public class UserRepositoryImpl implements UserRepository {
 
     @Override
     public void add(UserForm form) {
-        ctx.transaction(configuration -> {
+        int userPk = ctx.transactionResult(configuration -> {
             DSLContext ctx = DSL.using(configuration);
             try {
                 Integer addressId = addressRepository.updateOrInsert(ctx, form.getAddress());
-                addInternal(ctx, form, addressId);
+                return addInternal(ctx, form, addressId);
 
             } catch (DataAccessException e) {
                 throw new SteveException("Failed to add the user", e);
             }
         });
+        statisticsCache.userAdded(userPk);
     }
 
     @Override
@@ -156,6 +158,7 @@ public class UserRepositoryImpl implements UserRepository {
                 throw new SteveException("Failed to delete the user", e);
             }
         });
+        statisticsCache.userDeleted(userPk);
     }
 
     // -------------------------------------------------------------------------
@@ -214,8 +217,8 @@ public class UserRepositoryImpl implements UserRepository {
                   .where(OCPP_TAG.ID_TAG.eq(ocppIdTag));
     }
 
-    private void addInternal(DSLContext ctx, UserForm form, Integer addressPk) {
-        int count = ctx.insertInto(USER)
+    private int addInternal(DSLContext ctx, UserForm form, Integer addressPk) {
+        UserRecord record = ctx.insertInto(USER)
                        .set(USER.FIRST_NAME, form.getFirstName())
                        .set(USER.LAST_NAME, form.getLastName())
                        .set(USER.BIRTH_DAY, form.getBirthDay())
@@ -225,11 +228,13 @@ public class UserRepositoryImpl implements UserRepository {
                        .set(USER.NOTE, form.getNote())
                        .set(USER.ADDRESS_PK, addressPk)
                        .set(USER.OCPP_TAG_PK, selectOcppTagPk(form.getOcppIdTag()))
-                       .execute();
+                       .returning(USER.USER_PK)
+                       .fetchOne();
 
-        if (count != 1) {
+        if (record == null) {
             throw new SteveException("Failed to insert the user");
         }
+        return record.getUserPk();
     }
 
     private void updateInternal(DSLContext ctx, UserForm form, Integer addressPk) {
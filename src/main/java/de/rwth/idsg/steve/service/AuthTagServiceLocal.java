@@ -18,7 +18,6 @@
  */
 package de.rwth.idsg.steve.service;
 
-import de.rwth.idsg.steve.repository.OcppTagRepository;
 import de.rwth.idsg.steve.repository.SettingsRepository;
 import jooq.steve.db.tables.records.OcppTagActivityRecord;
 import lombok.RequiredArgsConstructor;
@@ -38,13 +37,16 @@ import static de.rwth.idsg.steve.utils.OcppTagActivityRecordUtils.reachedLimitOf
 @RequiredArgsConstructor
 public class AuthTagServiceLocal implements AuthTagService {
 
-    private final OcppTagRepository ocppTagRepository;
+    private final OcppTagStateCache ocppTagStateCache;
     private final SettingsRepository settingsRepository;
 
     @Override
     public IdTagInfo decideStatus(String idTag, boolean isStartTransactionReqContext,
                                   @Nullable String chargeBoxId, @Nullable Integer connectorId) {
-        OcppTagActivityRecord record = ocppTagRepository.getRecord(idTag);
+        // the active transaction count is only used for StartTransaction, and it must be the current one
+        OcppTagActivityRecord record = isStartTransactionReqContext
+            ? ocppTagStateCache.loadRecord(idTag)
+            : ocppTagStateCache.getRecord(idTag);
         if (record == null) {
             log.error("The user with idTag '{}' is INVALID (not present in DB).", idTag);
             return new IdTagInfo().withStatus(AuthorizationStatus.INVALID);
@@ -18,33 +18,75 @@
  */
 package de.rwth.idsg.steve.service;
 
+import com.google.common.util.concurrent.RateLimiter;
 import de.rwth.idsg.steve.config.DelegatingTaskExecutor;
+import de.rwth.idsg.steve.config.DelegatingTaskScheduler;
+import de.rwth.idsg.steve.ocpp.CommunicationTask;
 import de.rwth.idsg.steve.repository.dto.ChargePointSelect;
+import jakarta.annotation.PreDestroy;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.io.IOException;
+import java.time.Instant;
 import java.util.function.Consumer;
 
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
 /**
+ * Sends the requests of tasks to stations in the background.
+ *
+ * For tasks with multiple stations, one dispatcher (on the async task executor) walks over the list. Requests to JSON
+ * stations are sent by the dispatcher itself, since sending a WebSocket message does not wait for the response.
+ * Requests to SOAP stations are blocking HTTP calls, so they are handed off to a separate fan-out executor, which
+ * limits the number of concurrent SOAP calls. Optionally, the dispatcher sends at most a configured number of requests
+ * per second, so that a bulk operation does not hit all stations at once.
+ *
+ * Optionally, a station gets at most one request per configured interval, also when multiple tasks are sent to it at
+ * the same time (see {@link StationDispatchLimiter}). A request that has to wait for its slot is put on the task
+ * scheduler, which hands it to an executor when the slot is due. No thread is blocked meanwhile, so that the requests
+ * to the other stations are not delayed.
+ *
  * @author Sevket Goekay <sevketgokay@gmail.com>
  * @since 08.03.2018
  */
-@RequiredArgsConstructor
+@Service
 public class BackgroundService {
 
     private final DelegatingTaskExecutor asyncTaskExecutor;
+    private final DelegatingTaskScheduler asyncTaskScheduler;
+    private final DelegatingTaskExecutor fanOutExecutor;
+    private final StationDispatchLimiter stationLimiter;
+
+    public BackgroundService(DelegatingTaskExecutor asyncTaskExecutor, DelegatingTaskScheduler asyncTaskScheduler) {
+        this.asyncTaskExecutor = asyncTaskExecutor;
+        this.asyncTaskScheduler = asyncTaskScheduler;
+        this.fanOutExecutor = createFanOutExecutor(CONFIG.getOcpp().getFanOutConcurrency());
+        this.stationLimiter = new StationDispatchLimiter(CONFIG.getOcpp().getFanOutStationIntervalInMillis(),
+            System::nanoTime);
+    }
 
-    public static BackgroundService with(DelegatingTaskExecutor asyncTaskExecutor) {
-        return new BackgroundService(asyncTaskExecutor);
+    @PreDestroy
+    public void destroy() throws IOException {
+        fanOutExecutor.close();
     }
 
-    public Runner forFirst(List<ChargePointSelect> list) {
-        return new BackgroundSingleRunner(list.get(0));
+    /**
+     * For monitoring only
+     */
+    public DelegatingTaskExecutor getFanOutExecutor() {
+        return fanOutExecutor;
     }
 
-    public Runner forEach(List<ChargePointSelect> list) {
-        return new BackgroundListRunner(list);
+    public Runner forFirst(CommunicationTask<?, ?> task) {
+        return new BackgroundSingleRunner(task);
+    }
+
+    public Runner forEach(CommunicationTask<?, ?> task) {
+        return new BackgroundListRunner(task);
     }
 
     public interface Runner {
@@ -53,21 +95,78 @@ public class BackgroundService {
 
     @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
     private class BackgroundSingleRunner implements Runner {
-        private final ChargePointSelect cps;
+        private final CommunicationTask<?, ?> task;
 
         @Override
         public void execute(Consumer<ChargePointSelect> consumer) {
-            asyncTaskExecutor.execute(() -> consumer.accept(cps));
+            ChargePointSelect cps = task.getParams().getChargePointSelectList().get(0);
+            long delayNanos = stationLimiter.reserve(cps.getChargeBoxId());
+            executeLater(asyncTaskExecutor, delayNanos, () -> send(task, consumer, cps));
         }
     }
 
     @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
     private class BackgroundListRunner implements Runner {
-        private final List<ChargePointSelect> list;
+        private final CommunicationTask<?, ?> task;
 
         @Override
         public void execute(Consumer<ChargePointSelect> consumer) {
-            asyncTaskExecutor.execute(() -> list.forEach(consumer));
+            asyncTaskExecutor.execute(() -> dispatch(consumer));
+        }
+
+        private void dispatch(Consumer<ChargePointSelect> consumer) {
+            int ratePerSecond = CONFIG.getOcpp().getFanOutRatePerSecond();
+            RateLimiter rateLimiter = ratePerSecond > 0 ? RateLimiter.create(ratePerSecond) : null;
+
+            for (ChargePointSelect cps : task.getParams().getChargePointSelectList()) {
+                if (rateLimiter != null) {
+                    rateLimiter.acquire();
+                }
+
+                long delayNanos = stationLimiter.reserve(cps.getChargeBoxId());
+                if (cps.isSoap()) {
+                    executeLater(fanOutExecutor, delayNanos, () -> send(task, consumer, cps));
+                } else if (delayNanos > 0) {
+                    executeLater(asyncTaskExecutor, delayNanos, () -> send(task, consumer, cps));
+                } else {
+                    send(task, consumer, cps);
+                }
+            }
+        }
+    }
+
+    private static DelegatingTaskExecutor createFanOutExecutor(int concurrency) {
+        if (CONFIG.getJetty().isVirtualThreadsEnabled()) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("SteVe-FanOut-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(concurrency);
+            executor.setTaskTerminationTimeout(30_000);
+            return new DelegatingTaskExecutor(executor);
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setThreadNamePrefix("SteVe-FanOut-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return new DelegatingTaskExecutor(executor);
+    }
+
+    private void executeLater(DelegatingTaskExecutor executor, long delayNanos, Runnable runnable) {
+        if (delayNanos > 0) {
+            asyncTaskScheduler.schedule(() -> executor.execute(runnable), Instant.now().plusNanos(delayNanos));
+        } else {
+            executor.execute(runnable);
+        }
+    }
+
+    private static void send(CommunicationTask<?, ?> task, Consumer<ChargePointSelect> consumer,
+                             ChargePointSelect cps) {
+        try {
+            consumer.accept(cps);
+        } finally {
+            task.getDispatchedCount().incrementAndGet();
         }
     }
 }
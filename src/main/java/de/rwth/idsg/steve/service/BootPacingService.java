@@ -0,0 +1,177 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.service;
+
+import de.rwth.idsg.steve.utils.RateEstimator;
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * Paces the BootNotifications of stations and spreads their heartbeats.
+ *
+ * After a site-wide power restore, all stations boot at the same time. Accepting all of them at once means that they
+ * send their StatusNotifications (and later their heartbeats) in lockstep. Therefore, we keep an estimate of the rate
+ * of accepted boots. Above the configured rate, a station is answered with Pending and gets a slot in a virtual queue:
+ * The slots are 1/rate apart, and the retry interval of the station is the time until its slot. When it comes back
+ * at its slot, it is accepted regardless of the current rate, so that the queue moves on.
+ *
+ * The heartbeat interval of a station is the configured one plus a jitter that is derived from its chargeBoxId. It is
+ * the same for every boot of a station, but different stations drift apart even if they were accepted at the same
+ * second.
+ *
+ * @since 17.10.2026
+ */
+@Service
+public class BootPacingService {
+
+    private static final int WINDOW_IN_SECONDS = 10;
+
+    // a station that comes back a little before its slot (e.g. since it rounds the interval) keeps it
+    private static final long EARLY_TOLERANCE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    // slots of stations that did not come back (e.g. went offline meanwhile) are dropped after this time
+    private static final long STALE_SLOT_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    private final int ratePerSecond;
+    private final int heartbeatJitterPercent;
+    private final LongSupplier nanoClock;
+
+    private final RateEstimator acceptedRate;
+    private final long slotIntervalNanos;
+    private final AtomicLong lastSlot;
+
+    // chargeBoxId -> slot (in terms of nanoClock) of pending stations
+    private final ConcurrentHashMap<String, Long> slots = new ConcurrentHashMap<>();
+
+    private final LongAdder acceptedCount = new LongAdder();
+    private final LongAdder pendingCount = new LongAdder();
+
+    public BootPacingService() {
+        this(CONFIG.getOcpp().getBootPacingRatePerSecond(), CONFIG.getOcpp().getHeartbeatJitterPercent(),
+            System::nanoTime);
+    }
+
+    BootPacingService(int ratePerSecond, int heartbeatJitterPercent, LongSupplier nanoClock) {
+        this.ratePerSecond = ratePerSecond;
+        this.heartbeatJitterPercent = heartbeatJitterPercent;
+        this.nanoClock = nanoClock;
+        this.acceptedRate = new RateEstimator(WINDOW_IN_SECONDS, nanoClock);
+        this.slotIntervalNanos = ratePerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / ratePerSecond : 0;
+        this.lastSlot = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Only for stations that would be accepted otherwise.
+     *
+     * @return 0, if the station may be accepted now. Otherwise, the seconds after which it should send the next
+     *         BootNotification.
+     */
+    public int tryAdmit(String chargeBoxId) {
+        if (ratePerSecond == 0) {
+            accepted();
+            return 0;
+        }
+
+        long now = nanoClock.getAsLong();
+
+        Long slot = slots.remove(chargeBoxId);
+        if (slot != null) {
+            if (slot - now <= EARLY_TOLERANCE_NANOS) {
+                accepted();
+                return 0;
+            }
+            // too early (e.g. the station rebooted meanwhile). it keeps its place in the queue
+            slots.put(chargeBoxId, slot);
+            pendingCount.increment();
+            return toSeconds(slot - now);
+        }
+
+        if (acceptedRate.getRate() < ratePerSecond) {
+            accepted();
+            return 0;
+        }
+
+        long newSlot = lastSlot.accumulateAndGet(now, (last, current) -> Math.max(last, current) + slotIntervalNanos);
+        slots.put(chargeBoxId, newSlot);
+        pendingCount.increment();
+        return toSeconds(newSlot - now);
+    }
+
+    public int getHeartbeatInterval(String chargeBoxId, int intervalInSeconds) {
+        int maxJitter = intervalInSeconds * heartbeatJitterPercent / 100;
+        if (maxJitter == 0) {
+            return intervalInSeconds;
+        }
+
+        // String.hashCode() is stable across restarts. similar chargeBoxIds (e.g. with a running number) have
+        // consecutive hashes, which are spread evenly over the jitter range.
+        int jitter = Math.floorMod(chargeBoxId.hashCode(), 2 * maxJitter + 1) - maxJitter;
+        return Math.max(1, intervalInSeconds + jitter);
+    }
+
+    public Stats getStats() {
+        long now = nanoClock.getAsLong();
+        slots.values().removeIf(slot -> now - slot > STALE_SLOT_NANOS);
+
+        return Stats.builder()
+                    .enabled(ratePerSecond > 0)
+                    .ratePerSecond(ratePerSecond)
+                    .acceptedRate(Math.round(acceptedRate.getRate() * 10) / 10.0)
+                    .acceptedCount(acceptedCount.sum())
+                    .pendingCount(pendingCount.sum())
+                    .waitingCount(slots.size())
+                    .build();
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private void accepted() {
+        acceptedRate.record();
+        acceptedCount.increment();
+    }
+
+    private static int toSeconds(long nanos) {
+        return (int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    @Getter
+    @Builder
+    public static final class Stats {
+        private final boolean enabled;
+        private final int ratePerSecond;
+        // accepted boots per second, over the last seconds
+        private final double acceptedRate;
+        private final long acceptedCount;
+        // number of BootNotifications that were answered with Pending
+        private final long pendingCount;
+        // number of stations that have a slot and did not come back yet
+        private final int waitingCount;
+    }
+}
@@ -19,6 +19,7 @@
 package de.rwth.idsg.steve.service;
 
 import de.rwth.idsg.steve.ocpp.OcppProtocol;
+import de.rwth.idsg.steve.ocpp.OcppVersion;
 import de.rwth.idsg.steve.repository.OcppServerRepository;
 import de.rwth.idsg.steve.repository.SettingsRepository;
 import de.rwth.idsg.steve.repository.dto.InsertConnectorStatusParams;
@@ -77,14 +78,29 @@ public class CentralSystemService16_Service {
     @Autowired private OcppTagService ocppTagService;
     @Autowired private ApplicationEventPublisher applicationEventPublisher;
     @Autowired private ChargePointHelperService chargePointHelperService;
+    @Autowired private BootPacingService bootPacingService;
 
     public BootNotificationResponse bootNotification(BootNotificationRequest parameters, String chargeBoxIdentity,
                                                      OcppProtocol ocppProtocol) {
 
         Optional<RegistrationStatus> status = chargePointHelperService.getRegistrationStatus(chargeBoxIdentity);
-        applicationEventPublisher.publishEvent(new OccpStationBooted(chargeBoxIdentity, status));
         DateTime now = DateTime.now();
 
+        // Pending exists since OCPP 1.6 only. the station retries after the interval, and nothing is stored until then
+        if (status.orElse(null) == RegistrationStatus.ACCEPTED && ocppProtocol.getVersion() == OcppVersion.V_16) {
+            int retryInterval = bootPacingService.tryAdmit(chargeBoxIdentity);
+            if (retryInterval > 0) {
+                log.info("The boot of the chargebox '{}' is paced. It should retry in {} seconds.",
+                    chargeBoxIdentity, retryInterval);
+                return new BootNotificationResponse()
+                        .withStatus(RegistrationStatus.PENDING)
+                        .withCurrentTime(now)
+                        .withInterval(retryInterval);
+            }
+        }
+
+        applicationEventPublisher.publishEvent(new OccpStationBooted(chargeBoxIdentity, status));
+
         if (status.isEmpty()) {
             // Applies only to stations not in db (regardless of the registration_status field from db)
             log.error("The chargebox '{}' is NOT in database.", chargeBoxIdentity);
@@ -113,7 +129,8 @@ public class CentralSystemService16_Service {
         return new BootNotificationResponse()
                 .withStatus(status.orElse(RegistrationStatus.REJECTED))
                 .withCurrentTime(now)
-                .withInterval(settingsRepository.getHeartbeatIntervalInSeconds());
+                .withInterval(bootPacingService.getHeartbeatInterval(chargeBoxIdentity,
+                    settingsRepository.getHeartbeatIntervalInSeconds()));
     }
 
     public FirmwareStatusNotificationResponse firmwareStatusNotification(
@@ -23,6 +23,7 @@ import de.rwth.idsg.steve.ocpp.OcppProtocol;
 import de.rwth.idsg.steve.ocpp.OcppTransport;
 import de.rwth.idsg.steve.ocpp.OcppVersion;
 import de.rwth.idsg.steve.ocpp.ws.AbstractWebSocketEndpoint;
+import de.rwth.idsg.steve.ocpp.ws.OutgoingCallQueue;
 import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
 import de.rwth.idsg.steve.ocpp.ws.ocpp12.Ocpp12WebSocketEndpoint;
 import de.rwth.idsg.steve.ocpp.ws.ocpp15.Ocpp15WebSocketEndpoint;
@@ -54,6 +55,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
@@ -80,27 +82,41 @@ public class ChargePointHelperService {
     @Autowired private Ocpp15WebSocketEndpoint ocpp15WebSocketEndpoint;
     @Autowired private Ocpp16WebSocketEndpoint ocpp16WebSocketEndpoint;
 
+    @Autowired private OutgoingCallQueue outgoingCallQueue;
+    @Autowired private BootPacingService bootPacingService;
+
     private final UnidentifiedIncomingObjectService unknownChargePointService = new UnidentifiedIncomingObjectService(100);
 
+    /**
+     * The registration status is cached (for unknown chargeBoxIds as well), so that this does not go to the database
+     * for every WebSocket handshake or SOAP message. Only the auto-registration of an unknown station needs the lock.
+     */
     public Optional<RegistrationStatus> getRegistrationStatus(String chargeBoxId) {
+        Optional<String> status = chargePointRepository.getRegistrationStatus(chargeBoxId);
+        if (status.isPresent()) {
+            return toRegistrationStatus(status.get());
+        }
+
+        if (!autoRegisterUnknownStations) {
+            unknownChargePointService.processNewUnidentified(chargeBoxId);
+            return Optional.empty();
+        }
+
         Lock l = isRegisteredLocks.get(chargeBoxId);
         l.lock();
         try {
-            Optional<RegistrationStatus> status = getRegistrationStatusInternal(chargeBoxId);
-            if (status.isEmpty()) {
+            Optional<RegistrationStatus> registered = getRegistrationStatusInternal(chargeBoxId);
+            if (registered.isEmpty()) {
                 unknownChargePointService.processNewUnidentified(chargeBoxId);
             }
-            return status;
+            return registered;
         } finally {
             l.unlock();
         }
     }
 
     public Statistics getStats() {
-        Statistics stats = genericRepository.getStats();
-        stats.setNumOcpp12JChargeBoxes(ocpp12WebSocketEndpoint.getNumberOfChargeBoxes());
-        stats.setNumOcpp15JChargeBoxes(ocpp15WebSocketEndpoint.getNumberOfChargeBoxes());
-        stats.setNumOcpp16JChargeBoxes(ocpp16WebSocketEndpoint.getNumberOfChargeBoxes());
+        Statistics stats = getLiveStats();
 
         List<ConnectorStatus> latestList = chargePointRepository.getChargePointConnectorStatus();
         stats.setStatusCountMap(ConnectorStatusCountFilter.getStatusCountMap(latestList));
@@ -108,6 +124,19 @@ public class ChargePointHelperService {
         return stats;
     }
 
+    /**
+     * Without the connector status counts, i.e. only the numbers that are kept in memory. Cheap enough to be polled
+     * by every open dashboard.
+     */
+    public Statistics getLiveStats() {
+        Statistics stats = genericRepository.getStats();
+        stats.setNumOcpp12JChargeBoxes(ocpp12WebSocketEndpoint.getNumberOfChargeBoxes());
+        stats.setNumOcpp15JChargeBoxes(ocpp15WebSocketEndpoint.getNumberOfChargeBoxes());
+        stats.setNumOcpp16JChargeBoxes(ocpp16WebSocketEndpoint.getNumberOfChargeBoxes());
+        stats.setBootPacing(bootPacingService.getStats());
+        return stats;
+    }
+
     public List<ConnectorStatus> getChargePointConnectorStatus(ConnectorStatusForm params) {
         Map<String, Deque<SessionContext>> ocpp12Map = ocpp12WebSocketEndpoint.getACopy();
         Map<String, Deque<SessionContext>> ocpp15Map = ocpp15WebSocketEndpoint.getACopy();
@@ -141,9 +170,9 @@ public class ChargePointHelperService {
         DateTime now = DateTime.now();
         List<OcppJsonStatus> returnList = new ArrayList<>();
 
-        appendList(ocpp12Map, returnList, now, OcppVersion.V_12, primaryKeyLookup);
-        appendList(ocpp15Map, returnList, now, OcppVersion.V_15, primaryKeyLookup);
-        appendList(ocpp16Map, returnList, now, OcppVersion.V_16, primaryKeyLookup);
+        appendList(ocpp12Map, returnList, now, OcppVersion.V_12, primaryKeyLookup, outgoingCallQueue);
+        appendList(ocpp15Map, returnList, now, OcppVersion.V_15, primaryKeyLookup, outgoingCallQueue);
+        appendList(ocpp16Map, returnList, now, OcppVersion.V_16, primaryKeyLookup, outgoingCallQueue);
         return returnList;
     }
 
@@ -185,24 +214,14 @@ public class ChargePointHelperService {
     // -------------------------------------------------------------------------
 
     private Optional<RegistrationStatus> getRegistrationStatusInternal(String chargeBoxId) {
-        // 1. exit if already registered
-        Optional<String> status = chargePointRepository.getRegistrationStatus(chargeBoxId);
+        // 1. exit if registered in the meantime (by another thread holding the lock before us). the cache might still
+        // have the negative entry of before, therefore ask DB
+        Optional<String> status = chargePointRepository.loadRegistrationStatus(chargeBoxId);
         if (status.isPresent()) {
-            try {
-                return Optional.ofNullable(RegistrationStatus.fromValue(status.get()));
-            } catch (Exception e) {
-                // in cases where the database entry (string) is altered, and therefore cannot be converted to enum
-                log.error("Exception happened", e);
-                return Optional.empty();
-            }
-        }
-
-        // 2. ok, this chargeBoxId is unknown. exit if auto-register is disabled
-        if (!autoRegisterUnknownStations) {
-            return Optional.empty();
+            return toRegistrationStatus(status.get());
         }
 
-        // 3. chargeBoxId is unknown and auto-register is enabled. insert chargeBoxId
+        // 2. chargeBoxId is unknown and auto-register is enabled. insert chargeBoxId
         try {
             chargePointRepository.addChargePointList(Collections.singletonList(chargeBoxId));
             log.warn("Auto-registered unknown chargebox '{}'", chargeBoxId);
@@ -213,6 +232,16 @@ public class ChargePointHelperService {
         }
     }
 
+    private static Optional<RegistrationStatus> toRegistrationStatus(String status) {
+        try {
+            return Optional.ofNullable(RegistrationStatus.fromValue(status));
+        } catch (Exception e) {
+            // in cases where the database entry (string) is altered, and therefore cannot be converted to enum
+            log.error("Exception happened", e);
+            return Optional.empty();
+        }
+    }
+
     private List<ChargePointSelect> getChargePoints(OcppProtocol protocol, List<RegistrationStatus> inStatusFilter,
                                                     List<String> chargeBoxIdFilter, AbstractWebSocketEndpoint jsonEndpoint) {
         // soap stations
@@ -246,7 +275,8 @@ public class ChargePointHelperService {
     }
 
     private static void appendList(Map<String, Deque<SessionContext>> map, List<OcppJsonStatus> returnList,
-                                   DateTime now, OcppVersion version, Map<String, Integer> primaryKeyLookup) {
+                                   DateTime now, OcppVersion version, Map<String, Integer> primaryKeyLookup,
+                                   OutgoingCallQueue outgoingCallQueue) {
 
         for (Map.Entry<String, Deque<SessionContext>> entry : map.entrySet()) {
             String chargeBoxId = entry.getKey();
@@ -254,15 +284,23 @@ public class ChargePointHelperService {
 
             for (SessionContext ctx : endpointDeque) {
                 DateTime openSince = ctx.getOpenSince();
-
-                OcppJsonStatus status = OcppJsonStatus.builder()
-                                                      .chargeBoxPk(primaryKeyLookup.get(chargeBoxId))
-                                                      .chargeBoxId(chargeBoxId)
-                                                      .connectedSinceDT(openSince)
-                                                      .connectedSince(DateTimeUtils.humanize(openSince))
-                                                      .connectionDuration(DateTimeUtils.timeElapsed(openSince, now))
-                                                      .version(version)
-                                                      .build();
+                OutgoingCallQueue.SessionStats callStats = outgoingCallQueue.getStats(ctx.getSession());
+
+                var builder = OcppJsonStatus.builder()
+                                            .chargeBoxPk(primaryKeyLookup.get(chargeBoxId))
+                                            .chargeBoxId(chargeBoxId)
+                                            .connectedSinceDT(openSince)
+                                            .connectedSince(DateTimeUtils.humanize(openSince))
+                                            .connectionDuration(DateTimeUtils.timeElapsed(openSince, now))
+                                            .version(version);
+
+                if (callStats != null) {
+                    builder.callOutstanding(callStats.isBusy())
+                           .waitingCallCount(callStats.getWaitingCount())
+                           .longestCallWaitInSeconds(TimeUnit.NANOSECONDS.toSeconds(callStats.getOldestWaitNanos()));
+                }
+
+                OcppJsonStatus status = builder.build();
 
                 returnList.add(status);
             }
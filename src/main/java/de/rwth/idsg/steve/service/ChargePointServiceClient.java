@@ -18,7 +18,6 @@
  */
 package de.rwth.idsg.steve.service;
 
-import de.rwth.idsg.steve.config.DelegatingTaskExecutor;
 import de.rwth.idsg.steve.ocpp.ChargePointServiceInvokerImpl;
 import de.rwth.idsg.steve.ocpp.OcppCallback;
 import de.rwth.idsg.steve.ocpp.task.CancelReservationTask;
@@ -88,7 +87,7 @@ public class ChargePointServiceClient {
     private final ReservationRepository reservationRepository;
     private final OcppTagService ocppTagService;
 
-    private final DelegatingTaskExecutor asyncTaskExecutor;
+    private final BackgroundService backgroundService;
     private final TaskStore taskStore;
     private final ChargePointServiceInvokerImpl invoker;
 
@@ -105,8 +104,7 @@ public class ChargePointServiceClient {
             task.addCallback(callback);
         }
 
-        BackgroundService.with(asyncTaskExecutor)
-            .forEach(task.getParams().getChargePointSelectList())
+        backgroundService.forEach(task)
             .execute(c -> invoker.changeAvailability(c, task));
 
         return taskStore.add(task);
@@ -121,8 +119,7 @@ public class ChargePointServiceClient {
             task.addCallback(callback);
         }
 
-        BackgroundService.with(asyncTaskExecutor)
-            .forEach(task.getParams().getChargePointSelectList())
+        backgroundService.forEach(task)
             .execute(c -> invoker.changeConfiguration(c, task));
 
         return taskStore.add(task);
@@ -137,8 +134,7 @@ public class ChargePointServiceClient {
             task.addCallback(callback);
         }
 
-        BackgroundService.with(asyncTaskExecutor)
-            .forEach(task.getParams().getChargePointSelectList())
+        backgroundService.forEach(task)
             .execute(c -> invoker.clearCache(c, task));
 
         return taskStore.add(task);
@@ -153,8 +149,7 @@ public class ChargePointServiceClient {
             task.addCallback(callback);
         }
 
-        BackgroundService.with(asyncTaskExecutor)
-            .forEach(task.getParams().getChargePointSelectList())
+        backgroundService.forEach(task)
             .execute(c -> invoker.getDiagnostics(c, task));
 
         return taskStore.add(task);
@@ -169,8 +164,7 @@ public class ChargePointServiceClient {
             task.addCallback(callback);
         }
 
-        BackgroundService.with(asyncTaskExecutor)
-            .forEach(task.getParams().getChargePointSelectList())
+        backgroundService.forEach(task)
             .execute(c -> invoker.reset(c, task));
 
         return taskStore.add(task);
@@ -185,8 +179,7 @@ public class ChargePointServiceClient {
             task.addCallback(callback);
         }
 
-        BackgroundService.with(asyncTaskExecutor)
-            .forEach(task.getParams().getChargePointSelectList())
+        backgroundService.forEach(task)
             .execute(c -> invoker.updateFirmware(c, task));
 
         return taskStore.add(task);
@@ -205,8 +198,7 @@ public class ChargePointServiceClient {
             task.addCallback(callback);
         }
 
-        BackgroundService.with(asyncTaskExecutor)
-            .forFirst(task.getParams().getChargePointSelectList())
+        backgroundService.forFirst(task)
             .execute(c -> invoker.remoteStartTransaction(c, task));
 
         return taskStore.add(task);
@@ -221,8 +213,7 @@ public class ChargePointServiceClient {
             task.addCallback(callback);
         }
 
-        BackgroundService.with(asyncTaskExecutor)
-            .forFirst(task.getParams().getChargePointSelectList())
+        backgroundService.forFirst(task)
             .execute(c -> invoker.remoteStopTransaction(c, task));
 
         return taskStore.add(task);
@@ -237,8 +228,7 @@ public class ChargePointServiceClient {
             task.addCallback(callback);
         }
 
-        BackgroundService.with(asyncTaskExecutor)
-            .forFirst(task.getParams().getChargePointSelectList())
+        backgroundService.forFirst(task)
             .execute(c -> invoker.unlockConnector(c, task));
 
         return taskStore.add(task);
@@ -257,8 +247,7 @@ public class ChargePointServiceClient {
             task.addCallback(callback);
         }
 
-        BackgroundService.with(asyncTaskExecutor)
-            .forEach(task.getParams().getChargePointSelectList())
+        backgroundService.forEach(task)
             .execute(c -> invoker.dataTransfer(c, task));
 
         return taskStore.add(task);
@@ -273,8 +262,7 @@ public class ChargePointServiceClient {
             task.addCallback(callback);
         }
 
-        BackgroundService.with(asyncTaskExecutor)
-            .forEach(task.getParams().getChargePointSelectList())
+        backgroundService.forEach(task)
             .execute(c -> invoker.getConfiguration(c, task));
 
         return taskStore.add(task);
@@ -289,8 +277,7 @@ public class ChargePointServiceClient {
             task.addCallback(callback);
         }
 
-        BackgroundService.with(asyncTaskExecutor)
-            .forEach(task.getParams().getChargePointSelectList())
+        backgroundService.forEach(task)
             .execute(c -> invoker.getLocalListVersion(c, task));
 
         return taskStore.add(task);
@@ -305,8 +292,7 @@ public class ChargePointServiceClient {
             task.addCallback(callback);
         }
 
-        BackgroundService.with(asyncTaskExecutor)
-            .forEach(task.getParams().getChargePointSelectList())
+        backgroundService.forEach(task)
             .execute(c -> invoker.sendLocalList(c, task));
 
         return taskStore.add(task);
@@ -339,8 +325,7 @@ public class ChargePointServiceClient {
             task.addCallback(callback);
         }
 
-        BackgroundService.with(asyncTaskExecutor)
-            .forFirst(task.getParams().getChargePointSelectList())
+        backgroundService.forFirst(task)
             .execute(c -> invoker.reserveNow(c, task));
 
         return taskStore.add(task);
@@ -355,8 +340,7 @@ public class ChargePointServiceClient {
             task.addCallback(callback);
         }
 
-        BackgroundService.with(asyncTaskExecutor)
-            .forFirst(task.getParams().getChargePointSelectList())
+        backgroundService.forFirst(task)
             .execute(c -> invoker.cancelReservation(c, task));
 
         return taskStore.add(task);
@@ -375,8 +359,7 @@ public class ChargePointServiceClient {
             task.addCallback(callback);
         }
 
-        BackgroundService.with(asyncTaskExecutor)
-            .forEach(task.getParams().getChargePointSelectList())
+        backgroundService.forEach(task)
             .execute(c -> invoker.triggerMessage(c, task));
 
         return taskStore.add(task);
@@ -389,8 +372,7 @@ public class ChargePointServiceClient {
             task.addCallback(callback);
         }
 
-        BackgroundService.with(asyncTaskExecutor)
-            .forEach(task.getParams().getChargePointSelectList())
+        backgroundService.forEach(task)
             .execute(c -> invoker.setChargingProfile(c, task));
 
         return taskStore.add(task);
@@ -415,8 +397,7 @@ public class ChargePointServiceClient {
             task.addCallback(callback);
         }
 
-        BackgroundService.with(asyncTaskExecutor)
-            .forEach(task.getParams().getChargePointSelectList())
+        backgroundService.forEach(task)
             .execute(c -> invoker.clearChargingProfile(c, task));
 
         return taskStore.add(task);
@@ -431,8 +412,7 @@ public class ChargePointServiceClient {
             task.addCallback(callback);
         }
 
-        BackgroundService.with(asyncTaskExecutor)
-            .forEach(task.getParams().getChargePointSelectList())
+        backgroundService.forEach(task)
             .execute(c -> invoker.getCompositeSchedule(c, task));
 
         return taskStore.add(task);
@@ -54,6 +54,7 @@ public class OcppTagService {
 
     private final OcppTagRepository ocppTagRepository;
     private final AuthTagService authTagService;
+    private final OcppTagStateCache ocppTagStateCache;
 
     public List<OcppTag.OcppTagOverview> getOverview(OcppTagQueryForm form) {
         return ocppTagRepository.getOverview(form);
@@ -132,19 +133,31 @@ public class OcppTagService {
     public int addOcppTag(OcppTagForm form) {
         var id = ocppTagRepository.addOcppTag(form);
         removeUnknown(Collections.singletonList(form.getIdTag()));
+        ocppTagStateCache.invalidate(form.getIdTag());
         return id;
     }
     public void addOcppTagList(List<String> idTagList) {
         ocppTagRepository.addOcppTagList(idTagList);
         removeUnknown(idTagList);
+        ocppTagStateCache.invalidate(idTagList);
     }
 
     public void updateOcppTag(OcppTagForm form) {
         ocppTagRepository.updateOcppTag(form);
+
+        // the idTag of the form is not necessarily set (e.g. REST API), use the one from DB
+        OcppTagActivityRecord record = ocppTagRepository.getRecord(form.getOcppTagPk());
+        if (record != null) {
+            ocppTagStateCache.invalidate(record.getIdTag());
+        }
     }
 
     public void deleteOcppTag(int ocppTagPk) {
+        OcppTagActivityRecord record = ocppTagRepository.getRecord(ocppTagPk);
         ocppTagRepository.deleteOcppTag(ocppTagPk);
+        if (record != null) {
+            ocppTagStateCache.invalidate(record.getIdTag());
+        }
     }
 
     // -------------------------------------------------------------------------
@@ -0,0 +1,131 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import de.rwth.idsg.steve.repository.OcppTagRepository;
+import de.rwth.idsg.steve.service.notification.OcppTransactionStarted;
+import jooq.steve.db.tables.records.OcppTagActivityRecord;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory state of OCPP tags that is needed to make authorization decisions without going to the database.
+ *
+ * Tag data (parent, expiry, max active transaction count) is loaded lazily per idTag and invalidated by
+ * {@link OcppTagService} when a tag is added, updated or deleted. Known entries expire after a while as well, in order
+ * to pick up changes that were made directly in DB. Unknown idTags are cached for a short time only, and their number
+ * is bounded, since a station can send any number of different ones.
+ *
+ * The active transaction count of a cached record is the one from the time of loading. The column in DB is the only
+ * source of truth for it, and {@link #loadRecord(String)} has to be used where it matters.
+ *
+ * @since 17.10.2026
+ */
+@Service
+public class OcppTagStateCache {
+
+    private static final Duration KNOWN_TTL = Duration.ofMinutes(10);
+    private static final Duration UNKNOWN_TTL = Duration.ofMinutes(1);
+
+    private static final int MAX_KNOWN_SIZE = 100_000;
+    private static final int MAX_UNKNOWN_SIZE = 10_000;
+
+    private final OcppTagRepository ocppTagRepository;
+
+    private final Cache<String, OcppTagActivityRecord> known;
+    private final Cache<String, Boolean> unknown;
+
+    // incremented with every invalidation. a record that was loaded before an invalidation might be outdated already,
+    // and is not put into the cache.
+    private final AtomicLong generation = new AtomicLong();
+
+    public OcppTagStateCache(OcppTagRepository ocppTagRepository) {
+        this.ocppTagRepository = ocppTagRepository;
+
+        known = CacheBuilder.newBuilder()
+                            .expireAfterWrite(KNOWN_TTL)
+                            .maximumSize(MAX_KNOWN_SIZE)
+                            .build();
+
+        unknown = CacheBuilder.newBuilder()
+                              .expireAfterWrite(UNKNOWN_TTL)
+                              .maximumSize(MAX_UNKNOWN_SIZE)
+                              .build();
+    }
+
+    /**
+     * The returned record must not be modified.
+     */
+    @Nullable
+    public OcppTagActivityRecord getRecord(String idTag) {
+        OcppTagActivityRecord record = known.getIfPresent(idTag);
+        if (record != null) {
+            return record;
+        }
+        if (unknown.getIfPresent(idTag) != null) {
+            return null;
+        }
+        return loadRecord(idTag);
+    }
+
+    /**
+     * Reads the record from DB, bypassing (but refreshing) the cache. For the decisions that depend on the active
+     * transaction count.
+     */
+    @Nullable
+    public OcppTagActivityRecord loadRecord(String idTag) {
+        long generationBefore = generation.get();
+        OcppTagActivityRecord record = ocppTagRepository.getRecord(idTag);
+
+        if (generation.get() == generationBefore) {
+            if (record == null) {
+                unknown.put(idTag, Boolean.TRUE);
+            } else {
+                known.put(idTag, record);
+            }
+        }
+        return record;
+    }
+
+    public void invalidate(String idTag) {
+        generation.incrementAndGet();
+        known.invalidate(idTag);
+        unknown.invalidate(idTag);
+    }
+
+    public void invalidate(Iterable<String> idTags) {
+        generation.incrementAndGet();
+        known.invalidateAll(idTags);
+        unknown.invalidateAll(idTags);
+    }
+
+    /**
+     * An unknown idTag is inserted into DB with the transaction
+     */
+    @EventListener
+    public void ocppTransactionStarted(OcppTransactionStarted notification) {
+        invalidate(notification.getParams().getIdTag());
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.service;
+
+import de.rwth.idsg.steve.config.DelegatingTaskScheduler;
+import de.rwth.idsg.steve.repository.PartitionRepository;
+import de.rwth.idsg.steve.repository.dto.TablePartition;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+import static jooq.steve.db.tables.ConnectorMeterValue.CONNECTOR_METER_VALUE;
+import static jooq.steve.db.tables.ConnectorStatus.CONNECTOR_STATUS;
+
+/**
+ * Retention of the history tables connector_meter_value and connector_status, which are partitioned by month.
+ *
+ * Once a day, we create the partitions of the next {@link #MONTHS_AHEAD} months, such that the inserts never depend
+ * on this job, and drop (or archive) the partitions whose rows are all older than the retention. Dropping a partition
+ * is a metadata operation. Unlike a DELETE, it does not lock the rows of the other partitions, which the OCPP messages
+ * are written into.
+ *
+ * Partition p202610 contains the rows of October 2026 (UTC), i.e. its upper bound is 2026-11-01.
+ *
+ * @since 17.10.2026
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RetentionService {
+
+    static final int MONTHS_AHEAD = 3;
+
+    private static final Duration INITIAL_DELAY = Duration.ofMinutes(1);
+    private static final Duration INTERVAL = Duration.ofDays(1);
+    private static final DateTimeFormatter PARTITION_NAME_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final PartitionRepository partitionRepository;
+    private final DelegatingTaskScheduler asyncTaskScheduler;
+
+    // table name -> retention in months
+    private final Map<String, Integer> retentions = new LinkedHashMap<>();
+
+    // table name -> what we reclaimed since startup
+    private final Map<String, Counters> counters = new LinkedHashMap<>();
+
+    private ScheduledFuture<?> schedule;
+
+    @PostConstruct
+    public void init() {
+        retentions.put(CONNECTOR_METER_VALUE.getName(), CONFIG.getDb().getMeterValuesRetentionInMonths());
+        retentions.put(CONNECTOR_STATUS.getName(), CONFIG.getDb().getConnectorStatusRetentionInMonths());
+        retentions.keySet().forEach(table -> counters.put(table, new Counters()));
+
+        schedule = asyncTaskScheduler.scheduleAtFixedRate(this::run, Instant.now().plus(INITIAL_DELAY), INTERVAL);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (schedule != null) {
+            schedule.cancel(false);
+        }
+    }
+
+    /**
+     * table name -> stats
+     */
+    public Map<String, Stats> getStats() {
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        counters.forEach((table, c) -> stats.put(table, Stats.builder()
+                                                             .droppedPartitionCount(c.droppedPartitions.get())
+                                                             .reclaimedRowCount(c.reclaimedRows.get())
+                                                             .reclaimedBytes(c.reclaimedBytes.get())
+                                                             .build()));
+        return stats;
+    }
+
+    public void run() {
+        YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+        retentions.forEach((table, months) -> {
+            try {
+                maintain(table, months, currentMonth);
+            } catch (Exception e) {
+                log.error("Failed to maintain the partitions of '{}'", table, e);
+            }
+        });
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private void maintain(String table, int retentionInMonths, YearMonth currentMonth) {
+        List<TablePartition> partitions = partitionRepository.getPartitions(table);
+        if (partitions.isEmpty()) {
+            log.warn("Table '{}' is not partitioned. Skipping the retention", table);
+            return;
+        }
+
+        List<TablePartition> newPartitions = planNewPartitions(partitions, currentMonth);
+        if (!newPartitions.isEmpty()) {
+            partitionRepository.addPartitions(table, newPartitions);
+            log.info("Created the partitions {} of '{}'",
+                newPartitions.stream().map(TablePartition::getName).toList(), table);
+        }
+
+        Counters c = counters.get(table);
+        for (TablePartition p : planExpiredPartitions(partitions, currentMonth, retentionInMonths)) {
+            long rows = partitionRepository.getRowCount(table, p.getName());
+
+            if (CONFIG.getDb().isRetentionArchive()) {
+                String archiveTable = "archive_" + table + "_" + p.getName();
+                partitionRepository.archivePartition(table, p.getName(), archiveTable);
+                log.info("Archived the partition '{}' of '{}' into '{}' ({} rows, ~{} bytes)",
+                    p.getName(), table, archiveTable, rows, p.getSizeInBytes());
+            } else {
+                partitionRepository.dropPartition(table, p.getName());
+                log.info("Dropped the partition '{}' of '{}' ({} rows, ~{} bytes)",
+                    p.getName(), table, rows, p.getSizeInBytes());
+            }
+
+            c.droppedPartitions.incrementAndGet();
+            c.reclaimedRows.addAndGet(rows);
+            c.reclaimedBytes.addAndGet(p.getSizeInBytes());
+        }
+    }
+
+    /**
+     * The partitions from the last upper bound until (and including) the month {@link #MONTHS_AHEAD} after the
+     * current one.
+     */
+    static List<TablePartition> planNewPartitions(List<TablePartition> partitions, YearMonth currentMonth) {
+        Long lastUpperBound = partitions.stream()
+                                        .map(TablePartition::getUpperBound)
+                                        .filter(Objects::nonNull)
+                                        .max(Long::compare)
+                                        .orElse(null);
+
+        // the month that contains the last upper bound is the first one that is not covered completely
+        YearMonth month = lastUpperBound == null
+            ? currentMonth
+            : YearMonth.from(Instant.ofEpochSecond(lastUpperBound).atZone(ZoneOffset.UTC));
+
+        YearMonth lastMonth = currentMonth.plusMonths(MONTHS_AHEAD);
+
+        List<TablePartition> list = new ArrayList<>();
+        for (; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            list.add(TablePartition.builder()
+                                   .name(month.format(PARTITION_NAME_FORMAT))
+                                   .upperBound(toEpochSecond(month.plusMonths(1)))
+                                   .build());
+        }
+        return list;
+    }
+
+    /**
+     * The partitions whose rows are all older than the first day of the month retentionInMonths before the current
+     * one. The MAXVALUE partition never expires.
+     */
+    static List<TablePartition> planExpiredPartitions(List<TablePartition> partitions, YearMonth currentMonth,
+                                                      int retentionInMonths) {
+        if (retentionInMonths <= 0) {
+            return List.of();
+        }
+
+        long cutoff = toEpochSecond(currentMonth.minusMonths(retentionInMonths));
+        return partitions.stream()
+                         .filter(p -> !p.isMaxValue() && p.getUpperBound() <= cutoff)
+                         .toList();
+    }
+
+    private static long toEpochSecond(YearMonth month) {
+        return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+    }
+
+    private static final class Counters {
+        private final AtomicLong droppedPartitions = new AtomicLong();
+        private final AtomicLong reclaimedRows = new AtomicLong();
+        private final AtomicLong reclaimedBytes = new AtomicLong();
+    }
+
+    @Getter
+    @Builder
+    public static final class Stats {
+        private final long droppedPartitionCount;
+        private final long reclaimedRowCount;
+
+        // estimated by InnoDB at the time of dropping
+        private final long reclaimedBytes;
+    }
+}
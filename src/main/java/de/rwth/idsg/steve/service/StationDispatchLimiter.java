@@ -0,0 +1,83 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps a minimum interval between two requests to the same station, across all tasks that are dispatched at the same
+ * time.
+ *
+ * Every request reserves the next free slot of its station. The slots of a station are the interval apart, and the
+ * caller has to wait until its slot before sending. This does not block: the caller gets the time to wait and decides
+ * how to wait.
+ *
+ * @since 17.10.2026
+ */
+public class StationDispatchLimiter {
+
+    // past slots are equivalent to no slot, and are dropped at most this often
+    private static final long CLEANUP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final long intervalNanos;
+    private final LongSupplier nanoClock;
+
+    // chargeBoxId -> next free slot (in terms of nanoClock)
+    private final ConcurrentHashMap<String, Long> nextSlots = new ConcurrentHashMap<>();
+    private final AtomicLong nextCleanup;
+
+    public StationDispatchLimiter(int intervalInMillis, LongSupplier nanoClock) {
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalInMillis);
+        this.nanoClock = nanoClock;
+        this.nextCleanup = new AtomicLong(nanoClock.getAsLong() + CLEANUP_INTERVAL_NANOS);
+    }
+
+    /**
+     * @return the nanoseconds to wait before sending the request to the station. 0, if it can be sent now.
+     */
+    public long reserve(String chargeBoxId) {
+        if (intervalNanos == 0) {
+            return 0;
+        }
+
+        long now = nanoClock.getAsLong();
+        cleanupIfDue(now);
+
+        long[] slot = new long[1];
+        nextSlots.compute(chargeBoxId, (k, next) -> {
+            slot[0] = next == null ? now : Math.max(now, next);
+            return slot[0] + intervalNanos;
+        });
+        return slot[0] - now;
+    }
+
+    public int getStationCount() {
+        return nextSlots.size();
+    }
+
+    private void cleanupIfDue(long now) {
+        long due = nextCleanup.get();
+        if (now - due >= 0 && nextCleanup.compareAndSet(due, now + CLEANUP_INTERVAL_NANOS)) {
+            nextSlots.values().removeIf(next -> next - now <= 0);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A timer for a large number of timeouts, which are mostly cancelled before they expire (e.g. deadlines of
+ * outstanding calls). Adding and cancelling a timeout is O(1) and does not involve any lock. The price is precision:
+ * Timeouts expire with a delay of up to one tick.
+ *
+ * The timeouts are kept in a wheel of buckets. A single worker thread advances the wheel once per tick and runs the
+ * expired tasks of the current bucket. Therefore, the tasks must be short and must not block. Otherwise, they should be
+ * handed off to an executor.
+ *
+ * Same idea as Netty's HashedWheelTimer, which we do not have as a dependency.
+ *
+ * @since 17.10.2026
+ */
+@Slf4j
+public class HashedWheelTimer {
+
+    private final String name;
+    private final long tickNanos;
+    private final int mask;
+    private final Queue<TimeoutImpl>[] wheel;
+
+    // timeouts are added from arbitrary threads, but the wheel is only accessed by the worker
+    private final Queue<TimeoutImpl> newTimeouts = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicLong expiredCount = new AtomicLong();
+
+    private final Thread worker;
+    private final long startNanos;
+    private volatile boolean running = true;
+
+    @SuppressWarnings("unchecked")
+    public HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be positive");
+        }
+        if (Integer.bitCount(ticksPerWheel) != 1) {
+            throw new IllegalArgumentException("ticksPerWheel must be a power of 2");
+        }
+
+        this.name = name;
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.mask = ticksPerWheel - 1;
+        this.wheel = new Queue[ticksPerWheel];
+        for (int i = 0; i < ticksPerWheel; i++) {
+            wheel[i] = new ArrayDeque<>();
+        }
+
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new IllegalStateException("Timer '" + name + "' is stopped");
+        }
+
+        long deadline = System.nanoTime() - startNanos + unit.toNanos(delay);
+        TimeoutImpl timeout = new TimeoutImpl(task, deadline);
+        pendingCount.incrementAndGet();
+        newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * @return the number of timeouts that are neither expired nor cancelled
+     */
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    /**
+     * Pending timeouts are dropped without running their tasks.
+     */
+    public void stop() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Worker
+    // -------------------------------------------------------------------------
+
+    private void run() {
+        long tick = 0;
+        while (running) {
+            long deadline = waitForNextTick(tick);
+            if (deadline < 0) {
+                break;
+            }
+
+            transferNewTimeouts(tick);
+            expireTimeouts(wheel[(int) (tick & mask)], deadline);
+            tick++;
+        }
+        log.debug("Timer '{}' is stopped", name);
+    }
+
+    /**
+     * @return the current time relative to start, or -1 if the timer is stopped while waiting
+     */
+    private long waitForNextTick(long tick) {
+        long deadline = tickNanos * (tick + 1);
+        while (true) {
+            long current = System.nanoTime() - startNanos;
+            long sleepNanos = deadline - current;
+            if (sleepNanos <= 0) {
+                return current;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    private void transferNewTimeouts(long tick) {
+        TimeoutImpl timeout;
+        while ((timeout = newTimeouts.poll()) != null) {
+            if (timeout.state.get() != TimeoutImpl.ST_INIT) {
+                continue;
+            }
+
+            long calculatedTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (calculatedTick - tick) / wheel.length;
+
+            // do not schedule into the past
+            long targetTick = Math.max(calculatedTick, tick);
+            wheel[(int) (targetTick & mask)].add(timeout);
+        }
+    }
+
+    private void expireTimeouts(Queue<TimeoutImpl> bucket, long now) {
+        Iterator<TimeoutImpl> it = bucket.iterator();
+        while (it.hasNext()) {
+            TimeoutImpl timeout = it.next();
+            if (timeout.state.get() != TimeoutImpl.ST_INIT) {
+                it.remove();
+            } else if (timeout.remainingRounds <= 0 && timeout.deadline <= now) {
+                it.remove();
+                timeout.expire();
+            } else if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Classes
+    // -------------------------------------------------------------------------
+
+    public interface Timeout {
+
+        /**
+         * @return true, if the timeout was cancelled by this call. false, if it was already expired or cancelled
+         */
+        boolean cancel();
+
+        boolean isExpired();
+    }
+
+    private final class TimeoutImpl implements Timeout {
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private final AtomicInteger state = new AtomicInteger(ST_INIT);
+        private final Runnable task;
+        private final long deadline;
+
+        // only accessed by the worker
+        private long remainingRounds;
+
+        private TimeoutImpl(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            boolean cancelled = state.compareAndSet(ST_INIT, ST_CANCELLED);
+            if (cancelled) {
+                // the worker removes the timeout from its bucket when it gets there
+                pendingCount.decrementAndGet();
+            }
+            return cancelled;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state.get() == ST_EXPIRED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            pendingCount.decrementAndGet();
+            expiredCount.incrementAndGet();
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.error("Exception occurred in the task of timer '{}'", name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Estimates the rate of events over a sliding window of whole seconds. There is one counter per second of the window,
+ * which is reset when the second comes around again. Recording an event is an increment (plus a CAS at the start of
+ * every second), and nothing ever blocks.
+ *
+ * The estimate is approximate: An increment that races with the reset of its counter may get lost, and the current
+ * second is counted although it is not over yet.
+ *
+ * @since 17.10.2026
+ */
+public class RateEstimator {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final int windowInSeconds;
+    private final LongSupplier nanoClock;
+
+    // the second that a counter currently belongs to
+    private final AtomicLongArray seconds;
+    private final AtomicLongArray counts;
+
+    public RateEstimator(int windowInSeconds) {
+        this(windowInSeconds, System::nanoTime);
+    }
+
+    public RateEstimator(int windowInSeconds, LongSupplier nanoClock) {
+        if (windowInSeconds < 1) {
+            throw new IllegalArgumentException("windowInSeconds must be positive");
+        }
+
+        this.windowInSeconds = windowInSeconds;
+        this.nanoClock = nanoClock;
+        this.seconds = new AtomicLongArray(windowInSeconds);
+        this.counts = new AtomicLongArray(windowInSeconds);
+        for (int i = 0; i < windowInSeconds; i++) {
+            seconds.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    public void record() {
+        long second = currentSecond();
+        int i = index(second);
+
+        long current = seconds.get(i);
+        if (current != second && seconds.compareAndSet(i, current, second)) {
+            counts.set(i, 0);
+        }
+        counts.incrementAndGet(i);
+    }
+
+    /**
+     * @return the number of events within the window
+     */
+    public long getCount() {
+        long second = currentSecond();
+        long count = 0;
+        for (int i = 0; i < windowInSeconds; i++) {
+            if (seconds.get(i) > second - windowInSeconds) {
+                count += counts.get(i);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the events per second within the window
+     */
+    public double getRate() {
+        return (double) getCount() / windowInSeconds;
+    }
+
+    private long currentSecond() {
+        return Math.floorDiv(nanoClock.getAsLong(), NANOS_PER_SECOND);
+    }
+
+    private int index(long second) {
+        return (int) Math.floorMod(second, (long) windowInSeconds);
+    }
+}
@@ -18,12 +18,15 @@
  */
 package de.rwth.idsg.steve.web.api;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.rwth.idsg.steve.repository.TransactionRepository;
 import de.rwth.idsg.steve.repository.dto.Transaction;
 import de.rwth.idsg.steve.web.api.ApiControllerAdvice.ApiErrorResponse;
 import de.rwth.idsg.steve.web.api.exception.BadRequestException;
 import de.rwth.idsg.steve.web.dto.TransactionQueryForm;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -35,11 +38,12 @@ import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 /**
  * @author Sevket Goekay <sevketgokay@gmail.com>
@@ -58,28 +62,44 @@ import java.util.List;
 public class TransactionsRestController {
 
     private final TransactionRepository transactionRepository;
+    private final ObjectMapper jacksonObjectMapper;
 
     @Operation(description = """
         Returns a list of transactions based on the query parameters.
         The query parameters can be used to filter the transactions.
+        The transactions are ordered by their primary key in descending order. For keyset pagination, set 'limit' and
+        for the following pages 'afterTransactionPk' to the primary key of the last transaction of the previous page.
         """)
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "OK"),
+        @ApiResponse(responseCode = "200", description = "OK", content = {@Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = Transaction.class)))}),
         @ApiResponse(responseCode = "400", description = "Bad Request", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ApiErrorResponse.class))}),
         @ApiResponse(responseCode = "401", description = "Unauthorized", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ApiErrorResponse.class))}),
         @ApiResponse(responseCode = "500", description = "Internal Server Error", content = {@Content(mediaType = "application/json", schema = @Schema(implementation = ApiErrorResponse.class))})}
     )
     @GetMapping(value = "")
-    @ResponseBody
-    public List<Transaction> get(@Valid @ParameterObject TransactionQueryForm.TransactionQueryFormForApi params) {
+    public void get(@Valid @ParameterObject TransactionQueryForm.TransactionQueryFormForApi params,
+                    HttpServletResponse response) throws IOException {
         log.debug("Read request for query: {}", params);
 
         if (params.isReturnCSV()) {
             throw new BadRequestException("returnCSV=true is not supported for API calls");
         }
 
-        var response = transactionRepository.getTransactions(params);
-        log.debug("Read response for query: {}", response);
-        return response;
+        // the transactions are written to the response as they come from DB. if the query itself fails, nothing is
+        // flushed to the response yet, such that the error response can be written instead.
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        JsonGenerator generator = jacksonObjectMapper.createGenerator(response.getOutputStream());
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        generator.writeStartArray();
+        transactionRepository.forEachTransaction(params, transaction -> {
+            try {
+                generator.writeObject(transaction);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.writeEndArray();
+        generator.close();
     }
 }
@@ -19,12 +19,16 @@
 package de.rwth.idsg.steve.web.controller;
 
 import de.rwth.idsg.steve.NotificationFeature;
+import de.rwth.idsg.steve.ocpp.ws.TrafficLogLevel;
+import de.rwth.idsg.steve.ocpp.ws.TrafficLogPolicy;
 import de.rwth.idsg.steve.repository.GenericRepository;
 import de.rwth.idsg.steve.repository.SettingsRepository;
 import de.rwth.idsg.steve.service.MailService;
 import de.rwth.idsg.steve.service.ReleaseCheckService;
 import de.rwth.idsg.steve.web.dto.EndpointInfo;
 import de.rwth.idsg.steve.web.dto.SettingsForm;
+import de.rwth.idsg.steve.web.dto.TrafficLogForm;
+import de.rwth.idsg.steve.web.dto.TrafficLogSettings;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -60,6 +64,7 @@ public class AboutSettingsController {
 
     private static final String ABOUT_PATH = "/about";
     private static final String SETTINGS_PATH = "/settings";
+    private static final String TRAFFIC_LOG_PATH = "/settings/traffic-log";
 
     // -------------------------------------------------------------------------
     // HTTP methods
@@ -82,6 +87,7 @@ public class AboutSettingsController {
         SettingsForm form = settingsRepository.getForm();
         model.addAttribute("features", NotificationFeature.values());
         model.addAttribute("settingsForm", form);
+        setTrafficLogAttributes(model, TrafficLogForm.fromSettings(TrafficLogPolicy.INSTANCE.getSettings()));
         return "settings";
     }
 
@@ -90,6 +96,7 @@ public class AboutSettingsController {
                                BindingResult result, Model model) {
         if (result.hasErrors()) {
             model.addAttribute("features", NotificationFeature.values());
+            setTrafficLogAttributes(model, TrafficLogForm.fromSettings(TrafficLogPolicy.INSTANCE.getSettings()));
             return "settings";
         }
 
@@ -97,11 +104,39 @@ public class AboutSettingsController {
         return "redirect:/manager/settings";
     }
 
+    @RequestMapping(value = TRAFFIC_LOG_PATH, method = RequestMethod.POST)
+    public String postTrafficLog(@Valid @ModelAttribute("trafficLogForm") TrafficLogForm trafficLogForm,
+                                 BindingResult result, Model model) {
+        TrafficLogSettings settings = new TrafficLogSettings();
+        settings.setDefaultLevel(trafficLogForm.getDefaultLevel());
+        try {
+            settings.setChargeBoxLevels(TrafficLogForm.parseLines(trafficLogForm.getChargeBoxLevels()));
+        } catch (IllegalArgumentException e) {
+            result.rejectValue("chargeBoxLevels", "invalid", e.getMessage());
+        }
+        try {
+            settings.setActionLevels(TrafficLogForm.parseLines(trafficLogForm.getActionLevels()));
+        } catch (IllegalArgumentException e) {
+            result.rejectValue("actionLevels", "invalid", e.getMessage());
+        }
+
+        if (result.hasErrors()) {
+            model.addAttribute("features", NotificationFeature.values());
+            model.addAttribute("settingsForm", settingsRepository.getForm());
+            setTrafficLogAttributes(model, trafficLogForm);
+            return "settings";
+        }
+
+        TrafficLogPolicy.INSTANCE.update(settings);
+        return "redirect:/manager/settings";
+    }
+
     @RequestMapping(params = "testMail", value = SETTINGS_PATH, method = RequestMethod.POST)
     public String testMail(@Valid @ModelAttribute("settingsForm") SettingsForm settingsForm,
                            BindingResult result, Model model) {
         if (result.hasErrors()) {
             model.addAttribute("features", NotificationFeature.values());
+            setTrafficLogAttributes(model, TrafficLogForm.fromSettings(TrafficLogPolicy.INSTANCE.getSettings()));
             return "settings";
         }
 
@@ -110,4 +145,9 @@ public class AboutSettingsController {
 
         return "redirect:/manager/settings";
     }
+
+    private static void setTrafficLogAttributes(Model model, TrafficLogForm form) {
+        model.addAttribute("trafficLogLevels", TrafficLogLevel.values());
+        model.addAttribute("trafficLogForm", form);
+    }
 }
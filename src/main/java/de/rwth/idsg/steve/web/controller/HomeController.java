@@ -24,12 +24,15 @@ import de.rwth.idsg.steve.service.ChargePointHelperService;
 import de.rwth.idsg.steve.utils.ConnectorStatusCountFilter;
 import de.rwth.idsg.steve.utils.ConnectorStatusFilter;
 import de.rwth.idsg.steve.web.dto.ConnectorStatusForm;
+import de.rwth.idsg.steve.web.dto.Statistics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
 
 import java.util.List;
 
@@ -53,6 +56,8 @@ public class HomeController {
 
     private static final String HOME_PREFIX = "/home";
 
+    private static final String STATS_PATH = HOME_PREFIX + "/stats";
+
     private static final String OCPP_JSON_STATUS = HOME_PREFIX + "/ocppJsonStatus";
     private static final String CONNECTOR_STATUS_PATH = HOME_PREFIX + "/connectorStatus";
     private static final String CONNECTOR_STATUS_QUERY_PATH = HOME_PREFIX + "/connectorStatus/query";
@@ -66,6 +71,15 @@ public class HomeController {
         return "home";
     }
 
+    /**
+     * Polled by the open dashboards
+     */
+    @ResponseBody
+    @RequestMapping(value = STATS_PATH, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Statistics getStats() {
+        return chargePointHelperService.getLiveStats();
+    }
+
     @RequestMapping(value = CONNECTOR_STATUS_PATH)
     public String getConnectorStatus(Model model) {
         return getConnectorStatusQuery(new ConnectorStatusForm(), model);
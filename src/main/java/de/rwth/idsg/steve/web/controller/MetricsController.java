@@ -0,0 +1,46 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.web.controller;
+
+import de.rwth.idsg.steve.SteveConfiguration;
+import de.rwth.idsg.steve.metrics.MetricsService;
+import de.rwth.idsg.steve.metrics.PrometheusTextWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Metrics endpoint for Prometheus. Uses the same credentials as the API.
+ *
+ * The path is the prefix {@link SteveConfiguration#getMetricsMapping()}, which is set in
+ * {@link de.rwth.idsg.steve.config.BeanConfiguration#configurePathMatch}.
+ *
+ * @since 17.10.2026
+ */
+@RestController
+@RequiredArgsConstructor
+public class MetricsController {
+
+    private final MetricsService metricsService;
+
+    @GetMapping(produces = PrometheusTextWriter.CONTENT_TYPE)
+    public String metrics() {
+        return metricsService.scrape();
+    }
+}
@@ -31,6 +31,7 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
 /**
  * @author Sevket Goekay <sevketgokay@gmail.com>
@@ -49,20 +50,29 @@ public class TaskController {
     private static final String TASK_ID_PATH = "/{taskId}";
     private static final String TASK_DETAILS_PATH = TASK_ID_PATH + "/details/{chargeBoxId}/";
 
+    private static final int PAGE_SIZE = 100;
+
     // -------------------------------------------------------------------------
     // HTTP methods
     // -------------------------------------------------------------------------
 
     @RequestMapping(method = RequestMethod.GET)
-    public String getOverview(Model model) {
-        model.addAttribute("taskList", taskStore.getOverview());
+    public String getOverview(@RequestParam(value = "page", defaultValue = "0") int page, Model model) {
+        int size = taskStore.getSize();
+        int pageCount = Math.max(1, (size + PAGE_SIZE - 1) / PAGE_SIZE);
+        int currentPage = Math.min(Math.max(page, 0), pageCount - 1);
+
+        model.addAttribute("taskList", taskStore.getOverview(currentPage * PAGE_SIZE, PAGE_SIZE));
+        model.addAttribute("taskCount", size);
+        model.addAttribute("page", currentPage);
+        model.addAttribute("pageCount", pageCount);
         return "tasks";
     }
 
     @RequestMapping(method = RequestMethod.POST)
     public String clearFinished(Model model) {
         taskStore.clearFinished();
-        return getOverview(model);
+        return getOverview(0, model);
     }
 
     @RequestMapping(value = TASK_ID_PATH, method = RequestMethod.GET)
@@ -27,6 +27,7 @@ import de.rwth.idsg.steve.service.TransactionStopService;
 import de.rwth.idsg.steve.web.dto.ReservationQueryForm;
 import de.rwth.idsg.steve.web.dto.TransactionQueryForm;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -35,9 +36,16 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
 
 /**
  * One controller for transactions and reservations pages
@@ -97,7 +105,7 @@ public class TransactionsReservationsController {
     @RequestMapping(value = TRANSACTIONS_QUERY_PATH)
     public String getTransactionsQuery(@Valid @ModelAttribute(PARAMS) TransactionQueryForm params,
                                        BindingResult result, Model model,
-                                       HttpServletResponse response) throws IOException {
+                                       HttpServletRequest request, HttpServletResponse response) throws IOException {
         if (result.hasErrors()) {
             initList(model);
             model.addAttribute(PARAMS, params);
@@ -109,8 +117,9 @@ public class TransactionsReservationsController {
             String headerKey = "Content-Disposition";
             String headerValue = String.format("attachment; filename=\"%s\"", fileName);
             response.setContentType("text/csv");
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
             response.setHeader(headerKey, headerValue);
-            transactionRepository.writeTransactionsCSV(params, response.getWriter());
+            writeTransactionsCSV(params, request, response);
             return null;
 
         } else {
@@ -153,4 +162,26 @@ public class TransactionsReservationsController {
         model.addAttribute("statusList", ReservationStatus.getValues());
     }
 
+    /**
+     * The CSV of many transactions can be big, but compresses well. If the client accepts it, we compress it while
+     * writing. Not necessary, if the gzip handler of Jetty is enabled, since it does this for all responses.
+     */
+    private void writeTransactionsCSV(TransactionQueryForm params, HttpServletRequest request,
+                                      HttpServletResponse response) throws IOException {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = !CONFIG.getJetty().isGzipEnabled() && acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        if (!gzip) {
+            transactionRepository.writeTransactionsCSV(params, response.getWriter());
+            return;
+        }
+
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        var gzipStream = new GZIPOutputStream(response.getOutputStream());
+        try (Writer writer = new OutputStreamWriter(gzipStream, StandardCharsets.UTF_8)) {
+            transactionRepository.writeTransactionsCSV(params, writer);
+        }
+    }
 }
@@ -37,4 +37,9 @@ public final class OcppJsonStatus {
     private final String connectionDuration;
     private final OcppVersion version;
     private final DateTime connectedSinceDT;
+
+    // outgoing calls of this connection, see OutgoingCallQueue
+    private final boolean callOutstanding;
+    private final int waitingCallCount;
+    private final long longestCallWaitInSeconds;
 }
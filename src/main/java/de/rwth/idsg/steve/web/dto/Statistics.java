@@ -18,6 +18,7 @@
  */
 package de.rwth.idsg.steve.web.dto;
 
+import de.rwth.idsg.steve.service.BootPacingService;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -44,4 +45,6 @@ public final class Statistics {
 
     // Count of connectors based on their status
     @Setter private Map<String, Integer> statusCountMap;
+
+    @Setter private BootPacingService.Stats bootPacing;
 }
@@ -0,0 +1,89 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.web.dto;
+
+import com.google.common.base.Splitter;
+import de.rwth.idsg.steve.ocpp.ws.TrafficLogLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import jakarta.validation.constraints.NotNull;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Web interface representation of {@link TrafficLogSettings}. The levels are entered one per line as key=LEVEL.
+ *
+ * @since 17.10.2026
+ */
+@Getter
+@Setter
+@ToString
+public class TrafficLogForm {
+
+    @NotNull(message = "Default level is required")
+    private TrafficLogLevel defaultLevel;
+
+    private String chargeBoxLevels;
+
+    private String actionLevels;
+
+    public static TrafficLogForm fromSettings(TrafficLogSettings settings) {
+        TrafficLogForm form = new TrafficLogForm();
+        form.setDefaultLevel(settings.getDefaultLevel());
+        form.setChargeBoxLevels(toLines(settings.getChargeBoxLevels()));
+        form.setActionLevels(toLines(settings.getActionLevels()));
+        return form;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a line is not in the format key=LEVEL
+     */
+    public static Map<String, TrafficLogLevel> parseLines(String lines) {
+        Map<String, TrafficLogLevel> map = new LinkedHashMap<>();
+        if (lines == null) {
+            return map;
+        }
+
+        for (String line : Splitter.onPattern("\\r?\\n").trimResults().omitEmptyStrings().split(lines)) {
+            List<String> pair = Splitter.on('=').trimResults().splitToList(line);
+            if (pair.size() != 2 || pair.get(0).isEmpty()) {
+                throw new IllegalArgumentException("Invalid line '" + line + "', expected format is key=LEVEL");
+            }
+            try {
+                map.put(pair.get(0), TrafficLogLevel.valueOf(pair.get(1).toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid level in line '" + line + "'");
+            }
+        }
+        return map;
+    }
+
+    private static String toLines(Map<String, TrafficLogLevel> map) {
+        return map.entrySet()
+                  .stream()
+                  .map(e -> e.getKey() + "=" + e.getValue())
+                  .sorted()
+                  .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.web.dto;
+
+import de.rwth.idsg.steve.ocpp.ws.TrafficLogLevel;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import jakarta.validation.constraints.NotNull;
+import java.util.Map;
+
+/**
+ * Logging policy of the OCPP-J traffic. A level for a chargeBoxId takes precedence over a level for an action, which
+ * takes precedence over the default level.
+ *
+ * @since 17.10.2026
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrafficLogSettings {
+
+    @Schema(description = "Level for all messages without a more specific level")
+    @NotNull(message = "Default level is required")
+    private TrafficLogLevel defaultLevel;
+
+    @Schema(description = "chargeBoxId -> level. Applies to all messages of the station")
+    private Map<String, @NotNull TrafficLogLevel> chargeBoxLevels;
+
+    @Schema(description = "action -> level. Applies to CALLs with this action and the responses that we send to them")
+    private Map<String, @NotNull TrafficLogLevel> actionLevels;
+}
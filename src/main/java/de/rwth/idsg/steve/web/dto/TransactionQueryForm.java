@@ -25,6 +25,7 @@ import lombok.Setter;
 import lombok.ToString;
 
 import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
 import java.util.Objects;
 
 /**
@@ -49,6 +50,15 @@ public class TransactionQueryForm extends QueryForm {
     @Schema(description = "Return the time period of the transactions. If FROM_TO, 'from' and 'to' must be set. Additionally, 'to' must be after 'from'. Defaults to ALL")
     private QueryPeriodType periodType = QueryPeriodType.ALL;
 
+    @Schema(description = "For keyset pagination: Return only the transactions that come after the transaction with "
+        + "this primary key (i.e. the last one of the previous page). The transactions are ordered by their primary "
+        + "key in descending order, so these are the ones with a smaller primary key")
+    private Integer afterTransactionPk;
+
+    @Schema(description = "The maximum number of transactions to return. Defaults to all")
+    @Min(value = 1, message = "Limit must be at least {value}")
+    private Integer limit;
+
     @Schema(hidden = true)
     @AssertTrue(message = "The values 'From' and 'To' must be both set")
     public boolean isPeriodFromToCorrect() {
@@ -60,6 +70,16 @@ public class TransactionQueryForm extends QueryForm {
         return transactionPk != null;
     }
 
+    @Schema(hidden = true)
+    public boolean isAfterTransactionPkSet() {
+        return afterTransactionPk != null;
+    }
+
+    @Schema(hidden = true)
+    public boolean isLimitSet() {
+        return limit != null;
+    }
+
     public QueryType getType() {
         return Objects.requireNonNullElse(type, QueryType.ALL);
     }
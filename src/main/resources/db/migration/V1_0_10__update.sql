@@ -0,0 +1,63 @@
+-- connector_meter_value and connector_status are partitioned by month, such that the history can be purged by dropping
+-- whole partitions instead of running big DELETE statements. see de.rwth.idsg.steve.service.RetentionService, which
+-- creates the partitions of the coming months and drops (or archives) the expired ones.
+--
+-- CAUTION: converting the tables rebuilds them. with a big history, this takes a while and blocks writes to them.
+
+-- partitioned InnoDB tables cannot have foreign keys. the rows of deleted connectors are now deleted by the app.
+-- CAUTION: de.rwth.idsg.steve.repository.impl.ConnectorPkCache detects stale primary keys (of connectors deleted
+-- directly in DB) through failing foreign keys. for connector_meter_value, this is not possible anymore.
+ALTER TABLE connector_meter_value
+    DROP FOREIGN KEY FK_pk_cm,
+    DROP FOREIGN KEY FK_tid_cm;
+
+ALTER TABLE connector_status
+    DROP FOREIGN KEY FK_cs_pk;
+
+-- for the lookups of meter values by connector and time window. it covers the former index on connector_pk alone.
+-- for connector_status, the same applies to the existing index on (connector_pk, status_timestamp).
+ALTER TABLE connector_meter_value
+    ADD INDEX cmv_connector_pk_value_timestamp_idx (connector_pk, value_timestamp),
+    DROP INDEX FK_cm_pk_idx;
+
+ALTER TABLE connector_status
+    DROP INDEX FK_cs_pk_idx;
+
+-- for TIMESTAMP columns, UNIX_TIMESTAMP() is the only function that is allowed in the partitioning expression. with
+-- fractional seconds, it returns a DECIMAL, and FLOOR() makes an integer out of it.
+--
+-- all rows before the current month (in UTC) go into the partition p_initial. the current month and the next 3 months
+-- get their own partitions right away (as many as RetentionService.MONTHS_AHEAD keeps ready). this way, the rows of
+-- the current month are sorted in here, and p_future (MAXVALUE) stays empty. otherwise, the first run of the retention
+-- job would have to copy the rows of the current month out of p_future, while blocking the writes of OCPP messages.
+-- rows without timestamp (NULL) go into the first partition.
+SET @m0 = CAST(DATE_FORMAT(UTC_TIMESTAMP(), '%Y-%m-01') AS DATE);
+
+SET @partitions = CONCAT(
+    'PARTITION p_initial VALUES LESS THAN (', TIMESTAMPDIFF(SECOND, '1970-01-01', @m0), '), ',
+    'PARTITION ', DATE_FORMAT(@m0, 'p%Y%m'), ' VALUES LESS THAN (',
+        TIMESTAMPDIFF(SECOND, '1970-01-01', @m0 + INTERVAL 1 MONTH), '), ',
+    'PARTITION ', DATE_FORMAT(@m0 + INTERVAL 1 MONTH, 'p%Y%m'), ' VALUES LESS THAN (',
+        TIMESTAMPDIFF(SECOND, '1970-01-01', @m0 + INTERVAL 2 MONTH), '), ',
+    'PARTITION ', DATE_FORMAT(@m0 + INTERVAL 2 MONTH, 'p%Y%m'), ' VALUES LESS THAN (',
+        TIMESTAMPDIFF(SECOND, '1970-01-01', @m0 + INTERVAL 3 MONTH), '), ',
+    'PARTITION ', DATE_FORMAT(@m0 + INTERVAL 3 MONTH, 'p%Y%m'), ' VALUES LESS THAN (',
+        TIMESTAMPDIFF(SECOND, '1970-01-01', @m0 + INTERVAL 4 MONTH), '), ',
+    'PARTITION p_future VALUES LESS THAN MAXVALUE'
+);
+
+SET @sql = CONCAT(
+    'ALTER TABLE connector_meter_value PARTITION BY RANGE (FLOOR(UNIX_TIMESTAMP(value_timestamp))) (',
+    @partitions, ')'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @sql = CONCAT(
+    'ALTER TABLE connector_status PARTITION BY RANGE (FLOOR(UNIX_TIMESTAMP(status_timestamp))) (',
+    @partitions, ')'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,24 @@
+-- the latest status per connector, maintained on every insert into connector_status. finding it in the (possibly
+-- huge) history with GROUP BY and MAX(status_timestamp) is too expensive.
+CREATE TABLE connector_status_latest (
+    connector_pk      INT(11) UNSIGNED NOT NULL,
+    status_timestamp  TIMESTAMP(6)     NULL DEFAULT NULL,
+    status            VARCHAR(255)     NULL DEFAULT NULL,
+    error_code        VARCHAR(255)     NULL DEFAULT NULL,
+    error_info        VARCHAR(255)     NULL DEFAULT NULL,
+    vendor_id         VARCHAR(255)     NULL DEFAULT NULL,
+    vendor_error_code VARCHAR(255)     NULL DEFAULT NULL,
+
+    PRIMARY KEY (connector_pk),
+    CONSTRAINT FK_csl_pk FOREIGN KEY (connector_pk) REFERENCES connector (connector_pk) ON DELETE CASCADE ON UPDATE NO ACTION
+);
+
+-- in case of multiple statuses with the same latest timestamp, take any of them
+INSERT IGNORE INTO connector_status_latest
+    (connector_pk, status_timestamp, status, error_code, error_info, vendor_id, vendor_error_code)
+SELECT cs.connector_pk, cs.status_timestamp, cs.status, cs.error_code, cs.error_info, cs.vendor_id, cs.vendor_error_code
+FROM connector_status cs
+    INNER JOIN (SELECT connector_pk, MAX(status_timestamp) AS max_timestamp
+                FROM connector_status
+                GROUP BY connector_pk) AS latest
+    ON cs.connector_pk = latest.connector_pk AND cs.status_timestamp = latest.max_timestamp;
@@ -0,0 +1,55 @@
+-- the effective (i.e. latest) stop data of a transaction, maintained on every insert into transaction_stop.
+-- transaction_stop stays as it is and keeps the history of all stop events.
+ALTER TABLE transaction_start
+    ADD COLUMN stop_event_actor     ENUM('station', 'manual') NULL DEFAULT NULL,
+    ADD COLUMN stop_event_timestamp TIMESTAMP(6)              NULL DEFAULT NULL,
+    ADD COLUMN stop_timestamp       TIMESTAMP(6)              NULL DEFAULT NULL,
+    ADD COLUMN stop_value           VARCHAR(255)              NULL DEFAULT NULL,
+    ADD COLUMN stop_reason          VARCHAR(255)              NULL DEFAULT NULL,
+    ADD INDEX transaction_stop_idx (stop_timestamp);
+
+UPDATE transaction_start tx1
+    INNER JOIN transaction_stop tx2
+        ON tx1.transaction_pk = tx2.transaction_pk
+        AND tx2.event_timestamp = (SELECT MAX(event_timestamp) FROM transaction_stop s2 WHERE tx2.transaction_pk = s2.transaction_pk)
+SET tx1.stop_event_actor     = tx2.event_actor,
+    tx1.stop_event_timestamp = tx2.event_timestamp,
+    tx1.stop_timestamp       = tx2.stop_timestamp,
+    tx1.stop_value           = tx2.stop_value,
+    tx1.stop_reason          = tx2.stop_reason;
+
+-- the number of active transactions, maintained on every start and stop of a transaction.
+-- BIGINT, since this was the type of the count in the former view
+ALTER TABLE ocpp_tag
+    ADD COLUMN active_transaction_count BIGINT NOT NULL DEFAULT 0 AFTER max_active_transaction_count;
+
+UPDATE ocpp_tag o
+    INNER JOIN (SELECT id_tag, COUNT(*) AS active_count
+                FROM transaction_start
+                WHERE stop_timestamp IS NULL AND stop_value IS NULL
+                GROUP BY id_tag) AS t
+    ON o.id_tag = t.id_tag
+SET o.active_transaction_count = t.active_count;
+
+-- both views are plain projections now, without any join or aggregation. we keep them, such that the queries
+-- (and generated classes) of the java app stay the same.
+CREATE OR REPLACE VIEW `transaction` AS
+SELECT
+    transaction_pk,
+    connector_pk,
+    id_tag,
+    event_timestamp as 'start_event_timestamp',
+    start_timestamp,
+    start_value,
+    stop_event_actor,
+    stop_event_timestamp,
+    stop_timestamp,
+    stop_value,
+    stop_reason
+FROM transaction_start;
+
+CREATE OR REPLACE VIEW ocpp_tag_activity AS
+select `o`.*,
+       case when `o`.`active_transaction_count` > 0 then 1 else 0 end     AS `in_transaction`,
+       case when `o`.`max_active_transaction_count` = 0 then 1 else 0 end AS `blocked`
+from `ocpp_tag` `o`;
@@ -19,42 +19,59 @@
 
 --%>
 <%@ include file="00-header.jsp" %>
+<script type="text/javascript">
+	// the numbers (except the connector status) are kept in memory on the server. refresh them without reloading.
+	$(document).ready(function() {
+		setInterval(function() {
+			$.getJSON("${ctxPath}/manager/home/stats", function(stats) {
+				$("[data-stat]").each(function() {
+					var value = $(this).data("stat").split(".").reduce(function(obj, key) {
+						return obj == null ? null : obj[key];
+					}, stats);
+					if (value != null) {
+						$(this).text(value);
+					}
+				});
+			});
+		}, 10000);
+	});
+</script>
 <div class="content">
 <div class="tileWrapper">
 	<a class="tileRow1" href="${ctxPath}/manager/chargepoints">
 		Number of<br>Charge Points
-		<span class="base formatNumber">${stats.numChargeBoxes}</span>
+		<span class="base formatNumber" data-stat="numChargeBoxes">${stats.numChargeBoxes}</span>
 	</a>
 	<a class="tileRow1" href="${ctxPath}/manager/ocppTags">
 		Number of<br>OCPP Tags
-		<span class="base formatNumber">${stats.numOcppTags}</span>
+		<span class="base formatNumber" data-stat="numOcppTags">${stats.numOcppTags}</span>
 	</a>
 	<a class="tileRow1" href="${ctxPath}/manager/users">
 		Number of<br>Users
-		<span class="base formatNumber">${stats.numUsers}</span>
+		<span class="base formatNumber" data-stat="numUsers">${stats.numUsers}</span>
 	</a>
 	<a class="tileRow1" href="${ctxPath}/manager/reservations">
 		Number of<br>Active Reservations
-		<span class="base formatNumber">${stats.numReservations}</span>
+		<span class="base formatNumber" data-stat="numReservations">${stats.numReservations}</span>
 	</a>
 	<a class="tileRow1" href="${ctxPath}/manager/transactions">
 		Number of<br>Active Transactions
-		<span class="base formatNumber">${stats.numTransactions}</span>
+		<span class="base formatNumber" data-stat="numTransactions">${stats.numTransactions}</span>
 	</a>
 	<a class="tileRow1" href="${ctxPath}/manager/home/ocppJsonStatus">
 		Number of Connected<br>JSON Charge Points
 		<span class="baseTable">
 			<span class="baseRow">
 				<span class="baseCell">OCPP 1.2 :</span>
-				<span class="baseCell formatNumber">${stats.numOcpp12JChargeBoxes}</span>
+				<span class="baseCell formatNumber" data-stat="numOcpp12JChargeBoxes">${stats.numOcpp12JChargeBoxes}</span>
 			</span>
 			<span class="baseRow">
 				<span class="baseCell">OCPP 1.5 :</span>
-				<span class="baseCell formatNumber">${stats.numOcpp15JChargeBoxes}</span>
+				<span class="baseCell formatNumber" data-stat="numOcpp15JChargeBoxes">${stats.numOcpp15JChargeBoxes}</span>
 			</span>
 			<span class="baseRow">
 				<span class="baseCell">OCPP 1.6 :</span>
-				<span class="baseCell formatNumber">${stats.numOcpp16JChargeBoxes}</span>
+				<span class="baseCell formatNumber" data-stat="numOcpp16JChargeBoxes">${stats.numOcpp16JChargeBoxes}</span>
 			</span>
 		</span>
 	</a>
@@ -63,15 +80,36 @@
 		<span class="baseTable">
 			<span class="baseRow">
 				<span class="baseCell">Today :</span>
-				<span class="baseCell formatNumber">${stats.heartbeatToday}</span>
+				<span class="baseCell formatNumber" data-stat="heartbeatToday">${stats.heartbeatToday}</span>
 			</span>
 			<span class="baseRow">
 				<span class="baseCell">Yesterday :</span>
-				<span class="baseCell formatNumber">${stats.heartbeatYesterday}</span>
+				<span class="baseCell formatNumber" data-stat="heartbeatYesterday">${stats.heartbeatYesterday}</span>
 			</span>
 			<span class="baseRow">
 				<span class="baseCell">Earlier :</span>
-				<span class="baseCell formatNumber">${stats.heartbeatEarlier}</span>
+				<span class="baseCell formatNumber" data-stat="heartbeatEarlier">${stats.heartbeatEarlier}</span>
+			</span>
+		</span>
+	</a>
+	<a class="tileRow1" href="${ctxPath}/manager/chargepoints">
+		Boot Notifications
+		<span class="baseTable">
+			<span class="baseRow">
+				<span class="baseCell">Rate (per s) :</span>
+				<span class="baseCell">${stats.bootPacing.acceptedRate}<c:if test="${stats.bootPacing.enabled}"> / ${stats.bootPacing.ratePerSecond}</c:if></span>
+			</span>
+			<span class="baseRow">
+				<span class="baseCell">Accepted :</span>
+				<span class="baseCell formatNumber" data-stat="bootPacing.acceptedCount">${stats.bootPacing.acceptedCount}</span>
+			</span>
+			<span class="baseRow">
+				<span class="baseCell">Pending :</span>
+				<span class="baseCell formatNumber" data-stat="bootPacing.pendingCount">${stats.bootPacing.pendingCount}</span>
+			</span>
+			<span class="baseRow">
+				<span class="baseCell">Waiting :</span>
+				<span class="baseCell formatNumber" data-stat="bootPacing.waitingCount">${stats.bootPacing.waitingCount}</span>
 			</span>
 		</span>
 	</a>
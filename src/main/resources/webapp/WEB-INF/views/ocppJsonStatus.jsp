@@ -39,6 +39,9 @@ Connection Status for JSON Charge Points
                 <th data-sort="string">OCPP Version</th>
                 <th data-sort="date">Connected Since</th>
                 <th data-sort="string">Connection Duration</th>
+                <th data-sort="string">Call Outstanding</th>
+                <th data-sort="int">Waiting Calls</th>
+                <th data-sort="int">Longest Wait (s)</th>
             </tr>
         </thead>
         <tbody>
@@ -47,6 +50,9 @@ Connection Status for JSON Charge Points
                 <td>${s.version.value}</td>
                 <td data-sort-value="${s.connectedSinceDT.millis}">${s.connectedSince}</td>
                 <td>${s.connectionDuration}</td>
+                <td>${s.callOutstanding}</td>
+                <td>${s.waitingCallCount}</td>
+                <td>${s.longestCallWaitInSeconds}</td>
             </tr>
         </c:forEach>
         </tbody>
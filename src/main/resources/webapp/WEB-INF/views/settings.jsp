@@ -28,6 +28,15 @@
         </ul>
     </div>
 </spring:hasBindErrors>
+<spring:hasBindErrors name="trafficLogForm">
+    <div class="error">
+        <ul>
+            <c:forEach var="error" items="${errors.allErrors}">
+                <li>${error.defaultMessage}</li>
+            </c:forEach>
+        </ul>
+    </div>
+</spring:hasBindErrors>
 <div class="content">
 <form:form action="${ctxPath}/manager/settings" modelAttribute="settingsForm">
 
@@ -83,6 +92,42 @@
             </td></tr>
     </table>
 
+</form:form>
+
+<br>
+
+<form:form action="${ctxPath}/manager/settings/traffic-log" modelAttribute="trafficLogForm">
+
+    <section><span>
+        OCPP-J Traffic Logging
+        <a class="tooltip" href="#"><img src="${ctxPath}/static/images/info.png" style="vertical-align:middle">
+            <span>Changes are effective immediately, but are not persisted. After a restart, the default level from
+                the configuration file is used.</span>
+        </a>
+    </span></section>
+    <table class="userInputFullPage">
+        <tr><td>Default Level:</td><td>
+            <form:select path="defaultLevel">
+                <form:options items="${trafficLogLevels}"/>
+            </form:select>
+        </td></tr>
+        <tr><td><i>
+            OFF: Messages are not logged.<br>
+            HEADERS: Only message type, message id and action are logged, without the payload.<br>
+            FULL: Messages are logged as they are.
+        </i></td><td></td></tr>
+        <tr><td>Level per Charge Point:</td><td><form:textarea path="chargeBoxLevels"/></td></tr>
+        <tr><td>Level per Action:</td><td><form:textarea path="actionLevels"/></td></tr>
+        <tr><td><i>
+            One entry per line in the format <b>key=LEVEL</b>, e.g. <b>Heartbeat=OFF</b>.<br>
+            The level of a charge point takes precedence over the level of an action.
+        </i></td><td></td></tr>
+        <tr><td></td>
+            <td id="add_space">
+                <input type="submit" value="Change">
+            </td></tr>
+    </table>
+
 </form:form>
 </div>
 <%@ include file="00-footer.jsp" %>
\ No newline at end of file
@@ -26,12 +26,22 @@
 </script>
 <div class="content">
     <section><span>
-        Request Tasks <a class="tooltip" href="#"><img src="${ctxPath}/static/images/info.png" style="vertical-align:middle"><span>Click on Task IDs for detailed task information.</span></a>
+        Request Tasks <a class="tooltip" href="#"><img src="${ctxPath}/static/images/info.png" style="vertical-align:middle"><span>Click on Task IDs for detailed task information. The details of finished tasks are only kept for a limited time.</span></a>
     </span></section>
     <form:form action="${ctxPath}/manager/operations/tasks">
         <input type="submit" value="Delete Finished"/>
     </form:form>
     <br>
+    <div>
+        ${taskCount} tasks, page ${page + 1} of ${pageCount}
+        <c:if test="${page > 0}">
+            | <a href="${ctxPath}/manager/operations/tasks?page=${page - 1}">Newer</a>
+        </c:if>
+        <c:if test="${page + 1 < pageCount}">
+            | <a href="${ctxPath}/manager/operations/tasks?page=${page + 1}">Older</a>
+        </c:if>
+    </div>
+    <br>
     <table class="res">
         <thead>
             <tr>
@@ -28,6 +28,7 @@ import de.rwth.idsg.steve.repository.dto.Transaction;
 import de.rwth.idsg.steve.repository.dto.TransactionDetails;
 import de.rwth.idsg.steve.service.CentralSystemService16_Service;
 import de.rwth.idsg.steve.utils.__DatabasePreparer__;
+import jooq.steve.db.tables.records.OcppTagActivityRecord;
 import jooq.steve.db.tables.records.TransactionRecord;
 import lombok.extern.slf4j.Slf4j;
 import ocpp.cs._2015._10.AuthorizationStatus;
@@ -208,6 +209,34 @@ public class OperationalTestSoapOCPP16 {
         Assertions.assertFalse(__DatabasePreparer__.getOcppTagRecord(REGISTERED_OCPP_TAG).getInTransaction());
     }
 
+    /**
+     * The transactions of a deleted charge box are deleted with it. Its active transactions must not block their tags
+     * with CONCURRENT_TX afterwards.
+     */
+    @Test
+    public void testDeleteChargePointWithActiveTransaction() {
+        CentralSystemService client = getForOcpp16(path);
+
+        StartTransactionResponse start = client.startTransaction(
+                new StartTransactionRequest()
+                        .withConnectorId(2)
+                        .withIdTag(REGISTERED_OCPP_TAG)
+                        .withTimestamp(DateTime.now())
+                        .withMeterStart(0),
+                REGISTERED_CHARGE_BOX_ID
+        );
+
+        Assertions.assertTrue(start.getTransactionId() > 0);
+        Assertions.assertTrue(__DatabasePreparer__.getOcppTagRecord(REGISTERED_OCPP_TAG).getInTransaction());
+
+        __DatabasePreparer__.deleteChargePoint(REGISTERED_CHARGE_BOX_ID);
+
+        OcppTagActivityRecord tag = __DatabasePreparer__.getOcppTagRecord(REGISTERED_OCPP_TAG);
+        Assertions.assertEquals(0L, tag.getActiveTransactionCount().longValue());
+        Assertions.assertFalse(tag.getInTransaction());
+        Assertions.assertTrue(__DatabasePreparer__.getTransactionRecords().isEmpty());
+    }
+
     /**
      * https://github.com/steve-community/steve/issues/217
      * https://github.com/steve-community/steve/issues/219
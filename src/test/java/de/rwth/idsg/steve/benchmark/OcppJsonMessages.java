@@ -0,0 +1,129 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.benchmark;
+
+import de.rwth.idsg.steve.SteveException;
+import de.rwth.idsg.steve.ocpp.OcppVersion;
+import de.rwth.idsg.steve.ocpp.ws.TypeStore;
+import de.rwth.idsg.steve.ocpp.ws.ocpp12.Ocpp12TypeStore;
+import de.rwth.idsg.steve.ocpp.ws.ocpp15.Ocpp15TypeStore;
+import de.rwth.idsg.steve.ocpp.ws.ocpp16.Ocpp16TypeStore;
+
+import java.util.StringJoiner;
+
+/**
+ * Representative OCPP-J messages of a charging station, as they arrive at the server.
+ *
+ * @since 17.10.2026
+ */
+public final class OcppJsonMessages {
+
+    public static final String CHARGE_BOX_ID = "benchmark-cp";
+    public static final String MESSAGE_ID = "f5b1ad64-1c2e-4b8b-9f0a-0d2f3e6b1a77";
+
+    private static final String TIMESTAMP = "\"2026-10-17T10:15:30.000Z\"";
+
+    // number of sampled values in MeterValues. typical for a 3-phase station reporting energy, power, current, voltage
+    private static final int SAMPLED_VALUE_COUNT = 12;
+
+    private OcppJsonMessages() { }
+
+    public static TypeStore typeStore(OcppVersion version) {
+        switch (version) {
+            case V_12:
+                return Ocpp12TypeStore.INSTANCE;
+            case V_15:
+                return Ocpp15TypeStore.INSTANCE;
+            case V_16:
+                return Ocpp16TypeStore.INSTANCE;
+            default:
+                throw new SteveException("Unknown enum type");
+        }
+    }
+
+    public static String call(OcppVersion version, String action) {
+        return "[2,\"" + MESSAGE_ID + "\",\"" + action + "\"," + callPayload(version, action) + "]";
+    }
+
+    /**
+     * Response of a station to ChangeAvailability, which exists in all versions with the same structure
+     */
+    public static String changeAvailabilityResult() {
+        return "[3,\"" + MESSAGE_ID + "\",{\"status\":\"Accepted\"}]";
+    }
+
+    private static String callPayload(OcppVersion version, String action) {
+        switch (action) {
+            case "BootNotification":
+                return "{\"chargePointVendor\":\"vendor\",\"chargePointModel\":\"model\","
+                    + "\"chargePointSerialNumber\":\"serial-1\",\"firmwareVersion\":\"1.0.0\","
+                    + "\"meterType\":\"meter\",\"meterSerialNumber\":\"meter-1\"}";
+
+            case "Heartbeat":
+                return "{}";
+
+            case "StatusNotification":
+                if (version == OcppVersion.V_16) {
+                    return "{\"connectorId\":1,\"errorCode\":\"NoError\",\"status\":\"Charging\",\"timestamp\":"
+                        + TIMESTAMP + "}";
+                }
+                return "{\"connectorId\":1,\"errorCode\":\"NoError\",\"status\":\"Available\"}";
+
+            case "StartTransaction":
+                return "{\"connectorId\":1,\"idTag\":\"TAG-1\",\"timestamp\":" + TIMESTAMP + ",\"meterStart\":1000}";
+
+            case "MeterValues":
+                return meterValuesPayload(version);
+
+            default:
+                throw new SteveException("Unknown action: %s", action);
+        }
+    }
+
+    private static String meterValuesPayload(OcppVersion version) {
+        StringJoiner values = new StringJoiner(",");
+        for (int i = 0; i < SAMPLED_VALUE_COUNT; i++) {
+            String value = String.valueOf(1000 + i);
+            switch (version) {
+                case V_12:
+                    values.add("{\"timestamp\":" + TIMESTAMP + ",\"value\":" + value + "}");
+                    break;
+                case V_15:
+                case V_16:
+                    values.add("{\"value\":\"" + value + "\",\"context\":\"Sample.Periodic\",\"format\":\"Raw\","
+                        + "\"measurand\":\"Energy.Active.Import.Register\",\"location\":\"Outlet\",\"unit\":\"Wh\"}");
+                    break;
+                default:
+                    throw new SteveException("Unknown enum type");
+            }
+        }
+
+        String prefix = "{\"connectorId\":1,\"transactionId\":1,";
+        switch (version) {
+            case V_12:
+                return prefix + "\"values\":[" + values + "]}";
+            case V_15:
+                return prefix + "\"values\":[{\"timestamp\":" + TIMESTAMP + ",\"value\":[" + values + "]}]}";
+            case V_16:
+                return prefix + "\"meterValue\":[{\"timestamp\":" + TIMESTAMP + ",\"sampledValue\":[" + values + "]}]}";
+            default:
+                throw new SteveException("Unknown enum type");
+        }
+    }
+}
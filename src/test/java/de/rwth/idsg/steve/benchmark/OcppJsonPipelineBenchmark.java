@@ -0,0 +1,203 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.benchmark;
+
+import de.rwth.idsg.ocpp.jaxb.ResponseType;
+import de.rwth.idsg.steve.SteveException;
+import de.rwth.idsg.steve.ocpp.OcppVersion;
+import de.rwth.idsg.steve.ocpp.ws.FutureResponseContextStore;
+import de.rwth.idsg.steve.ocpp.ws.TypeStore;
+import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
+import de.rwth.idsg.steve.ocpp.ws.data.FutureResponseContext;
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonCall;
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonResult;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.Deserializer;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and allocation rate of the OCPP-J pipeline stages (Deserializer, Serializer, TypeStore) per message
+ * type and OCPP version. Everything runs in memory, no server or database is needed.
+ *
+ * Run with main(), which enables the GC profiler. The "gc.alloc.rate.norm" column of the results is the number of
+ * allocated bytes per message.
+ *
+ * @since 17.10.2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OcppJsonPipelineBenchmark {
+
+    @Param({"ocpp1.2", "ocpp1.5", "ocpp1.6"})
+    public String version;
+
+    @Param({"BootNotification", "Heartbeat", "StatusNotification", "StartTransaction", "MeterValues"})
+    public String action;
+
+    // false: the payload is read into a JsonNode tree first, as in earlier versions
+    @Param({"true", "false"})
+    public boolean directBinding;
+
+    private TypeStore typeStore;
+    private Deserializer deserializer;
+
+    private String incomingCall;
+    private String incomingResult;
+
+    // outgoing messages with payloads of the same structure as the incoming ones
+    private OcppJsonCall outgoingCall;
+    private OcppJsonResult outgoingResult;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(
+            new OptionsBuilder()
+                .include(OcppJsonPipelineBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()
+        ).run();
+    }
+
+    @Setup
+    public void setup() {
+        OcppVersion ocppVersion = OcppVersion.fromValue(version);
+
+        typeStore = OcppJsonMessages.typeStore(ocppVersion);
+        deserializer = new Deserializer(new SingleCallStore(changeAvailabilityResponseClass(ocppVersion)), typeStore,
+            directBinding);
+
+        incomingCall = OcppJsonMessages.call(ocppVersion, action);
+        incomingResult = OcppJsonMessages.changeAvailabilityResult();
+
+        // this also verifies the test messages, since the setup should fail if they are not valid
+        outgoingCall = (OcppJsonCall) deserializeCall().getIncomingMessage();
+        if (outgoingCall == null) {
+            throw new SteveException("Message could not be deserialized: %s", incomingCall);
+        }
+        outgoingResult = (OcppJsonResult) deserializeResult().getIncomingMessage();
+    }
+
+    @Benchmark
+    public CommunicationContext deserializeCall() {
+        CommunicationContext context = new CommunicationContext(null, OcppJsonMessages.CHARGE_BOX_ID);
+        context.setIncomingString(incomingCall);
+        deserializer.accept(context);
+        return context;
+    }
+
+    @Benchmark
+    public CommunicationContext deserializeResult() {
+        CommunicationContext context = new CommunicationContext(null, OcppJsonMessages.CHARGE_BOX_ID);
+        context.setIncomingString(incomingResult);
+        deserializer.accept(context);
+        return context;
+    }
+
+    @Benchmark
+    public String serializeCall() {
+        CommunicationContext context = new CommunicationContext(null, OcppJsonMessages.CHARGE_BOX_ID);
+        context.setOutgoingMessage(outgoingCall);
+        Serializer.INSTANCE.accept(context);
+        return context.getOutgoingString();
+    }
+
+    @Benchmark
+    public String serializeResult() {
+        CommunicationContext context = new CommunicationContext(null, OcppJsonMessages.CHARGE_BOX_ID);
+        context.setOutgoingMessage(outgoingResult);
+        Serializer.INSTANCE.accept(context);
+        return context.getOutgoingString();
+    }
+
+    @Benchmark
+    public Object typeStoreFindRequestClass() {
+        return typeStore.findRequestClass(action);
+    }
+
+    private static Class<? extends ResponseType> changeAvailabilityResponseClass(OcppVersion version) {
+        switch (version) {
+            case V_12:
+                return ocpp.cp._2010._08.ChangeAvailabilityResponse.class;
+            case V_15:
+                return ocpp.cp._2012._06.ChangeAvailabilityResponse.class;
+            case V_16:
+                return ocpp.cp._2015._10.ChangeAvailabilityResponse.class;
+            default:
+                throw new SteveException("Unknown enum type");
+        }
+    }
+
+    /**
+     * Every incoming result/error is treated as the response to the same outstanding call, which is never removed.
+     */
+    private static class SingleCallStore implements FutureResponseContextStore {
+
+        private final FutureResponseContext context;
+
+        private SingleCallStore(Class<? extends ResponseType> responseClass) {
+            this.context = new FutureResponseContext(null, responseClass, OcppJsonMessages.CHARGE_BOX_ID,
+                "ChangeAvailability");
+        }
+
+        @Override
+        public void addSession(WebSocketSession session) { }
+
+        @Override
+        public void removeSession(WebSocketSession session) { }
+
+        @Override
+        public void add(WebSocketSession session, String messageId, FutureResponseContext context) { }
+
+        @Override
+        public FutureResponseContext get(WebSocketSession session, String messageId) {
+            return context;
+        }
+
+        @Override
+        public Map<String, Integer> getInFlightCounts() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public long getTimedOutCount() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.benchmark;
+
+import de.rwth.idsg.ocpp.jaxb.RequestType;
+import de.rwth.idsg.steve.SteveException;
+import de.rwth.idsg.steve.ocpp.OcppVersion;
+import de.rwth.idsg.steve.ocpp.converter.Server15to16;
+import de.rwth.idsg.steve.ocpp.converter.Server15to16Impl;
+import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonCall;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.Deserializer;
+import ocpp.cs._2012._06.BootNotificationRequest;
+import ocpp.cs._2012._06.HeartbeatRequest;
+import ocpp.cs._2012._06.MeterValuesRequest;
+import ocpp.cs._2012._06.StartTransactionRequest;
+import ocpp.cs._2012._06.StatusNotificationRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and allocation rate of converting incoming OCPP 1.5 requests to 1.6, which happens for every message
+ * of a 1.5 station in addition to the pipeline stages of {@link OcppJsonPipelineBenchmark}.
+ *
+ * @since 17.10.2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Server15to16Benchmark {
+
+    private final Server15to16 server15to16 = Server15to16Impl.SINGLETON;
+
+    @Param({"BootNotification", "Heartbeat", "StatusNotification", "StartTransaction", "MeterValues"})
+    public String action;
+
+    private RequestType request;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(
+            new OptionsBuilder()
+                .include(Server15to16Benchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()
+        ).run();
+    }
+
+    @Setup
+    public void setup() {
+        OcppVersion version = OcppVersion.V_15;
+        Deserializer deserializer = new Deserializer(null, OcppJsonMessages.typeStore(version));
+
+        CommunicationContext context = new CommunicationContext(null, OcppJsonMessages.CHARGE_BOX_ID);
+        context.setIncomingString(OcppJsonMessages.call(version, action));
+        deserializer.accept(context);
+
+        if (!(context.getIncomingMessage() instanceof OcppJsonCall call)) {
+            throw new SteveException("Message could not be deserialized: %s", context.getIncomingString());
+        }
+        request = call.getPayload();
+    }
+
+    @Benchmark
+    public RequestType convertRequest() {
+        if (request instanceof BootNotificationRequest r) {
+            return server15to16.convertRequest(r);
+        } else if (request instanceof HeartbeatRequest r) {
+            return server15to16.convertRequest(r);
+        } else if (request instanceof StatusNotificationRequest r) {
+            return server15to16.convertRequest(r);
+        } else if (request instanceof StartTransactionRequest r) {
+            return server15to16.convertRequest(r);
+        } else if (request instanceof MeterValuesRequest r) {
+            return server15to16.convertRequest(r);
+        } else {
+            throw new SteveException("Unexpected request type: %s", request.getClass());
+        }
+    }
+}
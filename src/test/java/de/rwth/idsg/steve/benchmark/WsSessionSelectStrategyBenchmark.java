@@ -0,0 +1,213 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.benchmark;
+
+import de.rwth.idsg.steve.ocpp.ws.custom.WsSessionSelectStrategy;
+import de.rwth.idsg.steve.ocpp.ws.custom.WsSessionSelectStrategyEnum;
+import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
+import de.rwth.idsg.steve.ocpp.ws.data.SessionLoad;
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Session selection for a station with several parallel connections.
+ *
+ * selectConcurrently measures the read path, with all threads selecting from the same sessions. simulate runs a
+ * simulation in virtual time: Calls arrive at 80% of the total capacity of the sessions, and session i answers a call
+ * after (i + 1) * 10 ms, one call after the other. At the end of a trial, it prints the share of the calls per
+ * session, the rejected calls (more than 100 pending, the default of ocpp.call.queue.max-depth) and the mean time
+ * until a call is answered. This shows how evenly, and how well, the load is spread.
+ *
+ * @since 17.10.2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WsSessionSelectStrategyBenchmark {
+
+    private static final long BASE_ROUND_TRIP_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final double UTILIZATION = 0.8;
+    private static final int MAX_PENDING_CALLS = 100;
+
+    @Param({"ALWAYS_LAST", "ROUND_ROBIN", "LEAST_OUTSTANDING", "LATENCY_WEIGHTED"})
+    public String strategy;
+
+    @Param({"2", "4", "8"})
+    public int sessionCount;
+
+    private WsSessionSelectStrategy selectStrategy;
+    private Deque<SessionContext> sessionContexts;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(
+            new OptionsBuilder()
+                .include(WsSessionSelectStrategyBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+
+    @Setup
+    public void setup() {
+        selectStrategy = WsSessionSelectStrategyEnum.fromName(strategy);
+        sessionContexts = createSessionContexts(sessionCount);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public WebSocketSession selectConcurrently() {
+        return selectStrategy.getSession(sessionContexts);
+    }
+
+    @Benchmark
+    public WebSocketSession simulate(Simulation simulation) {
+        return simulation.next();
+    }
+
+    private static Deque<SessionContext> createSessionContexts(int count) {
+        Deque<SessionContext> contexts = new ArrayDeque<>();
+        for (int i = 0; i < count; i++) {
+            contexts.add(new SessionContext(mock(WebSocketSession.class), DateTime.now(), new SessionLoad()));
+        }
+        return contexts;
+    }
+
+    @State(Scope.Thread)
+    public static class Simulation {
+
+        private String strategyName;
+        private WsSessionSelectStrategy selectStrategy;
+        private Deque<SessionContext> sessionContexts;
+
+        private final Map<WebSocketSession, Integer> indexes = new IdentityHashMap<>();
+        private SessionLoad[] loads;
+        private long[] roundTripNanos;
+
+        // per session: virtual times at which the pending calls are answered
+        private ArrayDeque<Long>[] completions;
+
+        private long interArrivalNanos;
+        private long now;
+
+        private long[] selectedCounts;
+        private long rejectedCount;
+        private long acceptedCount;
+        private long latencyNanosSum;
+
+        @Setup(Level.Trial)
+        @SuppressWarnings("unchecked")
+        public void setup(WsSessionSelectStrategyBenchmark benchmark) {
+            int count = benchmark.sessionCount;
+
+            strategyName = benchmark.strategy;
+            selectStrategy = WsSessionSelectStrategyEnum.fromName(benchmark.strategy);
+            sessionContexts = createSessionContexts(count);
+
+            loads = new SessionLoad[count];
+            roundTripNanos = new long[count];
+            completions = new ArrayDeque[count];
+            selectedCounts = new long[count];
+
+            double callsPerNano = 0;
+            int i = 0;
+            for (SessionContext context : sessionContexts) {
+                indexes.put(context.getSession(), i);
+                loads[i] = context.getLoad();
+                roundTripNanos[i] = BASE_ROUND_TRIP_NANOS * (i + 1);
+                completions[i] = new ArrayDeque<>();
+                callsPerNano += 1.0 / roundTripNanos[i];
+                i++;
+            }
+            interArrivalNanos = (long) (1 / (callsPerNano * UTILIZATION));
+        }
+
+        @TearDown(Level.Trial)
+        public void report() {
+            long total = 0;
+            for (long selected : selectedCounts) {
+                total += selected;
+            }
+
+            StringBuilder shares = new StringBuilder();
+            for (long selected : selectedCounts) {
+                shares.append(String.format(" %.1f%%", 100.0 * selected / total));
+            }
+
+            System.out.printf("%n%s with %d sessions: calls per session%s, rejected %.1f%%, mean latency %.1f ms%n",
+                strategyName, selectedCounts.length, shares, 100.0 * rejectedCount / total,
+                acceptedCount == 0 ? 0 : latencyNanosSum / (double) acceptedCount / TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        private WebSocketSession next() {
+            now += interArrivalNanos;
+
+            for (int i = 0; i < completions.length; i++) {
+                while (!completions[i].isEmpty() && completions[i].peekFirst() <= now) {
+                    completions[i].pollFirst();
+                    loads[i].callCompleted(roundTripNanos[i]);
+                }
+            }
+
+            WebSocketSession session = selectStrategy.getSession(sessionContexts);
+            int i = indexes.get(session);
+            selectedCounts[i]++;
+
+            if (loads[i].getPendingCallCount() >= MAX_PENDING_CALLS) {
+                rejectedCount++;
+                return session;
+            }
+
+            // one call after the other: starts after the last pending one is answered
+            long start = completions[i].isEmpty() ? now : completions[i].peekLast();
+            long completion = start + roundTripNanos[i];
+
+            loads[i].callSubmitted();
+            completions[i].addLast(completion);
+            acceptedCount++;
+            latencyNanosSum += completion - now;
+            return session;
+        }
+    }
+}
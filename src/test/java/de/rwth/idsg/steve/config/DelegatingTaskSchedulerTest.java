@@ -0,0 +1,73 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @since 17.10.2026
+ */
+public class DelegatingTaskSchedulerTest {
+
+    /**
+     * A scheduler with a thread per run (as in virtual threads mode, but with platform threads here) starts the runs
+     * of a fixed rate task on time, even if the previous one is still running.
+     */
+    @Test
+    public void testFixedRateDoesNotOverlap() throws Exception {
+        SimpleAsyncTaskScheduler delegate = new SimpleAsyncTaskScheduler();
+        delegate.setTaskTerminationTimeout(5_000);
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger runCount = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(3);
+
+        try (DelegatingTaskScheduler scheduler = new DelegatingTaskScheduler(delegate)) {
+            // each run takes 10 periods
+            ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                    runCount.incrementAndGet();
+                    done.countDown();
+                }
+            }, Instant.now(), Duration.ofMillis(10));
+
+            Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+            future.cancel(false);
+        }
+
+        Assertions.assertEquals(1, maxRunning.get());
+        Assertions.assertTrue(runCount.get() >= 3);
+    }
+}
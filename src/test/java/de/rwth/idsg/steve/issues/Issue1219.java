@@ -24,10 +24,15 @@ import de.rwth.idsg.steve.repository.dto.OcppTag;
 import de.rwth.idsg.steve.repository.dto.Transaction;
 import de.rwth.idsg.steve.repository.dto.UpdateTransactionParams;
 import de.rwth.idsg.steve.repository.impl.AddressRepositoryImpl;
+import de.rwth.idsg.steve.repository.impl.ChargeBoxHeartbeatBuffer;
 import de.rwth.idsg.steve.repository.impl.ChargePointRepositoryImpl;
+import de.rwth.idsg.steve.repository.impl.ConnectorPkCache;
+import de.rwth.idsg.steve.repository.impl.MeterValueIngestionQueue;
 import de.rwth.idsg.steve.repository.impl.OcppServerRepositoryImpl;
 import de.rwth.idsg.steve.repository.impl.OcppTagRepositoryImpl;
+import de.rwth.idsg.steve.repository.impl.RegistrationStatusCache;
 import de.rwth.idsg.steve.repository.impl.ReservationRepositoryImpl;
+import de.rwth.idsg.steve.repository.impl.StatisticsCache;
 import de.rwth.idsg.steve.repository.impl.TransactionRepositoryImpl;
 import de.rwth.idsg.steve.web.dto.OcppTagForm;
 import de.rwth.idsg.steve.web.dto.OcppTagQueryForm;
@@ -91,7 +96,7 @@ public class Issue1219 {
     }
 
     private void realTest() {
-        var repository = new OcppTagRepositoryImpl(ctx);
+        var repository = new OcppTagRepositoryImpl(ctx, statisticsCache());
 
         long start = System.currentTimeMillis();
         List<OcppTag.OcppTagOverview> values = repository.getOverview(new OcppTagQueryForm());
@@ -101,7 +106,12 @@ public class Issue1219 {
     }
 
     private List<Integer> insertStopTransactions(List<Integer> insertedTransactionIds) {
-        var ocppServerRepository = new OcppServerRepositoryImpl(ctx, new ReservationRepositoryImpl(ctx));
+        var connectorPkCache = new ConnectorPkCache(ctx);
+        var statisticsCache = statisticsCache();
+        var ocppServerRepository = new OcppServerRepositoryImpl(ctx,
+            new ReservationRepositoryImpl(ctx, statisticsCache),
+            new ChargeBoxHeartbeatBuffer(ctx, null), new MeterValueIngestionQueue(ctx, connectorPkCache),
+            connectorPkCache, statisticsCache);
         var transactionRepository = new TransactionRepositoryImpl(ctx);
 
         List<Integer> stopped = new ArrayList<>();
@@ -132,7 +142,11 @@ public class Issue1219 {
     }
 
     private List<Integer> insertStartTransactions(int count, List<String> ocppTags, List<String> chargeBoxIds) {
-        var repository = new OcppServerRepositoryImpl(ctx, new ReservationRepositoryImpl(ctx));
+        var connectorPkCache = new ConnectorPkCache(ctx);
+        var statisticsCache = statisticsCache();
+        var repository = new OcppServerRepositoryImpl(ctx, new ReservationRepositoryImpl(ctx, statisticsCache),
+            new ChargeBoxHeartbeatBuffer(ctx, null), new MeterValueIngestionQueue(ctx, connectorPkCache),
+            connectorPkCache, statisticsCache);
 
         List<Integer> transactionIds = new ArrayList<>();
         for (int i = 0; i < count; i++) {
@@ -153,7 +167,9 @@ public class Issue1219 {
     }
 
     private List<String> insertChargeBoxes(int count) {
-        var repository = new ChargePointRepositoryImpl(ctx, new AddressRepositoryImpl());
+        var repository = new ChargePointRepositoryImpl(ctx, new AddressRepositoryImpl(),
+            new ChargeBoxHeartbeatBuffer(ctx, null), new ConnectorPkCache(ctx), statisticsCache(),
+            new RegistrationStatusCache());
 
         List<String> ids = IntStream.range(0, count).mapToObj(val -> UUID.randomUUID().toString()).collect(Collectors.toList());
         repository.addChargePointList(ids);
@@ -162,7 +178,7 @@ public class Issue1219 {
     }
 
     private List<String> insertOcppTags(int count) {
-        var repository = new OcppTagRepositoryImpl(ctx);
+        var repository = new OcppTagRepositoryImpl(ctx, statisticsCache());
 
         List<String> idTags = IntStream.range(0, count).mapToObj(val -> UUID.randomUUID().toString()).collect(Collectors.toList());
         List<String> insertedTags = new ArrayList<>();
@@ -187,6 +203,10 @@ public class Issue1219 {
         return insertedTags;
     }
 
+    private StatisticsCache statisticsCache() {
+        return new StatisticsCache(ctx, new ChargeBoxHeartbeatBuffer(ctx, null), null);
+    }
+
     private static String getRandomParentIdTag(String current, List<String> source) {
         if (source.isEmpty()) {
             return null;
@@ -0,0 +1,69 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @since 17.10.2026
+ */
+public class PrometheusTextWriterTest {
+
+    @Test
+    public void testSample() {
+        String text = new PrometheusTextWriter()
+            .header("steve_x", "gauge", "Some value")
+            .sample("steve_x", 3)
+            .sample("steve_x", 0.5, "a", "b\"c", "d", "e")
+            .toString();
+
+        Assertions.assertEquals("""
+            # HELP steve_x Some value
+            # TYPE steve_x gauge
+            steve_x 3
+            steve_x{a="b\\"c",d="e"} 0.5
+            """, text);
+    }
+
+    @Test
+    public void testHistogram() {
+        Histogram histogram = new Histogram();
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(5));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(200));
+        histogram.record(TimeUnit.MINUTES.toNanos(2));
+
+        String text = new PrometheusTextWriter()
+            .histogram("steve_y_seconds", histogram, "action", "Heartbeat")
+            .toString();
+
+        // the bounds are inclusive
+        Assertions.assertTrue(text.contains("steve_y_seconds_bucket{action=\"Heartbeat\",le=\"0.005\"} 2\n"));
+        Assertions.assertTrue(text.contains("steve_y_seconds_bucket{action=\"Heartbeat\",le=\"0.1\"} 2\n"));
+        Assertions.assertTrue(text.contains("steve_y_seconds_bucket{action=\"Heartbeat\",le=\"0.25\"} 3\n"));
+        Assertions.assertTrue(text.contains("steve_y_seconds_bucket{action=\"Heartbeat\",le=\"60.0\"} 3\n"));
+        Assertions.assertTrue(text.contains("steve_y_seconds_bucket{action=\"Heartbeat\",le=\"+Inf\"} 4\n"));
+        Assertions.assertTrue(text.contains("steve_y_seconds_sum{action=\"Heartbeat\"} 120.208\n"));
+        Assertions.assertTrue(text.endsWith("steve_y_seconds_count{action=\"Heartbeat\"} 4\n"));
+        Assertions.assertEquals(4, histogram.getCount());
+    }
+}
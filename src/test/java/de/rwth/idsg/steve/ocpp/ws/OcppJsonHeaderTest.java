@@ -0,0 +1,60 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @since 17.10.2026
+ */
+public class OcppJsonHeaderTest {
+
+    @Test
+    public void testGetAction() {
+        Assertions.assertEquals("Heartbeat", OcppJsonHeader.getAction("[2,\"id-1\",\"Heartbeat\",{}]"));
+        Assertions.assertEquals("Heartbeat", OcppJsonHeader.getAction(" [ 2 , \"id-1\" , \"Heartbeat\" , null ]"));
+
+        // quotes and braces within the message id
+        Assertions.assertEquals("Authorize", OcppJsonHeader.getAction("[2,\"i\\\"d{\",\"Authorize\",{\"idTag\":\"x\"}]"));
+
+        // not a CALL
+        Assertions.assertNull(OcppJsonHeader.getAction("[3,\"id-1\",{\"status\":\"Accepted\"}]"));
+
+        // malformed
+        Assertions.assertNull(OcppJsonHeader.getAction(""));
+        Assertions.assertNull(OcppJsonHeader.getAction("[2,\"id-1"));
+        Assertions.assertNull(OcppJsonHeader.getAction("{\"a\":1}"));
+    }
+
+    @Test
+    public void testGetCallMessageId() {
+        Assertions.assertEquals("id-1", OcppJsonHeader.getCallMessageId("[2,\"id-1\",\"Heartbeat\",{}]"));
+        Assertions.assertNull(OcppJsonHeader.getCallMessageId("[3,\"id-1\",{}]"));
+    }
+
+    @Test
+    public void testWithoutPayload() {
+        Assertions.assertEquals("[2,\"id-1\",\"StatusNotification\",{...17 chars}]",
+            OcppJsonHeader.withoutPayload("[2,\"id-1\",\"StatusNotification\",{\"connectorId\":1}]"));
+
+        Assertions.assertEquals("[2,\"id-1\",\"Heartbeat\",null]",
+            OcppJsonHeader.withoutPayload("[2,\"id-1\",\"Heartbeat\",null]"));
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws;
+
+import de.rwth.idsg.steve.SteveException;
+import de.rwth.idsg.steve.config.DelegatingTaskExecutor;
+import de.rwth.idsg.steve.ocpp.CommunicationTask;
+import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
+import de.rwth.idsg.steve.ocpp.ws.data.FutureResponseContext;
+import de.rwth.idsg.steve.ocpp.ws.data.SessionLoad;
+import de.rwth.idsg.steve.ocpp.ws.pipeline.OutgoingCallPipeline;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @since 17.10.2026
+ */
+public class OutgoingCallQueueTest {
+
+    private final List<String> sentActions = new ArrayList<>();
+    private final List<FutureResponseContext> sentContexts = new ArrayList<>();
+
+    private final WebSocketSession session = mock(WebSocketSession.class);
+    private final SessionLoad load = new SessionLoad();
+    private OutgoingCallQueue queue;
+
+    @BeforeEach
+    public void init() {
+        OutgoingCallPipeline pipeline = mock(OutgoingCallPipeline.class);
+        doAnswer(invocation -> {
+            CommunicationContext context = invocation.getArgument(0);
+            sentActions.add(context.getFutureResponseContext().getAction());
+            sentContexts.add(context.getFutureResponseContext());
+            return null;
+        }).when(pipeline).accept(any());
+
+        queue = new OutgoingCallQueue(pipeline, new DelegatingTaskExecutor(new SyncTaskExecutor()));
+        queue.addSession(session, load);
+    }
+
+    @Test
+    public void testOneOutstandingCallWithPriorities() {
+        queue.submit(context("GetDiagnostics", mock(CommunicationTask.class)));
+        queue.submit(context("ChangeConfiguration", mock(CommunicationTask.class)));
+        queue.submit(context("GetDiagnostics", mock(CommunicationTask.class)));
+        queue.submit(context("RemoteStopTransaction", mock(CommunicationTask.class)));
+
+        Assertions.assertEquals(List.of("GetDiagnostics"), sentActions);
+        Assertions.assertEquals(3, queue.getStats(session).getWaitingCount());
+        Assertions.assertEquals(4, load.getPendingCallCount());
+
+        // a call that is done twice (e.g. response and timeout) releases only one
+        sentContexts.get(0).completed();
+        sentContexts.get(0).completed();
+        Assertions.assertEquals(List.of("GetDiagnostics", "RemoteStopTransaction"), sentActions);
+
+        sentContexts.get(1).completed();
+        sentContexts.get(2).completed();
+        Assertions.assertEquals(
+            List.of("GetDiagnostics", "RemoteStopTransaction", "ChangeConfiguration", "GetDiagnostics"), sentActions);
+
+        sentContexts.get(3).completed();
+        Assertions.assertFalse(queue.getStats(session).isBusy());
+        Assertions.assertEquals(0, load.getPendingCallCount());
+        Assertions.assertEquals(3, queue.getQueuedCount());
+        Assertions.assertEquals(3, queue.getDequeuedCount());
+
+        // idle again: sent right away
+        queue.submit(context("Reset", mock(CommunicationTask.class)));
+        Assertions.assertEquals(5, sentActions.size());
+    }
+
+    @Test
+    public void testRemoveSession() {
+        CommunicationTask outstanding = mock(CommunicationTask.class);
+        CommunicationTask waiting = mock(CommunicationTask.class);
+
+        queue.submit(context("Reset", outstanding));
+        queue.submit(context("Reset", waiting));
+
+        queue.removeSession(session);
+        sentContexts.get(0).completed();
+
+        verify(waiting).failed(eq("cb-1"), any(SteveException.class));
+        Assertions.assertEquals(1, sentActions.size());
+        Assertions.assertNull(queue.getStats(session));
+        Assertions.assertThrows(SteveException.class,
+            () -> queue.submit(context("Reset", mock(CommunicationTask.class))));
+    }
+
+    @Test
+    public void testMaxDepth() {
+        int maxDepth = CONFIG.getOcpp().getCallQueueMaxDepth();
+
+        // the first one is sent, the others wait
+        for (int i = 0; i <= maxDepth; i++) {
+            queue.submit(context("Reset", mock(CommunicationTask.class)));
+        }
+
+        Assertions.assertThrows(SteveException.class,
+            () -> queue.submit(context("Reset", mock(CommunicationTask.class))));
+        Assertions.assertEquals(1, queue.getRejectedCount());
+        Assertions.assertEquals(maxDepth, queue.getWaitingCount());
+    }
+
+    private CommunicationContext context(String action, CommunicationTask task) {
+        CommunicationContext context = new CommunicationContext(session, "cb-1");
+        context.setFutureResponseContext(new FutureResponseContext(task, null, "cb-1", action));
+        return context;
+    }
+}
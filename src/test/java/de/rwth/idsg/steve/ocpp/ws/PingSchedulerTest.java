@@ -0,0 +1,177 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws;
+
+import de.rwth.idsg.steve.config.DelegatingTaskExecutor;
+import de.rwth.idsg.steve.utils.HashedWheelTimer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The timer is a mock, which only records the timeout that the scheduler requests. The test advances the time by
+ * running the recorded task, such that the ticks go through the scheduling of the scheduler itself.
+ *
+ * @since 17.10.2026
+ */
+public class PingSchedulerTest {
+
+    private static final int MAX_MISSED_PONGS = 3;
+    private static final long INTERVAL_IN_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final List<WebSocketSession> closed = new ArrayList<>();
+    private final List<Long> delays = new ArrayList<>();
+
+    private HashedWheelTimer timer;
+    private Runnable pendingTask;
+    private HashedWheelTimer.Timeout pendingTimeout;
+
+    private WebSocketSession session;
+
+    @BeforeEach
+    public void init() {
+        timer = Mockito.mock(HashedWheelTimer.class);
+        Mockito.when(timer.newTimeout(Mockito.any(), Mockito.anyLong(), Mockito.eq(TimeUnit.MILLISECONDS)))
+               .thenAnswer(invocation -> {
+                   Assertions.assertNull(pendingTask, "more than one timeout per session");
+                   pendingTask = invocation.getArgument(0);
+                   pendingTimeout = Mockito.mock(HashedWheelTimer.Timeout.class);
+                   delays.add(invocation.getArgument(1));
+                   return pendingTimeout;
+               });
+
+        session = Mockito.mock(WebSocketSession.class);
+        Mockito.when(session.getId()).thenReturn("session-1");
+    }
+
+    @Test
+    public void testSchedule() {
+        PingScheduler scheduler = createScheduler(MAX_MISSED_PONGS);
+        scheduler.register("cb-1", session, closed::add);
+
+        // the first ping is at a random point within the first interval, the following ones after each interval
+        Assertions.assertEquals(1, delays.size());
+        Assertions.assertTrue(delays.get(0) >= 1 && delays.get(0) <= INTERVAL_IN_MILLIS);
+
+        tick();
+        tick();
+        Assertions.assertEquals(List.of(INTERVAL_IN_MILLIS, INTERVAL_IN_MILLIS), delays.subList(1, 3));
+    }
+
+    @Test
+    public void testDeadPeer() throws Exception {
+        PingScheduler scheduler = createScheduler(MAX_MISSED_PONGS);
+        scheduler.register("cb-1", session, closed::add);
+
+        // the first tick sends the first ping. nothing can be missed before it.
+        tick();
+        Mockito.verify(session, Mockito.times(1)).sendMessage(Mockito.any(PingMessage.class));
+
+        for (int i = 1; i < MAX_MISSED_PONGS; i++) {
+            tick();
+            Assertions.assertTrue(closed.isEmpty(), "closed after " + i + " missed pongs");
+        }
+
+        tick();
+        Assertions.assertEquals(List.of(session), closed);
+        Assertions.assertEquals(1, scheduler.getDeadPeerCount());
+        Assertions.assertEquals(MAX_MISSED_PONGS, scheduler.getSentCount());
+
+        // the session is not pinged or closed again
+        Assertions.assertNull(pendingTask);
+    }
+
+    @Test
+    public void testPongResetsMissedPongs() {
+        PingScheduler scheduler = createScheduler(MAX_MISSED_PONGS);
+        scheduler.register("cb-1", session, closed::add);
+
+        tick();
+        for (int round = 0; round < 5; round++) {
+            // one less than the maximum, then a pong
+            for (int i = 1; i < MAX_MISSED_PONGS; i++) {
+                tick();
+            }
+            scheduler.received(session);
+            tick();
+        }
+        Assertions.assertTrue(closed.isEmpty());
+
+        for (int i = 0; i < MAX_MISSED_PONGS; i++) {
+            tick();
+        }
+        Assertions.assertEquals(List.of(session), closed);
+    }
+
+    @Test
+    public void testDisabled() {
+        PingScheduler scheduler = createScheduler(0);
+        scheduler.register("cb-1", session, closed::add);
+
+        for (int i = 0; i < 10; i++) {
+            tick();
+        }
+        Assertions.assertTrue(closed.isEmpty());
+        Assertions.assertEquals(10, scheduler.getSentCount());
+    }
+
+    @Test
+    public void testUnregister() {
+        PingScheduler scheduler = createScheduler(MAX_MISSED_PONGS);
+        scheduler.register("cb-1", session, closed::add);
+
+        HashedWheelTimer.Timeout timeout = pendingTimeout;
+        scheduler.unregister(session);
+        Mockito.verify(timeout).cancel();
+
+        // a tick that the timer started before the cancellation does nothing
+        tick();
+        Assertions.assertNull(pendingTask);
+        Assertions.assertTrue(closed.isEmpty());
+        Assertions.assertEquals(0, scheduler.getSentCount());
+    }
+
+    /**
+     * Lets the time pass until the timeout of the session expires.
+     */
+    private void tick() {
+        Runnable task = pendingTask;
+        Assertions.assertNotNull(task, "no timeout scheduled");
+        pendingTask = null;
+        task.run();
+    }
+
+    private PingScheduler createScheduler(int maxMissedPongs) {
+        // runs the tasks on the calling thread
+        DelegatingTaskExecutor executor = Mockito.mock(DelegatingTaskExecutor.class);
+        Mockito.doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(executor).execute(Mockito.any());
+
+        return new PingScheduler(executor, timer, INTERVAL_IN_MILLIS, maxMissedPongs);
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static de.rwth.idsg.steve.SteveConfiguration.CONFIG;
+
+/**
+ * @since 17.10.2026
+ */
+public class StationMailboxExecutorTest {
+
+    private StationMailboxExecutor executor;
+
+    @BeforeEach
+    public void init() {
+        Assertions.assertTrue(CONFIG.getOcpp().isWsMailboxEnabled());
+        executor = new StationMailboxExecutor();
+    }
+
+    @AfterEach
+    public void destroy() throws Exception {
+        executor.destroy();
+    }
+
+    @Test
+    public void testOrderPerStation() throws Exception {
+        int stationCount = 10;
+        int messageCount = 1_000;
+
+        List<List<Integer>> results = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(stationCount * messageCount);
+
+        for (int s = 0; s < stationCount; s++) {
+            results.add(Collections.synchronizedList(new ArrayList<>()));
+        }
+
+        for (int i = 0; i < messageCount; i++) {
+            for (int s = 0; s < stationCount; s++) {
+                List<Integer> result = results.get(s);
+                int value = i;
+                boolean accepted = executor.submit("cb-" + s, () -> {
+                    result.add(value);
+                    done.countDown();
+                });
+                if (!accepted) {
+                    // too fast for the workers. wait a bit and try again with the same message
+                    Thread.sleep(1);
+                    s--;
+                }
+            }
+        }
+
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (List<Integer> result : results) {
+            Assertions.assertEquals(messageCount, result.size());
+            for (int i = 0; i < messageCount; i++) {
+                Assertions.assertEquals(i, result.get(i));
+            }
+        }
+
+        StationMailboxExecutor.Stats stats = executor.getStats();
+        Assertions.assertEquals(stationCount * messageCount, stats.getProcessedCount());
+        Assertions.assertEquals(0, stats.getPendingCount());
+    }
+
+    @Test
+    public void testMaxDepth() throws Exception {
+        int maxDepth = CONFIG.getOcpp().getWsMailboxMaxDepth();
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // occupy the mailbox
+        Assertions.assertTrue(executor.submit("cb-1", () -> {
+            started.countDown();
+            await(release);
+        }));
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < maxDepth; i++) {
+            Assertions.assertTrue(executor.submit("cb-1", () -> { }));
+        }
+        Assertions.assertFalse(executor.submit("cb-1", () -> { }));
+
+        // other stations are not affected
+        CountDownLatch other = new CountDownLatch(1);
+        Assertions.assertTrue(executor.submit("cb-2", other::countDown));
+        Assertions.assertTrue(other.await(5, TimeUnit.SECONDS));
+
+        release.countDown();
+
+        Assertions.assertEquals(1, executor.getStats().getRejectedCount());
+    }
+
+    @Test
+    public void testReconnectWhileBusy() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Integer> result = Collections.synchronizedList(new ArrayList<>());
+
+        Assertions.assertTrue(executor.submit("cb-1", () -> {
+            track(running, maxRunning, () -> {
+                started.countDown();
+                await(release);
+                result.add(1);
+            });
+        }));
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // disconnect and reconnect, while the first message is still being processed
+        executor.remove("cb-1");
+        Assertions.assertEquals(1, executor.getStats().getStationCount());
+
+        CountDownLatch done = new CountDownLatch(1);
+        Assertions.assertTrue(executor.submit("cb-1", () -> {
+            track(running, maxRunning, () -> result.add(2));
+            done.countDown();
+        }));
+
+        release.countDown();
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        // the second message was not processed in parallel to the first one
+        Assertions.assertEquals(1, maxRunning.get());
+        Assertions.assertEquals(List.of(1, 2), result);
+
+        // the station is connected again, so the mailbox stays
+        Assertions.assertEquals(1, executor.getStats().getStationCount());
+    }
+
+    @Test
+    public void testRemoveWhenDrained() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Assertions.assertTrue(executor.submit("cb-1", () -> await(release)));
+
+        executor.remove("cb-1");
+        Assertions.assertEquals(1, executor.getStats().getStationCount());
+
+        release.countDown();
+
+        // the mailbox removes itself after the last message
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (executor.getStats().getStationCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        Assertions.assertEquals(0, executor.getStats().getStationCount());
+    }
+
+    private static void track(AtomicInteger running, AtomicInteger maxRunning, Runnable task) {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+            task.run();
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
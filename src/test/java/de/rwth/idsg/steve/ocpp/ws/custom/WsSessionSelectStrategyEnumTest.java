@@ -0,0 +1,106 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws.custom;
+
+import de.rwth.idsg.steve.ocpp.ws.data.SessionContext;
+import de.rwth.idsg.steve.ocpp.ws.data.SessionLoad;
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * @since 17.10.2026
+ */
+public class WsSessionSelectStrategyEnumTest {
+
+    private final SessionContext first = context();
+    private final SessionContext second = context();
+    private final Deque<SessionContext> contexts = new ArrayDeque<>();
+
+    {
+        contexts.add(first);
+        contexts.add(second);
+    }
+
+    @Test
+    public void testRoundRobin() {
+        WsSessionSelectStrategy strategy = WsSessionSelectStrategyEnum.ROUND_ROBIN;
+
+        Assertions.assertSame(first.getSession(), strategy.getSession(contexts));
+        Assertions.assertSame(second.getSession(), strategy.getSession(contexts));
+        Assertions.assertSame(first.getSession(), strategy.getSession(contexts));
+
+        // does not modify the deque
+        Assertions.assertSame(first, contexts.getFirst());
+    }
+
+    @Test
+    public void testLeastOutstanding() {
+        WsSessionSelectStrategy strategy = WsSessionSelectStrategyEnum.LEAST_OUTSTANDING;
+
+        // same count: round robin
+        first.getLoad().callSubmitted();
+        second.getLoad().callSubmitted();
+        Assertions.assertSame(first.getSession(), strategy.getSession(contexts));
+        Assertions.assertSame(second.getSession(), strategy.getSession(contexts));
+
+        first.getLoad().callSubmitted();
+        Assertions.assertSame(second.getSession(), strategy.getSession(contexts));
+        Assertions.assertSame(second.getSession(), strategy.getSession(contexts));
+    }
+
+    @Test
+    public void testLatencyWeighted() {
+        WsSessionSelectStrategy strategy = WsSessionSelectStrategyEnum.LATENCY_WEIGHTED;
+
+        // without measurements, the sessions are tried in turn
+        Assertions.assertSame(first.getSession(), strategy.getSession(contexts));
+        Assertions.assertSame(second.getSession(), strategy.getSession(contexts));
+
+        first.getLoad().callSubmitted();
+        first.getLoad().callCompleted(TimeUnit.MILLISECONDS.toNanos(100));
+        second.getLoad().callSubmitted();
+        second.getLoad().callCompleted(TimeUnit.MILLISECONDS.toNanos(10));
+
+        // 2 pending calls of 10 ms each are still faster than no pending call of 100 ms
+        submit(second.getLoad(), 2);
+        Assertions.assertSame(second.getSession(), strategy.getSession(contexts));
+
+        // 10 pending calls are not
+        submit(second.getLoad(), 8);
+        Assertions.assertSame(first.getSession(), strategy.getSession(contexts));
+    }
+
+    private static void submit(SessionLoad load, int count) {
+        for (int i = 0; i < count; i++) {
+            load.callSubmitted();
+        }
+    }
+
+    private static SessionContext context() {
+        return new SessionContext(mock(WebSocketSession.class), DateTime.now(), new SessionLoad());
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws.pipeline;
+
+import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
+import de.rwth.idsg.steve.ocpp.ws.data.ErrorCode;
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonCall;
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonError;
+import de.rwth.idsg.steve.ocpp.ws.ocpp16.Ocpp16TypeStore;
+import ocpp.cs._2015._10.HeartbeatRequest;
+import ocpp.cs._2015._10.MeterValuesRequest;
+import ocpp.cs._2015._10.SampledValue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+/**
+ * Both binding modes must behave the same.
+ *
+ * @since 17.10.2026
+ */
+public class DeserializerTest {
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testCall(boolean directBinding) {
+        CommunicationContext context = deserialize(directBinding,
+            "[2,\"id-1\",\"MeterValues\",{\"connectorId\":2,\"transactionId\":7,\"meterValue\":[{\"timestamp\":"
+                + "\"2026-10-17T10:15:30.000Z\",\"sampledValue\":[{\"value\":\"1000.5\",\"unit\":\"Wh\"},"
+                + "{\"value\":\"11\",\"measurand\":\"Power.Active.Import\",\"unit\":\"kW\"}]}]}]");
+
+        OcppJsonCall call = (OcppJsonCall) context.getIncomingMessage();
+        Assertions.assertEquals("id-1", call.getMessageId());
+        Assertions.assertEquals("MeterValues", call.getAction());
+
+        MeterValuesRequest request = (MeterValuesRequest) call.getPayload();
+        Assertions.assertEquals(2, request.getConnectorId());
+        Assertions.assertEquals(7, request.getTransactionId());
+
+        List<SampledValue> values = request.getMeterValue().get(0).getSampledValue();
+        Assertions.assertEquals(2, values.size());
+        Assertions.assertEquals("1000.5", values.get(0).getValue());
+        Assertions.assertEquals("11", values.get(1).getValue());
+    }
+
+    /**
+     * https://github.com/steve-community/steve/issues/1109
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testNullPayload(boolean directBinding) {
+        CommunicationContext context = deserialize(directBinding, "[2,\"id-1\",\"Heartbeat\",null]");
+
+        OcppJsonCall call = (OcppJsonCall) context.getIncomingMessage();
+        Assertions.assertInstanceOf(HeartbeatRequest.class, call.getPayload());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testInvalidPayload(boolean directBinding) {
+        // transactionId must not be null
+        CommunicationContext context = deserialize(directBinding,
+            "[2,\"id-1\",\"StopTransaction\",{\"transactionId\":null,\"timestamp\":\"2026-10-17T10:15:30.000Z\","
+                + "\"meterStop\":1000}]");
+
+        Assertions.assertNull(context.getIncomingMessage());
+        OcppJsonError error = (OcppJsonError) context.getOutgoingMessage();
+        Assertions.assertEquals("id-1", error.getMessageId());
+        Assertions.assertEquals(ErrorCode.FormationViolation, error.getErrorCode());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testUnknownAction(boolean directBinding) {
+        CommunicationContext context = deserialize(directBinding, "[2,\"id-1\",\"Unknown\",{}]");
+
+        OcppJsonError error = (OcppJsonError) context.getOutgoingMessage();
+        Assertions.assertEquals(ErrorCode.NotImplemented, error.getErrorCode());
+    }
+
+    private static CommunicationContext deserialize(boolean directBinding, String message) {
+        Deserializer deserializer = new Deserializer(null, Ocpp16TypeStore.INSTANCE, directBinding);
+
+        CommunicationContext context = new CommunicationContext(null, "cb-1");
+        context.setIncomingString(message);
+        deserializer.accept(context);
+        return context;
+    }
+}
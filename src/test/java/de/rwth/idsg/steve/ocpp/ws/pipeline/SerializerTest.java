@@ -0,0 +1,102 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.ocpp.ws.pipeline;
+
+import de.rwth.idsg.ocpp.jaxb.ResponseType;
+import de.rwth.idsg.steve.ocpp.ws.data.CommunicationContext;
+import de.rwth.idsg.steve.ocpp.ws.data.ErrorCode;
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonCall;
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonError;
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonMessage;
+import de.rwth.idsg.steve.ocpp.ws.data.OcppJsonResult;
+import ocpp.cp._2015._10.AvailabilityType;
+import ocpp.cp._2015._10.ChangeAvailabilityRequest;
+import ocpp.cp._2015._10.ChangeAvailabilityResponse;
+import ocpp.cp._2015._10.ChangeAvailabilityStatus;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @since 17.10.2026
+ */
+public class SerializerTest {
+
+    @Test
+    public void testCall() {
+        OcppJsonCall call = new OcppJsonCall();
+        call.setMessageId("id-1");
+        call.setAction("ChangeAvailability");
+        call.setPayload(new ChangeAvailabilityRequest()
+            .withConnectorId(1)
+            .withType(AvailabilityType.fromValue("Inoperative")));
+
+        Assertions.assertEquals("[2,\"id-1\",\"ChangeAvailability\",{\"connectorId\":1,\"type\":\"Inoperative\"}]",
+            serialize(call));
+    }
+
+    @Test
+    public void testResult() {
+        OcppJsonResult result = new OcppJsonResult();
+        result.setMessageId("id-1");
+        result.setPayload(new ChangeAvailabilityResponse()
+            .withStatus(ChangeAvailabilityStatus.fromValue("Accepted")));
+
+        Assertions.assertEquals("[3,\"id-1\",{\"status\":\"Accepted\"}]", serialize(result));
+    }
+
+    @Test
+    public void testError() {
+        OcppJsonError error = new OcppJsonError();
+        error.setMessageId("id-1");
+        error.setErrorCode(ErrorCode.NotSupported);
+
+        Assertions.assertEquals("[4,\"id-1\",\"NotSupported\",\"\",{}]", serialize(error));
+
+        error.setErrorDescription("desc");
+        error.setErrorDetails("details");
+
+        Assertions.assertEquals("[4,\"id-1\",\"NotSupported\",\"desc\",{\"errorMsg\":\"details\"}]", serialize(error));
+    }
+
+    @Test
+    public void testResultPayloadError() {
+        OcppJsonResult result = new OcppJsonResult();
+        result.setMessageId("id-1");
+        result.setPayload(new BrokenResponse());
+
+        String str = serialize(result);
+        Assertions.assertTrue(str.startsWith("[4,\"id-1\",\"InternalError\","), str);
+
+        // the buffer must not contain leftovers of the failed attempt
+        testResult();
+    }
+
+    private static String serialize(OcppJsonMessage message) {
+        CommunicationContext context = new CommunicationContext(null, "cb-1");
+        context.setOutgoingMessage(message);
+        Serializer.INSTANCE.accept(context);
+        return context.getOutgoingString();
+    }
+
+    private static class BrokenResponse implements ResponseType {
+        public String getValue() {
+            throw new IllegalStateException("broken");
+        }
+    }
+}
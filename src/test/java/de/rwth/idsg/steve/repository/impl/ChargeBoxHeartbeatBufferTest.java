@@ -0,0 +1,125 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.config.DelegatingTaskScheduler;
+import org.joda.time.DateTime;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @since 17.10.2026
+ */
+public class ChargeBoxHeartbeatBufferTest {
+
+    private final List<String> statements = new ArrayList<>();
+    private boolean failing;
+
+    private ChargeBoxHeartbeatBuffer buffer;
+
+    @BeforeEach
+    public void init() {
+        var connection = new MockConnection(context -> {
+            if (failing) {
+                throw new SQLException("database is down");
+            }
+            statements.add(context.sql());
+            return new MockResult[] {new MockResult(1, null)};
+        });
+
+        buffer = new ChargeBoxHeartbeatBuffer(
+            DSL.using(connection, SQLDialect.MYSQL),
+            Mockito.mock(DelegatingTaskScheduler.class)
+        );
+    }
+
+    @Test
+    public void testLatestWins() {
+        DateTime older = new DateTime(2026, 10, 17, 12, 0);
+        DateTime newer = older.plusSeconds(30);
+
+        buffer.put("cp1", newer);
+        buffer.put("cp1", older);
+
+        Assertions.assertEquals(newer, buffer.getLatest("cp1", null));
+        Assertions.assertEquals(newer, buffer.getLatest("cp1", older));
+
+        // e.g. written by a BootNotification in the meantime
+        DateTime fromDatabase = newer.plusSeconds(1);
+        Assertions.assertEquals(fromDatabase, buffer.getLatest("cp1", fromDatabase));
+        Assertions.assertEquals(fromDatabase, buffer.getLatest("cp2", fromDatabase));
+    }
+
+    @Test
+    public void testFlush() {
+        DateTime now = DateTime.now();
+        buffer.put("cp1", now);
+        buffer.put("cp2", now);
+        buffer.put("cp3", now);
+
+        buffer.flush();
+
+        Assertions.assertEquals(1, statements.size());
+        // the flush must not move a more recent timestamp in database backwards
+        Assertions.assertTrue(statements.get(0).toLowerCase().contains("greatest("));
+        Assertions.assertNull(buffer.getLatest("cp1", null));
+
+        // nothing pending, nothing to write
+        buffer.flush();
+        Assertions.assertEquals(1, statements.size());
+    }
+
+    @Test
+    public void testFlushInBatches() {
+        DateTime now = DateTime.now();
+        for (int i = 0; i < 1001; i++) {
+            buffer.put("cp" + i, now);
+        }
+
+        buffer.flush();
+
+        Assertions.assertEquals(3, statements.size());
+    }
+
+    @Test
+    public void testFailedFlushIsRetried() {
+        DateTime now = DateTime.now();
+        buffer.put("cp1", now);
+
+        failing = true;
+        buffer.flush();
+        Assertions.assertTrue(statements.isEmpty());
+        Assertions.assertEquals(now, buffer.getLatest("cp1", null));
+
+        failing = false;
+        buffer.flush();
+        Assertions.assertEquals(1, statements.size());
+        Assertions.assertNull(buffer.getLatest("cp1", null));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.SteveException;
+import org.jooq.DSLContext;
+import org.jooq.Record1;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static jooq.steve.db.tables.Connector.CONNECTOR;
+
+/**
+ * @since 17.10.2026
+ */
+public class ConnectorPkCacheTest {
+
+    private static final DSLContext CREATE = DSL.using(SQLDialect.MYSQL);
+
+    // the primary key that the SELECT returns, or null if the charge box is not in DB
+    private Integer connectorPkInDb;
+    private int statementCount;
+
+    private ConnectorPkCache cache;
+
+    @BeforeEach
+    public void init() {
+        var connection = new MockConnection(context -> {
+            statementCount++;
+            if (!context.sql().toLowerCase().startsWith("select")) {
+                return new MockResult[] {new MockResult(1, null)};
+            }
+
+            Result<Record1<Integer>> result = CREATE.newResult(CONNECTOR.CONNECTOR_PK);
+            if (connectorPkInDb != null) {
+                Record1<Integer> r = CREATE.newRecord(CONNECTOR.CONNECTOR_PK);
+                r.value1(connectorPkInDb);
+                result.add(r);
+            }
+            return new MockResult[] {new MockResult(result.size(), result)};
+        });
+
+        cache = new ConnectorPkCache(DSL.using(connection, SQLDialect.MYSQL));
+    }
+
+    @Test
+    public void testCached() {
+        connectorPkInDb = 5;
+
+        Assertions.assertEquals(5, cache.get("cp1", 1));
+        // insert ignore and select
+        Assertions.assertEquals(2, statementCount);
+
+        Assertions.assertEquals(5, cache.get("cp1", 1));
+        Assertions.assertEquals(2, statementCount);
+
+        cache.invalidate("cp1");
+        Assertions.assertEquals(5, cache.get("cp1", 1));
+        Assertions.assertEquals(4, statementCount);
+    }
+
+    @Test
+    public void testUnknownChargeBox() {
+        connectorPkInDb = null;
+
+        Assertions.assertThrows(SteveException.class, () -> cache.get("unknown", 1));
+        Assertions.assertThrows(SteveException.class, () -> cache.get("unknown", 1));
+
+        // nothing is cached for it
+        Assertions.assertEquals(4, statementCount);
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import ocpp.cs._2015._10.MeterValue;
+import ocpp.cs._2015._10.SampledValue;
+import org.joda.time.DateTime;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static jooq.steve.db.tables.TransactionStart.TRANSACTION_START;
+
+/**
+ * Tests the batching of the ring buffer consumer. The events are passed to it directly, without a ring buffer.
+ *
+ * @since 17.10.2026
+ */
+public class MeterValueIngestionQueueTest {
+
+    private static final DSLContext CREATE = DSL.using(SQLDialect.MYSQL);
+
+    private static final int CONNECTOR_PK = 7;
+
+    // the number of bind values of each insert statement
+    private final List<Integer> inserts = new ArrayList<>();
+    private boolean failing;
+
+    private MeterValueIngestionQueue queue;
+
+    @TempDir
+    Path journalDir;
+
+    @BeforeEach
+    public void init() {
+        var connection = new MockConnection(context -> {
+            if (failing) {
+                throw new SQLException("database is down");
+            }
+            if (context.sql().toLowerCase().startsWith("insert")) {
+                inserts.add(context.bindings().length);
+            }
+            if (context.sql().toLowerCase().startsWith("select")) {
+                // the transactions are not in DB
+                var result = CREATE.newResult(TRANSACTION_START.TRANSACTION_PK, TRANSACTION_START.CONNECTOR_PK);
+                return new MockResult[] {new MockResult(0, result)};
+            }
+            return new MockResult[] {new MockResult(1, null)};
+        });
+
+        var connectorPkCache = Mockito.mock(ConnectorPkCache.class);
+        Mockito.when(connectorPkCache.get(Mockito.anyString(), Mockito.anyInt())).thenReturn(CONNECTOR_PK);
+        Mockito.when(connectorPkCache.withConnectorPk(Mockito.anyString(), Mockito.anyInt(), Mockito.any()))
+               .thenAnswer(invocation -> invocation.<IntFunction<?>>getArgument(2).apply(CONNECTOR_PK));
+
+        queue = new MeterValueIngestionQueue(DSL.using(connection, SQLDialect.MYSQL), connectorPkCache);
+    }
+
+    @Test
+    public void testFlushSize() {
+        var drainer = queue.new Drainer(5, 60_000);
+
+        drainer.onEvent(event("cp1", 2, null), 0, true);
+        drainer.onEvent(event("cp2", 2, null), 1, true);
+        Assertions.assertTrue(inserts.isEmpty());
+
+        // 6 rows pending: the values of all three messages go into one multi-row insert
+        drainer.onEvent(event("cp3", 2, null), 2, false);
+        Assertions.assertEquals(List.of(6 * 10), inserts);
+
+        var stats = queue.getStats();
+        Assertions.assertEquals(6, stats.getFlushedRowCount());
+        Assertions.assertEquals(1, stats.getFlushedBatchCount());
+        Assertions.assertEquals(0, stats.getFailedBatchCount());
+    }
+
+    @Test
+    public void testFlushLatency() {
+        var drainer = queue.new Drainer(1000, 0);
+
+        // latency is reached, but more events are available in the ring buffer
+        drainer.onEvent(event("cp1", 1, null), 0, false);
+        Assertions.assertTrue(inserts.isEmpty());
+
+        drainer.onEvent(event("cp2", 1, null), 1, true);
+        Assertions.assertEquals(List.of(2 * 10), inserts);
+    }
+
+    @Test
+    public void testFlushOnTimeoutAndShutdown() {
+        var drainer = queue.new Drainer(1000, 60_000);
+
+        drainer.onEvent(event("cp1", 3, null), 0, true);
+        Assertions.assertTrue(inserts.isEmpty());
+
+        drainer.onTimeout(0);
+        Assertions.assertEquals(List.of(3 * 10), inserts);
+
+        // nothing pending, nothing to write
+        drainer.onTimeout(0);
+        Assertions.assertEquals(1, inserts.size());
+
+        drainer.onEvent(event("cp1", 1, null), 1, true);
+        drainer.onShutdown();
+        Assertions.assertEquals(List.of(3 * 10, 10), inserts);
+    }
+
+    @Test
+    public void testJournalIsDeletedAfterFlush() throws IOException {
+        var journal = new MeterValueJournal(journalDir, 2);
+        var drainer = queue.new Drainer(1000, 60_000);
+
+        for (int i = 0; i < 3; i++) {
+            var list = meterValues(1);
+            drainer.onEvent(event("cp" + i, list, journal.append("cp" + i, 1, null, list)), i, true);
+        }
+        Assertions.assertEquals(2, countFiles());
+
+        drainer.onTimeout(2);
+        // the first segment is full and written
+        Assertions.assertEquals(1, countFiles());
+
+        journal.close();
+        Assertions.assertEquals(0, countFiles());
+    }
+
+    @Test
+    public void testOnlyFailedLinesAreKept() throws IOException {
+        var journal = new MeterValueJournal(journalDir, 10);
+        var drainer = queue.new Drainer(1000, 60_000);
+
+        // three messages in one segment. the second one fails.
+        for (int i = 0; i < 3; i++) {
+            failing = (i == 1);
+            var list = meterValues(2);
+            drainer.onEvent(event("cp" + i, list, journal.append("cp" + i, 1, null, list)), i, true);
+            drainer.onTimeout(i);
+        }
+        journal.close();
+
+        Assertions.assertEquals(1, queue.getStats().getFailedBatchCount());
+
+        // the segment is deleted, only the failed message is replayed on the next startup
+        List<Path> leftovers = journal.getLeftovers();
+        Assertions.assertEquals(1, leftovers.size());
+
+        List<MeterValueJournal.Line> lines = journal.read(leftovers.get(0));
+        Assertions.assertEquals(1, lines.size());
+        Assertions.assertEquals("cp1", lines.get(0).getChargeBoxId());
+    }
+
+    @Test
+    public void testUnknownTransactionIsDropped() throws IOException {
+        var journal = new MeterValueJournal(journalDir, 10);
+        var drainer = queue.new Drainer(1000, 60_000);
+
+        var list = meterValues(2);
+        var event = new MeterValueIngestionQueue.MeterValueEvent();
+        event.set("cp1", null, 99, list, journal.append("cp1", null, 99, list));
+        drainer.onEvent(event, 0, true);
+        drainer.onTimeout(0);
+        journal.close();
+
+        // it can never be written. therefore, it is not kept for a replay.
+        Assertions.assertTrue(inserts.isEmpty());
+        Assertions.assertEquals(1, queue.getStats().getDroppedCount());
+        Assertions.assertEquals(0, countFiles());
+    }
+
+    private long countFiles() throws IOException {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return files.count();
+        }
+    }
+
+    private static MeterValueIngestionQueue.MeterValueEvent event(String chargeBoxId, int rowCount,
+                                                                  MeterValueJournal.Segment segment) {
+        return event(chargeBoxId, meterValues(rowCount), segment);
+    }
+
+    private static MeterValueIngestionQueue.MeterValueEvent event(String chargeBoxId, List<MeterValue> list,
+                                                                  MeterValueJournal.Segment segment) {
+        var event = new MeterValueIngestionQueue.MeterValueEvent();
+        event.set(chargeBoxId, 1, null, list, segment);
+        return event;
+    }
+
+    private static List<MeterValue> meterValues(int rowCount) {
+        var meterValue = new MeterValue().withTimestamp(DateTime.now());
+        IntStream.range(0, rowCount)
+                 .forEach(i -> meterValue.withSampledValue(new SampledValue().withValue(Integer.toString(i))));
+        return List.of(meterValue);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * @since 17.10.2026
+ */
+public class RegistrationStatusCacheTest {
+
+    private final RegistrationStatusCache cache = new RegistrationStatusCache();
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    @Test
+    public void testCached() {
+        Function<String, Optional<String>> loader = counting(Optional.of("Accepted"));
+
+        Assertions.assertEquals(Optional.of("Accepted"), cache.get("cp1", loader));
+        Assertions.assertEquals(Optional.of("Accepted"), cache.get("cp1", loader));
+        Assertions.assertEquals(1, loadCount.get());
+
+        Function<String, Optional<String>> unknownLoader = counting(Optional.empty());
+        Assertions.assertEquals(Optional.empty(), cache.get("cp2", unknownLoader));
+        Assertions.assertEquals(Optional.empty(), cache.get("cp2", unknownLoader));
+        Assertions.assertEquals(2, loadCount.get());
+
+        cache.invalidateAll(List.of("cp1", "cp2"));
+        cache.get("cp1", loader);
+        cache.get("cp2", loader);
+        Assertions.assertEquals(4, loadCount.get());
+    }
+
+    @Test
+    public void testLoadBypassesCache() {
+        cache.get("cp1", counting(Optional.empty()));
+
+        // added directly in DB, the negative entry is still there
+        Assertions.assertEquals(Optional.of("Accepted"), cache.load("cp1", counting(Optional.of("Accepted"))));
+        Assertions.assertEquals(Optional.of("Accepted"), cache.get("cp1", counting(Optional.empty())));
+        Assertions.assertEquals(2, loadCount.get());
+    }
+
+    @Test
+    public void testNotCachedIfInvalidatedWhileLoading() {
+        // the loader reads "not found", then the station is added and its entry invalidated
+        Function<String, Optional<String>> racingLoader = id -> {
+            loadCount.incrementAndGet();
+            cache.invalidate(id);
+            return Optional.empty();
+        };
+
+        Assertions.assertEquals(Optional.empty(), cache.get("cp1", racingLoader));
+
+        // the negative result was not cached
+        Assertions.assertEquals(Optional.of("Accepted"), cache.get("cp1", counting(Optional.of("Accepted"))));
+        Assertions.assertEquals(2, loadCount.get());
+    }
+
+    private Function<String, Optional<String>> counting(Optional<String> result) {
+        return id -> {
+            loadCount.incrementAndGet();
+            return result;
+        };
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.repository.impl;
+
+import de.rwth.idsg.steve.config.DelegatingTaskScheduler;
+import de.rwth.idsg.steve.web.dto.Statistics;
+import org.joda.time.DateTime;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static jooq.steve.db.Tables.RESERVATION;
+import static jooq.steve.db.Tables.TRANSACTION;
+import static jooq.steve.db.tables.ChargeBox.CHARGE_BOX;
+import static jooq.steve.db.tables.OcppTag.OCPP_TAG;
+import static jooq.steve.db.tables.User.USER;
+
+/**
+ * The DB returns the rows of the lists below. The heartbeats are not in DB, but in the (mocked) heartbeat buffer.
+ *
+ * @since 17.10.2026
+ */
+public class StatisticsCacheTest {
+
+    private static final DSLContext CREATE = DSL.using(SQLDialect.MYSQL);
+
+    private final List<String> chargeBoxIdsInDb = new ArrayList<>();
+    private final List<String> idTagsInDb = new ArrayList<>();
+    private final List<Integer> userPksInDb = new ArrayList<>();
+    private final List<Integer> activeTransactionPksInDb = new ArrayList<>();
+
+    private final Map<String, DateTime> heartbeats = new HashMap<>();
+
+    // runs while the reload reads from DB
+    private Runnable duringReconcile;
+    private int reconcileCount;
+
+    private DelegatingTaskScheduler scheduler;
+    private StatisticsCache cache;
+
+    @BeforeEach
+    public void init() {
+        var connection = new MockConnection(context -> {
+            String sql = context.sql();
+
+            Result<?> result;
+            if (sql.contains("`charge_box`")) {
+                reconcileCount++;
+                result = result(chargeBoxIdsInDb, CHARGE_BOX.CHARGE_BOX_ID, CHARGE_BOX.LAST_HEARTBEAT_TIMESTAMP);
+            } else if (sql.contains("`ocpp_tag`")) {
+                result = result(idTagsInDb, OCPP_TAG.ID_TAG);
+            } else if (sql.contains("`user`")) {
+                result = result(userPksInDb, USER.USER_PK);
+            } else if (sql.contains("`transaction`")) {
+                if (duringReconcile != null) {
+                    duringReconcile.run();
+                }
+                result = result(activeTransactionPksInDb, TRANSACTION.TRANSACTION_PK);
+            } else {
+                result = CREATE.newResult(RESERVATION.RESERVATION_PK, RESERVATION.EXPIRY_DATETIME);
+            }
+            return new MockResult[] {new MockResult(result.size(), result)};
+        });
+
+        var heartbeatBuffer = Mockito.mock(ChargeBoxHeartbeatBuffer.class);
+        Mockito.when(heartbeatBuffer.getLatest(Mockito.anyString(), Mockito.any()))
+               .thenAnswer(invocation -> heartbeats.get(invocation.<String>getArgument(0)));
+
+        scheduler = Mockito.mock(DelegatingTaskScheduler.class);
+        cache = new StatisticsCache(DSL.using(connection, SQLDialect.MYSQL), heartbeatBuffer, scheduler);
+
+        chargeBoxIdsInDb.addAll(List.of("cb1", "cb2"));
+        idTagsInDb.add("tag1");
+        userPksInDb.add(1);
+        activeTransactionPksInDb.add(10);
+        heartbeats.put("cb1", DateTime.now());
+    }
+
+    @Test
+    public void testReconcile() {
+        cache.reconcile();
+
+        Statistics stats = cache.getStats();
+        Assertions.assertEquals(2, stats.getNumChargeBoxes());
+        Assertions.assertEquals(1, stats.getNumOcppTags());
+        Assertions.assertEquals(1, stats.getNumUsers());
+        Assertions.assertEquals(1, stats.getNumTransactions());
+        Assertions.assertEquals(0, stats.getNumReservations());
+        Assertions.assertEquals(1, stats.getHeartbeatToday());
+        Assertions.assertEquals(0, stats.getHeartbeatYesterday());
+    }
+
+    @Test
+    public void testUpdates() {
+        cache.reconcile();
+
+        cache.chargeBoxesAdded(List.of("cb2", "cb3"));
+        cache.heartbeat("cb2", DateTime.now().minusDays(1));
+        cache.heartbeat("cb3", DateTime.now());
+        cache.heartbeat("unknown", DateTime.now());
+        cache.ocppTagsAdded(List.of("tag1", "tag2"));
+        cache.userAdded(2);
+        cache.userDeleted(1);
+        cache.transactionStarted(11);
+        cache.transactionStarted(12);
+        cache.transactionStopped(10);
+
+        Statistics stats = cache.getStats();
+        Assertions.assertEquals(3, stats.getNumChargeBoxes());
+        Assertions.assertEquals(2, stats.getNumOcppTags());
+        Assertions.assertEquals(1, stats.getNumUsers());
+        Assertions.assertEquals(2, stats.getNumTransactions());
+        Assertions.assertEquals(2, stats.getHeartbeatToday());
+        Assertions.assertEquals(1, stats.getHeartbeatYesterday());
+
+        // a later heartbeat moves the charge box from yesterday to today, but not the other way around
+        cache.heartbeat("cb2", DateTime.now());
+        cache.heartbeat("cb3", DateTime.now().minusDays(1));
+
+        stats = cache.getStats();
+        Assertions.assertEquals(3, stats.getHeartbeatToday());
+        Assertions.assertEquals(0, stats.getHeartbeatYesterday());
+    }
+
+    @Test
+    public void testDeletes() {
+        cache.reconcile();
+
+        cache.chargeBoxDeleted("cb1");
+        cache.ocppTagDeleted("tag1");
+
+        Statistics stats = cache.getStats();
+        Assertions.assertEquals(1, stats.getNumChargeBoxes());
+        Assertions.assertEquals(0, stats.getNumOcppTags());
+        Assertions.assertEquals(0, stats.getHeartbeatToday());
+
+        // the cascaded deletes are corrected by one reload in the background
+        var task = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(scheduler, Mockito.times(1)).schedule(task.capture(), Mockito.any(Instant.class));
+        Assertions.assertEquals(1, reconcileCount);
+
+        activeTransactionPksInDb.clear();
+        task.getValue().run();
+        Assertions.assertEquals(2, reconcileCount);
+        Assertions.assertEquals(0, cache.getStats().getNumTransactions());
+
+        // the next delete requests a new reload
+        cache.chargeBoxDeleted("cb2");
+        Mockito.verify(scheduler, Mockito.times(2)).schedule(Mockito.any(Runnable.class), Mockito.any(Instant.class));
+    }
+
+    @Test
+    public void testUpdatesDuringReconcile() {
+        cache.reconcile();
+
+        duringReconcile = () -> {
+            cache.transactionStarted(11);
+            cache.transactionStopped(10);
+            // in DB already. counted once.
+            cache.ocppTagsAdded(List.of("tag1"));
+            cache.heartbeat("cb2", DateTime.now());
+        };
+        cache.reconcile();
+
+        Statistics stats = cache.getStats();
+        Assertions.assertEquals(1, stats.getNumTransactions());
+        Assertions.assertEquals(1, stats.getNumOcppTags());
+        Assertions.assertEquals(2, stats.getHeartbeatToday());
+
+        // the updates are not buffered anymore after the reload
+        duringReconcile = null;
+        cache.transactionStarted(12);
+        cache.reconcile();
+        Assertions.assertEquals(1, cache.getStats().getNumTransactions());
+    }
+
+    @Test
+    public void testFailedReconcileKeepsNumbers() {
+        cache.reconcile();
+
+        duringReconcile = () -> {
+            cache.transactionStarted(11);
+            throw new IllegalStateException("database is down");
+        };
+        Assertions.assertThrows(RuntimeException.class, () -> cache.reconcile());
+
+        Assertions.assertEquals(2, cache.getStats().getNumTransactions());
+    }
+
+    private static <T> Result<Record> result(List<T> firstValues, Field<T> first, Field<?>... others) {
+        List<Field<?>> fields = new ArrayList<>();
+        fields.add(first);
+        fields.addAll(List.of(others));
+
+        Result<Record> result = CREATE.newResult(fields);
+        for (T value : firstValues) {
+            Record r = CREATE.newRecord(fields.toArray(new Field<?>[0]));
+            r.set(first, value);
+            result.add(r);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @since 17.10.2026
+ */
+public class BootPacingServiceTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    @Test
+    public void testDisabled() {
+        BootPacingService service = new BootPacingService(0, 0, clock::get);
+
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertEquals(0, service.tryAdmit("CP" + i));
+        }
+        Assertions.assertEquals(1000, service.getStats().getAcceptedCount());
+        Assertions.assertEquals(0, service.getStats().getPendingCount());
+    }
+
+    @Test
+    public void testPacing() {
+        // 2 per second, i.e. 20 within the window of 10 seconds
+        BootPacingService service = new BootPacingService(2, 0, clock::get);
+
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertEquals(0, service.tryAdmit("CP" + i));
+        }
+
+        // the slots are 0.5 seconds apart, the intervals are rounded up
+        Assertions.assertEquals(1, service.tryAdmit("CP20"));
+        Assertions.assertEquals(1, service.tryAdmit("CP21"));
+        Assertions.assertEquals(2, service.tryAdmit("CP22"));
+        Assertions.assertEquals(2, service.tryAdmit("CP23"));
+
+        BootPacingService.Stats stats = service.getStats();
+        Assertions.assertEquals(20, stats.getAcceptedCount());
+        Assertions.assertEquals(4, stats.getPendingCount());
+        Assertions.assertEquals(4, stats.getWaitingCount());
+        Assertions.assertEquals(2.0, stats.getAcceptedRate());
+
+        // after the window, new stations are accepted again
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        Assertions.assertEquals(0, service.tryAdmit("CP24"));
+    }
+
+    @Test
+    public void testComeBackAtSlot() {
+        BootPacingService service = new BootPacingService(1, 0, clock::get);
+
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertEquals(0, service.tryAdmit("CP" + i));
+        }
+        Assertions.assertEquals(1, service.tryAdmit("CP10"));
+        Assertions.assertEquals(2, service.tryAdmit("CP11"));
+        Assertions.assertEquals(3, service.tryAdmit("CP12"));
+
+        // too early: keeps the slot
+        Assertions.assertEquals(3, service.tryAdmit("CP12"));
+        Assertions.assertEquals(3, service.getStats().getWaitingCount());
+
+        // at its slot, a station is accepted although the rate is still at the limit
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        Assertions.assertEquals(0, service.tryAdmit("CP10"));
+        Assertions.assertEquals(2, service.getStats().getWaitingCount());
+
+        // a new station queues up behind the others
+        Assertions.assertEquals(3, service.tryAdmit("CP13"));
+    }
+
+    @Test
+    public void testHeartbeatJitter() {
+        BootPacingService service = new BootPacingService(0, 10, clock::get);
+
+        Set<Integer> intervals = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            String chargeBoxId = String.format("CP%04d", i);
+            int interval = service.getHeartbeatInterval(chargeBoxId, 600);
+            Assertions.assertTrue(interval >= 540 && interval <= 660);
+            Assertions.assertEquals(interval, service.getHeartbeatInterval(chargeBoxId, 600));
+            intervals.add(interval);
+        }
+        Assertions.assertEquals(121, intervals.size());
+
+        // no jitter for short intervals
+        Assertions.assertEquals(5, service.getHeartbeatInterval("CP0001", 5));
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.service;
+
+import de.rwth.idsg.steve.repository.OcppTagRepository;
+import jooq.steve.db.tables.records.OcppTagActivityRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+/**
+ * @since 17.10.2026
+ */
+public class OcppTagStateCacheTest {
+
+    private OcppTagRepository repository;
+    private OcppTagStateCache cache;
+
+    @BeforeEach
+    public void init() {
+        repository = Mockito.mock(OcppTagRepository.class);
+        cache = new OcppTagStateCache(repository);
+    }
+
+    @Test
+    public void testKnownIsCached() {
+        Mockito.when(repository.getRecord("tag")).thenReturn(record("tag", 0));
+
+        Assertions.assertNotNull(cache.getRecord("tag"));
+        Assertions.assertNotNull(cache.getRecord("tag"));
+        Mockito.verify(repository, Mockito.times(1)).getRecord("tag");
+
+        cache.invalidate("tag");
+        Assertions.assertNotNull(cache.getRecord("tag"));
+        Mockito.verify(repository, Mockito.times(2)).getRecord("tag");
+    }
+
+    @Test
+    public void testUnknownIsCached() {
+        Assertions.assertNull(cache.getRecord("unknown"));
+        Assertions.assertNull(cache.getRecord("unknown"));
+        Mockito.verify(repository, Mockito.times(1)).getRecord("unknown");
+
+        // e.g. added via the web page
+        Mockito.when(repository.getRecord("unknown")).thenReturn(record("unknown", 0));
+        cache.invalidate(List.of("unknown"));
+        Assertions.assertNotNull(cache.getRecord("unknown"));
+    }
+
+    @Test
+    public void testLoadRecordReadsCurrentCount() {
+        Mockito.when(repository.getRecord("tag")).thenReturn(record("tag", 0));
+        Assertions.assertEquals(0L, cache.getRecord("tag").getActiveTransactionCount().longValue());
+
+        // a transaction was started or stopped in DB
+        Mockito.when(repository.getRecord("tag")).thenReturn(record("tag", 1));
+        Assertions.assertEquals(1L, cache.loadRecord("tag").getActiveTransactionCount().longValue());
+
+        // and the cache is refreshed with it
+        Assertions.assertEquals(1L, cache.getRecord("tag").getActiveTransactionCount().longValue());
+        Mockito.verify(repository, Mockito.times(2)).getRecord("tag");
+    }
+
+    @Test
+    public void testNotCachedIfInvalidatedWhileLoading() {
+        Mockito.when(repository.getRecord("tag")).thenAnswer(invocation -> {
+            // the tag is added concurrently, after the loader read "not found"
+            cache.invalidate("tag");
+            return null;
+        });
+
+        Assertions.assertNull(cache.getRecord("tag"));
+
+        Mockito.when(repository.getRecord("tag")).thenReturn(record("tag", 0));
+        Assertions.assertNotNull(cache.getRecord("tag"));
+    }
+
+    private static OcppTagActivityRecord record(String idTag, long activeTransactionCount) {
+        OcppTagActivityRecord record = new OcppTagActivityRecord();
+        record.setIdTag(idTag);
+        record.setMaxActiveTransactionCount(1);
+        record.setActiveTransactionCount(activeTransactionCount);
+        return record;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.service;
+
+import de.rwth.idsg.steve.repository.dto.TablePartition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * @since 17.10.2026
+ */
+public class RetentionServiceTest {
+
+    private static final YearMonth OCTOBER = YearMonth.of(2026, 10);
+
+    @Test
+    public void testNewPartitionsFromMaxValue() {
+        // none of the coming months exists yet, they are all split off p_future
+        var partitions = List.of(partition("p_initial", OCTOBER), maxValue());
+
+        var newPartitions = RetentionService.planNewPartitions(partitions, OCTOBER);
+
+        Assertions.assertEquals(List.of("p202610", "p202611", "p202612", "p202701"), names(newPartitions));
+        Assertions.assertEquals(epoch(YearMonth.of(2026, 11)), newPartitions.get(0).getUpperBound());
+        Assertions.assertEquals(epoch(YearMonth.of(2027, 2)), newPartitions.get(3).getUpperBound());
+    }
+
+    @Test
+    public void testNewPartitionsUpToDate() {
+        // as created by the migration in October
+        var partitions = List.of(
+            partition("p_initial", OCTOBER),
+            partition("p202610", YearMonth.of(2026, 11)),
+            partition("p202611", YearMonth.of(2026, 12)),
+            partition("p202612", YearMonth.of(2027, 1)),
+            partition("p202701", YearMonth.of(2027, 2)),
+            maxValue()
+        );
+
+        Assertions.assertTrue(RetentionService.planNewPartitions(partitions, OCTOBER).isEmpty());
+        Assertions.assertEquals(List.of("p202702"),
+            names(RetentionService.planNewPartitions(partitions, OCTOBER.plusMonths(1))));
+    }
+
+    @Test
+    public void testExpiredPartitions() {
+        var partitions = List.of(
+            partition("p_initial", YearMonth.of(2026, 7)),
+            partition("p202607", YearMonth.of(2026, 8)),
+            partition("p202608", YearMonth.of(2026, 9)),
+            partition("p202609", OCTOBER),
+            partition("p202610", YearMonth.of(2026, 11)),
+            maxValue()
+        );
+
+        // keep July, August and September in addition to the current month
+        Assertions.assertEquals(List.of("p_initial"),
+            names(RetentionService.planExpiredPartitions(partitions, OCTOBER, 3)));
+
+        // keep September in addition to the current month
+        Assertions.assertEquals(List.of("p_initial", "p202607", "p202608"),
+            names(RetentionService.planExpiredPartitions(partitions, OCTOBER, 1)));
+
+        // keep forever
+        Assertions.assertTrue(RetentionService.planExpiredPartitions(partitions, OCTOBER, 0).isEmpty());
+    }
+
+    private static TablePartition partition(String name, YearMonth upperBound) {
+        return TablePartition.builder().name(name).upperBound(epoch(upperBound)).build();
+    }
+
+    private static TablePartition maxValue() {
+        return TablePartition.builder().name("p_future").build();
+    }
+
+    private static long epoch(YearMonth month) {
+        return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+    }
+
+    private static List<String> names(List<TablePartition> partitions) {
+        return partitions.stream().map(TablePartition::getName).toList();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @since 17.10.2026
+ */
+public class StationDispatchLimiterTest {
+
+    private static final long INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    @Test
+    public void testDisabled() {
+        StationDispatchLimiter limiter = new StationDispatchLimiter(0, clock::get);
+
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertEquals(0, limiter.reserve("cb-1"));
+        }
+        Assertions.assertEquals(0, limiter.getStationCount());
+    }
+
+    @Test
+    public void testSameStation() {
+        StationDispatchLimiter limiter = new StationDispatchLimiter(500, clock::get);
+
+        // e.g. three tasks are sent to the same station at the same time
+        Assertions.assertEquals(0, limiter.reserve("cb-1"));
+        Assertions.assertEquals(INTERVAL_NANOS, limiter.reserve("cb-1"));
+        Assertions.assertEquals(2 * INTERVAL_NANOS, limiter.reserve("cb-1"));
+
+        // the wait shrinks with the time
+        clock.addAndGet(INTERVAL_NANOS);
+        Assertions.assertEquals(2 * INTERVAL_NANOS, limiter.reserve("cb-1"));
+
+        // all slots are in the past
+        clock.addAndGet(10 * INTERVAL_NANOS);
+        Assertions.assertEquals(0, limiter.reserve("cb-1"));
+    }
+
+    @Test
+    public void testOtherStationsAreNotAffected() {
+        StationDispatchLimiter limiter = new StationDispatchLimiter(500, clock::get);
+
+        Assertions.assertEquals(0, limiter.reserve("cb-1"));
+        Assertions.assertEquals(INTERVAL_NANOS, limiter.reserve("cb-1"));
+
+        for (int i = 2; i < 100; i++) {
+            Assertions.assertEquals(0, limiter.reserve("cb-" + i));
+        }
+    }
+
+    @Test
+    public void testCleanup() {
+        StationDispatchLimiter limiter = new StationDispatchLimiter(500, clock::get);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.reserve("cb-" + i);
+        }
+        Assertions.assertEquals(100, limiter.getStationCount());
+
+        // the next reservation after a minute drops the past slots
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        Assertions.assertEquals(0, limiter.reserve("cb-0"));
+        Assertions.assertEquals(1, limiter.getStationCount());
+    }
+}
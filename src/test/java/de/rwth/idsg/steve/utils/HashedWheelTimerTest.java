@@ -0,0 +1,86 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @since 17.10.2026
+ */
+public class HashedWheelTimerTest {
+
+    private HashedWheelTimer timer;
+
+    @BeforeEach
+    public void init() {
+        // small wheel, such that the timeouts below need more than one round
+        timer = new HashedWheelTimer("test", 10, TimeUnit.MILLISECONDS, 4);
+    }
+
+    @AfterEach
+    public void destroy() {
+        timer.stop();
+    }
+
+    @Test
+    public void testExpire() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        HashedWheelTimer.Timeout timeout = timer.newTimeout(latch::countDown, 100, TimeUnit.MILLISECONDS);
+
+        Assertions.assertTrue(latch.await(2, TimeUnit.SECONDS));
+        Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        Assertions.assertTrue(timeout.isExpired());
+        Assertions.assertFalse(timeout.cancel());
+        Assertions.assertEquals(0, timer.getPendingCount());
+        Assertions.assertEquals(1, timer.getExpiredCount());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+
+        HashedWheelTimer.Timeout timeout = timer.newTimeout(counter::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+        Assertions.assertEquals(1, timer.getPendingCount());
+        Assertions.assertTrue(timeout.cancel());
+        Assertions.assertFalse(timeout.cancel());
+        Assertions.assertEquals(0, timer.getPendingCount());
+
+        Thread.sleep(200);
+
+        Assertions.assertEquals(0, counter.get());
+        Assertions.assertFalse(timeout.isExpired());
+        Assertions.assertEquals(0, timer.getExpiredCount());
+    }
+
+    @Test
+    public void testStopped() {
+        timer.stop();
+        Assertions.assertThrows(IllegalStateException.class,
+            () -> timer.newTimeout(() -> { }, 1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * SteVe - SteckdosenVerwaltung - https://github.com/steve-community/steve
+ * Copyright (C) 2013-2025 SteVe Community Team
+ * All Rights Reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.rwth.idsg.steve.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @since 17.10.2026
+ */
+public class TokenBucketTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    @Test
+    public void testBurst() {
+        TokenBucket bucket = new TokenBucket(10, 5, clock::get);
+
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertEquals(0, bucket.tryAcquire());
+        }
+
+        // empty. the next token is available after 1/10 second
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.tryAcquire());
+    }
+
+    @Test
+    public void testRefill() {
+        TokenBucket bucket = new TokenBucket(10, 2, clock::get);
+
+        Assertions.assertEquals(0, bucket.tryAcquire());
+        Assertions.assertEquals(0, bucket.tryAcquire());
+        Assertions.assertTrue(bucket.tryAcquire() > 0);
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(50), bucket.tryAcquire());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+        Assertions.assertEquals(0, bucket.tryAcquire());
+        Assertions.assertTrue(bucket.tryAcquire() > 0);
+    }
+
+    @Test
+    public void testIdleDoesNotExceedBurst() {
+        TokenBucket bucket = new TokenBucket(10, 3, clock::get);
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(0, bucket.tryAcquire());
+        }
+        Assertions.assertTrue(bucket.tryAcquire() > 0);
+    }
+}
@@ -20,6 +20,7 @@ package de.rwth.idsg.steve.utils;
 
 import com.google.common.collect.Sets;
 import de.rwth.idsg.steve.config.BeanConfiguration;
+import de.rwth.idsg.steve.config.DelegatingTaskScheduler;
 import de.rwth.idsg.steve.repository.dto.ChargePoint;
 import de.rwth.idsg.steve.repository.dto.ConnectorStatus;
 import de.rwth.idsg.steve.repository.dto.InsertReservationParams;
@@ -27,9 +28,13 @@ import de.rwth.idsg.steve.repository.dto.Reservation;
 import de.rwth.idsg.steve.repository.dto.Transaction;
 import de.rwth.idsg.steve.repository.dto.TransactionDetails;
 import de.rwth.idsg.steve.repository.impl.AddressRepositoryImpl;
+import de.rwth.idsg.steve.repository.impl.ChargeBoxHeartbeatBuffer;
 import de.rwth.idsg.steve.repository.impl.ChargePointRepositoryImpl;
+import de.rwth.idsg.steve.repository.impl.ConnectorPkCache;
 import de.rwth.idsg.steve.repository.impl.OcppTagRepositoryImpl;
+import de.rwth.idsg.steve.repository.impl.RegistrationStatusCache;
 import de.rwth.idsg.steve.repository.impl.ReservationRepositoryImpl;
+import de.rwth.idsg.steve.repository.impl.StatisticsCache;
 import de.rwth.idsg.steve.repository.impl.TransactionRepositoryImpl;
 import de.rwth.idsg.steve.web.dto.ReservationQueryForm;
 import de.rwth.idsg.steve.web.dto.TransactionQueryForm;
@@ -44,6 +49,7 @@ import org.jooq.DSLContext;
 import org.jooq.Schema;
 import org.jooq.Table;
 import org.jooq.impl.DSL;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
 
 import java.util.Arrays;
 import java.util.List;
@@ -74,6 +80,10 @@ public class __DatabasePreparer__ {
     private static final BeanConfiguration beanConfiguration = new BeanConfiguration();
     private static final DSLContext dslContext = beanConfiguration.dslContext(beanConfiguration.dataSource());
 
+    // for the reload of the statistics after a delete
+    private static final DelegatingTaskScheduler taskScheduler =
+        new DelegatingTaskScheduler(new SimpleAsyncTaskScheduler());
+
     public static void prepare() {
         runOperation(ctx -> {
             truncateTables(ctx);
@@ -83,7 +93,7 @@ public class __DatabasePreparer__ {
     }
 
     public static int makeReservation(int connectorId) {
-        ReservationRepositoryImpl r = new ReservationRepositoryImpl(dslContext);
+        ReservationRepositoryImpl r = new ReservationRepositoryImpl(dslContext, statisticsCache());
         InsertReservationParams params = InsertReservationParams.builder()
                                                                 .chargeBoxId(REGISTERED_CHARGE_BOX_ID)
                                                                 .idTag(REGISTERED_OCPP_TAG)
@@ -120,12 +130,12 @@ public class __DatabasePreparer__ {
     }
 
     public static List<Reservation> getReservations() {
-        ReservationRepositoryImpl impl = new ReservationRepositoryImpl(dslContext);
+        ReservationRepositoryImpl impl = new ReservationRepositoryImpl(dslContext, statisticsCache());
         return impl.getReservations(new ReservationQueryForm());
     }
 
     public static List<ConnectorStatus> getChargePointConnectorStatus() {
-        ChargePointRepositoryImpl impl = new ChargePointRepositoryImpl(dslContext, new AddressRepositoryImpl());
+        ChargePointRepositoryImpl impl = chargePointRepository();
         return impl.getChargePointConnectorStatus();
     }
 
@@ -135,17 +145,39 @@ public class __DatabasePreparer__ {
     }
 
     public static OcppTagActivityRecord getOcppTagRecord(String idTag) {
-        OcppTagRepositoryImpl impl = new OcppTagRepositoryImpl(dslContext);
+        OcppTagRepositoryImpl impl = new OcppTagRepositoryImpl(dslContext, statisticsCache());
         return impl.getRecord(idTag);
     }
 
     public static ChargePoint.Details getCBDetails(String chargeboxID) {
-        ChargePointRepositoryImpl impl = new ChargePointRepositoryImpl(dslContext, new AddressRepositoryImpl());
+        ChargePointRepositoryImpl impl = chargePointRepository();
         Map<String, Integer> pkMap = impl.getChargeBoxIdPkPair(Arrays.asList(chargeboxID));
         int pk = pkMap.get(chargeboxID);
         return impl.getDetails(pk);
     }
 
+    /**
+     * Deletes the charge box the way the web page does it, i.e. with everything that belongs to it
+     */
+    public static void deleteChargePoint(String chargeBoxId) {
+        ChargePointRepositoryImpl impl = chargePointRepository();
+        int pk = impl.getChargeBoxIdPkPair(List.of(chargeBoxId)).get(chargeBoxId);
+        impl.deleteChargePoint(pk);
+    }
+
+    private static ChargePointRepositoryImpl chargePointRepository() {
+        return new ChargePointRepositoryImpl(dslContext, new AddressRepositoryImpl(),
+            new ChargeBoxHeartbeatBuffer(dslContext, null), new ConnectorPkCache(dslContext), statisticsCache(),
+            new RegistrationStatusCache());
+    }
+
+    /**
+     * Not initialized (no reconcile with DB), since the tests do not read the statistics
+     */
+    private static StatisticsCache statisticsCache() {
+        return new StatisticsCache(dslContext, new ChargeBoxHeartbeatBuffer(dslContext, null), taskScheduler);
+    }
+
     private static void runOperation(Consumer<DSLContext> consumer) {
         consumer.accept(dslContext);
     }
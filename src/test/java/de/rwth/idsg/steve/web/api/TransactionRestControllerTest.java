@@ -36,12 +36,14 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -61,7 +63,7 @@ public class TransactionRestControllerTest extends AbstractControllerTest {
 
     @BeforeEach
     public void setup() {
-        mockMvc = MockMvcBuilders.standaloneSetup(new TransactionsRestController(transactionRepository))
+        mockMvc = MockMvcBuilders.standaloneSetup(new TransactionsRestController(transactionRepository, objectMapper))
             .setControllerAdvice(new ApiControllerAdvice())
             .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper))
             .alwaysExpect(content().contentType("application/json"))
@@ -75,7 +77,7 @@ public class TransactionRestControllerTest extends AbstractControllerTest {
         List<Transaction> results = Collections.emptyList();
 
         // when
-        when(transactionRepository.getTransactions(any())).thenReturn(results);
+        givenTransactions(results);
 
         // then
         mockMvc.perform(get("/api/v1/transactions"))
@@ -90,7 +92,7 @@ public class TransactionRestControllerTest extends AbstractControllerTest {
         List<Transaction> results = List.of(Transaction.builder().id(234).build());
 
         // when
-        when(transactionRepository.getTransactions(any())).thenReturn(results);
+        givenTransactions(results);
 
         // then
         mockMvc.perform(get("/api/v1/transactions"))
@@ -104,7 +106,7 @@ public class TransactionRestControllerTest extends AbstractControllerTest {
     @DisplayName("Downstream bean throws exception, expected 500")
     public void test3() throws Exception {
         // when
-        when(transactionRepository.getTransactions(any())).thenThrow(new RuntimeException("failed"));
+        doThrow(new RuntimeException("failed")).when(transactionRepository).forEachTransaction(any(), any());
 
         // then
         mockMvc.perform(get("/api/v1/transactions"))
@@ -173,7 +175,7 @@ public class TransactionRestControllerTest extends AbstractControllerTest {
             .build();
 
         // when
-        when(transactionRepository.getTransactions(any())).thenReturn(List.of(transaction));
+        givenTransactions(List.of(transaction));
 
         // then
         mockMvc.perform(get("/api/v1/transactions")
@@ -216,14 +218,14 @@ public class TransactionRestControllerTest extends AbstractControllerTest {
         ArgumentCaptor<TransactionQueryForm.TransactionQueryFormForApi> formToCapture = ArgumentCaptor.forClass(TransactionQueryForm.TransactionQueryFormForApi.class);
 
         // when
-        when(transactionRepository.getTransactions(any())).thenReturn(Collections.emptyList());
+        givenTransactions(Collections.emptyList());
 
         // then
         mockMvc.perform(get("/api/v1/transactions")
                 .param("type", "ACTIVE"))
             .andExpect(status().isOk());
 
-        verify(transactionRepository).getTransactions(formToCapture.capture());
+        verify(transactionRepository).forEachTransaction(formToCapture.capture(), any());
         TransactionQueryForm.TransactionQueryFormForApi capturedForm = formToCapture.getValue();
 
         assertEquals(capturedForm.getType(), TransactionQueryForm.QueryType.ACTIVE);
@@ -237,20 +239,63 @@ public class TransactionRestControllerTest extends AbstractControllerTest {
         ArgumentCaptor<TransactionQueryForm.TransactionQueryFormForApi> formToCapture = ArgumentCaptor.forClass(TransactionQueryForm.TransactionQueryFormForApi.class);
 
         // when
-        when(transactionRepository.getTransactions(any())).thenReturn(Collections.emptyList());
+        givenTransactions(Collections.emptyList());
 
         // then
         mockMvc.perform(get("/api/v1/transactions")
                 .param("periodType", "LAST_30"))
             .andExpect(status().isOk());
 
-        verify(transactionRepository).getTransactions(formToCapture.capture());
+        verify(transactionRepository).forEachTransaction(formToCapture.capture(), any());
         TransactionQueryForm.TransactionQueryFormForApi capturedForm = formToCapture.getValue();
 
         assertEquals(capturedForm.getType(), TransactionQueryForm.QueryType.ALL);
         assertEquals(capturedForm.getPeriodType(), TransactionQueryForm.QueryPeriodType.LAST_30);
     }
 
+    @Test
+    @DisplayName("GET all: Query params for keyset pagination are translated correctly")
+    public void test12() throws Exception {
+        // given
+        ArgumentCaptor<TransactionQueryForm.TransactionQueryFormForApi> formToCapture = ArgumentCaptor.forClass(TransactionQueryForm.TransactionQueryFormForApi.class);
+
+        // when
+        givenTransactions(List.of(Transaction.builder().id(99).build(), Transaction.builder().id(98).build()));
+
+        // then
+        mockMvc.perform(get("/api/v1/transactions")
+                .param("afterTransactionPk", "100")
+                .param("limit", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[0].id").value("99"))
+            .andExpect(jsonPath("$[1].id").value("98"));
+
+        verify(transactionRepository).forEachTransaction(formToCapture.capture(), any());
+        TransactionQueryForm.TransactionQueryFormForApi capturedForm = formToCapture.getValue();
+
+        assertEquals(capturedForm.getAfterTransactionPk(), 100);
+        assertEquals(capturedForm.getLimit(), 2);
+    }
+
+    @Test
+    @DisplayName("Limit is not positive, expected 400")
+    public void test13() throws Exception {
+        mockMvc.perform(get("/api/v1/transactions")
+                .param("limit", "0")
+            )
+            .andExpect(status().isBadRequest())
+            .andExpectAll(errorJsonMatchers());
+    }
+
+    private void givenTransactions(List<Transaction> results) {
+        doAnswer(invocation -> {
+            Consumer<Transaction> consumer = invocation.getArgument(1);
+            results.forEach(consumer);
+            return null;
+        }).when(transactionRepository).forEachTransaction(any(), any());
+    }
+
     private static ResultMatcher[] errorJsonMatchers() {
         return new ResultMatcher[] {
             jsonPath("$.timestamp").exists(),